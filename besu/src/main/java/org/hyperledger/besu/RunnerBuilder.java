@@ -46,6 +46,7 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.WebSocketService;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.methods.WebSocketMethodsFactory;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.SubscriptionManager;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.blockheaders.NewBlockHeadersSubscriptionService;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml.DamlLogEventsSubscriptionService;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.logs.LogsSubscriptionService;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.pending.PendingTransactionDroppedSubscriptionService;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.pending.PendingTransactionSubscriptionService;
@@ -58,6 +59,7 @@ import org.hyperledger.besu.ethereum.core.PrivacyParameters;
 import org.hyperledger.besu.ethereum.core.Synchronizer;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
 import org.hyperledger.besu.ethereum.p2p.config.DiscoveryConfiguration;
 import org.hyperledger.besu.ethereum.p2p.config.NetworkingConfiguration;
 import org.hyperledger.besu.ethereum.p2p.config.RlpxConfiguration;
@@ -519,6 +521,9 @@ public class RunnerBuilder {
 
       createSyncingSubscriptionService(synchronizer, subscriptionManager);
 
+      createDamlLogEventsSubscriptionService(
+          besuController.getDamlLogIndex(), context.getBlockchain(), subscriptionManager);
+
       webSocketService =
           Optional.of(
               createWebsocketService(
@@ -709,6 +714,13 @@ public class RunnerBuilder {
     new SyncingSubscriptionService(subscriptionManager, synchronizer);
   }
 
+  private void createDamlLogEventsSubscriptionService(
+      final DamlLogIndex damlLogIndex,
+      final Blockchain blockchain,
+      final SubscriptionManager subscriptionManager) {
+    new DamlLogEventsSubscriptionService(subscriptionManager, damlLogIndex, blockchain);
+  }
+
   private void createNewBlockHeadersSubscriptionService(
       final Blockchain blockchain,
       final BlockchainQueries blockchainQueries,
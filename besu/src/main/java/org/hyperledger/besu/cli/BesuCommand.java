@@ -799,6 +799,16 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
       arity = "1")
   private String keyValueStorageName = DEFAULT_KEY_VALUE_STORAGE_NAME;
 
+  @Option(
+      hidden = true,
+      names = {"--Xancient-blocks-depth"},
+      paramLabel = MANDATORY_LONG_FORMAT_HELP,
+      description =
+          "Move canonical blocks older than this many blocks below the chain head out of the "
+              + "key-value storage into flat files, 0 to disable (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private final Long ancientBlocksDepth = 0L;
+
   @Option(
       names = {"--auto-log-bloom-caching-enabled"},
       description = "Enable automatic log bloom caching (default: ${DEFAULT-VALUE})",
@@ -1651,6 +1661,7 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
                     () -> new StorageException("No KeyValueStorageFactory found for key: " + name)))
         .withCommonConfiguration(pluginCommonConfiguration)
         .withMetricsSystem(getMetricsSystem())
+        .withAncientBlocksDepth(ancientBlocksDepth)
         .build();
   }
 
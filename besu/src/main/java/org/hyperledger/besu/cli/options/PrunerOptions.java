@@ -24,6 +24,7 @@ import picocli.CommandLine;
 public class PrunerOptions implements CLIOptions<PrunerConfiguration> {
   private static final String BLOCKS_RETAINED_FLAG = "--Xpruning-blocks-retained";
   private static final String BLOCK_CONFIRMATIONS_FLAG = "--Xpruning-block-confirmations";
+  private static final String MODE_FLAG = "--Xpruning-mode";
 
   @CommandLine.Option(
       names = {BLOCKS_RETAINED_FLAG},
@@ -45,19 +46,31 @@ public class PrunerOptions implements CLIOptions<PrunerConfiguration> {
       arity = "1")
   private long pruningBlockConfirmations = PrunerConfiguration.DEFAULT_PRUNING_BLOCK_CONFIRMATIONS;
 
+  @CommandLine.Option(
+      names = {MODE_FLAG},
+      defaultValue = "MARK_SWEEP",
+      hidden = true,
+      paramLabel = "<MODE>",
+      description =
+          "How unused world state is found, either by periodically marking a recent state (MARK_SWEEP) or by counting references to nodes as they are written (REFERENCE_COUNTING) (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private PrunerConfiguration.Mode pruningMode = PrunerConfiguration.DEFAULT_PRUNING_MODE;
+
   public static PrunerOptions create() {
     return new PrunerOptions();
   }
 
   @Override
   public PrunerConfiguration toDomainObject() {
-    return new PrunerConfiguration(pruningBlockConfirmations, pruningBlocksRetained);
+    return new PrunerConfiguration(
+        pruningBlockConfirmations, pruningBlocksRetained, pruningMode);
   }
 
   public static PrunerOptions fromDomainObject(final PrunerConfiguration prunerConfiguration) {
     final PrunerOptions prunerOptions = new PrunerOptions();
     prunerOptions.pruningBlockConfirmations = prunerConfiguration.getBlockConfirmations();
     prunerOptions.pruningBlocksRetained = prunerConfiguration.getBlocksRetained();
+    prunerOptions.pruningMode = prunerConfiguration.getMode();
     return prunerOptions;
   }
 
@@ -67,6 +80,8 @@ public class PrunerOptions implements CLIOptions<PrunerConfiguration> {
         BLOCKS_RETAINED_FLAG,
         String.valueOf(pruningBlocksRetained),
         BLOCK_CONFIRMATIONS_FLAG,
-        String.valueOf(pruningBlockConfirmations));
+        String.valueOf(pruningBlockConfirmations),
+        MODE_FLAG,
+        pruningMode.name());
   }
 }
@@ -30,6 +30,7 @@ import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManager;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 
 import java.io.Closeable;
@@ -46,6 +47,7 @@ public class BesuController<C> implements java.io.Closeable {
   private static final Logger LOG = LogManager.getLogger();
 
   public static final String DATABASE_PATH = "database";
+  public static final String DAML_PACKAGES_PATH = "daml-packages";
   public static final String CACHE_PATH = "caches";
   private final ProtocolSchedule<C> protocolSchedule;
   private final ProtocolContext<C> protocolContext;
@@ -63,6 +65,7 @@ public class BesuController<C> implements java.io.Closeable {
   private final MiningParameters miningParameters;
   private final PluginServiceFactory additionalPluginServices;
   private final SyncState syncState;
+  private final DamlLogIndex damlLogIndex;
 
   BesuController(
       final ProtocolSchedule<C> protocolSchedule,
@@ -79,7 +82,8 @@ public class BesuController<C> implements java.io.Closeable {
       final JsonRpcMethods additionalJsonRpcMethodsFactory,
       final KeyPair keyPair,
       final List<Closeable> closeables,
-      final PluginServiceFactory additionalPluginServices) {
+      final PluginServiceFactory additionalPluginServices,
+      final DamlLogIndex damlLogIndex) {
     this.protocolSchedule = protocolSchedule;
     this.protocolContext = protocolContext;
     this.ethProtocolManager = ethProtocolManager;
@@ -95,6 +99,7 @@ public class BesuController<C> implements java.io.Closeable {
     this.closeables = closeables;
     this.miningParameters = miningParameters;
     this.additionalPluginServices = additionalPluginServices;
+    this.damlLogIndex = damlLogIndex;
   }
 
   public ProtocolContext<C> getProtocolContext() {
@@ -167,6 +172,10 @@ public class BesuController<C> implements java.io.Closeable {
     return additionalPluginServices;
   }
 
+  public DamlLogIndex getDamlLogIndex() {
+    return damlLogIndex;
+  }
+
   public static class Builder {
 
     public BesuControllerBuilder<?> fromEthNetworkConfig(final EthNetworkConfig ethNetworkConfig) {
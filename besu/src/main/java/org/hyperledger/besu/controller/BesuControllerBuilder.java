@@ -20,6 +20,8 @@ import static org.hyperledger.besu.crypto.KeyPairUtil.loadKeyPair;
 import org.hyperledger.besu.config.GenesisConfigFile;
 import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
 import org.hyperledger.besu.ethereum.ProtocolContext;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods.JsonRpcMethod;
+import org.hyperledger.besu.ethereum.api.jsonrpc.methods.DamlJsonRpcMethods;
 import org.hyperledger.besu.ethereum.api.jsonrpc.methods.JsonRpcMethods;
 import org.hyperledger.besu.ethereum.blockcreation.MiningCoordinator;
 import org.hyperledger.besu.ethereum.chain.Blockchain;
@@ -44,12 +46,17 @@ import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolConfiguration;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolFactory;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlPackageCache;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.storage.keyvalue.AncientBlockMigrator;
 import org.hyperledger.besu.ethereum.worldstate.MarkSweepPruner;
 import org.hyperledger.besu.ethereum.worldstate.Pruner;
 import org.hyperledger.besu.ethereum.worldstate.PrunerConfiguration;
+import org.hyperledger.besu.ethereum.worldstate.ReferenceCountingPruner;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.ethereum.worldstate.WorldStatePruner;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
 
 import java.io.Closeable;
@@ -60,6 +67,7 @@ import java.nio.file.Path;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -208,6 +216,12 @@ public abstract class BesuControllerBuilder<C> {
 
     prepForBuild();
 
+    DamlPackageCache.getInstance()
+        .start(
+            dataDirectory
+                .resolve(BesuController.CACHE_PATH)
+                .resolve(BesuController.DAML_PACKAGES_PATH));
+
     final ProtocolSchedule<C> protocolSchedule = createProtocolSchedule();
     final GenesisState genesisState = GenesisState.fromConfig(genesisConfig, protocolSchedule);
     final ProtocolContext<C> protocolContext =
@@ -221,11 +235,20 @@ public abstract class BesuControllerBuilder<C> {
 
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
 
-    Optional<Pruner> maybePruner = Optional.empty();
+    Optional<WorldStatePruner> maybePruner = Optional.empty();
     if (isPruningEnabled) {
       if (!storageProvider.isWorldStateIterable()) {
         LOG.warn(
             "Cannot enable pruning with current database version. Disabling. Resync to get the latest database version or disable pruning explicitly on the command line to remove this warning.");
+      } else if (prunerConfiguration.getMode() == PrunerConfiguration.Mode.REFERENCE_COUNTING) {
+        maybePruner =
+            Optional.of(
+                new ReferenceCountingPruner(
+                    protocolContext.getWorldStateArchive().getWorldStateStorage(),
+                    blockchain,
+                    storageProvider.createPruningStorage(),
+                    metricsSystem,
+                    prunerConfiguration));
       } else {
         maybePruner =
             Optional.of(
@@ -286,10 +309,29 @@ public abstract class BesuControllerBuilder<C> {
     final SubProtocolConfiguration subProtocolConfiguration =
         createSubProtocolConfiguration(ethProtocolManager);
 
-    final JsonRpcMethods additionalJsonRpcMethodFactory =
+    final DamlLogIndex damlLogIndex =
+        new DamlLogIndex(storageProvider.createDamlLogIndexStorage());
+    blockchain.observeBlockAdded(damlLogIndex);
+    damlLogIndex.startCatchUp(blockchain);
+
+    final Optional<AncientBlockMigrator> ancientBlockMigrator =
+        storageProvider.createAncientBlockMigrator(protocolSchedule);
+    ancientBlockMigrator.ifPresent(blockchain::observeBlockAdded);
+
+    final JsonRpcMethods consensusJsonRpcMethodFactory =
         createAdditionalJsonRpcMethodFactory(protocolContext);
+    final JsonRpcMethods damlJsonRpcMethodFactory = new DamlJsonRpcMethods(damlLogIndex);
+    final JsonRpcMethods additionalJsonRpcMethodFactory =
+        apis -> {
+          final Map<String, JsonRpcMethod> methods =
+              new HashMap<>(consensusJsonRpcMethodFactory.create(apis));
+          methods.putAll(damlJsonRpcMethodFactory.create(apis));
+          return methods;
+        };
 
     List<Closeable> closeables = new ArrayList<>();
+    // Stop moving blocks before the storage they are moved between is closed
+    ancientBlockMigrator.ifPresent(closeables::add);
     closeables.add(storageProvider);
     if (privacyParameters.getPrivateStorageProvider() != null) {
       closeables.add(privacyParameters.getPrivateStorageProvider());
@@ -310,7 +352,8 @@ public abstract class BesuControllerBuilder<C> {
         additionalJsonRpcMethodFactory,
         nodeKeys,
         closeables,
-        additionalPluginServices);
+        additionalPluginServices,
+        damlLogIndex);
   }
 
   protected void prepForBuild() {}
@@ -25,7 +25,7 @@ public class PrunerOptionsTest extends AbstractCLIOptionsTest<PrunerConfiguratio
 
   @Override
   PrunerConfiguration createCustomizedDomainObject() {
-    return new PrunerConfiguration(4, 10);
+    return new PrunerConfiguration(4, 10, PrunerConfiguration.Mode.REFERENCE_COUNTING);
   }
 
   @Override
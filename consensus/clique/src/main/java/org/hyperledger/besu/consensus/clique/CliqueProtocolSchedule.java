@@ -28,6 +28,8 @@ import org.hyperledger.besu.ethereum.mainnet.MainnetBlockImporter;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolScheduleBuilder;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSpecBuilder;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 
 import java.math.BigInteger;
 
@@ -40,7 +42,8 @@ public class CliqueProtocolSchedule {
       final GenesisConfigOptions config,
       final KeyPair nodeKeys,
       final PrivacyParameters privacyParameters,
-      final boolean isRevertReasonEnabled) {
+      final boolean isRevertReasonEnabled,
+      final MetricsSystem metricsSystem) {
 
     final CliqueConfigOptions cliqueConfig = config.getCliqueConfigOptions();
 
@@ -54,10 +57,20 @@ public class CliqueProtocolSchedule {
                 applyCliqueSpecificModifications(
                     epochManager, cliqueConfig.getBlockPeriodSeconds(), localNodeAddress, builder),
             privacyParameters,
-            isRevertReasonEnabled)
+            isRevertReasonEnabled,
+            metricsSystem)
         .createProtocolSchedule();
   }
 
+  public static ProtocolSchedule<CliqueContext> create(
+      final GenesisConfigOptions config,
+      final KeyPair nodeKeys,
+      final PrivacyParameters privacyParameters,
+      final boolean isRevertReasonEnabled) {
+    return create(
+        config, nodeKeys, privacyParameters, isRevertReasonEnabled, new NoOpMetricsSystem());
+  }
+
   public static ProtocolSchedule<CliqueContext> create(
       final GenesisConfigOptions config,
       final KeyPair nodeKeys,
@@ -33,10 +33,10 @@ import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.LogTopic;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
-import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Synchronizer;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.eth.EthProtocol;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.TransactionValidator.TransactionInvalidReason;
@@ -181,12 +181,10 @@ public class GraphQLDataFetchers {
       final Address addr = dataFetchingEnvironment.getArgument("address");
       final Long bn = dataFetchingEnvironment.getArgument("blockNumber");
       if (bn != null) {
-        final Optional<MutableWorldState> ws = blockchainQuery.getWorldState(bn);
-        if (ws.isPresent()) {
-          final Account account = ws.get().get(addr);
-          Preconditions.checkArgument(
-              account != null, "Account with address %s does not exist", addr);
-          return Optional.of(new AccountAdapter(account));
+        final Optional<AccountAdapter> account =
+            blockchainQuery.mapWorldState(bn, ws -> getAccountAdapter(ws, addr));
+        if (account.isPresent()) {
+          return account;
         } else if (bn > blockchainQuery.getBlockchain().getChainHeadBlockNumber()) {
           // block is past chainhead
           throw new GraphQLException(GraphQLError.INVALID_PARAMS);
@@ -197,19 +195,17 @@ public class GraphQLDataFetchers {
       } else {
         // return account on latest block
         final long latestBn = blockchainQuery.latestBlock().get().getHeader().getNumber();
-        final Optional<MutableWorldState> ows = blockchainQuery.getWorldState(latestBn);
-        return ows.flatMap(
-                ws -> {
-                  Account account = ws.get(addr);
-                  Preconditions.checkArgument(
-                      account != null, "Account with address %s does not exist", addr);
-                  return Optional.ofNullable(account);
-                })
-            .map(AccountAdapter::new);
+        return blockchainQuery.mapWorldState(latestBn, ws -> getAccountAdapter(ws, addr));
       }
     };
   }
 
+  private static AccountAdapter getAccountAdapter(final WorldState ws, final Address addr) {
+    final Account account = ws.get(addr);
+    Preconditions.checkArgument(account != null, "Account with address %s does not exist", addr);
+    return new AccountAdapter(account, ws.rootHash());
+  }
+
   DataFetcher<Optional<List<LogAdapter>>> getLogsDataFetcher() {
     return dataFetchingEnvironment -> {
       final BlockchainQueries blockchainQuery =
@@ -16,6 +16,7 @@ package org.hyperledger.besu.ethereum.api.graphql.internal.pojoadapter;
 
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.Wei;
 
 import java.util.Optional;
@@ -25,32 +26,50 @@ import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
+/**
+ * An account of a world state. The balance and nonce are taken when the adapter is created, the
+ * code and storage are read on demand from a snapshot of the world state, as the adapter outlives
+ * the world state it was created from.
+ */
 @SuppressWarnings("unused") // reflected by GraphQL
 public class AccountAdapter extends AdapterBase {
-  private final Account account;
+  private final Address address;
+  private final Wei balance;
+  private final long nonce;
+  private final Hash stateRoot;
 
-  public AccountAdapter(final Account account) {
-    this.account = account;
+  public AccountAdapter(final Account account, final Hash stateRoot) {
+    this.address = account.getAddress();
+    this.balance = account.getBalance();
+    this.nonce = account.getNonce();
+    this.stateRoot = stateRoot;
   }
 
   public Optional<Address> getAddress() {
-    return Optional.of(account.getAddress());
+    return Optional.of(address);
   }
 
   public Optional<Wei> getBalance() {
-    return Optional.of(account.getBalance());
+    return Optional.of(balance);
   }
 
   public Optional<Long> getTransactionCount() {
-    return Optional.of(account.getNonce());
+    return Optional.of(nonce);
   }
 
-  public Optional<Bytes> getCode() {
-    return Optional.of(account.getCode());
+  public Optional<Bytes> getCode(final DataFetchingEnvironment environment) {
+    return getBlockchainQueries(environment)
+        .getWorldStateArchive()
+        .mapWorldState(stateRoot, worldState -> worldState.get(address).getCode());
   }
 
   public Optional<Bytes32> getStorage(final DataFetchingEnvironment environment) {
     final Bytes32 slot = environment.getArgument("slot");
-    return Optional.of(account.getStorageValue(UInt256.fromBytes(slot)).toBytes());
+    return getBlockchainQueries(environment)
+        .getWorldStateArchive()
+        .mapWorldState(
+            stateRoot,
+            worldState -> worldState.get(address).getStorageValue(UInt256.fromBytes(slot)))
+        .map(UInt256::toBytes);
   }
 }
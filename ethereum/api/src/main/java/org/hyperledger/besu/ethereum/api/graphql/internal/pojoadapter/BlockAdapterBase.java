@@ -26,7 +26,6 @@ import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.LogTopic;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
 import org.hyperledger.besu.ethereum.core.Wei;
-import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.transaction.CallParameter;
 import org.hyperledger.besu.ethereum.transaction.TransactionSimulator;
@@ -91,8 +90,8 @@ public class BlockAdapterBase extends AdapterBase {
     if (bn != null) {
       blockNumber = bn;
     }
-    return Optional.of(
-        new AccountAdapter(query.getWorldState(blockNumber).get().get(header.getCoinbase())));
+    return query.mapWorldState(
+        blockNumber, ws -> new AccountAdapter(ws.get(header.getCoinbase()), ws.rootHash()));
   }
 
   public Optional<Bytes> getExtraData() {
@@ -136,13 +135,8 @@ public class BlockAdapterBase extends AdapterBase {
 
     final BlockchainQueries query = getBlockchainQueries(environment);
     final long bn = header.getNumber();
-    final WorldState ws = query.getWorldState(bn).get();
-
-    if (ws != null) {
-      final Address addr = environment.getArgument("address");
-      return Optional.of(new AccountAdapter(ws.get(addr)));
-    }
-    return Optional.empty();
+    final Address addr = environment.getArgument("address");
+    return query.mapWorldState(bn, ws -> new AccountAdapter(ws.get(addr), ws.rootHash()));
   }
 
   public List<LogAdapter> getLogs(final DataFetchingEnvironment environment) {
@@ -63,8 +63,7 @@ public class LogAdapter extends AdapterBase {
       blockNumber = bn;
     }
 
-    return query
-        .getWorldState(blockNumber)
-        .map(ws -> new AccountAdapter(ws.get(logWithMetadata.getLogger())));
+    return query.mapWorldState(
+        blockNumber, ws -> new AccountAdapter(ws.get(logWithMetadata.getLogger()), ws.rootHash()));
   }
 }
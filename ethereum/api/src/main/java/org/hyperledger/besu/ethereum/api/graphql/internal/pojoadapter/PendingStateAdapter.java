@@ -18,7 +18,6 @@ import org.hyperledger.besu.ethereum.api.graphql.GraphQLDataFetcherContext;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.api.query.TransactionWithMetadata;
 import org.hyperledger.besu.ethereum.core.Address;
-import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.eth.transactions.PendingTransactions;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
@@ -29,6 +28,7 @@ import org.hyperledger.besu.ethereum.transaction.TransactionSimulatorResult;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import graphql.schema.DataFetchingEnvironment;
@@ -65,11 +65,13 @@ public class PendingStateAdapter extends AdapterBase {
     final Address addr = dataFetchingEnvironment.getArgument("address");
     final Long blockNumber = dataFetchingEnvironment.getArgument("blockNumber");
     final long latestBlockNumber = blockchainQuery.latestBlock().get().getHeader().getNumber();
-    final Optional<MutableWorldState> optionalWorldState =
-        blockchainQuery.getWorldState(latestBlockNumber);
-    return optionalWorldState
-        .flatMap(worldState -> Optional.ofNullable(worldState.get(addr)))
-        .map(AccountAdapter::new);
+    return blockchainQuery
+        .mapWorldState(
+            latestBlockNumber,
+            worldState ->
+                Optional.ofNullable(worldState.get(addr))
+                    .map(account -> new AccountAdapter(account, worldState.rootHash())))
+        .flatMap(Function.identity());
   }
 
   // until the miner can expose the current "proposed block" we have no
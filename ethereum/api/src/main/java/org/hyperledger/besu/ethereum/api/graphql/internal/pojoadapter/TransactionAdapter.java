@@ -20,7 +20,6 @@ import org.hyperledger.besu.ethereum.api.query.TransactionWithMetadata;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
-import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import org.hyperledger.besu.ethereum.core.Wei;
@@ -28,6 +27,7 @@ import org.hyperledger.besu.ethereum.core.Wei;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import graphql.schema.DataFetchingEnvironment;
 import org.apache.tuweni.bytes.Bytes;
@@ -60,12 +60,11 @@ public class TransactionAdapter extends AdapterBase {
     if (!txBlockNumber.isPresent() && !bn.isPresent()) {
       return Optional.empty();
     }
-    return query
-        .getWorldState(bn.orElseGet(txBlockNumber::get))
-        .map(
-            mutableWorldState ->
-                new AccountAdapter(
-                    mutableWorldState.get(transactionWithMetadata.getTransaction().getSender())));
+    return query.mapWorldState(
+        bn.orElseGet(txBlockNumber::get),
+        ws ->
+            new AccountAdapter(
+                ws.get(transactionWithMetadata.getTransaction().getSender()), ws.rootHash()));
   }
 
   public Optional<AccountAdapter> getTo(final DataFetchingEnvironment environment) {
@@ -77,13 +76,14 @@ public class TransactionAdapter extends AdapterBase {
     }
 
     return query
-        .getWorldState(bn.orElseGet(txBlockNumber::get))
-        .flatMap(
+        .mapWorldState(
+            bn.orElseGet(txBlockNumber::get),
             ws ->
                 transactionWithMetadata
                     .getTransaction()
                     .getTo()
-                    .map(addr -> new AccountAdapter(ws.get(addr))));
+                    .map(addr -> new AccountAdapter(ws.get(addr), ws.rootHash())))
+        .flatMap(Function.identity());
   }
 
   public Optional<Wei> getValue() {
@@ -155,10 +155,8 @@ public class TransactionAdapter extends AdapterBase {
         }
         final long blockNumber = bn.orElseGet(txBlockNumber::get);
 
-        final Optional<MutableWorldState> ws = query.getWorldState(blockNumber);
-        if (ws.isPresent()) {
-          return Optional.of(new AccountAdapter(ws.get().get(addr.get())));
-        }
+        return query.mapWorldState(
+            blockNumber, ws -> new AccountAdapter(ws.get(addr.get()), ws.rootHash()));
       }
     }
     return Optional.empty();
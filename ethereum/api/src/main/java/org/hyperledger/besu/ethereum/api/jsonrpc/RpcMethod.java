@@ -30,6 +30,7 @@ public enum RpcMethod {
   CLIQUE_GET_PROPOSALS("clique_proposals"),
   CLIQUE_PROPOSE("clique_propose"),
   CLIQUE_GET_SIGNER_METRICS("clique_getSignerMetrics"),
+  DAML_GET_LOG_ENTRIES("daml_getLogEntries"),
   DEBUG_METRICS("debug_metrics"),
   DEBUG_STORAGE_RANGE_AT("debug_storageRangeAt"),
   DEBUG_TRACE_BLOCK("debug_traceBlock"),
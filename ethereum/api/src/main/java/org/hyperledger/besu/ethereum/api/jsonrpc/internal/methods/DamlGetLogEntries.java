@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.RpcMethod;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.UnsignedIntParameter;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.UnsignedLongParameter;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcError;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcErrorResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSuccessResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.DamlLogEntriesResult;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogEntryLocation;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
+
+import java.util.List;
+
+/**
+ * Returns a page of the DAML log entries on the canonical chain, in ledger offset order, from the
+ * DAML log index.
+ */
+public class DamlGetLogEntries implements JsonRpcMethod {
+
+  public static final int DEFAULT_COUNT = 100;
+  public static final int MAX_COUNT = 1000;
+
+  private final DamlLogIndex damlLogIndex;
+
+  public DamlGetLogEntries(final DamlLogIndex damlLogIndex) {
+    this.damlLogIndex = damlLogIndex;
+  }
+
+  @Override
+  public String getName() {
+    return RpcMethod.DAML_GET_LOG_ENTRIES.getMethodName();
+  }
+
+  @Override
+  public JsonRpcResponse response(final JsonRpcRequestContext requestContext) {
+    final long fromOffset =
+        requestContext.getRequiredParameter(0, UnsignedLongParameter.class).getValue();
+    final int count =
+        requestContext
+            .getOptionalParameter(1, UnsignedIntParameter.class)
+            .map(UnsignedIntParameter::getValue)
+            .orElse(DEFAULT_COUNT);
+    if (count < 1 || count > MAX_COUNT) {
+      return new JsonRpcErrorResponse(
+          requestContext.getRequest().getId(), JsonRpcError.INVALID_PARAMS);
+    }
+
+    final List<DamlLogEntryLocation> entries = damlLogIndex.getEntries(fromOffset, count);
+    final long nextOffset =
+        entries.isEmpty() ? fromOffset : entries.get(entries.size() - 1).getOffset() + 1;
+    return new JsonRpcSuccessResponse(
+        requestContext.getRequest().getId(),
+        new DamlLogEntriesResult(entries, nextOffset, damlLogIndex.getNextOffset()));
+  }
+}
@@ -24,7 +24,6 @@ import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
-import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.WorldState.StreamableAccount;
 
 import java.util.Collections;
@@ -75,17 +74,20 @@ public class DebugAccountRange implements JsonRpcMethod {
 
     // TODO deal with mid-block locations
 
-    final Optional<MutableWorldState> state =
-        blockchainQueries.get().getWorldState(blockHeaderOptional.get().getNumber());
-
-    if (state.isEmpty()) {
+    final Optional<List<StreamableAccount>> maybeAccounts =
+        blockchainQueries
+            .get()
+            .mapWorldState(
+                blockHeaderOptional.get().getNumber(),
+                state ->
+                    state
+                        .streamAccounts(Bytes32.fromHexStringLenient(addressHash), maxResults + 1)
+                        .collect(Collectors.toList()));
+
+    if (maybeAccounts.isEmpty()) {
       return emptyResponse(requestContext);
     } else {
-      final List<StreamableAccount> accounts =
-          state
-              .get()
-              .streamAccounts(Bytes32.fromHexStringLenient(addressHash), maxResults + 1)
-              .collect(Collectors.toList());
+      final List<StreamableAccount> accounts = maybeAccounts.get();
       Bytes32 nextKey = Bytes32.ZERO;
       if (accounts.size() == maxResults + 1) {
         nextKey = accounts.get(maxResults).getAddressHash();
@@ -24,7 +24,8 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSucces
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.proof.GetProofResult;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.core.Address;
-import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.proof.WorldStateProof;
 
 import java.util.Arrays;
@@ -65,13 +66,14 @@ public class EthGetProof extends AbstractBlockParameterMethod {
     final Address address = getAddress(requestContext);
     final List<UInt256> storageKeys = getStorageKeys(requestContext);
 
-    final Optional<MutableWorldState> worldState = blockchain.getWorldState(blockNumber);
+    final Optional<Hash> worldStateRoot =
+        blockchain.mapWorldState(blockNumber, WorldState::rootHash);
 
-    if (worldState.isPresent()) {
+    if (worldStateRoot.isPresent()) {
       Optional<WorldStateProof> proofOptional =
           blockchain
               .getWorldStateArchive()
-              .getAccountProof(worldState.get().rootHash(), address, storageKeys);
+              .getAccountProof(worldStateRoot.get(), address, storageKeys);
       return proofOptional
           .map(
               proof ->
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.results;
+
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogEntryLocation;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"entries", "nextOffset", "ledgerEnd"})
+public class DamlLogEntriesResult implements JsonRpcResult {
+
+  private final List<Entry> entries;
+  private final String nextOffset;
+  private final String ledgerEnd;
+
+  public DamlLogEntriesResult(
+      final List<DamlLogEntryLocation> entries, final long nextOffset, final long ledgerEnd) {
+    this.entries = entries.stream().map(Entry::new).collect(Collectors.toList());
+    this.nextOffset = Quantity.create(nextOffset);
+    this.ledgerEnd = Quantity.create(ledgerEnd);
+  }
+
+  @JsonGetter(value = "entries")
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  /** @return the offset to request the next page from */
+  @JsonGetter(value = "nextOffset")
+  public String getNextOffset() {
+    return nextOffset;
+  }
+
+  /** @return the offset the next DAML log entry appended to the chain will get */
+  @JsonGetter(value = "ledgerEnd")
+  public String getLedgerEnd() {
+    return ledgerEnd;
+  }
+
+  @JsonPropertyOrder({
+    "offset",
+    "blockNumber",
+    "blockHash",
+    "transactionIndex",
+    "logIndex",
+    "logEntryId"
+  })
+  public static class Entry {
+    private final String offset;
+    private final String blockNumber;
+    private final String blockHash;
+    private final String transactionIndex;
+    private final String logIndex;
+    private final String logEntryId;
+
+    Entry(final DamlLogEntryLocation location) {
+      this.offset = Quantity.create(location.getOffset());
+      this.blockNumber = Quantity.create(location.getBlockNumber());
+      this.blockHash = location.getBlockHash().toString();
+      this.transactionIndex = Quantity.create(location.getTransactionIndex());
+      this.logIndex = Quantity.create(location.getLogIndex());
+      this.logEntryId = location.getLogEntryId().toString();
+    }
+
+    @JsonGetter(value = "offset")
+    public String getOffset() {
+      return offset;
+    }
+
+    @JsonGetter(value = "blockNumber")
+    public String getBlockNumber() {
+      return blockNumber;
+    }
+
+    @JsonGetter(value = "blockHash")
+    public String getBlockHash() {
+      return blockHash;
+    }
+
+    @JsonGetter(value = "transactionIndex")
+    public String getTransactionIndex() {
+      return transactionIndex;
+    }
+
+    @JsonGetter(value = "logIndex")
+    public String getLogIndex() {
+      return logIndex;
+    }
+
+    @JsonGetter(value = "logEntryId")
+    public String getLogEntryId() {
+      return logEntryId;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.methods;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.RpcApi;
+import org.hyperledger.besu.ethereum.api.jsonrpc.RpcApis;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods.DamlGetLogEntries;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods.JsonRpcMethod;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
+
+import java.util.Map;
+
+public class DamlJsonRpcMethods extends ApiGroupJsonRpcMethods {
+
+  private final DamlLogIndex damlLogIndex;
+
+  public DamlJsonRpcMethods(final DamlLogIndex damlLogIndex) {
+    this.damlLogIndex = damlLogIndex;
+  }
+
+  @Override
+  protected RpcApi getApiGroup() {
+    return RpcApis.DAML;
+  }
+
+  @Override
+  protected Map<String, JsonRpcMethod> create() {
+    return mapOf(new DamlGetLogEntries(damlLogIndex));
+  }
+}
@@ -15,7 +15,9 @@
 package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription;
 
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.blockheaders.NewBlockHeadersSubscription;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml.DamlLogEventsSubscription;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.logs.LogsSubscription;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.DamlLogEventsParam;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.syncing.SyncingSubscription;
@@ -42,6 +44,14 @@ public class SubscriptionBuilder {
               Optional.ofNullable(request.getLogsQuery())
                   .orElseThrow(IllegalArgumentException::new));
         }
+      case DAML_LOG_EVENTS:
+        {
+          return new DamlLogEventsSubscription(
+              subscriptionId,
+              connectionId,
+              Optional.ofNullable(request.getDamlLogEventsParam())
+                  .orElse(DamlLogEventsParam.DEFAULT));
+        }
       case SYNCING:
         {
           return new SyncingSubscription(subscriptionId, connectionId, subscriptionType);
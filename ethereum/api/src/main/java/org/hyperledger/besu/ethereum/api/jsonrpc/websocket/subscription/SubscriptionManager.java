@@ -24,9 +24,11 @@ import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -51,6 +53,8 @@ public class SubscriptionManager extends AbstractVerticle {
   private final AtomicLong subscriptionCounter = new AtomicLong(0);
   private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
   private final SubscriptionBuilder subscriptionBuilder = new SubscriptionBuilder();
+  private final Map<SubscriptionType, List<Runnable>> subscribeObservers =
+      new ConcurrentHashMap<>();
   private final LabelledMetric<Counter> subscribeCounter;
   private final LabelledMetric<Counter> unsubscribeCounter;
 
@@ -82,10 +86,26 @@ public class SubscriptionManager extends AbstractVerticle {
     final Subscription subscription =
         subscriptionBuilder.build(subscriptionId, request.getConnectionId(), request);
     subscriptions.put(subscription.getSubscriptionId(), subscription);
+    subscribeObservers
+        .getOrDefault(request.getSubscriptionType(), Collections.emptyList())
+        .forEach(Runnable::run);
 
     return subscription.getSubscriptionId();
   }
 
+  /**
+   * Observe the creation of subscriptions of a type, e.g. to send them the events they have
+   * missed.
+   *
+   * @param subscriptionType the type of subscription
+   * @param observer called on the subscribing thread after each subscription is created
+   */
+  public void observeSubscribe(final SubscriptionType subscriptionType, final Runnable observer) {
+    subscribeObservers
+        .computeIfAbsent(subscriptionType, type -> new CopyOnWriteArrayList<>())
+        .add(observer);
+  }
+
   public boolean unsubscribe(final UnsubscribeRequest request) {
     final Long subscriptionId = request.getSubscriptionId();
     final String connectionId = request.getConnectionId();
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.JsonRpcResult;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.Quantity;
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.apache.tuweni.bytes.Bytes;
+
+/** A DAML log entry, decoded from the log event emitted by the DAML precompile. */
+@JsonPropertyOrder({
+  "blockNumber",
+  "blockHash",
+  "transactionHash",
+  "logIndex",
+  "logEntryId",
+  "logEntry"
+})
+public class DamlLogEventResult implements JsonRpcResult {
+
+  private final String blockNumber;
+  private final String blockHash;
+  private final String transactionHash;
+  private final String logIndex;
+  private final String logEntryId;
+  private final String logEntry;
+
+  public DamlLogEventResult(
+      final long blockNumber,
+      final Hash blockHash,
+      final Hash transactionHash,
+      final int logIndex,
+      final Bytes logEntryId,
+      final Bytes logEntry) {
+    this.blockNumber = Quantity.create(blockNumber);
+    this.blockHash = blockHash.toString();
+    this.transactionHash = transactionHash.toString();
+    this.logIndex = Quantity.create(logIndex);
+    this.logEntryId = logEntryId.toString();
+    this.logEntry = logEntry.toString();
+  }
+
+  @JsonGetter(value = "blockNumber")
+  public String getBlockNumber() {
+    return blockNumber;
+  }
+
+  @JsonGetter(value = "blockHash")
+  public String getBlockHash() {
+    return blockHash;
+  }
+
+  @JsonGetter(value = "transactionHash")
+  public String getTransactionHash() {
+    return transactionHash;
+  }
+
+  @JsonGetter(value = "logIndex")
+  public String getLogIndex() {
+    return logIndex;
+  }
+
+  @JsonGetter(value = "logEntryId")
+  public String getLogEntryId() {
+    return logEntryId;
+  }
+
+  @JsonGetter(value = "logEntry")
+  public String getLogEntry() {
+    return logEntry;
+  }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.JsonRpcResult;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/** A batch of DAML log entries, in ledger order. */
+public class DamlLogEventsResult implements JsonRpcResult {
+
+  private final List<DamlLogEventResult> events;
+
+  public DamlLogEventsResult(final List<DamlLogEventResult> events) {
+    this.events = events;
+  }
+
+  @JsonValue
+  public List<DamlLogEventResult> getEvents() {
+    return events;
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.Subscription;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.DamlLogEventsParam;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
+
+import java.util.OptionalLong;
+
+public class DamlLogEventsSubscription extends Subscription {
+
+  private final int batchSize;
+  private final OptionalLong fromBlock;
+  private final long fromLogIndex;
+  private OptionalLong nextOffset = OptionalLong.empty();
+
+  public DamlLogEventsSubscription(
+      final Long subscriptionId, final String connectionId, final DamlLogEventsParam param) {
+    super(subscriptionId, connectionId, SubscriptionType.DAML_LOG_EVENTS, Boolean.FALSE);
+    this.batchSize = param.getBatchSize();
+    this.fromBlock = param.getFromBlock();
+    this.fromLogIndex = param.getFromLogIndex();
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * The block the subscription asked to resume from.
+   *
+   * @return the block number, or empty to start with the next imported block
+   */
+  OptionalLong getFromBlock() {
+    return fromBlock;
+  }
+
+  /**
+   * The lowest log index to deliver from the block the subscription resumes from.
+   *
+   * @return the log index
+   */
+  long getFromLogIndex() {
+    return fromLogIndex;
+  }
+
+  /**
+   * The DAML ledger offset of the next entry to deliver.
+   *
+   * @return the offset, or empty until the starting point of the subscription has been indexed
+   */
+  OptionalLong getNextOffset() {
+    return nextOffset;
+  }
+
+  void advanceTo(final long offset) {
+    nextOffset = OptionalLong.of(offset);
+  }
+
+  /**
+   * Move the cursor back to an offset whose entry has been replaced by a chain reorg.
+   *
+   * @param offset the lowest replaced offset
+   */
+  void rewindTo(final long offset) {
+    if (nextOffset.isPresent() && nextOffset.getAsLong() > offset) {
+      nextOffset = OptionalLong.of(offset);
+    }
+  }
+}
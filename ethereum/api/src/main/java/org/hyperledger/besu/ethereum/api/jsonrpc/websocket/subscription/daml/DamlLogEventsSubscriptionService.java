@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.SubscriptionManager;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogEntryLocation;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import com.blockchaintp.besu.daml.protobuf.DamlLogEvent;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Pushes the DAML log entries of the canonical chain to DAML log event subscribers, in ledger
+ * offset order, from the DAML log index.
+ *
+ * <p>Each subscription keeps the offset of the next entry to deliver. It is caught up when it is
+ * created and whenever the index changes, a page of entries at a time, so a subscription that asks
+ * to resume from an older block is replayed without waiting for a new block. When a chain reorg
+ * replaces indexed entries, the cursor is moved back to the first replaced offset and the entries
+ * of the new branch are sent again; subscribers are expected to ignore entries whose log entry id
+ * they have already seen.
+ */
+public class DamlLogEventsSubscriptionService {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int DEFAULT_PAGE_SIZE = 1000;
+
+  private final SubscriptionManager subscriptionManager;
+  private final DamlLogIndex damlLogIndex;
+  private final Blockchain blockchain;
+  private final int pageSize;
+
+  public DamlLogEventsSubscriptionService(
+      final SubscriptionManager subscriptionManager,
+      final DamlLogIndex damlLogIndex,
+      final Blockchain blockchain) {
+    this(subscriptionManager, damlLogIndex, blockchain, DEFAULT_PAGE_SIZE);
+  }
+
+  @VisibleForTesting
+  DamlLogEventsSubscriptionService(
+      final SubscriptionManager subscriptionManager,
+      final DamlLogIndex damlLogIndex,
+      final Blockchain blockchain,
+      final int pageSize) {
+    this.subscriptionManager = subscriptionManager;
+    this.damlLogIndex = damlLogIndex;
+    this.blockchain = blockchain;
+    this.pageSize = pageSize;
+    damlLogIndex.observeIndexed(this::catchUpSubscribers);
+    subscriptionManager.observeSubscribe(
+        SubscriptionType.DAML_LOG_EVENTS, () -> catchUpSubscribers(Long.MAX_VALUE));
+  }
+
+  private void catchUpSubscribers(final long firstNewOffset) {
+    subscriptionManager.notifySubscribersOnWorkerThread(
+        SubscriptionType.DAML_LOG_EVENTS,
+        DamlLogEventsSubscription.class,
+        subscribers -> {
+          boolean behind = false;
+          for (final DamlLogEventsSubscription subscription : subscribers) {
+            behind |= catchUp(subscription, firstNewOffset);
+          }
+          if (behind) {
+            // yield the worker thread between pages
+            catchUpSubscribers(Long.MAX_VALUE);
+          }
+        });
+  }
+
+  // sends the next page of entries to a subscription, returns true if a full page was sent
+  private boolean catchUp(final DamlLogEventsSubscription subscription, final long firstNewOffset) {
+    // notifications may run concurrently on worker threads, the cursor must advance in order
+    synchronized (subscription) {
+      subscription.rewindTo(firstNewOffset);
+      if (subscription.getNextOffset().isEmpty()) {
+        final OptionalLong startOffset =
+            subscription.getFromBlock().isPresent()
+                ? damlLogIndex.getFirstOffset(subscription.getFromBlock().getAsLong())
+                : OptionalLong.of(damlLogIndex.getNextOffset());
+        if (startOffset.isEmpty()) {
+          // the block to resume from has not been indexed yet
+          return false;
+        }
+        subscription.advanceTo(startOffset.getAsLong());
+      }
+
+      final List<DamlLogEntryLocation> entries =
+          damlLogIndex.getEntries(subscription.getNextOffset().getAsLong(), pageSize);
+      final Map<Hash, Optional<BlockLogs>> blocks = new HashMap<>();
+      final List<DamlLogEventResult> batch = new ArrayList<>();
+      for (final DamlLogEntryLocation entry : entries) {
+        final Optional<BlockLogs> blockLogs =
+            blocks.computeIfAbsent(entry.getBlockHash(), this::readBlockLogs);
+        if (blockLogs.isEmpty()) {
+          // the block has left the canonical chain, the index will rewind past it
+          send(subscription, batch);
+          return false;
+        }
+        if (!isBeforeStart(subscription, entry)) {
+          blockLogs.get().toResult(entry).ifPresent(batch::add);
+          if (batch.size() == subscription.getBatchSize()) {
+            send(subscription, batch);
+          }
+        }
+        subscription.advanceTo(entry.getOffset() + 1);
+      }
+      send(subscription, batch);
+      return entries.size() == pageSize;
+    }
+  }
+
+  private static boolean isBeforeStart(
+      final DamlLogEventsSubscription subscription, final DamlLogEntryLocation entry) {
+    return subscription.getFromBlock().isPresent()
+        && entry.getBlockNumber() == subscription.getFromBlock().getAsLong()
+        && entry.getLogIndex() < subscription.getFromLogIndex();
+  }
+
+  private void send(
+      final DamlLogEventsSubscription subscription, final List<DamlLogEventResult> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    subscriptionManager.sendMessage(
+        subscription.getSubscriptionId(), new DamlLogEventsResult(new ArrayList<>(batch)));
+    batch.clear();
+  }
+
+  private Optional<BlockLogs> readBlockLogs(final Hash blockHash) {
+    final Optional<List<TransactionReceipt>> receipts = blockchain.getTxReceipts(blockHash);
+    final Optional<List<Transaction>> transactions =
+        blockchain.getBlockBody(blockHash).map(BlockBody::getTransactions);
+    if (receipts.isEmpty() || transactions.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(new BlockLogs(transactions.get(), receipts.get()));
+  }
+
+  /** The transactions and logs of a block holding DAML log entries. */
+  private static class BlockLogs {
+    private final List<Transaction> transactions;
+    private final List<Log> logs = new ArrayList<>();
+
+    BlockLogs(final List<Transaction> transactions, final List<TransactionReceipt> receipts) {
+      this.transactions = transactions;
+      receipts.forEach(receipt -> logs.addAll(receipt.getLogs()));
+    }
+
+    Optional<DamlLogEventResult> toResult(final DamlLogEntryLocation entry) {
+      try {
+        final DamlLogEvent logEvent =
+            DamlLogEvent.parseFrom(logs.get(entry.getLogIndex()).getData().toArrayUnsafe());
+        return Optional.of(
+            new DamlLogEventResult(
+                entry.getBlockNumber(),
+                entry.getBlockHash(),
+                transactions.get(entry.getTransactionIndex()).getHash(),
+                entry.getLogIndex(),
+                entry.getLogEntryId(),
+                Bytes.wrap(logEvent.getLogEntry().toByteArray())));
+      } catch (final InvalidProtocolBufferException e) {
+        LOG.warn("Skipping undecodable DAML log event in block {}", entry.getBlockNumber(), e);
+        return Optional.empty();
+      }
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.UnsignedLongParameter;
+
+import java.util.Objects;
+import java.util.OptionalLong;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+
+/**
+ * Parameters of a DAML log event subscription. A subscription resumes from {@code fromBlock} and
+ * skips the logs of that block whose index is below {@code fromLogIndex}; without a {@code
+ * fromBlock} it starts with the next imported block. At most {@code batchSize} entries are sent
+ * per message.
+ */
+public class DamlLogEventsParam {
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  public static final DamlLogEventsParam DEFAULT = new DamlLogEventsParam(null, null, null);
+
+  private final OptionalLong fromBlock;
+  private final long fromLogIndex;
+  private final int batchSize;
+
+  @JsonCreator
+  public DamlLogEventsParam(
+      @JsonProperty("fromBlock") final UnsignedLongParameter fromBlock,
+      @JsonProperty("fromLogIndex") final UnsignedLongParameter fromLogIndex,
+      @JsonProperty("batchSize") final UnsignedLongParameter batchSize) {
+    checkArgument(
+        batchSize == null || (batchSize.getValue() > 0 && batchSize.getValue() <= Integer.MAX_VALUE),
+        "batchSize must be between 1 and %s",
+        Integer.MAX_VALUE);
+    this.fromBlock =
+        fromBlock == null ? OptionalLong.empty() : OptionalLong.of(fromBlock.getValue());
+    this.fromLogIndex = fromLogIndex == null ? 0 : fromLogIndex.getValue();
+    this.batchSize = batchSize == null ? DEFAULT_BATCH_SIZE : (int) batchSize.getValue();
+  }
+
+  public OptionalLong getFromBlock() {
+    return fromBlock;
+  }
+
+  public long getFromLogIndex() {
+    return fromLogIndex;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("fromBlock", fromBlock)
+        .add("fromLogIndex", fromLogIndex)
+        .add("batchSize", batchSize)
+        .toString();
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final DamlLogEventsParam that = (DamlLogEventsParam) o;
+    return fromLogIndex == that.fromLogIndex
+        && batchSize == that.batchSize
+        && fromBlock.equals(that.fromBlock);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(fromBlock, fromLogIndex, batchSize);
+  }
+}
@@ -23,6 +23,7 @@ public class SubscribeRequest {
   private final SubscriptionType subscriptionType;
   private final Boolean includeTransaction;
   private final LogsQuery logsQuery;
+  private final DamlLogEventsParam damlLogEventsParam;
   private final String connectionId;
 
   public SubscribeRequest(
@@ -30,9 +31,19 @@ public class SubscribeRequest {
       final LogsQuery logsQuery,
       final Boolean includeTransaction,
       final String connectionId) {
+    this(subscriptionType, logsQuery, null, includeTransaction, connectionId);
+  }
+
+  public SubscribeRequest(
+      final SubscriptionType subscriptionType,
+      final LogsQuery logsQuery,
+      final DamlLogEventsParam damlLogEventsParam,
+      final Boolean includeTransaction,
+      final String connectionId) {
     this.subscriptionType = subscriptionType;
     this.includeTransaction = includeTransaction;
     this.logsQuery = logsQuery;
+    this.damlLogEventsParam = damlLogEventsParam;
     this.connectionId = connectionId;
   }
 
@@ -44,6 +55,10 @@ public class SubscribeRequest {
     return logsQuery;
   }
 
+  public DamlLogEventsParam getDamlLogEventsParam() {
+    return damlLogEventsParam;
+  }
+
   public Boolean getIncludeTransaction() {
     return includeTransaction;
   }
@@ -55,8 +70,8 @@ public class SubscribeRequest {
   @Override
   public String toString() {
     return String.format(
-        "SubscribeRequest{subscriptionType=%s, includeTransaction=%s, logsQuery=%s, connectionId=%s}",
-        subscriptionType, includeTransaction, logsQuery, connectionId);
+        "SubscribeRequest{subscriptionType=%s, includeTransaction=%s, logsQuery=%s, damlLogEventsParam=%s, connectionId=%s}",
+        subscriptionType, includeTransaction, logsQuery, damlLogEventsParam, connectionId);
   }
 
   @Override
@@ -71,11 +86,13 @@ public class SubscribeRequest {
     return subscriptionType == that.subscriptionType
         && Objects.equals(includeTransaction, that.includeTransaction)
         && Objects.equals(logsQuery, that.logsQuery)
+        && Objects.equals(damlLogEventsParam, that.damlLogEventsParam)
         && Objects.equals(connectionId, that.connectionId);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(subscriptionType, includeTransaction, logsQuery, connectionId);
+    return Objects.hash(
+        subscriptionType, includeTransaction, logsQuery, damlLogEventsParam, connectionId);
   }
 }
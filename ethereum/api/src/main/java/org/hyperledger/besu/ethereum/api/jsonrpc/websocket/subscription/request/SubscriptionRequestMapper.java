@@ -42,6 +42,10 @@ public class SubscriptionRequestMapper {
           {
             return parseLogsRequest(webSocketRpcRequestBody);
           }
+        case DAML_LOG_EVENTS:
+          {
+            return parseDamlLogEventsRequest(webSocketRpcRequestBody);
+          }
         case NEW_PENDING_TRANSACTIONS:
         case SYNCING:
         default:
@@ -74,6 +78,15 @@ public class SubscriptionRequestMapper {
     return new SubscribeRequest(SubscriptionType.LOGS, logsQuery, null, request.getConnectionId());
   }
 
+  private SubscribeRequest parseDamlLogEventsRequest(final WebSocketRpcRequest request) {
+    final DamlLogEventsParam param =
+        request
+            .getOptionalParameter(1, DamlLogEventsParam.class)
+            .orElse(DamlLogEventsParam.DEFAULT);
+    return new SubscribeRequest(
+        SubscriptionType.DAML_LOG_EVENTS, null, param, null, request.getConnectionId());
+  }
+
   public UnsubscribeRequest mapUnsubscribeRequest(final JsonRpcRequestContext jsonRpcRequestContext)
       throws InvalidSubscriptionRequestException {
     try {
@@ -30,7 +30,10 @@ public enum SubscriptionType {
   DROPPED_PENDING_TRANSACTIONS("droppedPendingTransactions"),
 
   @JsonProperty("syncing")
-  SYNCING("syncing");
+  SYNCING("syncing"),
+
+  @JsonProperty("damlLogEvents")
+  DAML_LOG_EVENTS("damlLogEvents");
 
   private final String code;
 
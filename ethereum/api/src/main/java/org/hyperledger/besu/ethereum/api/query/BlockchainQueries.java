@@ -197,9 +197,10 @@ public class BlockchainQueries {
    * @return The number of transactions sent from the given address.
    */
   public long getTransactionCount(final Address address, final long blockNumber) {
-    return getWorldState(blockNumber)
-        .map(worldState -> worldState.get(address))
-        .map(Account::getNonce)
+    return mapWorldState(
+            blockNumber,
+            worldState ->
+                Optional.ofNullable(worldState.get(address)).map(Account::getNonce).orElse(0L))
         .orElse(0L);
   }
 
@@ -405,6 +406,12 @@ public class BlockchainQueries {
    * @return The transaction associated with the given hash.
    */
   public Optional<TransactionWithMetadata> transactionByHash(final Hash transactionHash) {
+    return blockchain.mapSnapshot(
+        pinnedBlockchain -> transactionByHash(pinnedBlockchain, transactionHash));
+  }
+
+  private Optional<TransactionWithMetadata> transactionByHash(
+      final Blockchain blockchain, final Hash transactionHash) {
     final Optional<TransactionLocation> maybeLocation =
         blockchain.getTransactionLocation(transactionHash);
     if (maybeLocation.isEmpty()) {
@@ -480,6 +487,12 @@ public class BlockchainQueries {
    */
   public Optional<TransactionReceiptWithMetadata> transactionReceiptByTransactionHash(
       final Hash transactionHash) {
+    return blockchain.mapSnapshot(
+        pinnedBlockchain -> transactionReceiptByTransactionHash(pinnedBlockchain, transactionHash));
+  }
+
+  private Optional<TransactionReceiptWithMetadata> transactionReceiptByTransactionHash(
+      final Blockchain blockchain, final Hash transactionHash) {
     final Optional<TransactionLocation> maybeLocation =
         blockchain.getTransactionLocation(transactionHash);
     if (maybeLocation.isEmpty()) {
@@ -529,6 +542,16 @@ public class BlockchainQueries {
    */
   public List<LogWithMetadata> matchingLogs(
       final long fromBlockNumber, final long toBlockNumber, final LogsQuery query) {
+    // Reorgs during the query must not mix blocks of different chains into the result
+    return blockchain.mapSnapshot(
+        pinnedBlockchain -> matchingLogs(pinnedBlockchain, fromBlockNumber, toBlockNumber, query));
+  }
+
+  private List<LogWithMetadata> matchingLogs(
+      final Blockchain blockchain,
+      final long fromBlockNumber,
+      final long toBlockNumber,
+      final LogsQuery query) {
     final List<LogWithMetadata> result = new ArrayList<>();
     final long startSegment = fromBlockNumber / BLOCKS_PER_BLOOM_CACHE;
     final long endSegment = toBlockNumber / BLOCKS_PER_BLOOM_CACHE;
@@ -544,6 +567,7 @@ public class BlockchainQueries {
               .map(
                   cacheFile ->
                       matchingLogsCached(
+                          blockchain,
                           thisSegment * BLOCKS_PER_BLOOM_CACHE,
                           thisStep % BLOCKS_PER_BLOOM_CACHE,
                           Math.min(toBlockNumber, nextStep - 1) % BLOCKS_PER_BLOOM_CACHE,
@@ -552,6 +576,7 @@ public class BlockchainQueries {
               .orElseGet(
                   () ->
                       matchingLogsUncached(
+                          blockchain,
                           thisStep,
                           Math.min(toBlockNumber, Math.min(toBlockNumber, nextStep - 1)),
                           query)));
@@ -561,7 +586,10 @@ public class BlockchainQueries {
   }
 
   private List<LogWithMetadata> matchingLogsUncached(
-      final long fromBlockNumber, final long toBlockNumber, final LogsQuery query) {
+      final Blockchain blockchain,
+      final long fromBlockNumber,
+      final long toBlockNumber,
+      final LogsQuery query) {
     // rangeClosed handles the inverted from/to situations automatically with zero results.
     return LongStream.rangeClosed(fromBlockNumber, toBlockNumber)
         .mapToObj(blockchain::getBlockHeader)
@@ -571,11 +599,12 @@ public class BlockchainQueries {
         .takeWhile(Optional::isPresent)
         .map(Optional::get)
         .filter(header -> query.couldMatch(header.getLogsBloom()))
-        .flatMap(header -> matchingLogs(header.getHash(), query).stream())
+        .flatMap(header -> matchingLogs(blockchain, header.getHash(), query).stream())
         .collect(Collectors.toList());
   }
 
   private List<LogWithMetadata> matchingLogsCached(
+      final Blockchain blockchain,
       final long segmentStart,
       final long offset,
       final long endOffset,
@@ -596,7 +625,9 @@ public class BlockchainQueries {
         if (query.couldMatch(logsBloom)) {
           results.addAll(
               matchingLogs(
-                  blockchain.getBlockHashByNumber(segmentStart + pos).orElseThrow(), query));
+                  blockchain,
+                  blockchain.getBlockHashByNumber(segmentStart + pos).orElseThrow(),
+                  query));
         }
       }
     } catch (final IOException e) {
@@ -607,6 +638,12 @@ public class BlockchainQueries {
   }
 
   public List<LogWithMetadata> matchingLogs(final Hash blockHash, final LogsQuery query) {
+    return blockchain.mapSnapshot(
+        pinnedBlockchain -> matchingLogs(pinnedBlockchain, blockHash, query));
+  }
+
+  private List<LogWithMetadata> matchingLogs(
+      final Blockchain blockchain, final Hash blockHash, final LogsQuery query) {
     final Optional<BlockHeader> blockHeader = blockchain.getBlockHeader(blockHash);
     if (blockHeader.isEmpty()) {
       return Collections.emptyList();
@@ -628,14 +665,19 @@ public class BlockchainQueries {
   }
 
   /**
-   * Returns the world state for the corresponding block number
+   * Applies a function to the world state for the corresponding block number, pinned to a single
+   * consistent view of storage until the function returns.
    *
    * @param blockNumber the block number
-   * @return the world state at the block number
+   * @param mapper the function to apply, which must not let the world state escape
+   * @param <T> the type of the result
+   * @return the result of the function, or empty if the world state is not available
    */
-  public Optional<MutableWorldState> getWorldState(final long blockNumber) {
-    final Optional<BlockHeader> header = blockchain.getBlockHeader(blockNumber);
-    return header.map(BlockHeader::getStateRoot).flatMap(worldStateArchive::getMutable);
+  public <T> Optional<T> mapWorldState(
+      final long blockNumber, final Function<? super MutableWorldState, ? extends T> mapper) {
+    return blockchain
+        .getBlockHeader(blockNumber)
+        .flatMap(header -> worldStateArchive.mapWorldState(header.getStateRoot(), mapper));
   }
 
   private <T> Optional<T> fromWorldState(
@@ -643,7 +685,7 @@ public class BlockchainQueries {
     if (outsideBlockchainRange(blockNumber)) {
       return Optional.empty();
     }
-    return getWorldState(blockNumber).map(getter);
+    return mapWorldState(blockNumber, getter);
   }
 
   private <T> Optional<T> fromAccount(
@@ -15,6 +15,7 @@
 package org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -38,6 +39,7 @@ import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 
 import java.util.Collections;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -128,7 +130,7 @@ public class EthGetProofTest {
   @Test
   public void errorWhenWorldStateUnavailable() {
 
-    when(blockchainQueries.getWorldState(blockNumber)).thenReturn(Optional.empty());
+    when(blockchainQueries.mapWorldState(eq(blockNumber), any())).thenReturn(Optional.empty());
 
     final JsonRpcErrorResponse expectedResponse =
         new JsonRpcErrorResponse(null, JsonRpcError.WORLD_STATE_UNAVAILABLE);
@@ -204,7 +206,13 @@ public class EthGetProofTest {
 
     final MutableWorldState mutableWorldState = mock(MutableWorldState.class);
     when(mutableWorldState.rootHash()).thenReturn(rootHash);
-    when(blockchainQueries.getWorldState(blockNumber)).thenReturn(Optional.of(mutableWorldState));
+    when(blockchainQueries.mapWorldState(eq(blockNumber), any()))
+        .thenAnswer(
+            invocation ->
+                Optional.ofNullable(
+                    invocation
+                        .<Function<MutableWorldState, ?>>getArgument(1)
+                        .apply(mutableWorldState)));
 
     return GetProofResult.buildGetProofResult(address, worldStateProof);
   }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.daml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.UnsignedLongParameter;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.JsonRpcResult;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.Quantity;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.SubscriptionManager;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.DamlLogEventsParam;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
+import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator.BlockOptions;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.InMemoryStorageProvider;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlLogIndex;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlPublicPrecompiledContract;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.blockchaintp.besu.daml.protobuf.DamlLogEvent;
+import com.google.protobuf.ByteString;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DamlLogEventsSubscriptionServiceTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator(1);
+  private final MutableBlockchain blockchain =
+      InMemoryStorageProvider.createInMemoryBlockchain(gen.genesisBlock());
+  private final AtomicInteger nextEntryId = new AtomicInteger();
+
+  private final DamlLogIndex damlLogIndex = new DamlLogIndex(new InMemoryKeyValueStorage());
+
+  @Mock private SubscriptionManager subscriptionManager;
+
+  @Before
+  public void before() {
+    blockchain.observeBlockAdded(damlLogIndex);
+  }
+
+  @Test
+  public void sendsDamlLogEntriesOfNewBlock() {
+    createService(1000);
+    final DamlLogEventsSubscription subscription = subscribe(DamlLogEventsParam.DEFAULT);
+
+    final Block block = appendBlockWithDamlLogs(2);
+
+    final List<DamlLogEventResult> events = sentEvents(subscription, 1);
+    assertThat(events).hasSize(2);
+    assertThat(events.get(0).getBlockHash()).isEqualTo(block.getHash().toString());
+    assertThat(events.get(0).getTransactionHash())
+        .isEqualTo(block.getBody().getTransactions().get(0).getHash().toString());
+    // each transaction also emits an unrelated log after its DAML log
+    assertThat(events.get(0).getLogIndex()).isEqualTo(Quantity.create(0));
+    assertThat(events.get(1).getLogIndex()).isEqualTo(Quantity.create(2));
+    assertThat(events.get(1).getLogEntryId()).isEqualTo(entryId(1));
+  }
+
+  @Test
+  public void resumesFromBlockAndLogIndexInBatches() {
+    createService(1000);
+    appendBlockWithDamlLogs(2);
+    appendBlockWithDamlLogs(2);
+
+    final DamlLogEventsSubscription subscription =
+        subscribe(
+            new DamlLogEventsParam(
+                new UnsignedLongParameter("0x1"),
+                new UnsignedLongParameter("0x1"),
+                new UnsignedLongParameter("0x2")));
+
+    appendBlockWithDamlLogs(1);
+
+    // first entry of block 1 is skipped, the other three are replayed two per message on
+    // subscription, and the entry of the new block follows
+    final List<DamlLogEventResult> events = sentEvents(subscription, 3);
+    assertThat(events.stream().map(DamlLogEventResult::getBlockNumber).collect(Collectors.toList()))
+        .containsExactly(
+            Quantity.create(1L), Quantity.create(2L), Quantity.create(2L), Quantity.create(3L));
+    assertThat(events.get(0).getLogIndex()).isEqualTo(Quantity.create(2));
+  }
+
+  @Test
+  public void resumesWithoutWaitingForANewBlock() {
+    createService(1000);
+    appendBlockWithDamlLogs(2);
+    appendBlockWithDamlLogs(1);
+
+    final DamlLogEventsSubscription subscription =
+        subscribe(new DamlLogEventsParam(new UnsignedLongParameter("0x1"), null, null));
+
+    assertThat(sentEvents(subscription, 1)).hasSize(3);
+  }
+
+  @Test
+  public void replaysInPages() {
+    createService(2);
+    appendBlockWithDamlLogs(3);
+    appendBlockWithDamlLogs(2);
+
+    final DamlLogEventsSubscription subscription =
+        subscribe(new DamlLogEventsParam(new UnsignedLongParameter("0x1"), null, null));
+
+    final List<DamlLogEventResult> events = sentEvents(subscription, 3);
+    assertThat(events.stream().map(DamlLogEventResult::getLogEntryId).collect(Collectors.toList()))
+        .containsExactly(entryId(0), entryId(1), entryId(2), entryId(3), entryId(4));
+  }
+
+  @Test
+  public void sendsNothingForBlocksWithoutDamlLogs() {
+    createService(1000);
+    subscribe(DamlLogEventsParam.DEFAULT);
+
+    appendBlockWithDamlLogs(0);
+
+    verify(subscriptionManager, never()).sendMessage(any(), any());
+  }
+
+  private List<DamlLogEventResult> sentEvents(
+      final DamlLogEventsSubscription subscription, final int expectedMessages) {
+    final ArgumentCaptor<JsonRpcResult> captor = ArgumentCaptor.forClass(JsonRpcResult.class);
+    verify(subscriptionManager, times(expectedMessages))
+        .sendMessage(eq(subscription.getSubscriptionId()), captor.capture());
+    return captor.getAllValues().stream()
+        .flatMap(result -> ((DamlLogEventsResult) result).getEvents().stream())
+        .collect(Collectors.toList());
+  }
+
+  private Block appendBlockWithDamlLogs(final int txCount) {
+    final BlockHeader parent = blockchain.getChainHeadHeader();
+    final List<TransactionReceipt> receipts = new ArrayList<>();
+    final BlockOptions blockOptions = BlockOptions.create();
+    for (int i = 0; i < txCount; i++) {
+      blockOptions.addTransaction(gen.transaction());
+      receipts.add(gen.receipt(List.of(damlLog(), gen.log())));
+    }
+    blockOptions.setParentHash(parent.getHash());
+    blockOptions.setBlockNumber(parent.getNumber() + 1L);
+    final Block block = gen.block(blockOptions);
+    blockchain.appendBlock(block, receipts);
+    return block;
+  }
+
+  private Log damlLog() {
+    final DamlLogEvent logEvent =
+        DamlLogEvent.newBuilder()
+            .setLogEntryId(ByteString.copyFromUtf8("entry-" + nextEntryId.getAndIncrement()))
+            .setLogEntry(ByteString.copyFromUtf8("entry"))
+            .build();
+    return new Log(
+        Address.DAML_PUBLIC,
+        Bytes.wrap(logEvent.toByteArray()),
+        List.of(DamlPublicPrecompiledContract.DAML_LOG_TOPIC));
+  }
+
+  private DamlLogEventsSubscriptionService createService(final int pageSize) {
+    return new DamlLogEventsSubscriptionService(
+        subscriptionManager, damlLogIndex, blockchain, pageSize);
+  }
+
+  private static String entryId(final int id) {
+    return Bytes.wrap(("entry-" + id).getBytes(UTF_8)).toString();
+  }
+
+  private DamlLogEventsSubscription subscribe(final DamlLogEventsParam param) {
+    final DamlLogEventsSubscription subscription = new DamlLogEventsSubscription(1L, "conn", param);
+    doAnswer(
+            invocation -> {
+              Consumer<List<DamlLogEventsSubscription>> consumer = invocation.getArgument(2);
+              consumer.accept(List.of(subscription));
+              return null;
+            })
+        .when(subscriptionManager)
+        .notifySubscribersOnWorkerThread(any(), any(), any());
+
+    final ArgumentCaptor<Runnable> subscribeObserver = ArgumentCaptor.forClass(Runnable.class);
+    verify(subscriptionManager)
+        .observeSubscribe(eq(SubscriptionType.DAML_LOG_EVENTS), subscribeObserver.capture());
+    subscribeObserver.getValue().run();
+    return subscription;
+  }
+}
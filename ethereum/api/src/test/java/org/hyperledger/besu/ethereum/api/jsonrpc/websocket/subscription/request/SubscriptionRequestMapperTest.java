@@ -26,6 +26,7 @@ import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequest;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.exception.InvalidJsonRpcParameters;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.UnsignedLongParameter;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.methods.WebSocketRpcRequest;
 import org.hyperledger.besu.ethereum.api.query.LogsQuery;
 import org.hyperledger.besu.ethereum.core.Address;
@@ -361,6 +362,64 @@ public class SubscriptionRequestMapperTest {
     mapper.mapSubscribeRequest(new JsonRpcRequestContext(jsonRpcRequest));
   }
 
+  @Test
+  public void mapRequestToDamlLogEventsOmittingParams() {
+    final JsonRpcRequest jsonRpcRequest =
+        parseWebSocketRpcRequest(
+            "{\"id\": 1, \"method\": \"eth_subscribe\", \"params\": [\"damlLogEvents\"]}");
+    final SubscribeRequest expectedSubscribeRequest =
+        new SubscribeRequest(
+            SubscriptionType.DAML_LOG_EVENTS,
+            null,
+            DamlLogEventsParam.DEFAULT,
+            null,
+            CONNECTION_ID);
+
+    final SubscribeRequest subscribeRequest =
+        mapper.mapSubscribeRequest(new JsonRpcRequestContext(jsonRpcRequest));
+
+    assertThat(subscribeRequest).isEqualTo(expectedSubscribeRequest);
+    assertThat(subscribeRequest.getDamlLogEventsParam().getFromBlock()).isEmpty();
+    assertThat(subscribeRequest.getDamlLogEventsParam().getBatchSize())
+        .isEqualTo(DamlLogEventsParam.DEFAULT_BATCH_SIZE);
+  }
+
+  @Test
+  public void mapRequestToDamlLogEventsResumingFromOffset() {
+    final JsonRpcRequest jsonRpcRequest =
+        parseWebSocketRpcRequest(
+            "{\"id\": 1, \"method\": \"eth_subscribe\", \"params\": [\"damlLogEvents\", {\"fromBlock\": \"0x10\", \"fromLogIndex\": \"0x2\", \"batchSize\": \"0x5\"}]}");
+    final SubscribeRequest expectedSubscribeRequest =
+        new SubscribeRequest(
+            SubscriptionType.DAML_LOG_EVENTS,
+            null,
+            new DamlLogEventsParam(
+                new UnsignedLongParameter("0x10"),
+                new UnsignedLongParameter("0x2"),
+                new UnsignedLongParameter("0x5")),
+            null,
+            CONNECTION_ID);
+
+    final SubscribeRequest subscribeRequest =
+        mapper.mapSubscribeRequest(new JsonRpcRequestContext(jsonRpcRequest));
+
+    assertThat(subscribeRequest).isEqualTo(expectedSubscribeRequest);
+    assertThat(subscribeRequest.getDamlLogEventsParam().getFromBlock()).hasValue(16L);
+    assertThat(subscribeRequest.getDamlLogEventsParam().getFromLogIndex()).isEqualTo(2L);
+    assertThat(subscribeRequest.getDamlLogEventsParam().getBatchSize()).isEqualTo(5);
+  }
+
+  @Test
+  public void mapRequestToDamlLogEventsWithZeroBatchSizeFails() {
+    final JsonRpcRequest jsonRpcRequest =
+        parseWebSocketRpcRequest(
+            "{\"id\": 1, \"method\": \"eth_subscribe\", \"params\": [\"damlLogEvents\", {\"batchSize\": \"0x0\"}]}");
+
+    thrown.expect(InvalidSubscriptionRequestException.class);
+
+    mapper.mapSubscribeRequest(new JsonRpcRequestContext(jsonRpcRequest));
+  }
+
   private WebSocketRpcRequest parseWebSocketRpcRequest(final String json) {
     return Json.decodeValue(json, WebSocketRpcRequest.class);
   }
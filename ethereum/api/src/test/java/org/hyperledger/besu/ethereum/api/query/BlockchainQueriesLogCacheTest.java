@@ -24,6 +24,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.BlockBody;
@@ -41,6 +42,7 @@ import java.io.RandomAccessFile;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Before;
@@ -117,6 +119,9 @@ public class BlockchainQueriesLogCacheTest {
     when(blockchain.getBlockHeader(anyLong())).thenReturn(Optional.of(fakeHeader));
     when(blockchain.getTxReceipts(any())).thenReturn(Optional.of(Collections.emptyList()));
     when(blockchain.getBlockBody(any())).thenReturn(Optional.of(fakeBody));
+    when(blockchain.mapSnapshot(any()))
+        .thenAnswer(
+            invocation -> invocation.<Function<Blockchain, ?>>getArgument(0).apply(blockchain));
     blockchainQueries =
         new BlockchainQueries(
             blockchain,
@@ -143,6 +148,7 @@ public class BlockchainQueriesLogCacheTest {
     verify(blockchain, times(12)).getTxReceipts(testHash);
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
+    verify(blockchain, times(4)).mapSnapshot(any());
 
     verifyNoMoreInteractions(blockchain);
   }
@@ -170,6 +176,7 @@ public class BlockchainQueriesLogCacheTest {
     verify(blockchain, times(12)).getTxReceipts(testHash);
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
+    verify(blockchain, times(4)).mapSnapshot(any());
 
     verifyNoMoreInteractions(blockchain);
   }
@@ -192,6 +199,7 @@ public class BlockchainQueriesLogCacheTest {
     verify(blockchain, times(12)).getTxReceipts(testHash);
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
+    verify(blockchain, times(4)).mapSnapshot(any());
 
     verifyNoMoreInteractions(blockchain);
   }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
+import org.hyperledger.besu.ethereum.worldstate.DefaultMutableWorldState;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfigurationBuilder;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.unsegmented.RocksDBKeyValueStorage;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+
+/** Creates the world state DAML benchmarks run against, in memory or backed by RocksDB. */
+public class DamlBenchmarkHelper {
+
+  public static final String IN_MEMORY = "memory";
+  public static final String ROCKSDB = "rocksdb";
+
+  private final Optional<Path> storageDirectory;
+  private final KeyValueStorage keyValueStorage;
+
+  private DamlBenchmarkHelper(
+      final Optional<Path> storageDirectory, final KeyValueStorage keyValueStorage) {
+    this.storageDirectory = storageDirectory;
+    this.keyValueStorage = keyValueStorage;
+  }
+
+  public static DamlBenchmarkHelper create(final String storage) throws IOException {
+    switch (storage) {
+      case IN_MEMORY:
+        return new DamlBenchmarkHelper(Optional.empty(), new InMemoryKeyValueStorage());
+      case ROCKSDB:
+        final Path storageDirectory = Files.createTempDirectory("daml-benchmark");
+        return new DamlBenchmarkHelper(
+            Optional.of(storageDirectory),
+            new RocksDBKeyValueStorage(
+                new RocksDBConfigurationBuilder().databaseDir(storageDirectory).build(),
+                new NoOpMetricsSystem(),
+                RocksDBMetricsFactory.PUBLIC_ROCKS_DB_METRICS));
+      default:
+        throw new IllegalArgumentException("Unknown storage " + storage);
+    }
+  }
+
+  public MutableWorldState createWorldState() {
+    return new DefaultMutableWorldState(
+        new WorldStateKeyValueStorage(keyValueStorage),
+        new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage()));
+  }
+
+  public void cleanUp() throws IOException {
+    keyValueStorage.close();
+    if (storageDirectory.isPresent()) {
+      MoreFiles.deleteRecursively(storageDirectory.get(), RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.io.IOException;
+import java.util.Random;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntry;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntryId;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlPackageUploadEntry;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.google.protobuf.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures writing DAML state values and log entries to the world state and reading them back,
+ * including the persist to storage. Reads bypass the decoded state cache.
+ */
+@State(Scope.Thread)
+public class DamlLedgerStateBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  public int payloadSize;
+
+  @Param({DamlBenchmarkHelper.IN_MEMORY, DamlBenchmarkHelper.ROCKSDB})
+  public String storage;
+
+  private final DamlStateKey stateKey = DamlStateKey.newBuilder().setPackageId("package").build();
+  private final DamlLogEntryId logEntryId =
+      DamlLogEntryId.newBuilder().setEntryId(ByteString.copyFromUtf8("entry")).build();
+
+  private DamlBenchmarkHelper helper;
+  private MutableWorldState worldState;
+  private DamlStateValueCache stateValueCache;
+  private DamlLedgerState persistedLedgerState;
+
+  // writes alternate between two values, so the storage does not grow with every write
+  private DamlStateValue[] stateValues;
+  private DamlLogEntry[] logEntries;
+  private int writes;
+
+  @Setup
+  public void prepare() throws IOException {
+    helper = DamlBenchmarkHelper.create(storage);
+    worldState = helper.createWorldState();
+    stateValueCache = new DamlStateValueCache(0, new NoOpMetricsSystem());
+
+    final byte[] payload = new byte[payloadSize];
+    new Random(1).nextBytes(payload);
+    stateValues = new DamlStateValue[2];
+    logEntries = new DamlLogEntry[2];
+    for (int i = 0; i < 2; i++) {
+      payload[0] = (byte) i;
+      final ByteString archivePayload = ByteString.copyFrom(payload);
+      stateValues[i] =
+          DamlStateValue.newBuilder()
+              .setArchive(
+                  DamlStateValue.getDefaultInstance()
+                      .getArchive()
+                      .toBuilder()
+                      .setPayload(archivePayload))
+              .build();
+      logEntries[i] =
+          DamlLogEntry.newBuilder()
+              .setPackageUploadEntry(
+                  DamlPackageUploadEntry.newBuilder().addArchives(stateValues[i].getArchive()))
+              .build();
+    }
+
+    final WorldUpdater updater = worldState.updater();
+    final DamlLedgerState ledgerState = ledgerState(updater);
+    ledgerState.setDamlState(stateKey, stateValues[0]);
+    ledgerState.addDamlLogEntry(logEntryId, logEntries[0]);
+    updater.commit();
+    worldState.persist();
+    persistedLedgerState = ledgerState(worldState.updater());
+  }
+
+  @TearDown
+  public void cleanUp() throws IOException {
+    helper.cleanUp();
+  }
+
+  @Benchmark
+  public void setDamlState() {
+    final WorldUpdater updater = worldState.updater();
+    ledgerState(updater).setDamlState(stateKey, stateValues[++writes & 1]);
+    updater.commit();
+    worldState.persist();
+  }
+
+  @Benchmark
+  public DamlStateValue getDamlState() {
+    return persistedLedgerState.getDamlState(stateKey);
+  }
+
+  @Benchmark
+  public void addDamlLogEntry() {
+    final WorldUpdater updater = worldState.updater();
+    ledgerState(updater).addDamlLogEntry(logEntryId, logEntries[++writes & 1]);
+    updater.commit();
+    worldState.persist();
+  }
+
+  @Benchmark
+  public DamlLogEntry getDamlLogEntry() {
+    return persistedLedgerState.getDamlLogEntry(logEntryId);
+  }
+
+  private DamlLedgerState ledgerState(final WorldUpdater updater) {
+    return new DamlLedgerState(
+        updater, updater.getOrCreate(Address.DAML_PUBLIC).getMutable(), stateValueCache);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.ExecutionContextTestFixture;
+import org.hyperledger.besu.ethereum.core.MessageFrameTestFixture;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.mainnet.IstanbulGasCalculator;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.digitalasset.daml.lf.engine.Engine;
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replays a recorded corpus of DAML submissions through the DAML precompile, starting each replay
+ * from an empty ledger with a new precompile.
+ *
+ * <p>Each replay gets its own DAML Engine and state value cache, instead of the ones shared by the
+ * node, so that it measures a cold start: packages are decoded and compiled, and state values
+ * parsed, within the replay rather than once for the whole trial.
+ *
+ * <p>The corpus is a text file holding the input of one call to the DAML precompile per line, in
+ * hex, in the order the calls were made on the recorded ledger. It can be recorded by collecting
+ * the input of every transaction sent to the DAML precompile address, from the genesis block of a
+ * ledger, e.g. with eth_getBlockByNumber. The file is read from the path given by the {@code
+ * corpus} parameter or, if that is empty, by the {@value #CORPUS_ENV} environment variable.
+ */
+@State(Scope.Thread)
+public class DamlPrecompileBenchmark {
+
+  public static final String CORPUS_ENV = "DAML_BENCHMARK_CORPUS";
+
+  @Param({""})
+  public String corpus;
+
+  @Param({DamlBenchmarkHelper.IN_MEMORY, DamlBenchmarkHelper.ROCKSDB})
+  public String storage;
+
+  private List<Bytes> submissions;
+  private Blockchain blockchain;
+  private DamlPublicPrecompiledContract precompile;
+  private DamlBenchmarkHelper helper;
+  private MutableWorldState worldState;
+
+  @Setup
+  public void prepare() throws IOException {
+    submissions = readCorpus();
+    blockchain = ExecutionContextTestFixture.create().getBlockchain();
+  }
+
+  @Setup(Level.Invocation)
+  public void createLedger() throws IOException {
+    precompile =
+        new DamlPublicPrecompiledContract(
+            new IstanbulGasCalculator(),
+            new Engine(),
+            new DamlStateValueCache(new NoOpMetricsSystem()),
+            new NoOpMetricsSystem());
+    helper = DamlBenchmarkHelper.create(storage);
+    worldState = helper.createWorldState();
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteLedger() throws IOException {
+    helper.cleanUp();
+  }
+
+  @Benchmark
+  public void replayCorpus(final Blackhole blackhole) {
+    for (final Bytes input : submissions) {
+      final WorldUpdater updater = worldState.updater();
+      blackhole.consume(
+          precompile.compute(
+              input,
+              new MessageFrameTestFixture()
+                  .blockchain(blockchain)
+                  .worldState(updater)
+                  .address(Address.DAML_PUBLIC)
+                  .contract(Address.DAML_PUBLIC)
+                  .inputData(input)
+                  .build()));
+      updater.commit();
+      worldState.persist();
+    }
+  }
+
+  private List<Bytes> readCorpus() throws IOException {
+    final String location = corpus.isEmpty() ? System.getenv(CORPUS_ENV) : corpus;
+    if (location == null || location.isEmpty()) {
+      throw new IllegalStateException(
+          "No DAML submission corpus, set the corpus parameter or " + CORPUS_ENV);
+    }
+    final Path file = Paths.get(location);
+    return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+        .map(String::trim)
+        .filter(line -> !line.isEmpty())
+        .map(Bytes::fromHexString)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.MutableBytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures DAML storage addressing. Run with the JMH gc profiler ({@code -prof gc}) to compare the
+ * garbage produced per address.
+ */
+@State(Scope.Thread)
+public class NamespaceBenchmark {
+
+  @Param({"32", "128", "1024"})
+  public int dataSize;
+
+  private byte[] data;
+  private DamlStateKey stateKey;
+  private final MutableBytes32 address = MutableBytes32.create();
+
+  @Setup
+  public void prepare() {
+    final Random random = new Random(1);
+    data = new byte[dataSize];
+    random.nextBytes(data);
+    stateKey =
+        DamlStateKey.newBuilder().setContractId(Bytes.wrap(data).toUnprefixedHexString()).build();
+  }
+
+  @Benchmark
+  public UInt256 makeAddress() {
+    return Namespace.makeAddress(Namespace.DamlKeyType.STATE, data);
+  }
+
+  /** The former string-based addressing, kept as a baseline. */
+  @Benchmark
+  public UInt256 makeAddressViaHexString() {
+    String hash = String.format("%064x", new BigInteger(1, Namespace.getHash(data).toArray()));
+    final String rootAddress = Namespace.DamlKeyType.STATE.rootAddress();
+    hash = hash.substring(hash.length() - (Namespace.STORAGE_SLOT_SIZE * 2) + rootAddress.length());
+    return UInt256.fromHexString(rootAddress + hash);
+  }
+
+  @Benchmark
+  public MutableBytes32 makeAddressIntoBuffer() {
+    Namespace.makeAddress(Namespace.DamlKeyType.STATE, data, address);
+    return address;
+  }
+
+  @Benchmark
+  public UInt256 makeDamlStateKeyAddress() {
+    return Namespace.makeDamlStateKeyAddress(stateKey);
+  }
+}
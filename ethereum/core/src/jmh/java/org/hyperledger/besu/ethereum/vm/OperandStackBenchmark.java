@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import java.util.Random;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares binary operations computed in place on a {@link LongArrayOperandStack} with the same
+ * operations computed through {@link UInt256} on a {@link PreAllocatedOperandStack}, as the
+ * operations used to do. Each operation pushes its two operands and drops its result.
+ */
+@State(Scope.Thread)
+public class OperandStackBenchmark {
+
+  private static final int OPERAND_COUNT = 1024;
+
+  @Param({"ADD", "MUL", "DIV", "LT", "AND", "SHL"})
+  public String operation;
+
+  private final Bytes32[] operands = new Bytes32[OPERAND_COUNT];
+  private final OperandStack bytesStack = new PreAllocatedOperandStack(1024);
+  private final LongArrayOperandStack longArrayStack = new LongArrayOperandStack(1024);
+
+  @Setup
+  public void prepare() {
+    final Random random = new Random(42);
+    for (int i = 0; i < OPERAND_COUNT; i++) {
+      final byte[] bytes = new byte[Bytes32.SIZE];
+      random.nextBytes(bytes);
+      operands[i] = Bytes32.wrap(bytes);
+    }
+    // Keep shift amounts within the width of a word so that shifts are not short-circuited
+    if (operation.equals("SHL")) {
+      for (int i = 0; i < OPERAND_COUNT; i += 2) {
+        operands[i] = UInt256.valueOf(i % 256).toBytes();
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERAND_COUNT / 2)
+  public void bytes32Stack() {
+    for (int i = 0; i < OPERAND_COUNT; i += 2) {
+      bytesStack.push(operands[i + 1]);
+      bytesStack.push(operands[i]);
+      final UInt256 value0 = UInt256.fromBytes(bytesStack.pop());
+      final Bytes32 value1 = bytesStack.pop();
+      bytesStack.push(applyUInt256(value0, value1));
+      bytesStack.pop();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OPERAND_COUNT / 2)
+  public void longArrayStack() {
+    for (int i = 0; i < OPERAND_COUNT; i += 2) {
+      longArrayStack.push(operands[i + 1]);
+      longArrayStack.push(operands[i]);
+      applyInPlace();
+      longArrayStack.bulkPop(1);
+    }
+  }
+
+  private Bytes32 applyUInt256(final UInt256 value0, final Bytes32 value1) {
+    switch (operation) {
+      case "ADD":
+        return value0.add(UInt256.fromBytes(value1)).toBytes();
+      case "MUL":
+        return value0.multiply(UInt256.fromBytes(value1)).toBytes();
+      case "DIV":
+        return value0.divide(UInt256.fromBytes(value1)).toBytes();
+      case "LT":
+        return (value0.compareTo(UInt256.fromBytes(value1)) < 0 ? UInt256.ONE : UInt256.ZERO)
+            .toBytes();
+      case "AND":
+        return value0.and(UInt256.fromBytes(value1)).toBytes();
+      case "SHL":
+        return value1.shiftLeft(value0.intValue());
+      default:
+        throw new IllegalArgumentException("Unknown operation " + operation);
+    }
+  }
+
+  private void applyInPlace() {
+    switch (operation) {
+      case "ADD":
+        longArrayStack.add();
+        break;
+      case "MUL":
+        longArrayStack.multiply();
+        break;
+      case "DIV":
+        longArrayStack.divide();
+        break;
+      case "LT":
+        longArrayStack.lessThan();
+        break;
+      case "AND":
+        longArrayStack.and();
+        break;
+      case "SHL":
+        longArrayStack.shiftLeft();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown operation " + operation);
+    }
+  }
+}
@@ -21,8 +21,11 @@ import org.hyperledger.besu.ethereum.chain.GenesisState;
 import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.worldstate.CachingWorldStateStorage;
+import org.hyperledger.besu.ethereum.worldstate.TrieNodeCache;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateSnapshot;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 
@@ -57,16 +60,27 @@ public class ProtocolContext<C> {
       final BiFunction<Blockchain, WorldStateArchive, T> consensusContextFactory) {
     final BlockchainStorage blockchainStorage =
         storageProvider.createBlockchainStorage(protocolSchedule);
-    final WorldStateStorage worldStateStorage = storageProvider.createWorldStateStorage();
+    final WorldStateStorage uncachedWorldStateStorage = storageProvider.createWorldStateStorage();
+    final WorldStateStorage worldStateStorage =
+        new CachingWorldStateStorage(uncachedWorldStateStorage, new TrieNodeCache(metricsSystem));
     final WorldStatePreimageStorage preimageStorage =
         storageProvider.createWorldStatePreimageStorage();
 
     final MutableBlockchain blockchain =
         DefaultBlockchain.createMutable(genesisState.getBlock(), blockchainStorage, metricsSystem);
 
+    // Generation walks all tries, so it reads around the trie node cache
+    final WorldStateSnapshot snapshot =
+        new WorldStateSnapshot(
+            storageProvider.createWorldStateSnapshotStorage(), uncachedWorldStateStorage);
     final WorldStateArchive worldStateArchive =
-        new WorldStateArchive(worldStateStorage, preimageStorage);
-    genesisState.writeStateTo(worldStateArchive.getMutable());
+        new WorldStateArchive(worldStateStorage, preimageStorage, snapshot);
+    // The genesis state is written on every start, so it is written around the snapshot, which
+    // would otherwise be moved back to the empty state it cannot rewind to, and generated again
+    genesisState.writeStateTo(
+        new WorldStateArchive(worldStateStorage, preimageStorage).getMutable());
+    // Databases created before the snapshot, or fast synced, start without one
+    snapshot.generate(blockchain.getChainHeadHeader().getStateRoot());
 
     return new ProtocolContext<>(
         blockchain,
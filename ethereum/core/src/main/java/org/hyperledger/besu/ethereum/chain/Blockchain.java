@@ -26,6 +26,7 @@ import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /** An interface for reading data from the blockchain. */
 public interface Blockchain {
@@ -176,6 +177,21 @@ public interface Blockchain {
    */
   Optional<TransactionLocation> getTransactionLocation(Hash transactionHash);
 
+  /**
+   * Apply a function to a read-only view of the blockchain, pinned to a snapshot of the storage
+   * where the storage supports it, so that a series of reads, e.g. across a block range, sees the
+   * same canonical chain throughout even while blocks are being imported.
+   *
+   * <p>The view must not be used once the function has returned.
+   *
+   * @param mapper the function to apply
+   * @param <T> the type of the result
+   * @return the result of the function
+   */
+  default <T> T mapSnapshot(final Function<? super Blockchain, ? extends T> mapper) {
+    return mapper.apply(this);
+  }
+
   /**
    * Adds an observer that will get called when a new block is added.
    *
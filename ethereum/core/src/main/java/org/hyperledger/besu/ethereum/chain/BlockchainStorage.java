@@ -44,6 +44,17 @@ public interface BlockchainStorage {
 
   Updater updater();
 
+  /**
+   * Pin a read-only view of the storage as it is now, so that a series of reads is unaffected by
+   * the blocks appended and the reorgs made in the meantime.
+   *
+   * @return the view, which must be closed once done with, or empty if the underlying storage
+   *     cannot take snapshots
+   */
+  default Optional<ReadSnapshot> takeReadSnapshot() {
+    return Optional.empty();
+  }
+
   interface Updater {
 
     void putBlockHeader(Hash blockHash, BlockHeader blockHeader);
@@ -70,4 +81,10 @@ public interface BlockchainStorage {
 
     void rollback();
   }
+
+  /** A read-only view of a blockchain storage, on which any attempt to update fails. */
+  interface ReadSnapshot extends BlockchainStorage, AutoCloseable {
+    @Override
+    void close();
+  }
 }
@@ -42,16 +42,29 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 
 public class DefaultBlockchain implements MutableBlockchain {
+  /** Default number of recently appended blocks whose decoded data is kept in memory. */
+  public static final int DEFAULT_RECENT_BLOCKS_CACHE_SIZE = 256;
 
   protected final BlockchainStorage blockchainStorage;
 
+  // Decoded data of recently appended blocks. Entries keyed by block hash never become stale, the
+  // canonical hash-by-number entries are dropped whenever the canonical chain is rewritten.
+  private final Cache<Hash, BlockHeader> recentHeaders;
+  private final Cache<Hash, BlockBody> recentBodies;
+  private final Cache<Hash, List<TransactionReceipt>> recentReceipts;
+  private final Cache<Hash, Difficulty> recentTotalDifficulties;
+  private final Cache<Long, Hash> recentCanonicalHashes;
+
   private final Subscribers<BlockAddedObserver> blockAddedObservers = Subscribers.create();
   private final Subscribers<ChainReorgObserver> blockReorgObservers = Subscribers.create();
 
@@ -63,12 +76,19 @@ public class DefaultBlockchain implements MutableBlockchain {
   private DefaultBlockchain(
       final Optional<Block> genesisBlock,
       final BlockchainStorage blockchainStorage,
-      final MetricsSystem metricsSystem) {
+      final MetricsSystem metricsSystem,
+      final int recentBlocksCacheSize) {
     checkNotNull(genesisBlock);
     checkNotNull(blockchainStorage);
     checkNotNull(metricsSystem);
+    checkArgument(recentBlocksCacheSize >= 0, "Recent blocks cache size must not be negative.");
 
     this.blockchainStorage = blockchainStorage;
+    this.recentHeaders = createRecentBlocksCache(recentBlocksCacheSize);
+    this.recentBodies = createRecentBlocksCache(recentBlocksCacheSize);
+    this.recentReceipts = createRecentBlocksCache(recentBlocksCacheSize);
+    this.recentTotalDifficulties = createRecentBlocksCache(recentBlocksCacheSize);
+    this.recentCanonicalHashes = createRecentBlocksCache(recentBlocksCacheSize);
     genesisBlock.ifPresent(this::setGenesis);
 
     final Hash chainHead = blockchainStorage.getChainHead().get();
@@ -124,15 +144,36 @@ public class DefaultBlockchain implements MutableBlockchain {
       final Block genesisBlock,
       final BlockchainStorage blockchainStorage,
       final MetricsSystem metricsSystem) {
+    return createMutable(
+        genesisBlock, blockchainStorage, metricsSystem, DEFAULT_RECENT_BLOCKS_CACHE_SIZE);
+  }
+
+  public static MutableBlockchain createMutable(
+      final Block genesisBlock,
+      final BlockchainStorage blockchainStorage,
+      final MetricsSystem metricsSystem,
+      final int recentBlocksCacheSize) {
     checkNotNull(genesisBlock);
-    return new DefaultBlockchain(Optional.of(genesisBlock), blockchainStorage, metricsSystem);
+    return new DefaultBlockchain(
+        Optional.of(genesisBlock), blockchainStorage, metricsSystem, recentBlocksCacheSize);
   }
 
   public static Blockchain create(
       final BlockchainStorage blockchainStorage, final MetricsSystem metricsSystem) {
     checkArgument(
         validateStorageNonEmpty(blockchainStorage), "Cannot create Blockchain from empty storage");
-    return new DefaultBlockchain(Optional.empty(), blockchainStorage, metricsSystem);
+    return new DefaultBlockchain(
+        Optional.empty(), blockchainStorage, metricsSystem, DEFAULT_RECENT_BLOCKS_CACHE_SIZE);
+  }
+
+  private static <K, V> Cache<K, V> createRecentBlocksCache(final int size) {
+    return CacheBuilder.newBuilder().maximumSize(size).build();
+  }
+
+  private static <K, V> Optional<V> getCached(
+      final Cache<K, V> cache, final K key, final Function<K, Optional<V>> loader) {
+    final V value = cache.getIfPresent(key);
+    return value != null ? Optional.of(value) : loader.apply(key);
   }
 
   private static boolean validateStorageNonEmpty(final BlockchainStorage blockchainStorage) {
@@ -166,37 +207,38 @@ public class DefaultBlockchain implements MutableBlockchain {
 
   @Override
   public Block getChainHeadBlock() {
-    return new Block(chainHeader, blockchainStorage.getBlockBody(chainHeader.getHash()).get());
+    return new Block(chainHeader, getBlockBody(chainHeader.getHash()).get());
   }
 
   @Override
   public Optional<BlockHeader> getBlockHeader(final long blockNumber) {
-    return blockchainStorage.getBlockHash(blockNumber).flatMap(blockchainStorage::getBlockHeader);
+    return getBlockHashByNumber(blockNumber).flatMap(this::getBlockHeader);
   }
 
   @Override
   public Optional<BlockHeader> getBlockHeader(final Hash blockHeaderHash) {
-    return blockchainStorage.getBlockHeader(blockHeaderHash);
+    return getCached(recentHeaders, blockHeaderHash, blockchainStorage::getBlockHeader);
   }
 
   @Override
   public Optional<BlockBody> getBlockBody(final Hash blockHeaderHash) {
-    return blockchainStorage.getBlockBody(blockHeaderHash);
+    return getCached(recentBodies, blockHeaderHash, blockchainStorage::getBlockBody);
   }
 
   @Override
   public Optional<List<TransactionReceipt>> getTxReceipts(final Hash blockHeaderHash) {
-    return blockchainStorage.getTransactionReceipts(blockHeaderHash);
+    return getCached(recentReceipts, blockHeaderHash, blockchainStorage::getTransactionReceipts);
   }
 
   @Override
   public Optional<Hash> getBlockHashByNumber(final long number) {
-    return blockchainStorage.getBlockHash(number);
+    return getCached(recentCanonicalHashes, number, blockchainStorage::getBlockHash);
   }
 
   @Override
   public Optional<Difficulty> getTotalDifficultyByHash(final Hash blockHeaderHash) {
-    return blockchainStorage.getTotalDifficulty(blockHeaderHash);
+    return getCached(
+        recentTotalDifficulties, blockHeaderHash, blockchainStorage::getTotalDifficulty);
   }
 
   @Override
@@ -205,8 +247,7 @@ public class DefaultBlockchain implements MutableBlockchain {
         .getTransactionLocation(transactionHash)
         .flatMap(
             l ->
-                blockchainStorage
-                    .getBlockBody(l.getBlockHash())
+                getBlockBody(l.getBlockHash())
                     .map(b -> b.getTransactions().get(l.getTransactionIndex())));
   }
 
@@ -215,6 +256,18 @@ public class DefaultBlockchain implements MutableBlockchain {
     return blockchainStorage.getTransactionLocation(transactionHash);
   }
 
+  @Override
+  public <T> T mapSnapshot(final Function<? super Blockchain, ? extends T> mapper) {
+    final Optional<BlockchainStorage.ReadSnapshot> maybeReadSnapshot =
+        blockchainStorage.takeReadSnapshot();
+    if (maybeReadSnapshot.isEmpty()) {
+      return mapper.apply(this);
+    }
+    try (final BlockchainStorage.ReadSnapshot readSnapshot = maybeReadSnapshot.get()) {
+      return mapper.apply(new SnapshotBlockchain(readSnapshot));
+    }
+  }
+
   @Override
   public synchronized void appendBlock(final Block block, final List<TransactionReceipt> receipts) {
     checkArgument(
@@ -248,6 +301,7 @@ public class DefaultBlockchain implements MutableBlockchain {
         updateCanonicalChainData(updater, blockWithReceipts, td);
 
     updater.commit();
+    cacheRecentBlock(blockWithReceipts, td, blockAddedEvent.getEventType());
     if (blockAddedEvent.isNewCanonicalHead()) {
       updateCacheForNewCanonicalHead(block, td);
     }
@@ -255,14 +309,36 @@ public class DefaultBlockchain implements MutableBlockchain {
     return blockAddedEvent;
   }
 
+  private void cacheRecentBlock(
+      final BlockWithReceipts blockWithReceipts,
+      final Difficulty td,
+      final BlockAddedEvent.EventType eventType) {
+    final Hash hash = blockWithReceipts.getHash();
+    recentHeaders.put(hash, blockWithReceipts.getHeader());
+    recentBodies.put(hash, blockWithReceipts.getBlock().getBody());
+    recentReceipts.put(hash, List.copyOf(blockWithReceipts.getReceipts()));
+    recentTotalDifficulties.put(hash, td);
+    switch (eventType) {
+      case HEAD_ADVANCED:
+        recentCanonicalHashes.put(blockWithReceipts.getNumber(), hash);
+        break;
+      case CHAIN_REORG:
+        // The canonical hashes of any number of blocks may have changed
+        recentCanonicalHashes.invalidateAll();
+        break;
+      case FORK:
+      default:
+        break;
+    }
+  }
+
   private Difficulty calculateTotalDifficulty(final Block block) {
     if (block.getHeader().getNumber() == BlockHeader.GENESIS_BLOCK_NUMBER) {
       return block.getHeader().getDifficulty();
     }
 
     final Difficulty parentTotalDifficulty =
-        blockchainStorage
-            .getTotalDifficulty(block.getHeader().getParentHash())
+        getTotalDifficultyByHash(block.getHeader().getParentHash())
             .orElseThrow(
                 () -> new IllegalStateException("Blockchain is missing total difficulty data."));
     return block.getHeader().getDifficulty().add(parentTotalDifficulty);
@@ -421,6 +497,7 @@ public class DefaultBlockchain implements MutableBlockchain {
 
       handleChainReorg(updater, blockWithReceipts);
       updater.commit();
+      recentCanonicalHashes.invalidateAll();
 
       updateCacheForNewCanonicalHead(block, calculateTotalDifficulty(block));
       return true;
@@ -497,11 +574,11 @@ public class DefaultBlockchain implements MutableBlockchain {
       // Saves a db read for the most common case
       return false;
     }
-    return blockchainStorage.getBlockHeader(block.getHash()).isPresent();
+    return getBlockHeader(block.getHash()).isPresent();
   }
 
   private boolean blockIsConnected(final Block block) {
-    return blockchainStorage.getBlockHeader(block.getHeader().getParentHash()).isPresent();
+    return getBlockHeader(block.getHeader().getParentHash()).isPresent();
   }
 
   private void addAddedLogsWithMetadata(
@@ -521,19 +598,16 @@ public class DefaultBlockchain implements MutableBlockchain {
   }
 
   private Optional<BlockWithReceipts> getBlockWithReceipts(final BlockHeader blockHeader) {
-    return blockchainStorage
-        .getBlockBody(blockHeader.getHash())
+    return getBlockBody(blockHeader.getHash())
         .map(body -> new Block(blockHeader, body))
         .flatMap(
             block ->
-                blockchainStorage
-                    .getTransactionReceipts(blockHeader.getHash())
+                getTxReceipts(blockHeader.getHash())
                     .map(receipts -> new BlockWithReceipts(block, receipts)));
   }
 
   private BlockWithReceipts getParentBlockWithReceipts(final BlockWithReceipts blockWithReceipts) {
-    return blockchainStorage
-        .getBlockHeader(blockWithReceipts.getHeader().getParentHash())
+    return getBlockHeader(blockWithReceipts.getHeader().getParentHash())
         .flatMap(this::getBlockWithReceipts)
         .get();
   }
@@ -572,4 +646,111 @@ public class DefaultBlockchain implements MutableBlockchain {
   private void notifyChainReorgBlockAdded(final BlockHeader blockHeader) {
     blockReorgObservers.forEach(observer -> observer.onBlockAdded(blockHeader, this));
   }
+
+  /**
+   * A read-only view of the blockchain pinned to a storage snapshot. Data keyed by block hash never
+   * changes, so it is still served from the recent block caches, but the chain head and the
+   * canonical hashes by number are read from the snapshot only.
+   */
+  private class SnapshotBlockchain implements Blockchain {
+    private final BlockchainStorage.ReadSnapshot readSnapshot;
+    private final BlockHeader chainHeader;
+    private final Difficulty totalDifficulty;
+
+    private SnapshotBlockchain(final BlockchainStorage.ReadSnapshot readSnapshot) {
+      this.readSnapshot = readSnapshot;
+      final Hash chainHead = readSnapshot.getChainHead().get();
+      this.chainHeader = getBlockHeader(chainHead).get();
+      this.totalDifficulty = getTotalDifficultyByHash(chainHead).get();
+    }
+
+    @Override
+    public ChainHead getChainHead() {
+      return new ChainHead(chainHeader.getHash(), totalDifficulty, chainHeader.getNumber());
+    }
+
+    @Override
+    public long getChainHeadBlockNumber() {
+      return chainHeader.getNumber();
+    }
+
+    @Override
+    public Hash getChainHeadHash() {
+      return chainHeader.getHash();
+    }
+
+    @Override
+    public BlockHeader getChainHeadHeader() {
+      return chainHeader;
+    }
+
+    @Override
+    public Optional<BlockHeader> getBlockHeader(final long blockNumber) {
+      return getBlockHashByNumber(blockNumber).flatMap(this::getBlockHeader);
+    }
+
+    @Override
+    public Optional<BlockHeader> getBlockHeader(final Hash blockHeaderHash) {
+      return getCached(recentHeaders, blockHeaderHash, readSnapshot::getBlockHeader);
+    }
+
+    @Override
+    public Optional<BlockBody> getBlockBody(final Hash blockHeaderHash) {
+      return getCached(recentBodies, blockHeaderHash, readSnapshot::getBlockBody);
+    }
+
+    @Override
+    public Optional<List<TransactionReceipt>> getTxReceipts(final Hash blockHeaderHash) {
+      return getCached(recentReceipts, blockHeaderHash, readSnapshot::getTransactionReceipts);
+    }
+
+    @Override
+    public Optional<Hash> getBlockHashByNumber(final long number) {
+      return readSnapshot.getBlockHash(number);
+    }
+
+    @Override
+    public Optional<Difficulty> getTotalDifficultyByHash(final Hash blockHeaderHash) {
+      return getCached(recentTotalDifficulties, blockHeaderHash, readSnapshot::getTotalDifficulty);
+    }
+
+    @Override
+    public Optional<Transaction> getTransactionByHash(final Hash transactionHash) {
+      return getTransactionLocation(transactionHash)
+          .flatMap(
+              l ->
+                  getBlockBody(l.getBlockHash())
+                      .map(b -> b.getTransactions().get(l.getTransactionIndex())));
+    }
+
+    @Override
+    public Optional<TransactionLocation> getTransactionLocation(final Hash transactionHash) {
+      return readSnapshot.getTransactionLocation(transactionHash);
+    }
+
+    @Override
+    public <T> T mapSnapshot(final Function<? super Blockchain, ? extends T> mapper) {
+      return mapper.apply(this);
+    }
+
+    @Override
+    public long observeBlockAdded(final BlockAddedObserver observer) {
+      throw new UnsupportedOperationException("A blockchain snapshot cannot be observed");
+    }
+
+    @Override
+    public boolean removeObserver(final long observerId) {
+      throw new UnsupportedOperationException("A blockchain snapshot cannot be observed");
+    }
+
+    @Override
+    public long observeChainReorg(final ChainReorgObserver observer) {
+      throw new UnsupportedOperationException("A blockchain snapshot cannot be observed");
+    }
+
+    @Override
+    public boolean removeChainReorgObserver(final long observerId) {
+      throw new UnsupportedOperationException("A blockchain snapshot cannot be observed");
+    }
+  }
 }
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Optional;
@@ -45,6 +46,7 @@ public abstract class AbstractWorldUpdater<W extends WorldView, A extends Accoun
 
   private final Map<Address, UpdateTrackingAccount<A>> updatedAccounts = new HashMap<>();
   private final Set<Address> deletedAccounts = new HashSet<>();
+  private final Map<Bytes32, Bytes> updatedDamlBlobs = new HashMap<>();
 
   protected AbstractWorldUpdater(final W world) {
     this.world = world;
@@ -107,6 +109,40 @@ public abstract class AbstractWorldUpdater<W extends WorldView, A extends Accoun
     updatedAccounts.remove(address);
   }
 
+  @Override
+  public Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    final Bytes updated = updatedDamlBlobs.get(blobHash);
+    if (updated != null) {
+      return Optional.of(updated);
+    }
+    return world.getDamlBlob(blobHash);
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getDamlBlobs(final Collection<Bytes32> blobHashes) {
+    final Map<Bytes32, Bytes> blobs = new HashMap<>();
+    final List<Bytes32> remaining = new ArrayList<>();
+    for (final Bytes32 blobHash : blobHashes) {
+      final Bytes updated = updatedDamlBlobs.get(blobHash);
+      if (updated != null) {
+        blobs.put(blobHash, updated);
+      } else {
+        remaining.add(blobHash);
+      }
+    }
+    if (!remaining.isEmpty()) {
+      blobs.putAll(world.getDamlBlobs(remaining));
+    }
+    return blobs;
+  }
+
+  @Override
+  public Hash putDamlBlob(final Bytes blob) {
+    final Hash blobHash = Hash.hash(blob);
+    updatedDamlBlobs.put(blobHash, blob);
+    return blobHash;
+  }
+
   /**
    * Creates an updater that buffer updates on top of this updater.
    *
@@ -160,6 +196,15 @@ public abstract class AbstractWorldUpdater<W extends WorldView, A extends Accoun
     return deletedAccounts;
   }
 
+  /**
+   * The DAML ledger entries stored as part of this updater, keyed by their hash.
+   *
+   * @return The DAML ledger entries stored as part of this updater.
+   */
+  protected Map<Bytes32, Bytes> updatedDamlBlobs() {
+    return updatedDamlBlobs;
+  }
+
   /**
    * A implementation of {@link MutableAccount} that tracks updates made to the account since the
    * creation of the updater this is linked to.
@@ -431,11 +476,13 @@ public abstract class AbstractWorldUpdater<W extends WorldView, A extends Accoun
     public void revert() {
       deletedAccounts().clear();
       updatedAccounts().clear();
+      updatedDamlBlobs().clear();
     }
 
     @Override
     public void commit() {
       final AbstractWorldUpdater<W, A> wrapped = wrappedWorldView();
+      wrapped.updatedDamlBlobs.putAll(updatedDamlBlobs());
       // Our own updates should apply on top of the updates we're stacked on top, so our deletions
       // may kill some of "their" updates, and our updates may review some of the account "they"
       // deleted.
@@ -93,29 +93,64 @@ public final class Gas {
   }
 
   public Gas plus(final Gas amount) {
-    try {
-      return of(Math.addExact(value, amount.value));
-    } catch (final ArithmeticException e) {
-      return MAX_VALUE;
+    if (amount.value == 0) {
+      return this;
     }
+    return of(saturatingAdd(value, amount.value));
   }
 
   public Gas minus(final Gas amount) {
+    if (amount.value == 0) {
+      return this;
+    }
     return of(value - amount.value);
   }
 
   public Gas times(final Gas amount) {
-    try {
-      return of(Math.multiplyExact(value, amount.value));
-    } catch (final ArithmeticException e) {
-      return MAX_VALUE;
-    }
+    return of(saturatingMultiply(value, amount.value));
   }
 
   public Gas times(final long amount) {
     return times(Gas.of(amount));
   }
 
+  /**
+   * Add two amounts of gas, saturating at {@link Long#MAX_VALUE} like {@link #plus(Gas)}.
+   *
+   * @param a an amount of gas
+   * @param b another amount of gas
+   * @return the sum, or {@link Long#MAX_VALUE} if it overflows
+   */
+  public static long saturatingAdd(final long a, final long b) {
+    final long sum = a + b;
+    // The sum overflowed if it has a different sign from both operands
+    return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+  }
+
+  /**
+   * Multiply two amounts of gas, saturating at {@link Long#MAX_VALUE} like {@link #times(Gas)}.
+   *
+   * @param a an amount of gas
+   * @param b another amount of gas
+   * @return the product, or {@link Long#MAX_VALUE} if it overflows
+   */
+  public static long saturatingMultiply(final long a, final long b) {
+    final long high = Math.multiplyHigh(a, b);
+    final long low = a * b;
+    return (high == 0 && low >= 0) || (high == -1 && low < 0) ? low : Long.MAX_VALUE;
+  }
+
+  /**
+   * Convert a word to an amount of gas, saturating at {@link Long#MAX_VALUE} like {@link
+   * #of(UInt256)}.
+   *
+   * @param value the word
+   * @return the amount of gas
+   */
+  public static long saturatingOf(final UInt256 value) {
+    return value.fitsLong() ? value.toLong() : Long.MAX_VALUE;
+  }
+
   public UInt256 asUInt256() {
     return UInt256.valueOf(value);
   }
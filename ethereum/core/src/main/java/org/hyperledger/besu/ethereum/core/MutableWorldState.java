@@ -14,6 +14,10 @@
  */
 package org.hyperledger.besu.ethereum.core;
 
+import java.util.Collection;
+
+import org.apache.tuweni.units.bigints.UInt256;
+
 public interface MutableWorldState extends WorldState, MutableWorldView {
 
   /**
@@ -25,4 +29,16 @@ public interface MutableWorldState extends WorldState, MutableWorldView {
 
   /** Persist accumulated changes to underlying storage. */
   void persist();
+
+  /**
+   * Read the trie nodes on the paths to an account and some of its storage slots in the last
+   * persisted state, so that they are in the storage caches by the time they are actually needed.
+   *
+   * <p>Unlike the other methods, this may be called from any thread while this world state is in
+   * use. It has no effect on the state.
+   *
+   * @param address the address of the account
+   * @param storageKeys the storage slots of the account to read
+   */
+  default void prefetch(final Address address, final Collection<UInt256> storageKeys) {}
 }
@@ -19,6 +19,8 @@ import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater.UpdateTrackingAcc
 import java.util.Collection;
 import java.util.Optional;
 
+import org.apache.tuweni.bytes.Bytes;
+
 /**
  * An object that buffers updates made over a particular {@link WorldView}.
  *
@@ -89,6 +91,18 @@ public interface WorldUpdater extends MutableWorldView {
    */
   void deleteAccount(Address address);
 
+  /**
+   * Stores a content-addressed DAML ledger entry.
+   *
+   * <p>Only the returned hash is meant to be committed to the world state trie; the entry itself is
+   * persisted alongside the world state when this updater's changes are persisted.
+   *
+   * @param blob the entry to store.
+   * @return the keccak256 hash under which the entry can be retrieved with {@link
+   *     #getDamlBlob(org.apache.tuweni.bytes.Bytes32)}.
+   */
+  Hash putDamlBlob(Bytes blob);
+
   /**
    * Returns the accounts that have been touched within the scope of this updater.
    *
@@ -14,6 +14,14 @@
  */
 package org.hyperledger.besu.ethereum.core;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
 /** Generic interface for a view over the accounts of the world state. */
 public interface WorldView {
   WorldView EMPTY = address -> null;
@@ -26,4 +34,28 @@ public interface WorldView {
    *     such account.
    */
   Account get(Address address);
+
+  /**
+   * Get a content-addressed DAML ledger entry given its hash.
+   *
+   * @param blobHash the keccak256 hash of the entry.
+   * @return the entry bytes, or empty if this view does not know of such an entry.
+   */
+  default Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    return Optional.empty();
+  }
+
+  /**
+   * Get several content-addressed DAML ledger entries in one batch.
+   *
+   * @param blobHashes the keccak256 hashes of the entries.
+   * @return the entries found, keyed by hash. Unknown entries are absent from the map.
+   */
+  default Map<Bytes32, Bytes> getDamlBlobs(final Collection<Bytes32> blobHashes) {
+    final Map<Bytes32, Bytes> blobs = new HashMap<>();
+    for (final Bytes32 blobHash : blobHashes) {
+      getDamlBlob(blobHash).ifPresent(blob -> blobs.put(blobHash, blob));
+    }
+    return blobs;
+  }
 }
@@ -89,13 +89,15 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
 
   private final MiningBeneficiaryCalculator miningBeneficiaryCalculator;
 
+  private final BlockStatePrefetcher statePrefetcher;
+
   public AbstractBlockProcessor(final AbstractBlockProcessor blockProcessor) {
-    this(
-        blockProcessor.transactionProcessor,
-        blockProcessor.transactionReceiptFactory,
-        blockProcessor.blockReward,
-        blockProcessor.miningBeneficiaryCalculator,
-        blockProcessor.skipZeroBlockRewards);
+    this.transactionProcessor = blockProcessor.transactionProcessor;
+    this.transactionReceiptFactory = blockProcessor.transactionReceiptFactory;
+    this.blockReward = blockProcessor.blockReward;
+    this.miningBeneficiaryCalculator = blockProcessor.miningBeneficiaryCalculator;
+    this.skipZeroBlockRewards = blockProcessor.skipZeroBlockRewards;
+    this.statePrefetcher = blockProcessor.statePrefetcher;
   }
 
   public AbstractBlockProcessor(
@@ -109,6 +111,7 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
     this.blockReward = blockReward;
     this.miningBeneficiaryCalculator = miningBeneficiaryCalculator;
     this.skipZeroBlockRewards = skipZeroBlockRewards;
+    this.statePrefetcher = new BlockStatePrefetcher();
   }
 
   @Override
@@ -118,7 +121,21 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
       final BlockHeader blockHeader,
       final List<Transaction> transactions,
       final List<BlockHeader> ommers) {
+    final BlockStatePrefetcher.Prefetch prefetch =
+        statePrefetcher.start(worldState, blockHeader, transactions);
+    try {
+      return executeBlock(blockchain, worldState, blockHeader, transactions, ommers);
+    } finally {
+      prefetch.cancel();
+    }
+  }
 
+  private AbstractBlockProcessor.Result executeBlock(
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final List<Transaction> transactions,
+      final List<BlockHeader> ommers) {
     long gasUsed = 0;
     final List<TransactionReceipt> receipts = new ArrayList<>();
 
@@ -151,6 +168,7 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
         return AbstractBlockProcessor.Result.failed();
       }
 
+      statePrefetcher.recordWrites(worldStateUpdater);
       worldStateUpdater.commit();
       gasUsed = transaction.getGasLimit() - result.getGasRemaining() + gasUsed;
       final TransactionReceipt transactionReceipt =
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater.UpdateTrackingAccount;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Reads the state a block is likely to touch on a pool of I/O threads, ahead of its execution.
+ *
+ * <p>The accounts of the coinbase and of the senders and recipients of the transactions are loaded
+ * in transaction order, along with the storage slots each recipient wrote in earlier blocks. The
+ * trie nodes read end up in the trie node cache, so execution and the final persist mostly find
+ * them there instead of reading them one at a time on the block processing thread. Only storage
+ * reads are made, so prefetching cannot change the outcome of a block.
+ */
+final class BlockStatePrefetcher {
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Maximum number of contracts whose written storage slots are remembered. */
+  private static final int MAX_RECORDED_CONTRACTS = 1024;
+  /** Maximum number of written storage slots remembered per contract. */
+  @VisibleForTesting static final int MAX_RECORDED_SLOTS_PER_CONTRACT = 256;
+
+  private static final int THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors());
+  private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+  private final ExecutorService executor;
+  private final Cache<Address, Set<UInt256>> recordedSlots =
+      CacheBuilder.newBuilder().maximumSize(MAX_RECORDED_CONTRACTS).build();
+
+  BlockStatePrefetcher() {
+    this(EXECUTOR);
+  }
+
+  @VisibleForTesting
+  BlockStatePrefetcher(final ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  private static ThreadPoolExecutor createExecutor() {
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            THREAD_COUNT,
+            THREAD_COUNT,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("state-prefetch-%d").setDaemon(true).build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Start reading the state a block is likely to touch.
+   *
+   * @param worldState the world state the block is executed against
+   * @param blockHeader the header of the block
+   * @param transactions the transactions of the block
+   * @return the prefetch, to be cancelled once the block has been processed
+   */
+  Prefetch start(
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final List<Transaction> transactions) {
+    if (transactions.isEmpty()) {
+      return Prefetch.NONE;
+    }
+    final Set<Address> prefetched = ConcurrentHashMap.newKeySet();
+    final List<Future<?>> tasks = new ArrayList<>(transactions.size() + 1);
+    tasks.add(executor.submit(() -> prefetch(worldState, prefetched, blockHeader.getCoinbase())));
+    for (final Transaction transaction : transactions) {
+      tasks.add(
+          executor.submit(
+              () -> {
+                // Recovering the sender is itself expensive, do it off the processing thread too
+                prefetch(worldState, prefetched, transaction.getSender());
+                transaction.getTo().ifPresent(to -> prefetch(worldState, prefetched, to));
+              }));
+    }
+    return new Prefetch(tasks);
+  }
+
+  private void prefetch(
+      final MutableWorldState worldState, final Set<Address> prefetched, final Address address) {
+    if (!prefetched.add(address)) {
+      return;
+    }
+    final Set<UInt256> slots = recordedSlots.getIfPresent(address);
+    try {
+      worldState.prefetch(address, slots == null ? Collections.emptyList() : List.copyOf(slots));
+    } catch (final RuntimeException e) {
+      // The block processing thread will hit, and report, the same problem if it matters
+      LOG.trace("Failed to prefetch state of {}", address, e);
+    }
+  }
+
+  /**
+   * Remember the storage slots written by a transaction, to prefetch them for later blocks.
+   *
+   * @param updater the updater the transaction was executed with, before it is committed
+   */
+  void recordWrites(final WorldUpdater updater) {
+    for (final UpdateTrackingAccount<? extends Account> account : updater.getTouchedAccounts()) {
+      final Map<UInt256, UInt256> updatedStorage = account.getUpdatedStorage();
+      if (updatedStorage.isEmpty()) {
+        continue;
+      }
+      final Set<UInt256> slots =
+          recordedSlots.asMap().computeIfAbsent(account.getAddress(), a -> newSlotSet());
+      for (final UInt256 key : updatedStorage.keySet()) {
+        if (slots.size() >= MAX_RECORDED_SLOTS_PER_CONTRACT) {
+          break;
+        }
+        slots.add(key);
+      }
+    }
+  }
+
+  private static Set<UInt256> newSlotSet() {
+    return ConcurrentHashMap.newKeySet();
+  }
+
+  /** The reads started for a block. */
+  static final class Prefetch {
+    private static final Prefetch NONE = new Prefetch(Collections.emptyList());
+
+    private final Collection<Future<?>> tasks;
+
+    private Prefetch(final Collection<Future<?>> tasks) {
+      this.tasks = tasks;
+    }
+
+    /** Drop the reads that have not started yet. */
+    void cancel() {
+      // Reads in progress are left to finish, they only fill caches
+      tasks.forEach(task -> task.cancel(false));
+    }
+  }
+}
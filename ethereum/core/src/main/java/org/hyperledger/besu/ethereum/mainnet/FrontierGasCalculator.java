@@ -304,11 +304,19 @@ public class FrontierGasCalculator implements GasCalculator {
   @Override
   public Gas memoryExpansionGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
+    final long cost = memoryExpansionCost(frame, offset, length);
+    // Most memory accesses do not expand memory, avoid allocating for them
+    return cost == 0 ? Gas.ZERO : Gas.of(cost);
+  }
 
-    final Gas pre = memoryCost(frame.memoryWordSize());
-    final Gas post = memoryCost(frame.calculateMemoryExpansion(offset, length));
-
-    return post.minus(pre);
+  private static long memoryExpansionCost(
+      final MessageFrame frame, final UInt256 offset, final UInt256 length) {
+    final UInt256 pre = frame.memoryWordSize();
+    final UInt256 post = frame.calculateMemoryExpansion(offset, length);
+    if (post.equals(pre)) {
+      return 0;
+    }
+    return memoryCost(post) - memoryCost(pre);
   }
 
   @Override
@@ -332,7 +340,10 @@ public class FrontierGasCalculator implements GasCalculator {
 
   @Override
   public Gas expOperationGasCost(final int numBytes) {
-    return expOperationByteGasCost().times(Gas.of(numBytes)).plus(EXP_OPERATION_BASE_GAS_COST);
+    return Gas.of(
+        Gas.saturatingAdd(
+            Gas.saturatingMultiply(expOperationByteGasCost().toLong(), numBytes),
+            EXP_OPERATION_BASE_GAS_COST.toLong()));
   }
 
   /**
@@ -373,11 +384,17 @@ public class FrontierGasCalculator implements GasCalculator {
       final UInt256 dataOffset,
       final UInt256 dataLength,
       final int numTopics) {
-    return Gas.ZERO
-        .plus(LOG_OPERATION_BASE_GAS_COST)
-        .plus(LOG_OPERATION_DATA_BYTE_GAS_COST.times(Gas.of(dataLength)))
-        .plus(LOG_OPERATION_TOPIC_GAS_COST.times(numTopics))
-        .plus(memoryExpansionGasCost(frame, dataOffset, dataLength));
+    long cost = LOG_OPERATION_BASE_GAS_COST.toLong();
+    cost =
+        Gas.saturatingAdd(
+            cost,
+            Gas.saturatingMultiply(
+                LOG_OPERATION_DATA_BYTE_GAS_COST.toLong(), Gas.saturatingOf(dataLength)));
+    cost =
+        Gas.saturatingAdd(
+            cost, Gas.saturatingMultiply(LOG_OPERATION_TOPIC_GAS_COST.toLong(), numTopics));
+    cost = Gas.saturatingAdd(cost, memoryExpansionCost(frame, dataOffset, dataLength));
+    return Gas.of(cost);
   }
 
   @Override
@@ -445,21 +462,26 @@ public class FrontierGasCalculator implements GasCalculator {
       final Gas wordGasCost,
       final UInt256 offset,
       final UInt256 length) {
-    final UInt256 numWords = length.divideCeil(Bytes32.SIZE);
+    if (length.isZero()) {
+      return baseGasCost;
+    }
+    final long numWords = Gas.saturatingOf(length.divideCeil(Bytes32.SIZE));
 
-    final Gas copyCost = wordGasCost.times(Gas.of(numWords)).plus(baseGasCost);
-    final Gas memoryCost = memoryExpansionGasCost(frame, offset, length);
+    final long copyCost =
+        Gas.saturatingAdd(
+            Gas.saturatingMultiply(wordGasCost.toLong(), numWords), baseGasCost.toLong());
+    final long memoryCost = memoryExpansionCost(frame, offset, length);
 
-    return copyCost.plus(memoryCost);
+    return Gas.of(Gas.saturatingAdd(copyCost, memoryCost));
   }
 
-  private static Gas memoryCost(final UInt256 length) {
+  private static long memoryCost(final UInt256 length) {
     if (!length.fitsInt()) {
-      return Gas.MAX_VALUE;
+      return Long.MAX_VALUE;
     }
-    final Gas len = Gas.of(length);
-    final Gas base = len.times(len).dividedBy(512);
+    final long len = length.toLong();
+    final long base = len * len / 512;
 
-    return MEMORY_WORD_GAS_COST.times(len).plus(base);
+    return MEMORY_WORD_GAS_COST.toLong() * len + base;
   }
 }
@@ -135,7 +135,10 @@ public abstract class MainnetPrecompiledContractRegistries {
     registry.put(
         Address.DAML_PUBLIC,
         accountVersion,
-        new DamlPublicPrecompiledContract(precompiledContractConfiguration.getGasCalculator()));
+        new DamlPublicPrecompiledContract(
+            precompiledContractConfiguration.getGasCalculator(),
+            precompiledContractConfiguration.getDamlStateValueCache(),
+            precompiledContractConfiguration.getMetricsSystem()));
     return registry;
   }
 }
@@ -15,16 +15,38 @@
 package org.hyperledger.besu.ethereum.mainnet;
 
 import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlStateValueCache;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 
 public class PrecompiledContractConfiguration {
   private GasCalculator gasCalculator;
   private PrivacyParameters privacyParameters;
+  private MetricsSystem metricsSystem;
+  private DamlStateValueCache damlStateValueCache;
 
   public PrecompiledContractConfiguration(
       final GasCalculator gasCalculator, final PrivacyParameters privacyParameters) {
+    this(gasCalculator, privacyParameters, new NoOpMetricsSystem());
+  }
+
+  public PrecompiledContractConfiguration(
+      final GasCalculator gasCalculator,
+      final PrivacyParameters privacyParameters,
+      final MetricsSystem metricsSystem) {
+    this(gasCalculator, privacyParameters, metricsSystem, new DamlStateValueCache(metricsSystem));
+  }
+
+  public PrecompiledContractConfiguration(
+      final GasCalculator gasCalculator,
+      final PrivacyParameters privacyParameters,
+      final MetricsSystem metricsSystem,
+      final DamlStateValueCache damlStateValueCache) {
     this.gasCalculator = gasCalculator;
     this.privacyParameters = privacyParameters;
+    this.metricsSystem = metricsSystem;
+    this.damlStateValueCache = damlStateValueCache;
   }
 
   public GasCalculator getGasCalculator() {
@@ -42,4 +64,20 @@ public class PrecompiledContractConfiguration {
   public void setPrivacyParameters(final PrivacyParameters privacyParameters) {
     this.privacyParameters = privacyParameters;
   }
+
+  public MetricsSystem getMetricsSystem() {
+    return metricsSystem;
+  }
+
+  public void setMetricsSystem(final MetricsSystem metricsSystem) {
+    this.metricsSystem = metricsSystem;
+  }
+
+  public DamlStateValueCache getDamlStateValueCache() {
+    return damlStateValueCache;
+  }
+
+  public void setDamlStateValueCache(final DamlStateValueCache damlStateValueCache) {
+    this.damlStateValueCache = damlStateValueCache;
+  }
 }
@@ -16,7 +16,10 @@ package org.hyperledger.besu.ethereum.mainnet;
 
 import org.hyperledger.besu.config.GenesisConfigOptions;
 import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlStateValueCache;
 import org.hyperledger.besu.ethereum.privacy.PrivateTransactionValidator;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 
 import java.math.BigInteger;
 import java.util.Optional;
@@ -34,6 +37,9 @@ public class ProtocolScheduleBuilder<C> {
   private final Optional<BigInteger> defaultChainId;
   private final PrivacyParameters privacyParameters;
   private final boolean isRevertReasonEnabled;
+  private final MetricsSystem metricsSystem;
+  // Shared by the DAML precompiles of every milestone, so that it survives forks
+  private final DamlStateValueCache damlStateValueCache;
 
   public ProtocolScheduleBuilder(
       final GenesisConfigOptions config,
@@ -41,12 +47,29 @@ public class ProtocolScheduleBuilder<C> {
       final Function<ProtocolSpecBuilder<Void>, ProtocolSpecBuilder<C>> protocolSpecAdapter,
       final PrivacyParameters privacyParameters,
       final boolean isRevertReasonEnabled) {
+    this(
+        config,
+        defaultChainId,
+        protocolSpecAdapter,
+        privacyParameters,
+        isRevertReasonEnabled,
+        new NoOpMetricsSystem());
+  }
+
+  public ProtocolScheduleBuilder(
+      final GenesisConfigOptions config,
+      final BigInteger defaultChainId,
+      final Function<ProtocolSpecBuilder<Void>, ProtocolSpecBuilder<C>> protocolSpecAdapter,
+      final PrivacyParameters privacyParameters,
+      final boolean isRevertReasonEnabled,
+      final MetricsSystem metricsSystem) {
     this(
         config,
         Optional.of(defaultChainId),
         protocolSpecAdapter,
         privacyParameters,
-        isRevertReasonEnabled);
+        isRevertReasonEnabled,
+        metricsSystem);
   }
 
   public ProtocolScheduleBuilder(
@@ -54,7 +77,27 @@ public class ProtocolScheduleBuilder<C> {
       final Function<ProtocolSpecBuilder<Void>, ProtocolSpecBuilder<C>> protocolSpecAdapter,
       final PrivacyParameters privacyParameters,
       final boolean isRevertReasonEnabled) {
-    this(config, Optional.empty(), protocolSpecAdapter, privacyParameters, isRevertReasonEnabled);
+    this(
+        config,
+        protocolSpecAdapter,
+        privacyParameters,
+        isRevertReasonEnabled,
+        new NoOpMetricsSystem());
+  }
+
+  public ProtocolScheduleBuilder(
+      final GenesisConfigOptions config,
+      final Function<ProtocolSpecBuilder<Void>, ProtocolSpecBuilder<C>> protocolSpecAdapter,
+      final PrivacyParameters privacyParameters,
+      final boolean isRevertReasonEnabled,
+      final MetricsSystem metricsSystem) {
+    this(
+        config,
+        Optional.empty(),
+        protocolSpecAdapter,
+        privacyParameters,
+        isRevertReasonEnabled,
+        metricsSystem);
   }
 
   private ProtocolScheduleBuilder(
@@ -62,12 +105,15 @@ public class ProtocolScheduleBuilder<C> {
       final Optional<BigInteger> defaultChainId,
       final Function<ProtocolSpecBuilder<Void>, ProtocolSpecBuilder<C>> protocolSpecAdapter,
       final PrivacyParameters privacyParameters,
-      final boolean isRevertReasonEnabled) {
+      final boolean isRevertReasonEnabled,
+      final MetricsSystem metricsSystem) {
     this.config = config;
     this.defaultChainId = defaultChainId;
     this.protocolSpecAdapter = protocolSpecAdapter;
     this.privacyParameters = privacyParameters;
     this.isRevertReasonEnabled = isRevertReasonEnabled;
+    this.metricsSystem = metricsSystem;
+    this.damlStateValueCache = new DamlStateValueCache(metricsSystem);
   }
 
   public ProtocolSchedule<C> createProtocolSchedule() {
@@ -235,6 +281,8 @@ public class ProtocolScheduleBuilder<C> {
                 protocolSpecAdapter
                     .apply(definition)
                     .privacyParameters(privacyParameters)
+                    .metricsSystem(metricsSystem)
+                    .damlStateValueCache(damlStateValueCache)
                     .privateTransactionValidatorBuilder(
                         () -> new PrivateTransactionValidator(protocolSchedule.getChainId()))
                     .build(protocolSchedule)));
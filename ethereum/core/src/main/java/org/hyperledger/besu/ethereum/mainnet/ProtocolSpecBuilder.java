@@ -23,11 +23,16 @@ import org.hyperledger.besu.ethereum.core.BlockHeaderFunctions;
 import org.hyperledger.besu.ethereum.core.BlockImporter;
 import org.hyperledger.besu.ethereum.core.PrivacyParameters;
 import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlBlockProcessor;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlPublicPrecompiledContract;
+import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.DamlStateValueCache;
 import org.hyperledger.besu.ethereum.mainnet.precompiles.privacy.PrivacyPrecompiledContract;
 import org.hyperledger.besu.ethereum.privacy.PrivateTransactionProcessor;
 import org.hyperledger.besu.ethereum.privacy.PrivateTransactionValidator;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -57,6 +62,8 @@ public class ProtocolSpecBuilder<T> {
   private String name;
   private MiningBeneficiaryCalculator miningBeneficiaryCalculator;
   private PrivacyParameters privacyParameters;
+  private MetricsSystem metricsSystem = new NoOpMetricsSystem();
+  private DamlStateValueCache damlStateValueCache;
   private PrivateTransactionProcessorBuilder privateTransactionProcessorBuilder;
   private PrivateTransactionValidatorBuilder privateTransactionValidatorBuilder;
 
@@ -211,6 +218,24 @@ public class ProtocolSpecBuilder<T> {
     return this;
   }
 
+  public ProtocolSpecBuilder<T> metricsSystem(final MetricsSystem metricsSystem) {
+    this.metricsSystem = metricsSystem;
+    return this;
+  }
+
+  /**
+   * Share a cache of DAML state values with the DAML precompiles of other protocol specs. Without
+   * one, the DAML precompile of this spec gets its own cache.
+   *
+   * @param damlStateValueCache the cache of the protocol schedule
+   * @return this builder
+   */
+  public ProtocolSpecBuilder<T> damlStateValueCache(
+      final DamlStateValueCache damlStateValueCache) {
+    this.damlStateValueCache = damlStateValueCache;
+    return this;
+  }
+
   public <R> ProtocolSpecBuilder<R> changeConsensusContextType(
       final Function<DifficultyCalculator<R>, BlockHeaderValidator<R>> blockHeaderValidatorBuilder,
       final Function<DifficultyCalculator<R>, BlockHeaderValidator<R>> ommerHeaderValidatorBuilder,
@@ -225,6 +250,8 @@ public class ProtocolSpecBuilder<T> {
         .privateTransactionValidatorBuilder(privateTransactionValidatorBuilder)
         .contractCreationProcessorBuilder(contractCreationProcessorBuilder)
         .privacyParameters(privacyParameters)
+        .metricsSystem(metricsSystem)
+        .damlStateValueCache(damlStateValueCache)
         .precompileContractRegistryBuilder(precompileContractRegistryBuilder)
         .messageCallProcessorBuilder(messageCallProcessorBuilder)
         .transactionProcessorBuilder(transactionProcessorBuilder)
@@ -267,11 +294,18 @@ public class ProtocolSpecBuilder<T> {
     checkNotNull(miningBeneficiaryCalculator, "Missing Mining Beneficiary Calculator");
     checkNotNull(protocolSchedule, "Missing protocol schedule");
     checkNotNull(privacyParameters, "Missing privacy parameters");
+    checkNotNull(metricsSystem, "Missing metrics system");
 
     final GasCalculator gasCalculator = gasCalculatorBuilder.get();
     final EVM evm = evmBuilder.apply(gasCalculator);
     final PrecompiledContractConfiguration precompiledContractConfiguration =
-        new PrecompiledContractConfiguration(gasCalculator, privacyParameters);
+        new PrecompiledContractConfiguration(
+            gasCalculator,
+            privacyParameters,
+            metricsSystem,
+            damlStateValueCache != null
+                ? damlStateValueCache
+                : new DamlStateValueCache(metricsSystem));
     final TransactionValidator transactionValidator =
         transactionValidatorBuilder.apply(gasCalculator);
     final AbstractMessageProcessor contractCreationProcessor =
@@ -318,6 +352,13 @@ public class ProtocolSpecBuilder<T> {
       blockProcessor =
           new PrivacyBlockProcessor(blockProcessor, privacyParameters.getPrivateStateStorage());
     }
+    final PrecompiledContract damlPrecompile =
+        precompileContractRegistry.get(Address.DAML_PUBLIC, Account.DEFAULT_VERSION);
+    if (damlPrecompile instanceof DamlPublicPrecompiledContract) {
+      blockProcessor =
+          new DamlBlockProcessor(
+              blockProcessor, (DamlPublicPrecompiledContract) damlPrecompile, metricsSystem);
+    }
 
     final BlockValidator<T> blockValidator =
         blockValidatorBuilder.apply(blockHeaderValidator, blockBodyValidator, blockProcessor);
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.mainnet.BlockProcessor;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.digitalasset.daml.lf.data.Time.Timestamp;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A block processor that interprets the DAML submissions of a block in parallel before the block
+ * is executed.
+ *
+ * <p>Each submission is interpreted on a worker thread against the parent state of the block. The
+ * block is then executed serially as usual, and the DAML precompile reuses a pre-executed result
+ * only if none of the state keys it read has been written by an earlier submission in the block
+ * and its record time is unchanged. Any other submission is interpreted again in block order, so
+ * the resulting state is always the same as for serial execution.
+ */
+public class DamlBlockProcessor implements BlockProcessor {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final ThreadLocal<PreExecutionContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+  private final BlockProcessor blockProcessor;
+  private final DamlPublicPrecompiledContract damlPrecompile;
+  private final DamlPackageCache packageCache = DamlPackageCache.getInstance();
+  private final ThreadPoolExecutor executor;
+  private final Counter usedCounter;
+  private final Counter discardedCounter;
+
+  public DamlBlockProcessor(
+      final BlockProcessor blockProcessor,
+      final DamlPublicPrecompiledContract damlPrecompile,
+      final MetricsSystem metricsSystem) {
+    this(
+        blockProcessor, damlPrecompile, Runtime.getRuntime().availableProcessors(), metricsSystem);
+  }
+
+  public DamlBlockProcessor(
+      final BlockProcessor blockProcessor,
+      final DamlPublicPrecompiledContract damlPrecompile,
+      final int workerCount,
+      final MetricsSystem metricsSystem) {
+    this.blockProcessor = blockProcessor;
+    this.damlPrecompile = damlPrecompile;
+    this.executor =
+        new ThreadPoolExecutor(
+            workerCount,
+            workerCount,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setNameFormat("daml-pre-execution-%d").setDaemon(true).build());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.usedCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "pre_execution_used_count",
+            "Number of DAML submissions whose pre-executed result was recorded");
+    this.discardedCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "pre_execution_discarded_count",
+            "Number of DAML submissions interpreted again because of a conflict in the block");
+  }
+
+  @Override
+  public Result processBlock(
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final List<Transaction> transactions,
+      final List<BlockHeader> ommers) {
+    final Map<Bytes, Future<Optional<PreExecutedSubmission>>> preExecutions =
+        new LinkedHashMap<>();
+    for (final Transaction transaction : transactions) {
+      if (!transaction.getTo().map(Address.DAML_PUBLIC::equals).orElse(false)
+          || preExecutions.containsKey(transaction.getPayload())) {
+        continue;
+      }
+      final Bytes input = transaction.getPayload();
+      final MutableWorldState parentState = worldState.copy();
+      preExecutions.put(input, executor.submit(() -> damlPrecompile.preExecute(parentState, input)));
+    }
+    if (preExecutions.isEmpty()) {
+      return blockProcessor.processBlock(blockchain, worldState, blockHeader, transactions, ommers);
+    }
+
+    LOG.debug(
+        String.format(
+            "Pre-executing %d DAML submissions for block %d",
+            preExecutions.size(), blockHeader.getNumber()));
+    final PreExecutionContext context = new PreExecutionContext(preExecutions);
+    CURRENT_CONTEXT.set(context);
+    try {
+      final Result result =
+          blockProcessor.processBlock(blockchain, worldState, blockHeader, transactions, ommers);
+      if (result.isSuccessful()) {
+        // the state of the block has been persisted, its packages are on the ledger
+        context.packages.forEach(packageCache::recordState);
+      }
+      return result;
+    } finally {
+      CURRENT_CONTEXT.remove();
+      preExecutions.values().forEach(future -> future.cancel(true));
+    }
+  }
+
+  /**
+   * Return the pre-execution context of the block being processed on this thread.
+   *
+   * @return the context, or empty when the DAML precompile is not running as part of a block
+   *     processed by this class, e.g. during transaction simulation
+   */
+  static Optional<PreExecutionContext> currentContext() {
+    return Optional.ofNullable(CURRENT_CONTEXT.get());
+  }
+
+  /**
+   * The pre-executed submissions of a block, the DAML state written so far by the block, and the
+   * DAML packages it has read or written.
+   */
+  final class PreExecutionContext {
+    private final Map<Bytes, Future<Optional<PreExecutedSubmission>>> preExecutions;
+    private final Set<DamlStateKey> writtenKeys = new HashSet<>();
+    private final Map<DamlStateKey, DamlStateValue> packages = new LinkedHashMap<>();
+
+    private PreExecutionContext(
+        final Map<Bytes, Future<Optional<PreExecutedSubmission>>> preExecutions) {
+      this.preExecutions = preExecutions;
+    }
+
+    /**
+     * Claim the pre-executed result for a submission, if it is still valid.
+     *
+     * @param input the input of the DAML precompile
+     * @param recordTime the record time the submission is being processed at
+     * @return the pre-executed result, or empty if the submission must be interpreted again
+     */
+    Optional<PreExecutedSubmission> take(final Bytes input, final Timestamp recordTime) {
+      final Future<Optional<PreExecutedSubmission>> future = preExecutions.remove(input);
+      if (future == null) {
+        return Optional.empty();
+      }
+      final Optional<PreExecutedSubmission> result;
+      try {
+        result = future.get();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Optional.empty();
+      } catch (final ExecutionException e) {
+        LOG.debug("DAML pre-execution failed, interpreting submission again", e.getCause());
+        discardedCounter.inc();
+        return Optional.empty();
+      }
+      if (result.isPresent() && result.get().isValidAt(recordTime, writtenKeys)) {
+        usedCounter.inc();
+        return result;
+      }
+      discardedCounter.inc();
+      return Optional.empty();
+    }
+
+    /**
+     * Record the DAML state keys written by a submission.
+     *
+     * @param keys the keys written
+     */
+    void recordWrites(final Collection<DamlStateKey> keys) {
+      writtenKeys.addAll(keys);
+    }
+
+    /**
+     * Record a DAML state value read or written by a submission, to be kept in the package cache
+     * once the block has been processed.
+     *
+     * @param key the DAML state key
+     * @param value the DAML state value
+     */
+    void recordState(final DamlStateKey key, final DamlStateValue value) {
+      if (key.getKeyCase() == DamlStateKey.KeyCase.PACKAGE_ID) {
+        packages.put(key, value);
+      }
+    }
+  }
+}
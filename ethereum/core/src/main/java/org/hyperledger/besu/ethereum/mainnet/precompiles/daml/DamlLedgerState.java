@@ -17,10 +17,13 @@ package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntry;
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntryId;
@@ -36,49 +39,104 @@ import com.google.protobuf.Timestamp;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
-import org.apache.tuweni.bytes.MutableBytes32;
+import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableAccount;
-import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
 
 public class DamlLedgerState implements LedgerState {
   private static final Logger LOG = LogManager.getLogger();
 
+  private final WorldUpdater updater;
   private final MutableAccount account;
+  private final DamlStateValueCache stateValueCache;
 
-  public DamlLedgerState(final MutableAccount theAccount) {
+  public DamlLedgerState(final WorldUpdater theUpdater, final MutableAccount theAccount,
+      final DamlStateValueCache theStateValueCache) {
+    this.updater = theUpdater;
     this.account = theAccount;
+    this.stateValueCache = theStateValueCache;
   }
 
   @Override
   public DamlStateValue getDamlState(final DamlStateKey key) throws InternalError {
-    LOG.debug(String.format("Getting DAML state for key=[%s]", key));
+    LOG.debug("Getting DAML state for key=[{}]", key);
 
     final UInt256 address = Namespace.makeDamlStateKeyAddress(key);
-    LOG.debug(String.format("DAML state key address=[%s]", address.toHexString()));
-    final ByteBuffer buf = getLedgerEntry(address);
-    if (buf == null) {
-      LOG.debug(String.format("No ledger entry for DAML state key address=[%s]", address.toHexString()));
+    LOG.debug("DAML state key address=[{}]", address);
+    final Bytes32 blobHash = account.getOriginalStorageValue(address).toBytes();
+    if (blobHash.isZero()) {
+      LOG.debug("No ledger entry for DAML state key address=[{}]", address);
       return null;
     }
+    final DamlStateValue cached = stateValueCache.get(blobHash);
+    if (cached != null) {
+      return cached;
+    }
+    final ByteBuffer buf = getLedgerEntry(address, blobHash);
     try {
-      return DamlStateValue.parseFrom(buf);
+      final DamlStateValue value = DamlStateValue.parseFrom(buf);
+      stateValueCache.put(blobHash, value);
+      return value;
     } catch (final InvalidProtocolBufferException ipbe) {
       throw new InternalError("Failed to parse DAML state", ipbe);
     }
   }
 
+  /**
+   * Fetch the DAML state for several keys. The blob hashes for all keys are
+   * resolved from the DAML account first, and every blob that is not already
+   * held by the state value cache is then read in a single batch, rather than
+   * one storage lookup per key.
+   */
   @Override
   public Map<DamlStateKey, DamlStateValue> getDamlStates(final Collection<DamlStateKey> keys) throws InternalError {
-    final Map<DamlStateKey, DamlStateValue> states = new LinkedHashMap<>();
-    keys.forEach(key -> {
-      try {
-        DamlStateValue val = getDamlState(key);
-        if (val != null) {
-          states.put(key, val);
+    final Map<DamlStateKey, Bytes32> blobHashes = new LinkedHashMap<>();
+    final Map<Bytes32, DamlStateValue> values = new HashMap<>();
+    final Set<Bytes32> missing = new LinkedHashSet<>();
+    for (final DamlStateKey key : keys) {
+      final UInt256 address = Namespace.makeDamlStateKeyAddress(key);
+      final Bytes32 blobHash = account.getOriginalStorageValue(address).toBytes();
+      if (blobHash.isZero()) {
+        LOG.debug("No ledger entry for DAML state key address=[{}]", address);
+        continue;
+      }
+      blobHashes.put(key, blobHash);
+      if (!values.containsKey(blobHash) && !missing.contains(blobHash)) {
+        final DamlStateValue cached = stateValueCache.get(blobHash);
+        if (cached != null) {
+          values.put(blobHash, cached);
+        } else {
+          missing.add(blobHash);
         }
-      } catch (final InternalError e) {
-        LOG.error("Failed to parse DAML state:", e);
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      LOG.debug("Fetching {} DAML blobs for {} state keys", missing.size(), blobHashes.size());
+      final Map<Bytes32, Bytes> blobs = updater.getDamlBlobs(missing);
+      for (final Bytes32 blobHash : missing) {
+        final Bytes blob = blobs.get(blobHash);
+        if (blob == null) {
+          LOG.error(String.format("Missing DAML blob hash=%s", blobHash.toHexString()));
+          continue;
+        }
+        try {
+          final DamlStateValue value = DamlStateValue.parseFrom(blob.toArrayUnsafe());
+          stateValueCache.put(blobHash, value);
+          values.put(blobHash, value);
+        } catch (final InvalidProtocolBufferException ipbe) {
+          LOG.error("Failed to parse DAML state:", ipbe);
+        }
+      }
+    }
+
+    final Map<DamlStateKey, DamlStateValue> states = new LinkedHashMap<>();
+    blobHashes.forEach((key, blobHash) -> {
+      final DamlStateValue value = values.get(blobHash);
+      if (value != null) {
+        states.put(key, value);
       }
     });
     return states;
@@ -91,12 +149,12 @@ public class DamlLedgerState implements LedgerState {
 
   @Override
   public DamlLogEntry getDamlLogEntry(final DamlLogEntryId entryId) throws InternalError {
-    LOG.debug(String.format("Getting DAML log entry for id=[%s]", entryId));
+    LOG.debug("Getting DAML log entry for id=[{}]", entryId);
     final UInt256 address = Namespace.makeDamlLogEntryIdAddress(entryId);
-    LOG.debug(String.format("DAML log entry id address=[%s]", address.toHexString()));
+    LOG.debug("DAML log entry id address=[{}]", address);
     final ByteBuffer buf = getLedgerEntry(address);
     if (buf == null) {
-      LOG.debug(String.format("No ledger entry for DAML log entry id address=[%s]", address.toHexString()));
+      LOG.debug("No ledger entry for DAML log entry id address=[{}]", address);
       return null;
     }
     try {
@@ -107,28 +165,20 @@ public class DamlLedgerState implements LedgerState {
   }
 
   private ByteBuffer getLedgerEntry(final UInt256 key) {
-    // reconstitute RLP bytes from all ethereum slices created for this ledger entry
-    MutableBytes32 slot = key.toBytes().mutableCopy();
-    LOG.debug(String.format("Will fetch slices starting at rootKey=%s", slot.toHexString()));
-    UInt256 data = account.getOriginalStorageValue(UInt256.fromBytes(slot));
-    LOG.trace(String.format("Fetched data=%s", data.toHexString()));
-    int slices = 1;
-    Bytes rawRlp = Bytes.EMPTY;
-    while (!data.isZero()) {
-      rawRlp = Bytes.concatenate(rawRlp, data.toBytes());
-      LOG.trace(String.format("So far rawRlp=%s", rawRlp.toHexString()));
-      slot.increment();
-      slices += 1;
-      data = account.getOriginalStorageValue(UInt256.fromBytes(slot));
-      LOG.trace(String.format("Fetched data=%s", data.toHexString()));
-    }
-    LOG.debug(String.format("Fetched from rootKey=%s slices=%s size=%s", key.toHexString(), slices, rawRlp.size()));
-    if (rawRlp.size() != 0) {
-      final Bytes entry = RLP.decodeOne(rawRlp);
-      return ByteBuffer.wrap(entry.toArray());
-    } else {
+    // the account storage only holds the hash of the entry, the entry itself is a DAML blob
+    final Bytes32 blobHash = account.getOriginalStorageValue(key).toBytes();
+    if (blobHash.isZero()) {
       return null;
     }
+    return getLedgerEntry(key, blobHash);
+  }
+
+  private ByteBuffer getLedgerEntry(final UInt256 key, final Bytes32 blobHash) {
+    final Bytes entry = updater.getDamlBlob(blobHash)
+        .orElseThrow(() -> new InternalError(String.format("Missing DAML blob hash=%s for address=%s",
+            blobHash.toHexString(), key.toHexString())));
+    LOG.debug("Fetched from address={} size={}", key, entry.size());
+    return ByteBuffer.wrap(entry.toArrayUnsafe());
   }
 
   @Override
@@ -154,53 +204,32 @@ public class DamlLedgerState implements LedgerState {
   }
 
   /**
-   * Add the supplied data to the ledger, starting at the supplied ethereum
-   * storage slot address.
+   * Add the supplied data to the ledger at the supplied ethereum storage slot
+   * address. The data itself is stored as a DAML blob, and only its 32-byte hash
+   * is written to the storage slot.
    *
    * @param rootAddress 256-bit ethereum storage slot address
    * @param entry       value to store in the ledger
+   * @return the hash of the DAML blob holding the entry
    */
-  private void addLedgerEntry(final UInt256 rootAddress, final ByteString entry) {
-    // RLP-encode the entry
-    final Bytes encoded = RLP.encodeOne(Bytes.of(entry.toByteArray()));
-    MutableBytes32 slot = rootAddress.toBytes().mutableCopy();
-    LOG.debug(String.format("Writing starting at address=%s bytes=%s", rootAddress.toHexString(),
-        encoded.size()));
-    // store the first part of the entry
-    int sliceSz = Math.min(Namespace.STORAGE_SLOT_SIZE, encoded.size());
-    Bytes data = encoded.slice(0, sliceSz);
-    UInt256 part = UInt256.fromBytes(data);
-    int slices = 0;
-    account.setStorageValue(UInt256.fromBytes(slot), part);
-    LOG.trace(String.format("Wrote to address=%s slice=%s total bytes=%s", UInt256.fromBytes(slot).toHexString(),
-        slices, part.toHexString()));
-
-    // Store remaining parts, if any. We ensure that the data is stored in
-    // consecutive
-    // ethereum storage slots by incrementing the slot by one each time
-    int offset = Namespace.STORAGE_SLOT_SIZE;
-    while (offset < encoded.size()) {
-      final int length = Math.min(Namespace.STORAGE_SLOT_SIZE, encoded.size() - offset);
-      data = encoded.slice(offset, length);
-      part = UInt256.fromBytes(data);
-      slot.increment();
-      slices++;
-      account.setStorageValue(UInt256.fromBytes(slot), UInt256.fromBytes(data));
-      LOG.trace(String.format("Wrote to address=%s slice=%s bytes=%s", UInt256.fromBytes(slot).toHexString(),
-          slices, part.toHexString()));
-      offset += Namespace.STORAGE_SLOT_SIZE;
-    }
-    LOG.debug(String.format("Wrote to address=%s slices=%s total size=%s", rootAddress.toHexString(), slices,
-        encoded.size()));
+  private Hash addLedgerEntry(final UInt256 rootAddress, final ByteString entry) {
+    final Hash blobHash = updater.putDamlBlob(Bytes.wrap(entry.toByteArray()));
+    account.setStorageValue(rootAddress, UInt256.fromBytes(blobHash));
+    LOG.debug("Wrote to address={} hash={} size={}", rootAddress, blobHash, entry.size());
+    return blobHash;
   }
 
   @Override
   public void setDamlState(final DamlStateKey key, final DamlStateValue value) throws InternalError {
     final ByteString packedKey = KeyValueCommitting.packDamlStateKey(key);
-    final ByteString packedValue = key.getKeyCase().equals(DamlStateKey.KeyCase.COMMAND_DEDUP) ? packedKey
-        : KeyValueCommitting.packDamlStateValue(value);
+    final boolean isCommandDedup = key.getKeyCase().equals(DamlStateKey.KeyCase.COMMAND_DEDUP);
+    final ByteString packedValue = isCommandDedup ? packedKey : KeyValueCommitting.packDamlStateValue(value);
     final UInt256 rootAddress = Namespace.makeAddress(Namespace.DamlKeyType.STATE, packedKey);
-    addLedgerEntry(rootAddress, packedValue);
+    final Hash blobHash = addLedgerEntry(rootAddress, packedValue);
+    if (!isCommandDedup) {
+      // the value is already parsed, spare the next reader the parse
+      stateValueCache.put(blobHash, value);
+    }
   }
 
   @Override
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+import org.hyperledger.besu.ethereum.rlp.RLPOutput;
+
+import java.util.Objects;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Specifies the location of a DAML log entry within the blockchain, together with its offset in
+ * the DAML ledger and its log entry id.
+ */
+public class DamlLogEntryLocation {
+
+  private final long offset;
+  private final long blockNumber;
+  private final Hash blockHash;
+  private final int transactionIndex;
+  private final int logIndex;
+  private final Bytes logEntryId;
+
+  public DamlLogEntryLocation(
+      final long offset,
+      final long blockNumber,
+      final Hash blockHash,
+      final int transactionIndex,
+      final int logIndex,
+      final Bytes logEntryId) {
+    this.offset = offset;
+    this.blockNumber = blockNumber;
+    this.blockHash = blockHash;
+    this.transactionIndex = transactionIndex;
+    this.logIndex = logIndex;
+    this.logEntryId = logEntryId;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  public long getBlockNumber() {
+    return blockNumber;
+  }
+
+  public Hash getBlockHash() {
+    return blockHash;
+  }
+
+  public int getTransactionIndex() {
+    return transactionIndex;
+  }
+
+  /** @return the index of the log within its block, as for eth_getLogs */
+  public int getLogIndex() {
+    return logIndex;
+  }
+
+  /** @return the packed DamlLogEntryId of the entry */
+  public Bytes getLogEntryId() {
+    return logEntryId;
+  }
+
+  public void writeTo(final RLPOutput out) {
+    out.startList();
+
+    out.writeLongScalar(offset);
+    out.writeLongScalar(blockNumber);
+    out.writeBytes(blockHash);
+    out.writeIntScalar(transactionIndex);
+    out.writeIntScalar(logIndex);
+    out.writeBytes(logEntryId);
+
+    out.endList();
+  }
+
+  public static DamlLogEntryLocation readFrom(final RLPInput input) {
+    input.enterList();
+    final DamlLogEntryLocation location =
+        new DamlLogEntryLocation(
+            input.readLongScalar(),
+            input.readLongScalar(),
+            Hash.wrap(input.readBytes32()),
+            input.readIntScalar(),
+            input.readIntScalar(),
+            input.readBytes());
+    input.leaveList();
+    return location;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof DamlLogEntryLocation)) {
+      return false;
+    }
+    final DamlLogEntryLocation other = (DamlLogEntryLocation) obj;
+    return offset == other.offset
+        && blockNumber == other.blockNumber
+        && transactionIndex == other.transactionIndex
+        && logIndex == other.logIndex
+        && blockHash.equals(other.blockHash)
+        && logEntryId.equals(other.logEntryId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(offset, blockNumber, blockHash, transactionIndex, logIndex, logEntryId);
+  }
+}
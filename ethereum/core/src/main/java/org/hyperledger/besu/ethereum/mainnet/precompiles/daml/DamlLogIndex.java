@@ -0,0 +1,354 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.util.Subscribers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import com.blockchaintp.besu.daml.protobuf.DamlLogEvent;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A persistent index of the DAML log entries on the canonical chain, keyed by their offset in the
+ * DAML ledger.
+ *
+ * <p>Offsets start at zero and increase by one for every DAML log event, in block, transaction and
+ * log order. The index follows the chain head as blocks are imported; when the canonical chain
+ * changes, the entries of the blocks that left it are dropped and their offsets are reused for the
+ * new branch.
+ *
+ * <p>A single thread indexes at a time; blocks added while it does so are indexed by that thread
+ * rather than by the thread that added them. Readers only wait for an indexed block to be
+ * committed, and see the entries up to the last committed offset.
+ */
+public class DamlLogIndex implements BlockAddedObserver {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final Bytes HEAD_KEY = Bytes.of(0);
+  private static final Bytes ENTRY_PREFIX = Bytes.of(1);
+  private static final Bytes BLOCK_PREFIX = Bytes.of(2);
+
+  private final KeyValueStorage storage;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ReentrantLock indexingLock = new ReentrantLock();
+  private final AtomicBoolean indexRequested = new AtomicBoolean();
+  private final Subscribers<LongConsumer> indexedObservers = Subscribers.create(true);
+
+  // the first offset and block number not yet indexed, written under the write lock
+  private volatile long nextOffset;
+  private long nextBlock;
+
+  public DamlLogIndex(final KeyValueStorage storage) {
+    this.storage = storage;
+    final Optional<byte[]> head = storage.get(HEAD_KEY.toArrayUnsafe());
+    if (head.isPresent()) {
+      final RLPInput input = RLP.input(Bytes.wrap(head.get()));
+      input.enterList();
+      nextOffset = input.readLongScalar();
+      nextBlock = input.readLongScalar();
+      input.leaveList();
+    }
+  }
+
+  @Override
+  public void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
+    if (event.isNewCanonicalHead()) {
+      indexToHead(blockchain);
+    }
+  }
+
+  /**
+   * Bring the index in line with the chain on a background thread, for the blocks imported while
+   * the index was not observing the chain.
+   *
+   * @param blockchain the blockchain to index
+   */
+  public void startCatchUp(final Blockchain blockchain) {
+    final Thread catchUp = new Thread(() -> indexToHead(blockchain), "daml-log-index");
+    catchUp.setDaemon(true);
+    catchUp.start();
+  }
+
+  /**
+   * Bring the index in line with the canonical chain, dropping entries of blocks that are no longer
+   * canonical and indexing every block up to the chain head.
+   *
+   * <p>If another thread is already indexing, it indexes up to the new chain head instead and this
+   * returns immediately.
+   *
+   * @param blockchain the blockchain to index
+   */
+  public void indexToHead(final Blockchain blockchain) {
+    indexRequested.set(true);
+    // re-check after releasing the lock, a request may have arrived just before it was released
+    while (indexRequested.get() && indexingLock.tryLock()) {
+      try {
+        while (indexRequested.getAndSet(false)) {
+          final long indexedOffset = nextOffset;
+          rewindToCanonicalChain(blockchain);
+          final long firstNewOffset = nextOffset;
+          indexNewBlocks(blockchain);
+          if (nextOffset != indexedOffset || firstNewOffset != indexedOffset) {
+            indexedObservers.forEach(observer -> observer.accept(firstNewOffset));
+          }
+        }
+      } catch (final RuntimeException e) {
+        LOG.error("Unable to index DAML log entries", e);
+      } finally {
+        indexingLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Observe changes to the indexed entries.
+   *
+   * @param observer called on the indexing thread with the lowest offset whose entry has been
+   *     added or replaced since the previous call
+   * @return the id of the observer
+   */
+  public long observeIndexed(final LongConsumer observer) {
+    return indexedObservers.subscribe(observer);
+  }
+
+  public boolean removeIndexedObserver(final long observerId) {
+    return indexedObservers.unsubscribe(observerId);
+  }
+
+  /**
+   * Return the offset the next DAML log entry will be indexed at, i.e. the number of entries on
+   * the indexed chain.
+   *
+   * @return the next offset
+   */
+  public long getNextOffset() {
+    return nextOffset;
+  }
+
+  /**
+   * Return a page of indexed DAML log entries.
+   *
+   * @param fromOffset the offset of the first entry to return
+   * @param maxEntries the maximum number of entries to return
+   * @return the entries from {@code fromOffset} in offset order, empty if there are none
+   */
+  public List<DamlLogEntryLocation> getEntries(final long fromOffset, final int maxEntries) {
+    lock.readLock().lock();
+    try {
+      return readEntries(fromOffset, Math.min(nextOffset, fromOffset + maxEntries));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Return the offset of the first DAML log entry of an indexed block.
+   *
+   * @param blockNumber the number of the block
+   * @return the offset of the first entry of the block, or of the first entry of a later block if
+   *     it has none; empty if the block has not been indexed yet
+   */
+  public OptionalLong getFirstOffset(final long blockNumber) {
+    lock.readLock().lock();
+    try {
+      if (blockNumber >= nextBlock) {
+        return OptionalLong.empty();
+      }
+      final Optional<byte[]> indexed = storage.get(blockKey(blockNumber).toArrayUnsafe());
+      if (indexed.isEmpty()) {
+        return OptionalLong.empty();
+      }
+      final RLPInput input = RLP.input(Bytes.wrap(indexed.get()));
+      input.enterList();
+      return OptionalLong.of(input.readLongScalar());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private List<DamlLogEntryLocation> readEntries(final long fromOffset, final long toOffset) {
+    if (fromOffset >= toOffset) {
+      return Collections.emptyList();
+    }
+    final List<DamlLogEntryLocation> entries = new ArrayList<>((int) (toOffset - fromOffset));
+    try (final Stream<Map.Entry<byte[], byte[]>> range =
+        storage.iterateRange(
+            entryKey(fromOffset).toArrayUnsafe(), entryKey(toOffset).toArrayUnsafe())) {
+      final Iterator<Map.Entry<byte[], byte[]>> iterator = range.iterator();
+      for (long offset = fromOffset; offset < toOffset && iterator.hasNext(); offset++) {
+        final Map.Entry<byte[], byte[]> entry = iterator.next();
+        if (!entryKey(offset).equals(Bytes.wrap(entry.getKey()))) {
+          break;
+        }
+        entries.add(DamlLogEntryLocation.readFrom(RLP.input(Bytes.wrap(entry.getValue()))));
+      }
+    }
+    return entries;
+  }
+
+  private void indexNewBlocks(final Blockchain blockchain) {
+    final long chainHead = blockchain.getChainHeadBlockNumber();
+    if (chainHead - nextBlock > 1) {
+      LOG.info("Indexing DAML log entries of blocks {} to {}", nextBlock, chainHead);
+    }
+    while (nextBlock <= chainHead) {
+      final Optional<Hash> blockHash = blockchain.getBlockHashByNumber(nextBlock);
+      if (blockHash.isEmpty()) {
+        break;
+      }
+      indexBlock(blockchain, nextBlock, blockHash.get());
+    }
+  }
+
+  private void rewindToCanonicalChain(final Blockchain blockchain) {
+    long block = nextBlock;
+    long offset = nextOffset;
+    while (block > 0) {
+      final long blockNumber = block - 1;
+      final Optional<byte[]> indexed = storage.get(blockKey(blockNumber).toArrayUnsafe());
+      if (indexed.isEmpty()) {
+        break;
+      }
+      final RLPInput input = RLP.input(Bytes.wrap(indexed.get()));
+      input.enterList();
+      final long firstOffset = input.readLongScalar();
+      final Hash blockHash = Hash.wrap(input.readBytes32());
+      input.leaveList();
+      if (blockchain.getBlockHashByNumber(blockNumber).map(blockHash::equals).orElse(false)) {
+        break;
+      }
+      block = blockNumber;
+      offset = firstOffset;
+    }
+    if (block != nextBlock) {
+      LOG.debug("Rewinding DAML log index to block {}, offset {}", block, offset);
+      final KeyValueStorageTransaction transaction = storage.startTransaction();
+      putHead(transaction, offset, block);
+      commit(transaction, offset, block);
+    }
+  }
+
+  private void indexBlock(final Blockchain blockchain, final long blockNumber, final Hash blockHash) {
+    final KeyValueStorageTransaction transaction = storage.startTransaction();
+    final long firstOffset = nextOffset;
+    transaction.put(
+        blockKey(blockNumber).toArrayUnsafe(),
+        RLP.encode(
+                out -> {
+                  out.startList();
+                  out.writeLongScalar(firstOffset);
+                  out.writeBytes(blockHash);
+                  out.endList();
+                })
+            .toArrayUnsafe());
+
+    long offset = firstOffset;
+    int logIndex = 0;
+    final List<TransactionReceipt> receipts =
+        blockchain.getTxReceipts(blockHash).orElse(Collections.emptyList());
+    for (int transactionIndex = 0; transactionIndex < receipts.size(); transactionIndex++) {
+      for (final Log log : receipts.get(transactionIndex).getLogs()) {
+        final Optional<Bytes> logEntryId = damlLogEntryId(log);
+        if (logEntryId.isPresent()) {
+          final DamlLogEntryLocation location =
+              new DamlLogEntryLocation(
+                  offset, blockNumber, blockHash, transactionIndex, logIndex, logEntryId.get());
+          transaction.put(
+              entryKey(offset).toArrayUnsafe(), RLP.encode(location::writeTo).toArrayUnsafe());
+          offset++;
+        }
+        logIndex++;
+      }
+    }
+
+    putHead(transaction, offset, blockNumber + 1);
+    commit(transaction, offset, blockNumber + 1);
+  }
+
+  private void commit(
+      final KeyValueStorageTransaction transaction, final long offset, final long blockNumber) {
+    lock.writeLock().lock();
+    try {
+      transaction.commit();
+      nextOffset = offset;
+      nextBlock = blockNumber;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private static Optional<Bytes> damlLogEntryId(final Log log) {
+    if (!log.getLogger().equals(Address.DAML_PUBLIC)
+        || !log.getTopics().contains(DamlPublicPrecompiledContract.DAML_LOG_TOPIC)) {
+      return Optional.empty();
+    }
+    try {
+      final DamlLogEvent logEvent = DamlLogEvent.parseFrom(log.getData().toArrayUnsafe());
+      return Optional.of(Bytes.wrap(logEvent.getLogEntryId().toByteArray()));
+    } catch (final InvalidProtocolBufferException e) {
+      LOG.warn("Skipping undecodable DAML log event", e);
+      return Optional.empty();
+    }
+  }
+
+  private static void putHead(
+      final KeyValueStorageTransaction transaction, final long offset, final long blockNumber) {
+    transaction.put(
+        HEAD_KEY.toArrayUnsafe(),
+        RLP.encode(
+                out -> {
+                  out.startList();
+                  out.writeLongScalar(offset);
+                  out.writeLongScalar(blockNumber);
+                  out.endList();
+                })
+            .toArrayUnsafe());
+  }
+
+  private static Bytes entryKey(final long offset) {
+    return Bytes.concatenate(ENTRY_PREFIX, Bytes.ofUnsignedLong(offset));
+  }
+
+  private static Bytes blockKey(final long blockNumber) {
+    return Bytes.concatenate(BLOCK_PREFIX, Bytes.ofUnsignedLong(blockNumber));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+
+import java.util.Locale;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntry;
+
+/** The metrics of the submissions processed by the DAML precompile. */
+public class DamlMetrics {
+  private final OperationTimer fetchTimer;
+  private final OperationTimer interpretTimer;
+  private final OperationTimer setStateTimer;
+  private final OperationTimer logEmitTimer;
+  private final Counter inputKeysCounter;
+  private final Counter outputKeysCounter;
+  private final Counter bytesWrittenCounter;
+  private final LabelledMetric<Counter> rejectedCounter;
+
+  public DamlMetrics(final MetricsSystem metricsSystem) {
+    final LabelledMetric<OperationTimer> phaseTimer =
+        metricsSystem.createLabelledTimer(
+            BesuMetricCategory.DAML,
+            "submission_phase_time",
+            "Time spent in each phase of processing a DAML submission",
+            "phase");
+    fetchTimer = phaseTimer.labels("fetch");
+    interpretTimer = phaseTimer.labels("interpret");
+    setStateTimer = phaseTimer.labels("set_state");
+    logEmitTimer = phaseTimer.labels("log_emit");
+    inputKeysCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "submission_input_keys_count",
+            "Number of DAML state keys read by submissions");
+    outputKeysCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "submission_output_keys_count",
+            "Number of DAML state keys written by submissions");
+    bytesWrittenCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "submission_bytes_written_count",
+            "Number of bytes of DAML state values and log entries written by submissions");
+    rejectedCounter =
+        metricsSystem.createLabelledCounter(
+            BesuMetricCategory.DAML,
+            "submission_rejected_count",
+            "Number of DAML submissions rejected",
+            "entry",
+            "reason");
+  }
+
+  public OperationTimer.TimingContext startFetch() {
+    return fetchTimer.startTimer();
+  }
+
+  public OperationTimer.TimingContext startInterpret() {
+    return interpretTimer.startTimer();
+  }
+
+  public OperationTimer.TimingContext startSetState() {
+    return setStateTimer.startTimer();
+  }
+
+  public OperationTimer.TimingContext startLogEmit() {
+    return logEmitTimer.startTimer();
+  }
+
+  /**
+   * Record the outcome of a processed submission.
+   *
+   * @param inputKeys the number of DAML state keys the submission read
+   * @param outputKeys the number of DAML state keys the submission wrote
+   * @param bytesWritten the size of the state values and log entry written
+   * @param logEntry the log entry recorded for the submission
+   */
+  public void recordSubmission(
+      final int inputKeys,
+      final int outputKeys,
+      final long bytesWritten,
+      final DamlLogEntry logEntry) {
+    inputKeysCounter.inc(inputKeys);
+    outputKeysCounter.inc(outputKeys);
+    bytesWrittenCounter.inc(bytesWritten);
+    switch (logEntry.getPayloadCase()) {
+      case TRANSACTION_REJECTION_ENTRY:
+        recordRejection(
+            "transaction", logEntry.getTransactionRejectionEntry().getReasonCase().name());
+        break;
+      case PACKAGE_UPLOAD_REJECTION_ENTRY:
+        recordRejection(
+            "package_upload", logEntry.getPackageUploadRejectionEntry().getReasonCase().name());
+        break;
+      case CONFIGURATION_REJECTION_ENTRY:
+        recordRejection(
+            "configuration", logEntry.getConfigurationRejectionEntry().getReasonCase().name());
+        break;
+      case PARTY_ALLOCATION_REJECTION_ENTRY:
+        recordRejection(
+            "party_allocation", logEntry.getPartyAllocationRejectionEntry().getReasonCase().name());
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Record a submission rejected before it reached the DAML engine.
+   *
+   * @param reason the reason the submission was rejected
+   */
+  public void recordInvalidSubmission(final String reason) {
+    recordRejection("submission", reason);
+  }
+
+  private void recordRejection(final String entry, final String reason) {
+    rejectedCounter.labels(entry, reason.toLowerCase(Locale.ROOT)).inc();
+  }
+}
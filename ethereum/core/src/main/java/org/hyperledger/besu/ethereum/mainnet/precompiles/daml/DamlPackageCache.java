@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.digitalasset.daml.lf.archive.Decode;
+import com.digitalasset.daml.lf.engine.Engine;
+import com.digitalasset.daml.lf.language.Ast;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import scala.Option;
+import scala.Tuple2;
+import scala.util.Either;
+
+/**
+ * The DAML Engine shared by every DAML precompile of the node, together with an on-disk copy of the
+ * DAML packages committed to the ledger.
+ *
+ * <p>The Engine keeps the packages it has decoded and preprocessed for the lifetime of the node, so
+ * a single instance is shared across protocol specs. Each package seen in DAML state is also
+ * written to the cache directory, keyed by package id, and is loaded into the Engine on a
+ * background thread when the node starts. The first submissions after a restart then find their
+ * packages already compiled instead of decoding them from ledger state.
+ *
+ * <p>Packages are written by a single background thread, so recording them never blocks block
+ * processing on disk I/O.
+ */
+public class DamlPackageCache {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String PACKAGE_FILE_SUFFIX = ".package";
+
+  private static final DamlPackageCache INSTANCE =
+      new DamlPackageCache(
+          new Engine(),
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setNameFormat("daml-package-writer")
+                  .setDaemon(true)
+                  .build()));
+
+  private final Engine engine;
+  private final Executor writer;
+  // packages in the cache directory, and packages queued to be written to it
+  private final Set<String> knownPackages = ConcurrentHashMap.newKeySet();
+  private final Set<String> pendingPackages = ConcurrentHashMap.newKeySet();
+  private volatile Path directory;
+
+  @VisibleForTesting
+  DamlPackageCache(final Engine engine, final Executor writer) {
+    this.engine = engine;
+    this.writer = writer;
+  }
+
+  public static DamlPackageCache getInstance() {
+    return INSTANCE;
+  }
+
+  public Engine getEngine() {
+    return engine;
+  }
+
+  /**
+   * Keep DAML packages in a directory, and load the packages already in it into the Engine on a
+   * background thread.
+   *
+   * @param directory the directory holding the packages
+   */
+  public synchronized void start(final Path directory) {
+    if (this.directory != null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+    } catch (final IOException e) {
+      LOG.warn("Unable to create DAML package cache directory {}", directory, e);
+      return;
+    }
+    this.directory = directory;
+    final Thread preloader = new Thread(this::preload, "daml-package-preload");
+    preloader.setDaemon(true);
+    preloader.start();
+  }
+
+  /**
+   * Record a DAML state value of a block whose state has been committed, queueing a copy of it to
+   * be written to the cache directory if it is a package the cache does not hold yet.
+   *
+   * @param key the DAML state key
+   * @param value the DAML state value
+   */
+  public void recordState(final DamlStateKey key, final DamlStateValue value) {
+    final Path cacheDirectory = directory;
+    if (cacheDirectory == null
+        || key.getKeyCase() != DamlStateKey.KeyCase.PACKAGE_ID
+        || !value.hasArchive()
+        || knownPackages.contains(key.getPackageId())
+        || !pendingPackages.add(key.getPackageId())) {
+      return;
+    }
+    writer.execute(() -> writePackage(cacheDirectory, key.getPackageId(), value));
+  }
+
+  private void writePackage(
+      final Path cacheDirectory, final String packageId, final DamlStateValue value) {
+    final Path file = cacheDirectory.resolve(packageId + PACKAGE_FILE_SUFFIX);
+    Path tempFile = null;
+    try {
+      tempFile = Files.createTempFile(cacheDirectory, packageId, null);
+      Files.write(tempFile, value.toByteArray());
+      Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+      knownPackages.add(packageId);
+    } catch (final IOException e) {
+      LOG.warn("Unable to write DAML package {} to {}", packageId, file, e);
+      deleteQuietly(tempFile);
+    } finally {
+      pendingPackages.remove(packageId);
+    }
+  }
+
+  private static void deleteQuietly(final Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (final IOException e) {
+      LOG.debug("Unable to delete {}", file, e);
+    }
+  }
+
+  @VisibleForTesting
+  void preload() {
+    final long start = System.currentTimeMillis();
+    final Map<String, Ast.Package> packages = readPackages();
+    int loaded = 0;
+    for (final Map.Entry<String, Ast.Package> entry : packages.entrySet()) {
+      // dependencies missing from the Engine are resolved from the packages read from disk
+      final Either<?, ?> result =
+          engine
+              .preloadPackage(entry.getKey(), entry.getValue())
+              .consume(
+                  contractId -> Option.empty(),
+                  packageId -> Option.apply(packages.get(packageId)),
+                  globalKey -> Option.empty());
+      if (result.isLeft()) {
+        LOG.warn("Unable to preload DAML package {}: {}", entry.getKey(), result.left().get());
+      } else {
+        loaded++;
+      }
+    }
+    LOG.info("Preloaded {} DAML packages in {} ms", loaded, System.currentTimeMillis() - start);
+  }
+
+  private Map<String, Ast.Package> readPackages() {
+    final Map<String, Ast.Package> packages = new LinkedHashMap<>();
+    try (final DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, "*" + PACKAGE_FILE_SUFFIX)) {
+      for (final Path file : files) {
+        try {
+          final DamlStateValue value = DamlStateValue.parseFrom(Files.readAllBytes(file));
+          final Tuple2<String, Ast.Package> decoded = Decode.decodeArchive(value.getArchive());
+          knownPackages.add(decoded._1());
+          packages.put(decoded._1(), decoded._2());
+        } catch (final IOException | RuntimeException e) {
+          LOG.warn("Skipping unreadable DAML package {}", file, e);
+        }
+      }
+    } catch (final IOException e) {
+      LOG.warn("Unable to list DAML package cache directory {}", directory, e);
+    }
+    return packages;
+  }
+}
@@ -16,14 +16,16 @@ package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
 
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Gas;
-import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.Log;
 import org.hyperledger.besu.ethereum.core.LogTopic;
 import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
 import org.hyperledger.besu.ethereum.mainnet.AbstractPrecompiledContract;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 
 import java.nio.charset.Charset;
 import java.time.Duration;
@@ -31,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 
 import com.blockchaintp.besu.daml.protobuf.DamlLogEvent;
 import com.blockchaintp.besu.daml.protobuf.DamlOperation;
@@ -48,6 +51,7 @@ import com.daml.ledger.participant.state.v1.Configuration;
 import com.daml.ledger.participant.state.v1.TimeModel;
 import com.digitalasset.daml.lf.data.Time.Timestamp;
 import com.digitalasset.daml.lf.engine.Engine;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.Timestamps;
@@ -63,18 +67,30 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
 
   private static final String DAML_PUBLIC = "DamlPublic";
 
-  private static final LogTopic DAML_LOG_TOPIC = LogTopic
+  public static final LogTopic DAML_LOG_TOPIC = LogTopic
       .create(Namespace.getHash("daml/log-event".getBytes(Charset.defaultCharset())));
 
   private static final int DEFAULT_MAX_TTL = 80; // 4x TimeKeeper period
   private static final int DEFAULT_MAX_CLOCK_SKEW = 40; // 2x TimeKeeper period
 
   private final Committer committer;
+  private final DamlStateValueCache stateValueCache;
+  private final DamlMetrics metrics;
 
-  public DamlPublicPrecompiledContract(final GasCalculator gasCalculator) {
+  public DamlPublicPrecompiledContract(final GasCalculator gasCalculator,
+      final DamlStateValueCache stateValueCache, final MetricsSystem metricsSystem) {
+    this(gasCalculator, DamlPackageCache.getInstance().getEngine(), stateValueCache,
+        metricsSystem);
+  }
+
+  @VisibleForTesting
+  DamlPublicPrecompiledContract(final GasCalculator gasCalculator, final Engine engine,
+      final DamlStateValueCache stateValueCache, final MetricsSystem metricsSystem) {
     super(DAML_PUBLIC, gasCalculator);
 
-    committer = new DamlCommitter(new Engine());
+    committer = new DamlCommitter(engine);
+    this.stateValueCache = stateValueCache;
+    metrics = new DamlMetrics(metricsSystem);
   }
 
   @Override
@@ -87,7 +103,7 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
     final WorldUpdater updater = messageFrame.getWorldState();
     final MutableAccount account = updater.getOrCreate(Address.DAML_PUBLIC).getMutable();
 
-    final LedgerState ledgerState = new DamlLedgerState(account);
+    final LedgerState ledgerState = new DamlLedgerState(updater, account, stateValueCache);
     try {
       DamlOperation operation = DamlOperation.parseFrom(input.toArray());
       if (operation.hasTransaction()) {
@@ -97,24 +113,34 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
         String participantId = operation.getSubmittingParticipant();
         DamlLogEntryId entryId = KeyValueCommitting.unpackDamlLogEntryId(tx.getLogEntryId());
 
-        DamlLogEntry logEntry = processTransaction(ledgerState, submission, participantId, entryId);
-
-        DamlLogEvent logEvent = DamlLogEvent.newBuilder().setLogEntry(KeyValueCommitting.packDamlLogEntry(logEntry))
-            .setLogEntryId(tx.getLogEntryId()).build();
-        String logHash = Hash.hash(Bytes.of(logEvent.toByteArray())).toHexString();
-        LOG.info(String.format("Recording log entry under topic %s hash=%s", DAML_LOG_TOPIC.toHexString(), logHash));
-        messageFrame
-            .addLog(new Log(Address.DAML_PUBLIC, Bytes.of(logEvent.toByteArray()), Lists.newArrayList(DAML_LOG_TOPIC)));
-        for (Entry<UInt256, UInt256> e : account.getUpdatedStorage().entrySet()) {
-          messageFrame.storageWasUpdated(e.getKey(), e.getValue().toBytes());
+        DamlLogEntry logEntry =
+            processTransaction(ledgerState, input, submission, participantId, entryId);
+
+        final OperationTimer.TimingContext logEmitTimer = metrics.startLogEmit();
+        try {
+          DamlLogEvent logEvent =
+              DamlLogEvent.newBuilder()
+                  .setLogEntry(KeyValueCommitting.packDamlLogEntry(logEntry))
+                  .setLogEntryId(tx.getLogEntryId())
+                  .build();
+          Bytes logEventBytes = Bytes.wrap(logEvent.toByteArray());
+          messageFrame.addLog(
+              new Log(Address.DAML_PUBLIC, logEventBytes, Lists.newArrayList(DAML_LOG_TOPIC)));
+          for (Entry<UInt256, UInt256> e : account.getUpdatedStorage().entrySet()) {
+            messageFrame.storageWasUpdated(e.getKey(), e.getValue().toBytes());
+          }
+          return logEventBytes;
+        } finally {
+          logEmitTimer.stopTimer();
         }
-        return Bytes.of(logEvent.toByteArray());
       } else {
         LOG.debug("DamlOperation DOES NOT contain a transaction, ignoring ...");
       }
     } catch (InvalidTransactionException e) {
       // exception called and consumed
+      metrics.recordInvalidSubmission("invalid_transaction");
     } catch (final InvalidProtocolBufferException ipbe) {
+      metrics.recordInvalidSubmission("unparseable");
       Exception e =
           new RuntimeException(
               String.format(
@@ -127,33 +153,102 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
     return Bytes.EMPTY;
   }
 
+  /**
+   * Interpret a submission against a world state without recording the result.
+   *
+   * @param worldState the world state to read the DAML state from
+   * @param input the input of the DAML precompile
+   * @return the interpreted submission, or empty if the input is not a valid submission
+   */
+  Optional<PreExecutedSubmission> preExecute(final MutableWorldState worldState, final Bytes input) {
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.getOrCreate(Address.DAML_PUBLIC).getMutable();
+
+    final LedgerState ledgerState = new DamlLedgerState(updater, account, stateValueCache);
+    try {
+      DamlOperation operation = DamlOperation.parseFrom(input.toArray());
+      if (!operation.hasTransaction()) {
+        return Optional.empty();
+      }
+      DamlTransaction tx = operation.getTransaction();
+      DamlSubmission submission = KeyValueSubmission.unpackDamlSubmission(tx.getSubmission());
+      String participantId = operation.getSubmittingParticipant();
+      DamlLogEntryId entryId = KeyValueCommitting.unpackDamlLogEntryId(tx.getLogEntryId());
+
+      Timestamp recordTime = getRecordTime(ledgerState);
+      Map<DamlStateKey, Option<DamlStateValue>> stateMap = buildStateMap(ledgerState, submission);
+      return Optional.of(
+          new PreExecutedSubmission(
+              recordTime,
+              stateMap,
+              interpret(submission, participantId, entryId, recordTime, stateMap)));
+    } catch (InvalidTransactionException | InvalidProtocolBufferException e) {
+      return Optional.empty();
+    }
+  }
+
   private DamlLogEntry processTransaction(
       final LedgerState ledgerState,
+      final Bytes input,
       final DamlSubmission submission,
       final String participantId,
       final DamlLogEntryId entryId)
       throws InternalError, InvalidTransactionException {
 
-    long fetchStateStart = System.currentTimeMillis();
-    Map<DamlStateKey, Option<DamlStateValue>> stateMap = buildStateMap(ledgerState, submission);
+    final Timestamp recordTime;
+    final Optional<DamlBlockProcessor.PreExecutionContext> context;
+    final Optional<PreExecutedSubmission> preExecuted;
+    final Map<DamlStateKey, Option<DamlStateValue>> stateMap;
+    final OperationTimer.TimingContext fetchTimer = metrics.startFetch();
+    try {
+      recordTime = getRecordTime(ledgerState);
+      context = DamlBlockProcessor.currentContext();
+      preExecuted = context.flatMap(c -> c.take(input, recordTime));
+      stateMap =
+          preExecuted.isPresent()
+              ? preExecuted.get().getInputStates()
+              : buildStateMap(ledgerState, submission);
+    } finally {
+      fetchTimer.stopTimer();
+    }
 
-    if (stateMap.isEmpty()) {
-      LOG.debug("No ledger states for submission");
+    final Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> processedSubmission;
+    if (preExecuted.isPresent()) {
+      LOG.debug("Using pre-executed result for submission");
+      processedSubmission = preExecuted.get().getProcessedSubmission();
     } else {
-      stateMap.forEach((k, v) -> LOG.debug(String.format("  State %s=%s", k, v)));
-    }
+      if (stateMap.isEmpty()) {
+        LOG.debug("No ledger states for submission");
+      } else if (LOG.isDebugEnabled()) {
+        stateMap.forEach((k, v) -> LOG.debug("  State {}={}", k, v));
+      }
 
-    long recordStateStart = System.currentTimeMillis();
-    DamlLogEntry logEntry =
-        recordState(ledgerState, submission, participantId, stateMap, entryId);
-    long processFinished = System.currentTimeMillis();
+      final OperationTimer.TimingContext interpretTimer = metrics.startInterpret();
+      try {
+        processedSubmission = interpret(submission, participantId, entryId, recordTime, stateMap);
+      } finally {
+        interpretTimer.stopTimer();
+      }
+    }
+    DamlLogEntry logEntry = recordState(ledgerState, processedSubmission, entryId);
+    context.ifPresent(
+        c -> {
+          c.recordWrites(processedSubmission._2.keySet());
+          stateMap.forEach(
+              (key, value) -> {
+                if (value.isDefined()) {
+                  c.recordState(key, value.get());
+                }
+              });
+          processedSubmission._2.forEach(c::recordState);
+        });
 
-    long recordStateTime = processFinished - recordStateStart;
-    long fetchStateTime = recordStateStart - fetchStateStart;
-    LOG.info(
-        String.format(
-            "Finished processing transaction, times=[fetch=%s,record=%s]",
-            fetchStateTime, recordStateTime));
+    long bytesWritten = logEntry.getSerializedSize();
+    for (DamlStateValue value : processedSubmission._2.values()) {
+      bytesWritten += value.getSerializedSize();
+    }
+    metrics.recordSubmission(
+        submission.getInputDamlStateCount(), processedSubmission._2.size(), bytesWritten, logEntry);
 
     return logEntry;
   }
@@ -162,103 +257,105 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
       final LedgerState ledgerState, final DamlSubmission submission)
       throws InvalidTransactionException, InternalError {
 
-    LOG.debug(String.format("Fetching DamlState for this transaction"));
-    List<DamlStateKey> inputDamlStateKeys=submission.getInputDamlStateList();
+    List<DamlStateKey> inputDamlStateKeys = submission.getInputDamlStateList();
 
-    LOG.debug(String.format("Fetching DAML state values for this submission"));
+    LOG.debug("Fetching DAML state values for this submission");
     Map<DamlStateKey, DamlStateValue> inputStates =
         ledgerState.getDamlStates(inputDamlStateKeys);
     if (inputStates.isEmpty()) {
       LOG.debug("No DAML state values for this submission");
-    } else {
-      inputStates.forEach((k, v) -> LOG.debug(String.format("state key=[%s], value=[%s]", k, v)));
+    } else if (LOG.isDebugEnabled()) {
+      inputStates.forEach((k, v) -> LOG.debug("state key=[{}], value=[{}]", k, v));
     }
 
     Map<DamlStateKey, Option<DamlStateValue>> inputStatesWithOption = new HashMap<>();
     inputDamlStateKeys
         .forEach(
             key -> {
-              KeyCase keyCase = key.getKeyCase();
-              UInt256 address = Namespace.makeDamlStateKeyAddress(key);
               DamlStateValue keyValue = inputStates.get(key);
+              if (LOG.isDebugEnabled()) {
+                logFetchedState(key, keyValue);
+              }
               if (keyValue != null) {
-                Option<DamlStateValue> option = Option.apply(keyValue);
-                int keySize = keyValue.toByteString().size();
-                if (keySize == 0) {
-                  LOG.debug(
-                      String.format(
-                          "Fetched key=[%s] (%s), address=[%s], size=empty",
-                          key, keyCase, address.toHexString()));
-                } else {
-                  LOG.debug(
-                      String.format(
-                          "Fetched key=[%s] (%s), address=[%s], size=%d",
-                          key, keyCase, address.toHexString(), keySize));
-                }
-                inputStatesWithOption.put(key, option);
+                inputStatesWithOption.put(key, Option.apply(keyValue));
               } else {
-                LOG.debug(
-                    String.format(
-                        "Fetched key=[%s] (%s), address=[%s], size=empty (not found in input states)",
-                        key, keyCase, address.toHexString()));
                 inputStatesWithOption.put(key, Option.empty());
               }
             });
     return inputStatesWithOption;
   }
 
-  private DamlLogEntry recordState(
-      final LedgerState ledgerState,
+  private void logFetchedState(final DamlStateKey key, final DamlStateValue keyValue) {
+    KeyCase keyCase = key.getKeyCase();
+    UInt256 address = Namespace.makeDamlStateKeyAddress(key);
+    if (keyValue == null) {
+      LOG.debug(
+          String.format(
+              "Fetched key=[%s] (%s), address=[%s], size=empty (not found in input states)",
+              key, keyCase, address.toHexString()));
+      return;
+    }
+    int keySize = keyValue.getSerializedSize();
+    if (keySize == 0) {
+      LOG.debug(
+          String.format(
+              "Fetched key=[%s] (%s), address=[%s], size=empty",
+              key, keyCase, address.toHexString()));
+    } else {
+      LOG.debug(
+          String.format(
+              "Fetched key=[%s] (%s), address=[%s], size=%d",
+              key, keyCase, address.toHexString(), keySize));
+    }
+  }
+
+  private Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> interpret(
       final DamlSubmission submission,
       final String participantId,
-      final Map<DamlStateKey, Option<DamlStateValue>> stateMap,
+      final DamlLogEntryId entryId,
+      final Timestamp recordTime,
+      final Map<DamlStateKey, Option<DamlStateValue>> stateMap)
+      throws InternalError, InvalidTransactionException {
+
+    if (LOG.isDebugEnabled()) {
+      String ledgerEffectiveTime = null;
+      String maxRecordTime = null;
+      if (submission.hasTransactionEntry()) {
+        ledgerEffectiveTime =
+            Conversions.parseTimestamp(submission.getTransactionEntry().getLedgerEffectiveTime())
+                .toString();
+        maxRecordTime =
+            Conversions.parseTimestamp(
+                    submission.getTransactionEntry().getSubmitterInfo().getMaximumRecordTime())
+                .toString();
+      }
+      LOG.debug(
+          String.format(
+              "Processing submission, recordTime=%s, ledgerEffectiveTime=%s, maxRecordTime=%s",
+              recordTime, ledgerEffectiveTime, maxRecordTime));
+    }
+    return committer.processSubmission(
+        getDefaultConfiguration(), entryId, recordTime, submission, participantId, stateMap);
+  }
+
+  private DamlLogEntry recordState(
+      final LedgerState ledgerState,
+      final Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> processedSubmission,
       final DamlLogEntryId entryId)
       throws InternalError, InvalidTransactionException {
 
-    long processStart = System.currentTimeMillis();
-    String ledgerEffectiveTime = null;
-    String maxRecordTime = null;
-    if (submission.hasTransactionEntry()) {
-      ledgerEffectiveTime =
-          Conversions.parseTimestamp(submission.getTransactionEntry().getLedgerEffectiveTime())
-              .toString();
-      maxRecordTime =
-          Conversions.parseTimestamp(
-                  submission.getTransactionEntry().getSubmitterInfo().getMaximumRecordTime())
-              .toString();
+    final OperationTimer.TimingContext setStateTimer = metrics.startSetState();
+    try {
+      DamlLogEntry newLogEntry = processedSubmission._1;
+      Map<DamlStateKey, DamlStateValue> newState = processedSubmission._2;
+      ledgerState.setDamlStates(newState.entrySet());
+
+      LOG.debug("Recording log at {}, size={}", entryId, newLogEntry.getSerializedSize());
+      ledgerState.addDamlLogEntry(entryId, newLogEntry);
+      return newLogEntry;
+    } finally {
+      setStateTimer.stopTimer();
     }
-    LOG.info(
-        String.format(
-            "Processing submission, recordTime=%s, ledgerEffectiveTime=%s, maxRecordTime=%s",
-            getRecordTime(ledgerState), ledgerEffectiveTime, maxRecordTime));
-    Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> processedSubmission =
-        committer.processSubmission(
-            getDefaultConfiguration(),
-            entryId,
-            getRecordTime(ledgerState),
-            submission,
-            participantId,
-            stateMap);
-
-    long recordStart = System.currentTimeMillis();
-    DamlLogEntry newLogEntry = processedSubmission._1;
-    Map<DamlStateKey, DamlStateValue> newState = processedSubmission._2;
-    ledgerState.setDamlStates(newState.entrySet());
-
-    LOG.debug(
-        String.format("Recording log at %s, size=%d", entryId, newLogEntry.toByteString().size()));
-    ledgerState.addDamlLogEntry(entryId, newLogEntry);
-
-    long recordFinish = System.currentTimeMillis();
-    long processTime = recordStart - processStart;
-    long setStateTime = recordFinish - recordStart;
-    long totalTime = recordFinish - processStart;
-    LOG.info(
-        String.format(
-            "Record state timings [ total=%s, process=%s, setState=%s ]",
-            totalTime, processTime, setStateTime));
-
-    return newLogEntry;
   }
 
   private Timestamp getRecordTime(final LedgerState ledgerState) throws InternalError {
@@ -274,7 +371,7 @@ public class DamlPublicPrecompiledContract extends AbstractPrecompiledContract {
             Duration.ofSeconds(1),
             Duration.ofSeconds(DEFAULT_MAX_CLOCK_SKEW),
             Duration.ofSeconds(DEFAULT_MAX_TTL));
-    LOG.debug(String.format("Default TimeModel set to %s", tm));
+    LOG.debug("Default TimeModel set to {}", tm);
     Configuration blankConfiguration = new Configuration(0, tm);
     return blankConfiguration;
   }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A bounded cache of parsed DamlStateValues, keyed by the hash of the DAML blob they were parsed
+ * from.
+ *
+ * <p>Since DAML blobs are content-addressed, an entry can never become stale: a write or a chain
+ * reorg changes the hash held in the DAML account storage, not the value behind a given hash. The
+ * cache therefore needs no invalidation and is safe to share between block processing and
+ * transaction simulation, and between the DAML precompiles of every protocol spec of a protocol
+ * schedule, which creates the cache and passes it to them.
+ */
+public class DamlStateValueCache {
+  /** Default bound on the total serialized size of the cached values. */
+  public static final long DEFAULT_MAX_WEIGHT_BYTES = 64L * 1024 * 1024;
+
+  private final Cache<Bytes32, DamlStateValue> cache;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public DamlStateValueCache(final MetricsSystem metricsSystem) {
+    this(DEFAULT_MAX_WEIGHT_BYTES, metricsSystem);
+  }
+
+  public DamlStateValueCache(final long maxWeightBytes, final MetricsSystem metricsSystem) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .<Bytes32, DamlStateValue>weigher((key, value) -> value.getSerializedSize())
+            .build();
+    this.hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "state_cache_hit_count",
+            "Number of DAML state values served from the decoded state cache");
+    this.missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.DAML,
+            "state_cache_miss_count",
+            "Number of DAML state values fetched and parsed from storage");
+  }
+
+  /**
+   * Return the cached DamlStateValue for a DAML blob.
+   *
+   * @param blobHash the hash of the DAML blob
+   * @return the parsed value, or null if it is not cached
+   */
+  public DamlStateValue get(final Bytes32 blobHash) {
+    final DamlStateValue value = cache.getIfPresent(blobHash);
+    if (value == null) {
+      missCounter.inc();
+    } else {
+      hitCounter.inc();
+    }
+    return value;
+  }
+
+  /**
+   * Cache the DamlStateValue parsed from a DAML blob.
+   *
+   * @param blobHash the hash of the DAML blob
+   * @param value the value parsed from the blob
+   */
+  public void put(final Bytes32 blobHash, final DamlStateValue value) {
+    cache.put(blobHash, value);
+  }
+}
@@ -15,15 +15,20 @@
 package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
 
 import org.hyperledger.besu.crypto.Hash;
+import org.hyperledger.besu.crypto.MessageDigestFactory;
 import org.hyperledger.besu.ethereum.core.Address;
 
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntryId;
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
 import com.google.protobuf.ByteString;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.bytes.MutableBytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
 /** Utility class dealing with DAML namespace functions and values. */
@@ -54,9 +59,11 @@ public final class Namespace {
     LOG;
 
     private final String rootAddress;
+    private final Bytes rootPrefix;
 
     private DamlKeyType() {
       rootAddress = String.format("%s%02d", DAML_PUBLIC_ADDRESS, ordinal());
+      rootPrefix = Bytes.fromHexString(rootAddress);
     }
 
     /**
@@ -67,8 +74,33 @@ public final class Namespace {
     public String rootAddress() {
       return rootAddress;
     }
+
+    /**
+     * Return the bytes of the ethereum storage root address for this DAML key type.
+     *
+     * @return DAML root address prefix
+     */
+    public Bytes rootPrefix() {
+      return rootPrefix;
+    }
   }
 
+  private static final ThreadLocal<MessageDigest> SHA256_DIGEST =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return MessageDigestFactory.create("SHA-256");
+            } catch (final NoSuchAlgorithmException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
+  private static final ThreadLocal<byte[]> HASH_BUFFER =
+      ThreadLocal.withInitial(() -> new byte[STORAGE_SLOT_SIZE]);
+
+  private static final ThreadLocal<MutableBytes32> ADDRESS_BUFFER =
+      ThreadLocal.withInitial(MutableBytes32::create);
+
   /**
    * Return the 2-hexadecimal-character ethereum address prefix of the DAML precompiled contract.
    *
@@ -86,12 +118,63 @@ public final class Namespace {
    * @return 256-bit ethereum storage slot address
    */
   public static UInt256 makeAddress(final DamlKeyType key, final byte[] data) {
-    String hash = hashToHexString(getHash(data));
+    final MutableBytes32 address = ADDRESS_BUFFER.get();
+    makeAddress(key, data, address);
+    return UInt256.fromBytes(address);
+  }
 
-    // use only the last 28 bytes of the hash to allow room for the namespace
-    final int begin = hash.length() - (STORAGE_SLOT_SIZE * 2) + key.rootAddress().length();
-    hash = hash.substring(begin);
-    return UInt256.fromHexString(key.rootAddress() + hash);
+  /**
+   * Write the 256-bit ethereum storage address for a DAML storage key and data into a buffer,
+   * without any intermediate allocation.
+   *
+   * <p>The address is the root address of the key type followed by the trailing bytes of the
+   * SHA-256 hash of the data.
+   *
+   * @param key the DAML storage key
+   * @param data the data
+   * @param address the buffer the address is written to
+   */
+  public static void makeAddress(
+      final DamlKeyType key, final byte[] data, final MutableBytes32 address) {
+    final MessageDigest digest = SHA256_DIGEST.get();
+    digest.update(data);
+    finishAddress(key, digest, address);
+  }
+
+  /**
+   * Write the 256-bit ethereum storage address for a DAML storage key and data into a buffer,
+   * without copying the data.
+   *
+   * @param key the DAML storage key
+   * @param data the data
+   * @param address the buffer the address is written to
+   */
+  public static void makeAddress(
+      final DamlKeyType key, final ByteString data, final MutableBytes32 address) {
+    final MessageDigest digest = SHA256_DIGEST.get();
+    for (final ByteBuffer buffer : data.asReadOnlyByteBufferList()) {
+      digest.update(buffer);
+    }
+    finishAddress(key, digest, address);
+  }
+
+  private static void finishAddress(
+      final DamlKeyType key, final MessageDigest digest, final MutableBytes32 address) {
+    final byte[] hash = HASH_BUFFER.get();
+    try {
+      digest.digest(hash, 0, STORAGE_SLOT_SIZE);
+    } catch (final DigestException e) {
+      throw new IllegalStateException(e);
+    }
+    // the root address replaces the leading bytes of the hash
+    final Bytes rootPrefix = key.rootPrefix();
+    final int prefixSize = rootPrefix.size();
+    for (int i = 0; i < prefixSize; i++) {
+      address.set(i, rootPrefix.get(i));
+    }
+    for (int i = prefixSize; i < STORAGE_SLOT_SIZE; i++) {
+      address.set(i, hash[i]);
+    }
   }
 
   /**
@@ -102,7 +185,9 @@ public final class Namespace {
    * @return 256-bit ethereum storage slot address
    */
   public static UInt256 makeAddress(final DamlKeyType key, final ByteString data) {
-    return makeAddress(key, data.toByteArray());
+    final MutableBytes32 address = ADDRESS_BUFFER.get();
+    makeAddress(key, data, address);
+    return UInt256.fromBytes(address);
   }
 
   /**
@@ -135,15 +220,5 @@ public final class Namespace {
     return Hash.sha256(Bytes.of(input));
   }
 
-  /**
-   * Return the 64-character hexadecimal string representation of a SHA-256 hash.
-   *
-   * @param input the hash
-   * @return the hexadecimal string representation of the hash
-   */
-  private static String hashToHexString(final Bytes hash) {
-    return String.format("%064x", new BigInteger(1, hash.toArray()));
-  }
-
   private Namespace() {}
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntry;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.digitalasset.daml.lf.data.Time.Timestamp;
+import scala.Option;
+import scala.Tuple2;
+
+/**
+ * The result of interpreting a DAML submission against the parent state of a block, ahead of the
+ * serial execution of that block.
+ */
+final class PreExecutedSubmission {
+  private final Timestamp recordTime;
+  private final Map<DamlStateKey, Option<DamlStateValue>> inputStates;
+  private final Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> processedSubmission;
+
+  PreExecutedSubmission(
+      final Timestamp recordTime,
+      final Map<DamlStateKey, Option<DamlStateValue>> inputStates,
+      final Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> processedSubmission) {
+    this.recordTime = recordTime;
+    this.inputStates = inputStates;
+    this.processedSubmission = processedSubmission;
+  }
+
+  /**
+   * Whether this result is identical to what serial execution would produce.
+   *
+   * @param currentRecordTime the record time the submission would be processed at
+   * @param writtenKeys the DAML state keys written earlier in the block
+   * @return true if the record time matches and none of the inputs has been written
+   */
+  boolean isValidAt(final Timestamp currentRecordTime, final Set<DamlStateKey> writtenKeys) {
+    if (!recordTime.equals(currentRecordTime)) {
+      return false;
+    }
+    return inputStates.keySet().stream().noneMatch(writtenKeys::contains);
+  }
+
+  Map<DamlStateKey, Option<DamlStateValue>> getInputStates() {
+    return inputStates;
+  }
+
+  Tuple2<DamlLogEntry, Map<DamlStateKey, DamlStateValue>> getProcessedSubmission() {
+    return processedSubmission;
+  }
+}
@@ -16,21 +16,29 @@ package org.hyperledger.besu.ethereum.storage;
 
 import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.storage.keyvalue.AncientBlockMigrator;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 
 import java.io.Closeable;
+import java.util.Optional;
 
 public interface StorageProvider extends Closeable {
 
   BlockchainStorage createBlockchainStorage(ProtocolSchedule<?> protocolSchedule);
 
+  Optional<AncientBlockMigrator> createAncientBlockMigrator(ProtocolSchedule<?> protocolSchedule);
+
   WorldStateStorage createWorldStateStorage();
 
   WorldStatePreimageStorage createWorldStatePreimageStorage();
 
   KeyValueStorage createPruningStorage();
 
+  KeyValueStorage createDamlLogIndexStorage();
+
+  KeyValueStorage createWorldStateSnapshotStorage();
+
   boolean isWorldStateIterable();
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.ancient;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Flat file storage for the RLP encoded headers, bodies and receipts of old canonical blocks.
+ *
+ * <p>Each kind of data lives in its own append-only {@link AncientDataFile}, indexed by block
+ * number, so blocks must be appended in order starting from the genesis block. Reading a range of
+ * blocks is sequential I/O and the data never passes through the key value store again.
+ */
+public class AncientBlockStore implements Closeable {
+  /** Name of the directory, under the data directory, holding the ancient block files. */
+  public static final String DIRECTORY_NAME = "ancient";
+
+  private final AncientDataFile headers;
+  private final AncientDataFile bodies;
+  private final AncientDataFile receipts;
+
+  private AncientBlockStore(
+      final AncientDataFile headers, final AncientDataFile bodies, final AncientDataFile receipts)
+      throws IOException {
+    this.headers = headers;
+    this.bodies = bodies;
+    this.receipts = receipts;
+    // A crash can leave the files with different lengths, keep only the complete blocks
+    truncateFiles(getBlockCount());
+  }
+
+  public static AncientBlockStore open(final Path directory) {
+    final AncientDataFile[] files = new AncientDataFile[3];
+    try {
+      Files.createDirectories(directory);
+      files[0] = AncientDataFile.open(directory, "headers");
+      files[1] = AncientDataFile.open(directory, "bodies");
+      files[2] = AncientDataFile.open(directory, "receipts");
+      return new AncientBlockStore(files[0], files[1], files[2]);
+    } catch (final IOException e) {
+      for (final AncientDataFile file : files) {
+        closeQuietly(file);
+      }
+      throw new StorageException("Failed to open ancient block store in " + directory, e);
+    }
+  }
+
+  /**
+   * Return the number of blocks held, which is also the number of the next block to append.
+   *
+   * @return the number of blocks held
+   */
+  public long getBlockCount() {
+    return Math.min(
+        headers.getEntryCount(), Math.min(bodies.getEntryCount(), receipts.getEntryCount()));
+  }
+
+  public Optional<Bytes> getBlockHeader(final long blockNumber) {
+    return get(headers, blockNumber);
+  }
+
+  public Optional<Bytes> getBlockBody(final long blockNumber) {
+    return get(bodies, blockNumber);
+  }
+
+  public Optional<Bytes> getTransactionReceipts(final long blockNumber) {
+    return get(receipts, blockNumber);
+  }
+
+  /**
+   * Append the encoded data of the next block. The data is only durable once {@link #sync()}
+   * returns.
+   *
+   * @param blockNumber the number of the block, which must equal {@link #getBlockCount()}
+   * @param header the RLP encoded block header
+   * @param body the RLP encoded block body
+   * @param transactionReceipts the RLP encoded transaction receipts
+   */
+  public synchronized void append(
+      final long blockNumber,
+      final Bytes header,
+      final Bytes body,
+      final Bytes transactionReceipts) {
+    checkArgument(
+        blockNumber == getBlockCount(),
+        "Expected ancient block %s but got %s",
+        getBlockCount(),
+        blockNumber);
+    try {
+      headers.append(header);
+      bodies.append(body);
+      receipts.append(transactionReceipts);
+    } catch (final IOException e) {
+      throw new StorageException("Failed to append ancient block " + blockNumber, e);
+    }
+  }
+
+  /**
+   * Discard every block from the given number onwards.
+   *
+   * @param blockCount the number of blocks to keep
+   */
+  public synchronized void truncate(final long blockCount) {
+    try {
+      truncateFiles(blockCount);
+    } catch (final IOException e) {
+      throw new StorageException("Failed to truncate ancient blocks to " + blockCount, e);
+    }
+  }
+
+  /** Force the appended blocks to disk. */
+  public void sync() {
+    try {
+      for (final AncientDataFile file : List.of(headers, bodies, receipts)) {
+        file.sync();
+      }
+    } catch (final IOException e) {
+      throw new StorageException("Failed to sync ancient blocks", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      headers.close();
+    } finally {
+      try {
+        bodies.close();
+      } finally {
+        receipts.close();
+      }
+    }
+  }
+
+  private void truncateFiles(final long blockCount) throws IOException {
+    headers.truncate(blockCount);
+    bodies.truncate(blockCount);
+    receipts.truncate(blockCount);
+  }
+
+  private static Optional<Bytes> get(final AncientDataFile file, final long blockNumber) {
+    try {
+      return file.get(blockNumber);
+    } catch (final IOException e) {
+      throw new StorageException("Failed to read ancient block " + blockNumber, e);
+    }
+  }
+
+  private static void closeQuietly(final AncientDataFile file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      file.close();
+    } catch (final IOException e) {
+      // Already failing, the original exception is more useful
+    }
+  }
+}
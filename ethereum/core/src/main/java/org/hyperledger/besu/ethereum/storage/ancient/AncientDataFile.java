@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.ancient;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * An append-only flat file of variable length entries numbered from zero.
+ *
+ * <p>Entries are stored back to back in a data file. A separate index file holds one fixed-width
+ * record per entry, the offset in the data file at which that entry ends, so any entry can be
+ * located with a single read of two adjacent index records.
+ */
+final class AncientDataFile implements Closeable {
+  private static final int INDEX_RECORD_SIZE = Long.BYTES;
+
+  private final FileChannel data;
+  private final FileChannel index;
+  private volatile long entryCount;
+  private long dataSize;
+
+  private AncientDataFile(final FileChannel data, final FileChannel index) throws IOException {
+    this.data = data;
+    this.index = index;
+    recover();
+  }
+
+  static AncientDataFile open(final Path directory, final String name) throws IOException {
+    final FileChannel data =
+        FileChannel.open(directory.resolve(name + ".dat"), CREATE, READ, WRITE);
+    try {
+      final FileChannel index =
+          FileChannel.open(directory.resolve(name + ".idx"), CREATE, READ, WRITE);
+      return new AncientDataFile(data, index);
+    } catch (final IOException | RuntimeException e) {
+      data.close();
+      throw e;
+    }
+  }
+
+  long getEntryCount() {
+    return entryCount;
+  }
+
+  Optional<Bytes> get(final long entryNumber) throws IOException {
+    if (entryNumber < 0 || entryNumber >= entryCount) {
+      return Optional.empty();
+    }
+    final long start;
+    final long end;
+    if (entryNumber == 0) {
+      start = 0;
+      end = readFully(index, INDEX_RECORD_SIZE, 0).getLong();
+    } else {
+      final ByteBuffer records =
+          readFully(index, 2 * INDEX_RECORD_SIZE, (entryNumber - 1) * INDEX_RECORD_SIZE);
+      start = records.getLong();
+      end = records.getLong();
+    }
+    return Optional.of(Bytes.wrap(readFully(data, Math.toIntExact(end - start), start).array()));
+  }
+
+  synchronized void append(final Bytes value) throws IOException {
+    final long end = dataSize + value.size();
+    writeFully(data, ByteBuffer.wrap(value.toArrayUnsafe()), dataSize);
+    writeFully(
+        index,
+        ByteBuffer.allocate(INDEX_RECORD_SIZE).putLong(0, end),
+        entryCount * INDEX_RECORD_SIZE);
+    dataSize = end;
+    entryCount++;
+  }
+
+  /**
+   * Discard every entry from the given number onwards.
+   *
+   * @param newEntryCount the number of entries to keep
+   * @throws IOException if the files cannot be truncated
+   */
+  synchronized void truncate(final long newEntryCount) throws IOException {
+    if (newEntryCount >= entryCount) {
+      return;
+    }
+    entryCount = newEntryCount;
+    dataSize = newEntryCount == 0 ? 0 : readEnd(newEntryCount - 1);
+    index.truncate(newEntryCount * INDEX_RECORD_SIZE);
+    data.truncate(dataSize);
+  }
+
+  /**
+   * Force the appended entries to disk, data before index.
+   *
+   * @throws IOException if the files cannot be synced
+   */
+  void sync() throws IOException {
+    data.force(false);
+    index.force(false);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      index.close();
+    } finally {
+      data.close();
+    }
+  }
+
+  // Drop any partially written index record, and any entry whose data did not reach the disk.
+  private void recover() throws IOException {
+    long count = index.size() / INDEX_RECORD_SIZE;
+    long end = 0;
+    while (count > 0) {
+      end = readEnd(count - 1);
+      if (end <= data.size()) {
+        break;
+      }
+      count--;
+      end = 0;
+    }
+    entryCount = count;
+    dataSize = end;
+    index.truncate(count * INDEX_RECORD_SIZE);
+    data.truncate(end);
+  }
+
+  private long readEnd(final long entryNumber) throws IOException {
+    return readFully(index, INDEX_RECORD_SIZE, entryNumber * INDEX_RECORD_SIZE).getLong();
+  }
+
+  private static ByteBuffer readFully(
+      final FileChannel channel, final int length, final long position) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of ancient data file");
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static void writeFully(
+      final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+}
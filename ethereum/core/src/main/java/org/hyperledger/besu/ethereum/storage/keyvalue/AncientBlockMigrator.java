@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Moves canonical blocks older than a given depth below the chain head to the ancient block
+ * store, in the background and in batches.
+ */
+public class AncientBlockMigrator implements BlockAddedObserver, Closeable {
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Number of blocks moved, and synced to disk, at a time. */
+  public static final int MIGRATION_BATCH_SIZE = 1_000;
+
+  private final KeyValueStoragePrefixedKeyBlockchainStorage blockchainStorage;
+  private final long depth;
+  private final ExecutorService executor;
+  private final AtomicBoolean migrating = new AtomicBoolean(false);
+  private volatile boolean stopped = false;
+  private final AtomicLong ancientBlockCount;
+
+  public AncientBlockMigrator(
+      final KeyValueStoragePrefixedKeyBlockchainStorage blockchainStorage, final long depth) {
+    checkArgument(depth > 0, "Ancient block depth must be positive.");
+    this.blockchainStorage = blockchainStorage;
+    this.depth = depth;
+    this.ancientBlockCount = new AtomicLong(blockchainStorage.getAncientBlockCount());
+    this.executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("AncientBlockMigration-%d")
+                .build());
+  }
+
+  @Override
+  public void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
+    if (!event.isNewCanonicalHead()) {
+      return;
+    }
+    final long blockNumber = event.getBlock().getHeader().getNumber() - depth;
+    if (blockNumber - ancientBlockCount.get() < MIGRATION_BATCH_SIZE
+        || stopped
+        || !migrating.compareAndSet(false, true)) {
+      return;
+    }
+    executor.execute(() -> migrate(blockNumber));
+  }
+
+  private void migrate(final long blockNumber) {
+    try {
+      int migrated;
+      do {
+        migrated = blockchainStorage.migrateAncientBlocks(blockNumber, MIGRATION_BATCH_SIZE);
+        ancientBlockCount.addAndGet(migrated);
+      } while (migrated > 0 && !stopped);
+      LOG.debug("Moved blocks up to {} to ancient block storage", ancientBlockCount.get() - 1);
+    } catch (final RuntimeException e) {
+      LOG.error("Failed to move blocks to ancient block storage", e);
+    } finally {
+      migrating.set(false);
+    }
+  }
+
+  @Override
+  public void close() {
+    // Let the current batch finish, interrupting it would close the ancient block files
+    stopped = true;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        LOG.error("Failed to shutdown ancient block migration.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
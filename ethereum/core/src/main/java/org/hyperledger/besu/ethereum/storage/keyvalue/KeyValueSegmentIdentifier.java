@@ -21,7 +21,10 @@ public enum KeyValueSegmentIdentifier implements SegmentIdentifier {
   WORLD_STATE((byte) 2),
   PRIVATE_TRANSACTIONS((byte) 3),
   PRIVATE_STATE((byte) 4),
-  PRUNING_STATE((byte) 5);
+  PRUNING_STATE((byte) 5),
+  DAML_BLOBS((byte) 6),
+  DAML_LOG_INDEX((byte) 7),
+  WORLD_STATE_SNAPSHOT((byte) 8);
 
   private final byte[] id;
 
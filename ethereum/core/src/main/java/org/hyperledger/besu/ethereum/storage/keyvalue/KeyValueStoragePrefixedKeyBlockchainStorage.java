@@ -23,13 +23,18 @@ import org.hyperledger.besu.ethereum.core.Difficulty;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.ancient.AncientBlockStore;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 import com.google.common.collect.Lists;
 import org.apache.tuweni.bytes.Bytes;
@@ -42,6 +47,8 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
       Bytes.wrap("chainHeadHash".getBytes(StandardCharsets.UTF_8));
   private static final Bytes FORK_HEADS_KEY =
       Bytes.wrap("forkHeads".getBytes(StandardCharsets.UTF_8));
+  private static final Bytes ANCIENT_BLOCK_COUNT_KEY =
+      Bytes.wrap("ancientBlockCount".getBytes(StandardCharsets.UTF_8));
 
   private static final Bytes CONSTANTS_PREFIX = Bytes.of(1);
   private static final Bytes BLOCK_HEADER_PREFIX = Bytes.of(2);
@@ -50,14 +57,35 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
   private static final Bytes BLOCK_HASH_PREFIX = Bytes.of(5);
   private static final Bytes TOTAL_DIFFICULTY_PREFIX = Bytes.of(6);
   private static final Bytes TRANSACTION_LOCATION_PREFIX = Bytes.of(7);
+  private static final Bytes ANCIENT_BLOCK_NUMBER_PREFIX = Bytes.of(8);
 
   private final KeyValueStorage storage;
   private final BlockHeaderFunctions blockHeaderFunctions;
+  private final Optional<AncientBlockStore> ancientBlocks;
 
   public KeyValueStoragePrefixedKeyBlockchainStorage(
       final KeyValueStorage storage, final BlockHeaderFunctions blockHeaderFunctions) {
+    this(storage, blockHeaderFunctions, Optional.empty());
+  }
+
+  /**
+   * Create a blockchain storage whose old canonical blocks may have been moved to flat files.
+   *
+   * <p>The headers, bodies and receipts of a block moved by {@link #migrateAncientBlocks(long,
+   * int)} are removed from the key value store and served from the ancient block store instead,
+   * found through a small block hash to number entry. All other data stays in the key value store.
+   *
+   * @param storage the key value store
+   * @param blockHeaderFunctions the functions used to decode block headers
+   * @param ancientBlocks the ancient block store, if old blocks are moved to flat files
+   */
+  public KeyValueStoragePrefixedKeyBlockchainStorage(
+      final KeyValueStorage storage,
+      final BlockHeaderFunctions blockHeaderFunctions,
+      final Optional<AncientBlockStore> ancientBlocks) {
     this.storage = storage;
     this.blockHeaderFunctions = blockHeaderFunctions;
+    this.ancientBlocks = ancientBlocks;
   }
 
   @Override
@@ -75,18 +103,22 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
   @Override
   public Optional<BlockHeader> getBlockHeader(final Hash blockHash) {
     return get(BLOCK_HEADER_PREFIX, blockHash)
+        .or(() -> getAncient(blockHash, AncientBlockStore::getBlockHeader))
         .map(b -> BlockHeader.readFrom(RLP.input(b), blockHeaderFunctions));
   }
 
   @Override
   public Optional<BlockBody> getBlockBody(final Hash blockHash) {
     return get(BLOCK_BODY_PREFIX, blockHash)
+        .or(() -> getAncient(blockHash, AncientBlockStore::getBlockBody))
         .map(bytes -> BlockBody.readFrom(RLP.input(bytes), blockHeaderFunctions));
   }
 
   @Override
   public Optional<List<TransactionReceipt>> getTransactionReceipts(final Hash blockHash) {
-    return get(TRANSACTION_RECEIPTS_PREFIX, blockHash).map(this::rlpDecodeTransactionReceipts);
+    return get(TRANSACTION_RECEIPTS_PREFIX, blockHash)
+        .or(() -> getAncient(blockHash, AncientBlockStore::getTransactionReceipts))
+        .map(this::rlpDecodeTransactionReceipts);
   }
 
   @Override
@@ -110,6 +142,88 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
     return new Updater(storage.startTransaction());
   }
 
+  @Override
+  public Optional<ReadSnapshot> takeReadSnapshot() {
+    if (!(storage instanceof SnappableKeyValueStorage)) {
+      return Optional.empty();
+    }
+    // The flat files are never truncated below the recorded ancient block count, so every ancient
+    // block a snapshot knows of stays readable from the shared files
+    return Optional.of(
+        new Snapshot(
+            ((SnappableKeyValueStorage) storage).takeSnapshot(),
+            blockHeaderFunctions,
+            ancientBlocks));
+  }
+
+  /**
+   * Return the number of canonical blocks, counted from genesis, moved to the ancient block store.
+   *
+   * @return the number of ancient blocks
+   */
+  public long getAncientBlockCount() {
+    return get(CONSTANTS_PREFIX, ANCIENT_BLOCK_COUNT_KEY).map(Bytes::toLong).orElse(0L);
+  }
+
+  /**
+   * Move the next canonical blocks below the given number to the ancient block store.
+   *
+   * <p>The blocks are appended and synced to the flat files before their entries are removed from
+   * the key value store in a single transaction, which also records the new ancient block count.
+   * Blocks appended to the files but not yet recorded, e.g. because of a crash, are discarded and
+   * appended again.
+   *
+   * @param blockNumber the number of the first block to keep in the key value store
+   * @param maxBlocks the maximum number of blocks to move
+   * @return the number of blocks moved
+   */
+  public int migrateAncientBlocks(final long blockNumber, final int maxBlocks) {
+    final AncientBlockStore ancientBlockStore =
+        ancientBlocks.orElseThrow(
+            () -> new IllegalStateException("Ancient block storage is not enabled."));
+    final long firstBlockNumber = getAncientBlockCount();
+    final long endBlockNumber = Math.min(blockNumber, firstBlockNumber + maxBlocks);
+    if (endBlockNumber <= firstBlockNumber) {
+      return 0;
+    }
+
+    ancientBlockStore.truncate(firstBlockNumber);
+    final List<Hash> migratedHashes = new ArrayList<>();
+    for (long number = firstBlockNumber; number < endBlockNumber; number++) {
+      final Optional<Hash> hash = getBlockHash(number);
+      final Optional<Bytes> header = hash.flatMap(h -> get(BLOCK_HEADER_PREFIX, h));
+      final Optional<Bytes> body = hash.flatMap(h -> get(BLOCK_BODY_PREFIX, h));
+      final Optional<Bytes> receipts = hash.flatMap(h -> get(TRANSACTION_RECEIPTS_PREFIX, h));
+      if (header.isEmpty() || body.isEmpty() || receipts.isEmpty()) {
+        // The chain is not complete yet, e.g. during a fast sync
+        break;
+      }
+      ancientBlockStore.append(number, header.get(), body.get(), receipts.get());
+      migratedHashes.add(hash.get());
+    }
+    if (migratedHashes.isEmpty()) {
+      return 0;
+    }
+    ancientBlockStore.sync();
+
+    final KeyValueStorageTransaction transaction = storage.startTransaction();
+    for (int i = 0; i < migratedHashes.size(); i++) {
+      final Hash hash = migratedHashes.get(i);
+      final Bytes number = Bytes.ofUnsignedLong(firstBlockNumber + i);
+      put(transaction, ANCIENT_BLOCK_NUMBER_PREFIX, hash, number);
+      remove(transaction, BLOCK_HEADER_PREFIX, hash);
+      remove(transaction, BLOCK_BODY_PREFIX, hash);
+      remove(transaction, TRANSACTION_RECEIPTS_PREFIX, hash);
+    }
+    put(
+        transaction,
+        CONSTANTS_PREFIX,
+        ANCIENT_BLOCK_COUNT_KEY,
+        Bytes.ofUnsignedLong(firstBlockNumber + migratedHashes.size()));
+    transaction.commit();
+    return migratedHashes.size();
+  }
+
   private List<TransactionReceipt> rlpDecodeTransactionReceipts(final Bytes bytes) {
     return RLP.input(bytes).readList(TransactionReceipt::readFrom);
   }
@@ -122,6 +236,50 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
     return storage.get(Bytes.concatenate(prefix, key).toArrayUnsafe()).map(Bytes::wrap);
   }
 
+  private Optional<Bytes> getAncient(
+      final Hash blockHash, final BiFunction<AncientBlockStore, Long, Optional<Bytes>> reader) {
+    return ancientBlocks.flatMap(
+        ancientBlockStore ->
+            get(ANCIENT_BLOCK_NUMBER_PREFIX, blockHash)
+                .flatMap(number -> reader.apply(ancientBlockStore, number.toLong())));
+  }
+
+  private static void put(
+      final KeyValueStorageTransaction transaction,
+      final Bytes prefix,
+      final Bytes key,
+      final Bytes value) {
+    transaction.put(Bytes.concatenate(prefix, key).toArrayUnsafe(), value.toArrayUnsafe());
+  }
+
+  private static void remove(
+      final KeyValueStorageTransaction transaction, final Bytes prefix, final Bytes key) {
+    transaction.remove(Bytes.concatenate(prefix, key).toArrayUnsafe());
+  }
+
+  private static class Snapshot extends KeyValueStoragePrefixedKeyBlockchainStorage
+      implements ReadSnapshot {
+    private final SnappedKeyValueStorage snappedStorage;
+
+    private Snapshot(
+        final SnappedKeyValueStorage snappedStorage,
+        final BlockHeaderFunctions blockHeaderFunctions,
+        final Optional<AncientBlockStore> ancientBlocks) {
+      super(snappedStorage, blockHeaderFunctions, ancientBlocks);
+      this.snappedStorage = snappedStorage;
+    }
+
+    @Override
+    public int migrateAncientBlocks(final long blockNumber, final int maxBlocks) {
+      throw new UnsupportedOperationException("A storage snapshot is read-only");
+    }
+
+    @Override
+    public void close() {
+      snappedStorage.close();
+    }
+  }
+
   public static class Updater implements BlockchainStorage.Updater {
 
     private final KeyValueStorageTransaction transaction;
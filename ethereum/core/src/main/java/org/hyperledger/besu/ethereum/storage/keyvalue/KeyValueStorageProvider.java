@@ -18,11 +18,13 @@ import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ScheduleBasedBlockHeaderFunctions;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.storage.ancient.AncientBlockStore;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class KeyValueStorageProvider implements StorageProvider {
 
@@ -30,30 +32,85 @@ public class KeyValueStorageProvider implements StorageProvider {
   private final KeyValueStorage worldStateStorage;
   private final KeyValueStorage worldStatePreimageStorage;
   private final KeyValueStorage pruningStorage;
+  private final KeyValueStorage damlBlobStorage;
+  private final KeyValueStorage damlLogIndexStorage;
+  private final KeyValueStorage worldStateSnapshotStorage;
   private final boolean isWorldStateIterable;
+  private final Optional<AncientBlockStore> ancientBlockStore;
+  private final long ancientBlocksDepth;
 
   public KeyValueStorageProvider(
       final KeyValueStorage blockchainStorage,
       final KeyValueStorage worldStateStorage,
       final KeyValueStorage worldStatePreimageStorage,
       final KeyValueStorage pruningStorage,
+      final KeyValueStorage damlBlobStorage,
+      final KeyValueStorage damlLogIndexStorage,
+      final KeyValueStorage worldStateSnapshotStorage,
       final boolean isWorldStateIterable) {
+    this(
+        blockchainStorage,
+        worldStateStorage,
+        worldStatePreimageStorage,
+        pruningStorage,
+        damlBlobStorage,
+        damlLogIndexStorage,
+        worldStateSnapshotStorage,
+        isWorldStateIterable,
+        Optional.empty(),
+        0);
+  }
+
+  public KeyValueStorageProvider(
+      final KeyValueStorage blockchainStorage,
+      final KeyValueStorage worldStateStorage,
+      final KeyValueStorage worldStatePreimageStorage,
+      final KeyValueStorage pruningStorage,
+      final KeyValueStorage damlBlobStorage,
+      final KeyValueStorage damlLogIndexStorage,
+      final KeyValueStorage worldStateSnapshotStorage,
+      final boolean isWorldStateIterable,
+      final Optional<AncientBlockStore> ancientBlockStore,
+      final long ancientBlocksDepth) {
     this.blockchainStorage = blockchainStorage;
     this.worldStateStorage = worldStateStorage;
     this.worldStatePreimageStorage = worldStatePreimageStorage;
     this.pruningStorage = pruningStorage;
+    this.damlBlobStorage = damlBlobStorage;
+    this.damlLogIndexStorage = damlLogIndexStorage;
+    this.worldStateSnapshotStorage = worldStateSnapshotStorage;
     this.isWorldStateIterable = isWorldStateIterable;
+    this.ancientBlockStore = ancientBlockStore;
+    this.ancientBlocksDepth = ancientBlocksDepth;
   }
 
   @Override
   public BlockchainStorage createBlockchainStorage(final ProtocolSchedule<?> protocolSchedule) {
     return new KeyValueStoragePrefixedKeyBlockchainStorage(
-        blockchainStorage, ScheduleBasedBlockHeaderFunctions.create(protocolSchedule));
+        blockchainStorage,
+        ScheduleBasedBlockHeaderFunctions.create(protocolSchedule),
+        ancientBlockStore);
+  }
+
+  @Override
+  public Optional<AncientBlockMigrator> createAncientBlockMigrator(
+      final ProtocolSchedule<?> protocolSchedule) {
+    if (ancientBlocksDepth <= 0) {
+      return Optional.empty();
+    }
+    return ancientBlockStore.map(
+        store ->
+            new AncientBlockMigrator(
+                new KeyValueStoragePrefixedKeyBlockchainStorage(
+                    blockchainStorage,
+                    ScheduleBasedBlockHeaderFunctions.create(protocolSchedule),
+                    ancientBlockStore),
+                ancientBlocksDepth));
   }
 
   @Override
   public WorldStateStorage createWorldStateStorage() {
-    return new WorldStateKeyValueStorage(worldStateStorage);
+    return new WorldStateKeyValueStorage(worldStateStorage, damlBlobStorage);
   }
 
   @Override
@@ -66,6 +123,16 @@ public class KeyValueStorageProvider implements StorageProvider {
     return pruningStorage;
   }
 
+  @Override
+  public KeyValueStorage createDamlLogIndexStorage() {
+    return damlLogIndexStorage;
+  }
+
+  @Override
+  public KeyValueStorage createWorldStateSnapshotStorage() {
+    return worldStateSnapshotStorage;
+  }
+
   @Override
   public boolean isWorldStateIterable() {
     return isWorldStateIterable;
@@ -76,5 +143,11 @@ public class KeyValueStorageProvider implements StorageProvider {
     blockchainStorage.close();
     worldStateStorage.close();
     pruningStorage.close();
+    damlBlobStorage.close();
+    damlLogIndexStorage.close();
+    worldStateSnapshotStorage.close();
+    if (ancientBlockStore.isPresent()) {
+      ancientBlockStore.get().close();
+    }
   }
 }
@@ -16,15 +16,23 @@ package org.hyperledger.besu.ethereum.storage.keyvalue;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.BLOCKCHAIN;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.DAML_BLOBS;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.DAML_LOG_INDEX;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.PRUNING_STATE;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.WORLD_STATE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.WORLD_STATE_SNAPSHOT;
 
+import org.hyperledger.besu.ethereum.storage.ancient.AncientBlockStore;
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageFactory;
 import org.hyperledger.besu.services.kvstore.LimitedInMemoryKeyValueStorage;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
 public class KeyValueStorageProviderBuilder {
 
   private static final long DEFAULT_WORLD_STATE_PRE_IMAGE_CACHE_SIZE = 5_000L;
@@ -32,6 +40,7 @@ public class KeyValueStorageProviderBuilder {
   private KeyValueStorageFactory storageFactory;
   private BesuConfiguration commonConfiguration;
   private MetricsSystem metricsSystem;
+  private long ancientBlocksDepth = 0;
 
   public KeyValueStorageProviderBuilder withStorageFactory(
       final KeyValueStorageFactory storageFactory) {
@@ -50,6 +59,19 @@ public class KeyValueStorageProviderBuilder {
     return this;
   }
 
+  /**
+   * Move canonical blocks older than the given depth below the chain head to flat files. Blocks
+   * moved by an earlier run are read from the flat files whatever the depth.
+   *
+   * @param ancientBlocksDepth the number of recent blocks kept in the key value store, or zero to
+   *     keep every block in the key value store
+   * @return this builder
+   */
+  public KeyValueStorageProviderBuilder withAncientBlocksDepth(final long ancientBlocksDepth) {
+    this.ancientBlocksDepth = ancientBlocksDepth;
+    return this;
+  }
+
   public KeyValueStorageProvider build() {
     checkNotNull(storageFactory, "Cannot build a storage provider without a storage factory.");
     checkNotNull(
@@ -59,12 +81,25 @@ public class KeyValueStorageProviderBuilder {
 
     final KeyValueStorage worldStatePreImageStorage =
         new LimitedInMemoryKeyValueStorage(DEFAULT_WORLD_STATE_PRE_IMAGE_CACHE_SIZE);
+    // Blocks already moved to the ancient block store are no longer in the key value store, so it
+    // is opened whenever it exists, and the depth only decides whether more blocks are moved
+    final Path ancientBlocksDirectory =
+        commonConfiguration.getDataPath().resolve(AncientBlockStore.DIRECTORY_NAME);
+    final Optional<AncientBlockStore> ancientBlockStore =
+        ancientBlocksDepth > 0 || Files.isDirectory(ancientBlocksDirectory)
+            ? Optional.of(AncientBlockStore.open(ancientBlocksDirectory))
+            : Optional.empty();
 
     return new KeyValueStorageProvider(
         storageFactory.create(BLOCKCHAIN, commonConfiguration, metricsSystem),
         storageFactory.create(WORLD_STATE, commonConfiguration, metricsSystem),
         worldStatePreImageStorage,
         storageFactory.create(PRUNING_STATE, commonConfiguration, metricsSystem),
-        storageFactory.isSegmentIsolationSupported());
+        storageFactory.create(DAML_BLOBS, commonConfiguration, metricsSystem),
+        storageFactory.create(DAML_LOG_INDEX, commonConfiguration, metricsSystem),
+        storageFactory.create(WORLD_STATE_SNAPSHOT, commonConfiguration, metricsSystem),
+        storageFactory.isSegmentIsolationSupported(),
+        ancientBlockStore,
+        ancientBlocksDepth);
   }
 }
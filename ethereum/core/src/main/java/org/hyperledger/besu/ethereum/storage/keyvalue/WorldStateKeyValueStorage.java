@@ -19,10 +19,14 @@ import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 import org.hyperledger.besu.util.Subscribers;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -34,11 +38,25 @@ import org.apache.tuweni.bytes.Bytes32;
 public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   private final Subscribers<NodesAddedListener> nodeAddedListeners = Subscribers.create();
+  private final Subscribers<NodesCommittedListener> nodesCommittedListeners =
+      Subscribers.create();
   private final KeyValueStorage keyValueStorage;
+  private final KeyValueStorage damlBlobStorage;
   private static final Logger LOG = LogManager.getLogger();
 
   public WorldStateKeyValueStorage(final KeyValueStorage keyValueStorage) {
+    this(keyValueStorage, keyValueStorage);
+  }
+
+  /**
+   * @param keyValueStorage storage for trie nodes and code
+   * @param damlBlobStorage storage for the content-addressed DAML ledger entries referenced from
+   *     the DAML account storage, kept apart so pruning never touches it
+   */
+  public WorldStateKeyValueStorage(
+      final KeyValueStorage keyValueStorage, final KeyValueStorage damlBlobStorage) {
     this.keyValueStorage = keyValueStorage;
+    this.damlBlobStorage = damlBlobStorage;
   }
 
   @Override
@@ -79,6 +97,32 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     }
   }
 
+  @Override
+  public Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    if (blobHash.equals(Hash.EMPTY)) {
+      return Optional.of(Bytes.EMPTY);
+    } else {
+      return damlBlobStorage.get(blobHash.toArrayUnsafe()).map(Bytes::wrap);
+    }
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getDamlBlobs(final List<Bytes32> blobHashes) {
+    final List<byte[]> keys = new ArrayList<>(blobHashes.size());
+    blobHashes.forEach(blobHash -> keys.add(blobHash.toArrayUnsafe()));
+    final List<Optional<byte[]>> values = damlBlobStorage.getMultiple(keys);
+    final Map<Bytes32, Bytes> blobs = new HashMap<>();
+    for (int i = 0; i < blobHashes.size(); i++) {
+      final Bytes32 blobHash = blobHashes.get(i);
+      if (blobHash.equals(Hash.EMPTY)) {
+        blobs.put(blobHash, Bytes.EMPTY);
+      } else {
+        values.get(i).ifPresent(blob -> blobs.put(blobHash, Bytes.wrap(blob)));
+      }
+    }
+    return blobs;
+  }
+
   @Override
   public boolean isWorldStateAvailable(final Bytes32 rootHash) {
     return getAccountStateTrieNode(rootHash).isPresent();
@@ -86,7 +130,11 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   @Override
   public Updater updater() {
-    return new Updater(keyValueStorage.startTransaction(), nodeAddedListeners);
+    final KeyValueStorageTransaction transaction = keyValueStorage.startTransaction();
+    final KeyValueStorageTransaction damlBlobTransaction =
+        damlBlobStorage == keyValueStorage ? transaction : damlBlobStorage.startTransaction();
+    return new Updater(
+        transaction, damlBlobTransaction, nodeAddedListeners, nodesCommittedListeners);
   }
 
   @Override
@@ -104,21 +152,86 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     nodeAddedListeners.unsubscribe(id);
   }
 
+  @Override
+  public long addNodesCommittedListener(final NodesCommittedListener listener) {
+    return nodesCommittedListeners.subscribe(listener);
+  }
+
+  @Override
+  public void removeNodesCommittedListener(final long id) {
+    nodesCommittedListeners.unsubscribe(id);
+  }
+
+  @Override
+  public Optional<ReadSnapshot> takeReadSnapshot() {
+    if (!(keyValueStorage instanceof SnappableKeyValueStorage)
+        || !(damlBlobStorage instanceof SnappableKeyValueStorage)) {
+      return Optional.empty();
+    }
+    // Blobs are committed before the trie nodes referencing them, so snapshot the tries first
+    final SnappedKeyValueStorage snappedStorage =
+        ((SnappableKeyValueStorage) keyValueStorage).takeSnapshot();
+    if (damlBlobStorage == keyValueStorage) {
+      return Optional.of(new Snapshot(snappedStorage, snappedStorage));
+    }
+    try {
+      return Optional.of(
+          new Snapshot(
+              snappedStorage, ((SnappableKeyValueStorage) damlBlobStorage).takeSnapshot()));
+    } catch (final RuntimeException e) {
+      snappedStorage.close();
+      throw e;
+    }
+  }
+
+  private static class Snapshot extends WorldStateKeyValueStorage implements ReadSnapshot {
+    private final SnappedKeyValueStorage snappedStorage;
+    private final SnappedKeyValueStorage snappedDamlBlobStorage;
+
+    private Snapshot(
+        final SnappedKeyValueStorage snappedStorage,
+        final SnappedKeyValueStorage snappedDamlBlobStorage) {
+      super(snappedStorage, snappedDamlBlobStorage);
+      this.snappedStorage = snappedStorage;
+      this.snappedDamlBlobStorage = snappedDamlBlobStorage;
+    }
+
+    @Override
+    public void close() {
+      snappedStorage.close();
+      if (snappedDamlBlobStorage != snappedStorage) {
+        snappedDamlBlobStorage.close();
+      }
+    }
+  }
+
   public static class Updater implements WorldStateStorage.Updater {
 
     private final KeyValueStorageTransaction transaction;
+    private final KeyValueStorageTransaction damlBlobTransaction;
     private final Subscribers<NodesAddedListener> nodeAddedListeners;
+    private final Subscribers<NodesCommittedListener> nodesCommittedListeners;
     private final List<Bytes32> addedNodes = new ArrayList<>();
+    private final Map<Bytes32, Bytes> addedAccountTrieNodes = new HashMap<>();
+    private final Map<Bytes32, Bytes> addedStorageTrieNodes = new HashMap<>();
+    private final List<Bytes32> addedCode = new ArrayList<>();
 
     public Updater(
         final KeyValueStorageTransaction transaction,
-        final Subscribers<NodesAddedListener> nodeAddedListeners) {
+        final KeyValueStorageTransaction damlBlobTransaction,
+        final Subscribers<NodesAddedListener> nodeAddedListeners,
+        final Subscribers<NodesCommittedListener> nodesCommittedListeners) {
       this.transaction = transaction;
+      this.damlBlobTransaction = damlBlobTransaction;
       this.nodeAddedListeners = nodeAddedListeners;
+      this.nodesCommittedListeners = nodesCommittedListeners;
     }
 
     @Override
     public Updater removeAccountStateTrieNode(final Bytes32 nodeHash) {
+      addedAccountTrieNodes.remove(nodeHash);
+      addedStorageTrieNodes.remove(nodeHash);
+      addedCode.remove(nodeHash);
       transaction.remove(nodeHash.toArrayUnsafe());
       return this;
     }
@@ -131,6 +244,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
       }
 
       addedNodes.add(codeHash);
+      addedCode.add(codeHash);
       transaction.put(codeHash.toArrayUnsafe(), code.toArrayUnsafe());
       return this;
     }
@@ -142,6 +256,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
         return this;
       }
       addedNodes.add(nodeHash);
+      addedAccountTrieNodes.put(nodeHash, node);
       transaction.put(nodeHash.toArrayUnsafe(), node.toArrayUnsafe());
       return this;
     }
@@ -153,20 +268,46 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
         return this;
       }
       addedNodes.add(nodeHash);
+      addedStorageTrieNodes.put(nodeHash, node);
       transaction.put(nodeHash.toArrayUnsafe(), node.toArrayUnsafe());
       return this;
     }
 
+    @Override
+    public Updater putDamlBlob(final Bytes32 blobHash, final Bytes blob) {
+      if (blob.size() == 0) {
+        // Don't save empty values
+        return this;
+      }
+      damlBlobTransaction.put(blobHash.toArrayUnsafe(), blob.toArrayUnsafe());
+      return this;
+    }
+
     @Override
     public void commit() {
       LOG.debug("commit");
       nodeAddedListeners.forEach(listener -> listener.onNodesAdded(addedNodes));
+      if (!addedAccountTrieNodes.isEmpty()
+          || !addedStorageTrieNodes.isEmpty()
+          || !addedCode.isEmpty()) {
+        nodesCommittedListeners.forEach(
+            listener ->
+                listener.onNodesCommitted(
+                    addedAccountTrieNodes, addedStorageTrieNodes, addedCode));
+      }
+      // Blobs first, so a committed trie never references a missing blob
+      if (damlBlobTransaction != transaction) {
+        damlBlobTransaction.commit();
+      }
       transaction.commit();
     }
 
     @Override
     public void rollback() {
       LOG.debug("rollback");
+      if (damlBlobTransaction != transaction) {
+        damlBlobTransaction.rollback();
+      }
       transaction.rollback();
     }
   }
@@ -66,31 +66,44 @@ public class TransactionSimulator {
 
   public Optional<TransactionSimulatorResult> process(
       final CallParameter callParams, final Hash blockHeaderHash) {
-    final BlockHeader header = blockchain.getBlockHeader(blockHeaderHash).orElse(null);
-    return process(callParams, header);
+    return blockchain.mapSnapshot(
+        pinnedBlockchain ->
+            process(
+                callParams,
+                pinnedBlockchain,
+                pinnedBlockchain.getBlockHeader(blockHeaderHash).orElse(null)));
   }
 
   public Optional<TransactionSimulatorResult> process(
       final CallParameter callParams, final long blockNumber) {
-    final BlockHeader header = blockchain.getBlockHeader(blockNumber).orElse(null);
-    return process(callParams, header);
+    return blockchain.mapSnapshot(
+        pinnedBlockchain ->
+            process(
+                callParams,
+                pinnedBlockchain,
+                pinnedBlockchain.getBlockHeader(blockNumber).orElse(null)));
   }
 
   public Optional<TransactionSimulatorResult> processAtHead(final CallParameter callParams) {
-    return process(callParams, blockchain.getChainHeadHeader());
+    return blockchain.mapSnapshot(
+        pinnedBlockchain ->
+            process(callParams, pinnedBlockchain, pinnedBlockchain.getChainHeadHeader()));
   }
 
   private Optional<TransactionSimulatorResult> process(
-      final CallParameter callParams, final BlockHeader header) {
+      final CallParameter callParams, final Blockchain blockchain, final BlockHeader header) {
     if (header == null) {
       return Optional.empty();
     }
-    final MutableWorldState worldState =
-        worldStateArchive.getMutable(header.getStateRoot()).orElse(null);
-    if (worldState == null) {
-      return Optional.empty();
-    }
+    return worldStateArchive.mapWorldState(
+        header.getStateRoot(), worldState -> process(callParams, blockchain, header, worldState));
+  }
 
+  private TransactionSimulatorResult process(
+      final CallParameter callParams,
+      final Blockchain blockchain,
+      final BlockHeader header,
+      final MutableWorldState worldState) {
     final Address senderAddress =
         callParams.getFrom() != null ? callParams.getFrom() : DEFAULT_FROM;
     final Account sender = worldState.get(senderAddress);
@@ -128,7 +141,7 @@ public class TransactionSimulator {
             false,
             TransactionValidationParams.transactionSimulator());
 
-    return Optional.of(new TransactionSimulatorResult(transaction, result));
+    return new TransactionSimulatorResult(transaction, result);
   }
 
   public Optional<Boolean> doesAddressExistAtHead(final Address address) {
@@ -140,12 +153,7 @@ public class TransactionSimulator {
       return Optional.empty();
     }
 
-    final MutableWorldState worldState =
-        worldStateArchive.getMutable(header.getStateRoot()).orElse(null);
-    if (worldState == null) {
-      return Optional.empty();
-    }
-
-    return Optional.of(worldState.get(address) != null);
+    return worldStateArchive.mapWorldState(
+        header.getStateRoot(), worldState -> worldState.get(address) != null);
   }
 }
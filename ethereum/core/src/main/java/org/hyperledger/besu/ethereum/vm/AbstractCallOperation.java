@@ -182,7 +182,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
             .sender(sender(frame))
             .value(value(frame))
             .apparentValue(apparentValue(frame))
-            .code(new Code(contract != null ? contract.getCode() : Bytes.EMPTY))
+            .code(CodeCache.getInstance().getCode(contract))
             .blockHeader(frame.getBlockHeader())
             .depth(frame.getMessageStackDepth() + 1)
             .isStatic(isStatic(frame))
@@ -28,8 +28,11 @@ public class Code {
   /** The bytes representing the code. */
   private final Bytes bytes;
 
-  /** Used to cache valid jump destinations. */
-  private BitSet validJumpDestinations;
+  /**
+   * Used to cache valid jump destinations. Only assigned once fully computed, as a code instance
+   * may be shared between threads through the {@link CodeCache}.
+   */
+  private volatile BitSet validJumpDestinations;
 
   /**
    * Public constructor.
@@ -85,19 +88,22 @@ public class Code {
     final int jumpDestination = destination.intValue();
     if (jumpDestination > getSize()) return false;
 
-    if (validJumpDestinations == null) {
+    BitSet jumpDestinations = validJumpDestinations;
+    if (jumpDestinations == null) {
       // Calculate valid jump destinations
-      validJumpDestinations = new BitSet(getSize());
+      final BitSet calculated = new BitSet(getSize());
       evm.forEachOperation(
           this,
           frame.getContractAccountVersion(),
           (final Operation op, final Integer offset) -> {
             if (op.getOpcode() == JumpDestOperation.OPCODE) {
-              validJumpDestinations.set(offset);
+              calculated.set(offset);
             }
           });
+      validJumpDestinations = calculated;
+      jumpDestinations = calculated;
     }
-    return validJumpDestinations.get(jumpDestination);
+    return jumpDestinations.get(jumpDestination);
   }
 
   public Bytes getBytes() {
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A bounded cache of the code of accounts, keyed by code hash and shared by every EVM of the node.
+ *
+ * <p>A cached {@link Code} keeps the valid jump destinations computed the first time it is run, so
+ * calls to a popular contract neither read its code from storage nor analyze it again. Since code
+ * is content-addressed, an entry can never become stale.
+ */
+public class CodeCache {
+  /** Default bound on the total size of the cached code. */
+  public static final long DEFAULT_MAX_WEIGHT_BYTES = 32L * 1024 * 1024;
+
+  // Approximate per-entry overhead of the key, the jump destinations and the wrappers around them
+  private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+  private static final Code EMPTY_CODE = new Code();
+
+  private static final CodeCache INSTANCE = new CodeCache(DEFAULT_MAX_WEIGHT_BYTES);
+
+  private final Cache<Hash, Code> cache;
+
+  @VisibleForTesting
+  CodeCache(final long maxWeightBytes) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            // Jump destinations take one bit per byte of code
+            .<Hash, Code>weigher((key, code) -> code.getSize() * 9 / 8 + ENTRY_OVERHEAD_BYTES)
+            .build();
+  }
+
+  public static CodeCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Return the code of an account, reading it from the account only if it is not cached.
+   *
+   * @param account the account, or null if it does not exist
+   * @return the code of the account, which is empty if the account does not exist
+   */
+  public Code getCode(final Account account) {
+    if (account == null) {
+      return EMPTY_CODE;
+    }
+    final Hash codeHash = account.getCodeHash();
+    if (codeHash.equals(Hash.EMPTY)) {
+      return EMPTY_CODE;
+    }
+    final Code cached = cache.getIfPresent(codeHash);
+    if (cached != null) {
+      return cached;
+    }
+    final Code code = new Code(account.getCode());
+    cache.put(codeHash, code);
+    return code;
+  }
+}
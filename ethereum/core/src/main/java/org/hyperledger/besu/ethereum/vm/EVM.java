@@ -35,6 +35,8 @@ import org.apache.tuweni.bytes.Bytes;
 public class EVM {
   private static final Logger LOG = getLogger();
 
+  private static final int INVALID_OPCODE = 0xfe;
+
   private final OperationRegistry operations;
   private final Operation invalidOperation;
   private final Operation endOfScriptStop;
@@ -47,11 +49,71 @@ public class EVM {
 
   public void runToHalt(final MessageFrame frame, final OperationTracer operationTracer)
       throws ExceptionalHaltException {
+    if (operationTracer == OperationTracer.NO_TRACING && !LOG.isTraceEnabled()) {
+      runToHaltUntraced(frame);
+      return;
+    }
     while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
       executeNextOperation(frame, operationTracer);
     }
   }
 
+  /**
+   * Run the code of a frame without a tracer, checking only what can actually go wrong with each
+   * operation and without allocating per operation. Whenever an operation might halt, it is run
+   * through {@link #executeNextOperation} instead, so that the same halt reasons are reported.
+   */
+  private void runToHaltUntraced(final MessageFrame frame) throws ExceptionalHaltException {
+    // No halt reason has been found for an operation that reaches its specific checks
+    final EnumSet<ExceptionalHaltReason> noHaltReasons =
+        EnumSet.noneOf(ExceptionalHaltReason.class);
+    while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
+      final Operation operation =
+          operationAtOffset(frame.getCode(), frame.getContractAccountVersion(), frame.getPC());
+      frame.setCurrentOperation(operation);
+      final Gas cost = costIfRunnable(frame, operation, noHaltReasons);
+      if (cost == null) {
+        executeNextOperation(frame, OperationTracer.NO_TRACING);
+        continue;
+      }
+      frame.decrementRemainingGas(cost);
+      operation.execute(frame);
+      incrementProgramCounter(frame);
+    }
+  }
+
+  /**
+   * Return the gas cost of an operation if none of the exceptional halt conditions applies to it.
+   *
+   * @param frame the frame the operation is about to run in
+   * @param operation the operation
+   * @param noHaltReasons an empty set of halt reasons
+   * @return the gas cost, or null if the operation might halt and needs to be fully evaluated
+   */
+  private Gas costIfRunnable(
+      final MessageFrame frame,
+      final Operation operation,
+      final EnumSet<ExceptionalHaltReason> noHaltReasons) {
+    final int stackSize = frame.stackSize();
+    if (operation.getOpcode() == INVALID_OPCODE
+        || stackSize < operation.getStackItemsConsumed()
+        || stackSize + operation.getStackSizeChange() > frame.getMaxStackSize()
+        || !frame.getExceptionalHaltReasons().isEmpty()
+        || operation.exceptionalHaltCondition(frame, noHaltReasons, this).isPresent()) {
+      return null;
+    }
+    final Gas cost;
+    try {
+      cost = operation.cost(frame);
+    } catch (final IllegalArgumentException e) {
+      return null;
+    }
+    if (cost == null || frame.getRemainingGasAsLong() < cost.toLong()) {
+      return null;
+    }
+    return cost;
+  }
+
   public void forEachOperation(
       final Code code,
       final int contractAccountVersion,
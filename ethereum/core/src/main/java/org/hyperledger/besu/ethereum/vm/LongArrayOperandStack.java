@@ -0,0 +1,430 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * An {@link OperandStack} whose operands are stored as four 64-bit limbs each in a single {@code
+ * long[]}, which grows as needed up to the maximum size of the stack.
+ *
+ * <p>Besides the {@link Bytes32} based methods of the interface, which convert on the way in and
+ * out, the stack implements the common arithmetic, comparison, bitwise and shift operations of the
+ * EVM in place: they read their operands from the top slots and write the result to the new top
+ * slot, without allocating. As with the operations themselves, the first operand is the top of the
+ * stack and the second operand the item below it.
+ */
+public class LongArrayOperandStack implements OperandStack {
+
+  private static final int LIMBS = 4;
+
+  // Most frames never get deep stacks, so start small rather than allocating the maximum size
+  private static final int INITIAL_CAPACITY = 32;
+
+  // The limbs of the operand in slot i are at [i * LIMBS, i * LIMBS + LIMBS), least significant
+  // first.
+  private long[] limbs;
+
+  private final int maxSize;
+
+  private int top;
+
+  // Scratch space for the operations that cannot write their result in place as they go
+  private final long[] scratch = new long[LIMBS];
+
+  public LongArrayOperandStack(final int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException(
+          String.format("max size (%d) must be non-negative", maxSize));
+    }
+    this.limbs = new long[Math.min(maxSize, INITIAL_CAPACITY) * LIMBS];
+    this.maxSize = maxSize;
+    this.top = -1;
+  }
+
+  @Override
+  public Bytes32 get(final int offset) {
+    if (offset < 0 || offset >= size()) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    return toBytes32(top - offset);
+  }
+
+  @Override
+  public Bytes32 pop() {
+    if (top < 0) {
+      throw new IllegalStateException("operand stack underflow");
+    }
+
+    return toBytes32(top--);
+  }
+
+  @Override
+  public void bulkPop(final int items) {
+    if (items < 0) {
+      throw new IllegalArgumentException(
+          String.format("requested number of items to bulk pop (%d) is negative", items));
+    }
+    if (items == 0) {
+      throw new IllegalArgumentException("number of items to pop must be greater than 0");
+    }
+    if (items > size()) {
+      throw new IllegalStateException(
+          String.format("requested to bulk pop %d items off a stack of size %d", items, size()));
+    }
+    top -= items;
+  }
+
+  @Override
+  public void push(final Bytes32 operand) {
+    final int nextTop = top + 1;
+    if (nextTop == maxSize) {
+      throw new IllegalStateException("operand stack overflow");
+    }
+    if (nextTop * LIMBS == limbs.length) {
+      limbs = Arrays.copyOf(limbs, Math.min(2 * nextTop, maxSize) * LIMBS);
+    }
+    fromBytes32(nextTop, operand);
+    top = nextTop;
+  }
+
+  @Override
+  public void set(final int offset, final Bytes32 operand) {
+    if (offset < 0 || offset >= size()) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    fromBytes32(top - offset, operand);
+  }
+
+  @Override
+  public int size() {
+    return top + 1;
+  }
+
+  /** Replace the two top operands a and b with a + b, modulo 2^256. */
+  public void add() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    long carry = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      final long sum = x + limbs[b + i];
+      final long sumWithCarry = sum + carry;
+      carry =
+          (Long.compareUnsigned(sum, x) < 0 || Long.compareUnsigned(sumWithCarry, sum) < 0)
+              ? 1
+              : 0;
+      limbs[b + i] = sumWithCarry;
+    }
+  }
+
+  /** Replace the two top operands a and b with a - b, modulo 2^256. */
+  public void subtract() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    long borrow = 0;
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      final long y = limbs[b + i];
+      final long difference = x - y;
+      final long differenceWithBorrow = difference - borrow;
+      borrow =
+          (Long.compareUnsigned(x, y) < 0 || Long.compareUnsigned(difference, borrow) < 0)
+              ? 1
+              : 0;
+      limbs[b + i] = differenceWithBorrow;
+    }
+  }
+
+  /** Replace the two top operands a and b with a * b, modulo 2^256. */
+  public void multiply() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    final long[] result = scratch;
+    Arrays.fill(result, 0);
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + i];
+      if (x == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < LIMBS; j++) {
+        final long y = limbs[b + j];
+        final long low = x * y;
+        long high = unsignedMultiplyHigh(x, y);
+        final long withResult = low + result[i + j];
+        if (Long.compareUnsigned(withResult, low) < 0) {
+          high++;
+        }
+        final long withCarry = withResult + carry;
+        if (Long.compareUnsigned(withCarry, withResult) < 0) {
+          high++;
+        }
+        result[i + j] = withCarry;
+        carry = high;
+      }
+    }
+    System.arraycopy(result, 0, limbs, b, LIMBS);
+  }
+
+  /** Replace the two top operands a and b with a / b, or 0 if b is 0. */
+  public void divide() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    if (isZero(b)) {
+      return;
+    }
+    if (fitsLong(a) && fitsLong(b)) {
+      setLong(b, Long.divideUnsigned(limbs[a], limbs[b]));
+      return;
+    }
+    // Wide division is rare, leave it to UInt256
+    fromBytes32(b, toUInt256(a).divide(toUInt256(b)).toBytes());
+  }
+
+  /** Replace the two top operands a and b with a mod b, or 0 if b is 0. */
+  public void mod() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    if (isZero(b)) {
+      return;
+    }
+    if (fitsLong(a) && fitsLong(b)) {
+      setLong(b, Long.remainderUnsigned(limbs[a], limbs[b]));
+      return;
+    }
+    // Wide division is rare, leave it to UInt256
+    fromBytes32(b, toUInt256(a).mod(toUInt256(b)).toBytes());
+  }
+
+  /** Replace the two top operands a and b with 1 if a &lt; b, or 0 otherwise. */
+  public void lessThan() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    setLong(b, compare(a, b) < 0 ? 1 : 0);
+  }
+
+  /** Replace the two top operands a and b with 1 if a &gt; b, or 0 otherwise. */
+  public void greaterThan() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    setLong(b, compare(a, b) > 0 ? 1 : 0);
+  }
+
+  /** Replace the two top operands a and b with 1 if a = b, or 0 otherwise. */
+  public void equal() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    setLong(b, compare(a, b) == 0 ? 1 : 0);
+  }
+
+  /** Replace the two top operands a and b with a &amp; b. */
+  public void and() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] &= limbs[a + i];
+    }
+  }
+
+  /** Replace the two top operands a and b with a | b. */
+  public void or() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] |= limbs[a + i];
+    }
+  }
+
+  /** Replace the two top operands a and b with a ^ b. */
+  public void xor() {
+    final int a = popForBinaryOperation();
+    final int b = a - LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + i] ^= limbs[a + i];
+    }
+  }
+
+  /** Replace the two top operands shift and value with value &lt;&lt; shift. */
+  public void shiftLeft() {
+    final int shift = popForBinaryOperation();
+    final int value = shift - LIMBS;
+    final int amount = shiftAmount(shift);
+    if (amount >= 256) {
+      setLong(value, 0);
+      return;
+    }
+    final int limbShift = amount / 64;
+    final int bitShift = amount % 64;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      final int source = i - limbShift;
+      long shifted = source >= 0 ? limbs[value + source] << bitShift : 0;
+      if (bitShift != 0 && source - 1 >= 0) {
+        shifted |= limbs[value + source - 1] >>> (64 - bitShift);
+      }
+      limbs[value + i] = shifted;
+    }
+  }
+
+  /** Replace the two top operands shift and value with value &gt;&gt;&gt; shift. */
+  public void shiftRight() {
+    shiftRight(false);
+  }
+
+  /** Replace the two top operands shift and value with value &gt;&gt; shift, keeping its sign. */
+  public void shiftRightArithmetic() {
+    shiftRight(true);
+  }
+
+  private void shiftRight(final boolean arithmetic) {
+    final int shift = popForBinaryOperation();
+    final int value = shift - LIMBS;
+    final long fill = arithmetic && limbs[value + LIMBS - 1] < 0 ? -1L : 0L;
+    final int amount = shiftAmount(shift);
+    if (amount >= 256) {
+      for (int i = 0; i < LIMBS; i++) {
+        limbs[value + i] = fill;
+      }
+      return;
+    }
+    final int limbShift = amount / 64;
+    final int bitShift = amount % 64;
+    for (int i = 0; i < LIMBS; i++) {
+      final int source = i + limbShift;
+      long shifted = (source < LIMBS ? limbs[value + source] : fill) >>> bitShift;
+      if (bitShift != 0) {
+        shifted |= (source + 1 < LIMBS ? limbs[value + source + 1] : fill) << (64 - bitShift);
+      }
+      limbs[value + i] = shifted;
+    }
+  }
+
+  /**
+   * Pop the top operand of a binary operation, leaving the second operand as the new top.
+   *
+   * @return the index of the first limb of the popped operand
+   */
+  private int popForBinaryOperation() {
+    if (top < 1) {
+      throw new IllegalStateException("operand stack underflow");
+    }
+    return top-- * LIMBS;
+  }
+
+  private int shiftAmount(final int index) {
+    final long amount = limbs[index];
+    if (limbs[index + 1] != 0
+        || limbs[index + 2] != 0
+        || limbs[index + 3] != 0
+        || Long.compareUnsigned(amount, 256) >= 0) {
+      return 256;
+    }
+    return (int) amount;
+  }
+
+  private int compare(final int a, final int b) {
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      final int comparison = Long.compareUnsigned(limbs[a + i], limbs[b + i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  private boolean isZero(final int index) {
+    return (limbs[index] | limbs[index + 1] | limbs[index + 2] | limbs[index + 3]) == 0;
+  }
+
+  private boolean fitsLong(final int index) {
+    return (limbs[index + 1] | limbs[index + 2] | limbs[index + 3]) == 0;
+  }
+
+  private void setLong(final int index, final long value) {
+    limbs[index] = value;
+    limbs[index + 1] = 0;
+    limbs[index + 2] = 0;
+    limbs[index + 3] = 0;
+  }
+
+  private UInt256 toUInt256(final int index) {
+    return UInt256.fromBytes(toBytes32(index / LIMBS));
+  }
+
+  private static long unsignedMultiplyHigh(final long x, final long y) {
+    return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+  }
+
+  private Bytes32 toBytes32(final int slot) {
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    final int base = slot * LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      final long limb = limbs[base + i];
+      final int end = Bytes32.SIZE - i * Long.BYTES;
+      for (int j = 1; j <= Long.BYTES; j++) {
+        bytes[end - j] = (byte) (limb >>> (8 * (j - 1)));
+      }
+    }
+    return Bytes32.wrap(bytes);
+  }
+
+  private void fromBytes32(final int slot, final Bytes32 operand) {
+    final byte[] bytes = operand.toArrayUnsafe();
+    final int base = slot * LIMBS;
+    for (int i = 0; i < LIMBS; i++) {
+      final int end = Bytes32.SIZE - i * Long.BYTES;
+      long limb = 0;
+      for (int j = end - Long.BYTES; j < end; j++) {
+        limb = (limb << 8) | (bytes[j] & 0xFF);
+      }
+      limbs[base + i] = limb;
+    }
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < size(); ++i) {
+      builder.append(String.format("\n0x%04X ", i)).append(get(i));
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    int result = size();
+    for (int i = 0; i < size() * LIMBS; i++) {
+      result = 31 * result + Long.hashCode(limbs[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof LongArrayOperandStack)) {
+      return false;
+    }
+
+    final LongArrayOperandStack that = (LongArrayOperandStack) other;
+    return this.size() == that.size()
+        && Arrays.equals(
+            this.limbs, 0, size() * LIMBS, that.limbs, 0, that.size() * LIMBS);
+  }
+}
@@ -15,14 +15,10 @@
 package org.hyperledger.besu.ethereum.vm;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
-import java.util.Objects;
+import java.util.Arrays;
 
-import com.google.common.base.Joiner;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
-import org.apache.tuweni.bytes.MutableBytes;
-import org.apache.tuweni.bytes.MutableBytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 import org.apache.tuweni.units.bigints.UInt256s;
 
@@ -35,50 +31,34 @@ import org.apache.tuweni.units.bigints.UInt256s;
 public class Memory {
 
   // See below.
-  private static final long MAX_BYTES = 32L * Integer.MAX_VALUE;
+  private static final long MAX_BYTES = (Integer.MAX_VALUE - 8) / Bytes32.SIZE * Bytes32.SIZE;
+
+  private static final int INITIAL_CAPACITY = 1024;
 
   /**
    * The data stored within the memory.
    *
-   * <p>Note that the current Ethereum spec don't put a limit on memory, so we could theoretically
-   * overflow this. That said we can already store up to 64GB and:
-   *
-   * <ul>
-   *   <li>that's 64GB of underlying bytes, but *a lot* more physical memory use in practice,
-   *       because ... Java; worth testing but I suspect all but the beefiest servers would OOM
-   *       before we come close to his in the first place.
-   *   <li>the price of a transaction needing more than that is likely prohibitive.
-   * </ul>
-   *
-   * So this is likely a reasonable limitation, at least at first (and possibly ever if I'm to bet).
+   * <p>Note that the current Ethereum spec don't put a limit on memory, but a Java array is limited
+   * to about 2GB, and so is this memory. Since the gas cost of memory grows quadratically with its
+   * size, 2GB of memory costs more than 10^12 gas, which is far beyond any block gas limit.
    */
   /*
-   * Implementation note: using an array of word have a bunch of advantages: - it can make
-   * expansions cheaper (less bytes to copy on resize). - it makes word-related operations simple. -
-   * it's an easy way to put a higher limit on addressable memory (Integer.MAX_VALUE word is 32
-   * times more capacity than Integer.MAX_VALUE bytes). but it's not without downsides either: -
-   * non-word aligned operations (on more than 1 byte) are currently more expansive (could be
-   * improved, but with more works). - sequential access, even word-aligned, might be slower than if
-   * we allocated larger byte arrays underneath due to cache effects. This is likely good enough
-   * initially, but a page-based design (with a page being X word, X to be determined) could be
-   * worth exploring as a future improvement.
-   *
-   * Lastly note that we may want to share the underlying implementation with the VM Stack: the
-   * stack is really just growable memory that is grown/accessed from the end and on by fully word,
-   * but the same page-based design probably make sense.
+   * Implementation note: memory is a single contiguous array, of which only the first activeWords
+   * words are part of the memory. The array grows by doubling, and everything past the active
+   * words is always zero, so expanding memory never has to clear anything. Reads and writes of any
+   * alignment or length are a single bulk copy.
    */
-  private final ArrayList<Bytes32> data;
+  private byte[] data;
+
+  private int activeWordCount;
 
-  // Really data.size(), but cached as a UInt256 to avoid recomputing it each time.
+  // Really activeWordCount, but cached as a UInt256 to avoid recomputing it each time.
   private UInt256 activeWords;
 
   public Memory() {
-    this(new ArrayList<>());
-  }
-
-  private Memory(final ArrayList<Bytes32> data) {
-    this.data = data;
-    this.activeWords = UInt256.valueOf(data.size());
+    this.data = new byte[0];
+    this.activeWordCount = 0;
+    this.activeWords = UInt256.ZERO;
   }
 
   private static RuntimeException overflow(final long v) {
@@ -110,25 +90,13 @@ public class Memory {
 
   private static int asByteLength(final UInt256 l) {
     try {
-      // While we can theoretically support up to 32 * Integer.MAX_VALUE due to storing words, and
-      // so an index in memory need to be a long internally, we simply cannot load/store more than
-      // Integer.MAX_VALUE bytes at a time (Bytes has an int size).
+      // We cannot load/store more than Integer.MAX_VALUE bytes at a time (Bytes has an int size).
       return l.intValue();
     } catch (final IllegalStateException e) {
       throw overflow(l.toString());
     }
   }
 
-  private int wordForByte(final long byteIndex) {
-    checkByteIndex(byteIndex);
-    return (int) (byteIndex / Bytes32.SIZE);
-  }
-
-  private int indexInWord(final long byteIndex) {
-    checkByteIndex(byteIndex);
-    return (int) (byteIndex - ((byteIndex / Bytes32.SIZE) * Bytes32.SIZE));
-  }
-
   /**
    * For use in memoryExpansionGasCost() of GasCost. Returns the number of new active words that
    * accommodate at least the number of specified bytes from the provide memory offset.
@@ -151,7 +119,7 @@ public class Memory {
       final long byteSize = (long) location.intValue() + (long) numBytes.intValue();
       int wordSize = (int) (byteSize / Bytes32.SIZE);
       if (byteSize % Bytes32.SIZE != 0) wordSize += 1;
-      return wordSize > data.size() ? UInt256.valueOf(wordSize) : activeWords;
+      return wordSize > activeWordCount ? UInt256.valueOf(wordSize) : activeWords;
     } else {
       // Slow, rare path
 
@@ -180,8 +148,9 @@ public class Memory {
     if (numBytes == 0) {
       return;
     }
-    final int lastWordRequired = wordForByte(address + numBytes - 1);
-    maybeExpandCapacity(lastWordRequired + 1);
+    final long lastByteRequired = address + numBytes - 1;
+    checkByteIndex(lastByteRequired);
+    maybeExpandCapacity((int) (lastByteRequired / Bytes32.SIZE) + 1);
   }
 
   /**
@@ -190,15 +159,16 @@ public class Memory {
    * @param newActiveWords The new number of active words to expand to.
    */
   private void maybeExpandCapacity(final int newActiveWords) {
-    if (data.size() >= newActiveWords) return;
+    if (activeWordCount >= newActiveWords) return;
 
-    // Require full capacity to guarantee we don't resize more than once.
-    data.ensureCapacity(newActiveWords);
-    final int toAdd = newActiveWords - data.size();
-    for (int i = 0; i < toAdd; i++) {
-      data.add(MutableBytes32.create());
+    final int newActiveBytes = newActiveWords * Bytes32.SIZE;
+    if (newActiveBytes > data.length) {
+      // Grow geometrically so that memory growing a word at a time is not copied each time.
+      final long doubled = Math.max(2L * data.length, INITIAL_CAPACITY);
+      data = Arrays.copyOf(data, (int) Math.max(newActiveBytes, Math.min(doubled, MAX_BYTES)));
     }
-    this.activeWords = UInt256.valueOf(data.size());
+    this.activeWordCount = newActiveWords;
+    this.activeWords = UInt256.valueOf(newActiveWords);
   }
 
   /**
@@ -214,12 +184,18 @@ public class Memory {
     if (!(other instanceof Memory)) return false;
 
     final Memory that = (Memory) other;
-    return this.data.equals(that.data);
+    final int activeBytes = (int) getActiveBytes();
+    return this.activeWordCount == that.activeWordCount
+        && Arrays.equals(this.data, 0, activeBytes, that.data, 0, activeBytes);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(data);
+    int result = 1;
+    for (int i = 0; i < getActiveBytes(); i++) {
+      result = 31 * result + data[i];
+    }
+    return result;
   }
 
   /**
@@ -228,7 +204,7 @@ public class Memory {
    * @return The current number of active bytes stored in memory.
    */
   long getActiveBytes() {
-    return (long) data.size() * Bytes32.SIZE;
+    return (long) activeWordCount * Bytes32.SIZE;
   }
 
   /**
@@ -262,38 +238,7 @@ public class Memory {
 
     ensureCapacityForBytes(start, length);
 
-    // Index of last byte to set.
-    final long end = start + length - 1;
-
-    final int startWord = wordForByte(start);
-    final int idxInStart = indexInWord(start);
-    final int endWord = wordForByte(end);
-    final int idxInEnd = indexInWord(end);
-
-    if (startWord == endWord) {
-      // Bytes within a word, fast-path.
-      final Bytes bytes = data.get(startWord);
-      return idxInStart == 0 && length == Bytes32.SIZE
-          //          ? bytes.copy()
-          //          : bytes.slice(idxInStart, length).copy();
-          ? bytes
-          : bytes.slice(idxInStart, length);
-    }
-
-    // Spans multiple word, slower path.
-    final int bytesInStartWord = Bytes32.SIZE - idxInStart;
-    final int bytesInEndWord = idxInEnd + 1;
-
-    final MutableBytes result = MutableBytes.create(length);
-    int resultIdx = 0;
-    data.get(startWord).slice(idxInStart).copyTo(result, resultIdx);
-    resultIdx += bytesInStartWord;
-    for (int i = startWord + 1; i < endWord; i++) {
-      data.get(i).copyTo(result, resultIdx);
-      resultIdx += Bytes32.SIZE;
-    }
-    data.get(endWord).slice(0, bytesInEndWord).copyTo(result, resultIdx);
-    return result;
+    return Bytes.wrap(Arrays.copyOfRange(data, (int) start, (int) start + length));
   }
 
   /**
@@ -360,53 +305,13 @@ public class Memory {
 
     // We've properly expanded memory as needed. We now have simply have to copy the
     // min(length, value.size()) first bytes of value and clear any bytes that exceed value's length
-    if (taintedValue.isEmpty()) {
-      clearBytes(location, numBytes);
-      return;
-    }
-    final Bytes value;
-    if (taintedValue.size() > length) {
-      value = taintedValue.slice(0, length);
-    } else if (taintedValue.size() < length) {
-      value = taintedValue;
-      clearBytes(location.add(taintedValue.size()), numBytes.subtract(taintedValue.size()));
-    } else {
-      value = taintedValue;
-    }
-
-    // Index of last byte to set.
-    final long end = start + value.size() - 1;
-
-    final int startWord = wordForByte(start);
-    final int idxInStart = indexInWord(start);
-    final int endWord = wordForByte(end);
-
-    if (startWord == endWord) {
-      // Bytes within a word, fast-path.
-      final MutableBytes mb = data.get(startWord).mutableCopy();
-
-      value.copyTo(mb, idxInStart);
-      data.set(startWord, (Bytes32) mb.copy());
-      return;
+    final int copied = Math.min(length, taintedValue.size());
+    if (copied > 0) {
+      System.arraycopy(taintedValue.toArrayUnsafe(), 0, data, (int) start, copied);
     }
-
-    // Spans multiple word, slower path.
-    final int bytesInStartWord = Bytes32.SIZE - idxInStart;
-
-    int valueIdx = 0;
-    final MutableBytes startMutable = data.get(startWord).mutableCopy();
-    value.slice(valueIdx, bytesInStartWord).copyTo(startMutable, idxInStart);
-    data.set(startWord, (Bytes32) startMutable.copy());
-    valueIdx += bytesInStartWord;
-    for (int i = startWord + 1; i < endWord; i++) {
-      final MutableBytes mb = data.get(i).mutableCopy();
-      value.slice(valueIdx, Bytes32.SIZE).copyTo(mb);
-      data.set(i, (Bytes32) mb.copy());
-      valueIdx += Bytes32.SIZE;
+    if (copied < length) {
+      Arrays.fill(data, (int) start + copied, (int) start + length, (byte) 0);
     }
-    final MutableBytes endMutable = data.get(endWord).mutableCopy();
-    value.slice(valueIdx).copyTo(endMutable, 0);
-    data.set(endWord, (Bytes32) endMutable.copy());
   }
 
   /**
@@ -437,39 +342,7 @@ public class Memory {
 
     ensureCapacityForBytes(location, numBytes);
 
-    // Index of last byte to set.
-    final long end = location + numBytes - 1;
-
-    final int startWord = wordForByte(location);
-    final int idxInStart = indexInWord(location);
-    final int endWord = wordForByte(end);
-    final int idxInEnd = indexInWord(end);
-
-    if (startWord == endWord) {
-      // Bytes within a word, fast-path.
-      final MutableBytes storingBytes = data.get(startWord).mutableCopy();
-      final MutableBytes bytes =
-          (idxInStart != 0 || numBytes != Bytes32.SIZE)
-              ? storingBytes.mutableSlice(idxInStart, numBytes)
-              : storingBytes;
-      bytes.clear();
-      data.set(startWord, (Bytes32) storingBytes);
-      return;
-    }
-
-    // Spans multiple word, slower path.
-    final int bytesInStartWord = Bytes32.SIZE - idxInStart;
-    final int bytesInEndWord = idxInEnd + 1;
-
-    final MutableBytes startMutable = data.get(startWord).mutableCopy();
-    startMutable.mutableSlice(idxInStart, bytesInStartWord).clear();
-    data.set(startWord, (Bytes32) startMutable.copy());
-    for (int i = startWord + 1; i < endWord; i++) {
-      data.set(i, Bytes32.ZERO);
-    }
-    final MutableBytes endMutable = data.get(endWord).mutableCopy();
-    endMutable.mutableSlice(0, bytesInEndWord).clear();
-    data.set(endWord, (Bytes32) endMutable.copy());
+    Arrays.fill(data, (int) location, (int) location + numBytes, (byte) 0);
   }
 
   /**
@@ -482,12 +355,7 @@ public class Memory {
     final long start = asByteIndex(location);
     ensureCapacityForBytes(start, 1);
 
-    final int word = wordForByte(start);
-    final int idxInWord = indexInWord(start);
-
-    final MutableBytes mb = data.get(word).mutableCopy();
-    mb.set(idxInWord, value);
-    data.set(word, (Bytes32) mb.copy());
+    data[(int) start] = value;
   }
 
   /**
@@ -500,22 +368,7 @@ public class Memory {
     final long start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
 
-    final int startWord = wordForByte(start);
-    final int idxInStart = indexInWord(start);
-
-    if (idxInStart == 0) {
-      // Word-aligned. Fast-path.
-      return data.get(startWord).copy();
-    }
-
-    // Spans 2 memory word, slower path.
-    final MutableBytes32 result = MutableBytes32.create();
-    final int sizeInFirstWord = Bytes32.SIZE - idxInStart;
-    data.get(startWord).slice(idxInStart, sizeInFirstWord).copyTo(result, 0);
-    data.get(startWord + 1)
-        .slice(0, Bytes32.SIZE - sizeInFirstWord)
-        .copyTo(result, sizeInFirstWord);
-    return result;
+    return Bytes32.wrap(Arrays.copyOfRange(data, (int) start, (int) start + Bytes32.SIZE));
   }
 
   /**
@@ -531,31 +384,19 @@ public class Memory {
     final long start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
 
-    final int startWord = wordForByte(start);
-    final int idxInStart = indexInWord(start);
-
-    if (idxInStart == 0) {
-      // Word-aligned. Fast-path.
-      data.set(startWord, bytes);
-      return;
-    }
-
-    // Spans 2 memory word, slower path.
-    final int sizeInFirstWord = Bytes32.SIZE - idxInStart;
-    final MutableBytes firstWord = data.get(startWord).mutableCopy();
-    bytes.slice(0, sizeInFirstWord).copyTo(firstWord, idxInStart);
-    final MutableBytes secondWord = data.get(startWord + 1).mutableCopy();
-    bytes.slice(sizeInFirstWord).copyTo(secondWord, 0);
-    data.set(startWord, (Bytes32) firstWord);
-    data.set(startWord + 1, (Bytes32) secondWord);
+    System.arraycopy(bytes.toArrayUnsafe(), 0, data, (int) start, Bytes32.SIZE);
   }
 
   @Override
   public String toString() {
-    if (data.isEmpty()) {
+    if (activeWordCount == 0) {
       return "";
     }
 
-    return '\n' + Joiner.on("\n").join(data);
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < activeWordCount; i++) {
+      builder.append('\n').append(Bytes.wrap(data, i * Bytes32.SIZE, Bytes32.SIZE).toHexString());
+    }
+    return builder.toString();
   }
 }
@@ -195,13 +195,13 @@ public class MessageFrame {
   private final Type type;
   private State state;
 
-  // Machine state fields.
-  private Gas gasRemaining;
+  // Machine state fields. Remaining gas is kept as a primitive, as it changes on every operation.
+  private long gasRemaining;
   private final BlockHashLookup blockHashLookup;
   private final int maxStackSize;
   private int pc;
   private final Memory memory;
-  private final OperandStack stack;
+  private final LongArrayOperandStack stack;
   private Bytes output;
   private Bytes returnData;
   private final boolean isStatic;
@@ -275,12 +275,12 @@ public class MessageFrame {
     this.blockchain = blockchain;
     this.messageFrameStack = messageFrameStack;
     this.worldState = worldState;
-    this.gasRemaining = initialGas;
+    this.gasRemaining = initialGas.toLong();
     this.blockHashLookup = blockHashLookup;
     this.maxStackSize = maxStackSize;
     this.pc = 0;
     this.memory = new Memory();
-    this.stack = new PreAllocatedOperandStack(maxStackSize);
+    this.stack = new LongArrayOperandStack(maxStackSize);
     this.output = Bytes.EMPTY;
     this.returnData = Bytes.EMPTY;
     this.logs = new ArrayList<>();
@@ -328,7 +328,7 @@ public class MessageFrame {
 
   /** Deducts the remaining gas. */
   public void clearGasRemaining() {
-    this.gasRemaining = Gas.ZERO;
+    this.gasRemaining = 0;
   }
 
   /**
@@ -337,7 +337,16 @@ public class MessageFrame {
    * @param amount The amount of gas to deduct
    */
   public void decrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.minus(amount);
+    decrementRemainingGas(amount.toLong());
+  }
+
+  /**
+   * Decrement the amount of remaining gas.
+   *
+   * @param amount The amount of gas to deduct
+   */
+  public void decrementRemainingGas(final long amount) {
+    this.gasRemaining -= amount;
   }
 
   /**
@@ -346,6 +355,15 @@ public class MessageFrame {
    * @return the amount of remaining gas
    */
   public Gas getRemainingGas() {
+    return Gas.of(gasRemaining);
+  }
+
+  /**
+   * Return the amount of remaining gas, without allocating.
+   *
+   * @return the amount of remaining gas
+   */
+  public long getRemainingGasAsLong() {
     return gasRemaining;
   }
 
@@ -355,7 +373,7 @@ public class MessageFrame {
    * @param amount The amount of gas to increment
    */
   public void incrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.plus(amount);
+    this.gasRemaining = Gas.saturatingAdd(gasRemaining, amount.toLong());
   }
 
   /**
@@ -364,7 +382,7 @@ public class MessageFrame {
    * @param amount The amount of remaining gas
    */
   public void setGasRemaining(final Gas amount) {
-    this.gasRemaining = amount;
+    this.gasRemaining = amount.toLong();
   }
 
   /**
@@ -474,6 +492,15 @@ public class MessageFrame {
     return stack.size();
   }
 
+  /**
+   * Return the operand stack, for operations that compute their result in place on it.
+   *
+   * @return The operand stack
+   */
+  public LongArrayOperandStack getOperandStack() {
+    return stack;
+  }
+
   /**
    * Returns whether or not the message frame is static or not.
    *
@@ -19,8 +19,6 @@ import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class MulOperation extends AbstractOperation {
 
   public MulOperation(final GasCalculator gasCalculator) {
@@ -34,11 +32,6 @@ public class MulOperation extends AbstractOperation {
 
   @Override
   public void execute(final MessageFrame frame) {
-    final UInt256 value0 = UInt256.fromBytes(frame.popStackItem());
-    final UInt256 value1 = UInt256.fromBytes(frame.popStackItem());
-
-    final UInt256 result = value0.multiply(value1);
-
-    frame.pushStackItem(result.toBytes());
+    frame.getOperandStack().multiply();
   }
 }
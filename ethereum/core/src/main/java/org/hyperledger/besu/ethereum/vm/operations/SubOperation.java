@@ -19,8 +19,6 @@ import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class SubOperation extends AbstractOperation {
 
   public SubOperation(final GasCalculator gasCalculator) {
@@ -34,11 +32,6 @@ public class SubOperation extends AbstractOperation {
 
   @Override
   public void execute(final MessageFrame frame) {
-    final UInt256 value0 = UInt256.fromBytes(frame.popStackItem());
-    final UInt256 value1 = UInt256.fromBytes(frame.popStackItem());
-
-    final UInt256 result = value0.subtract(value1);
-
-    frame.pushStackItem(result.toBytes());
+    frame.getOperandStack().subtract();
   }
 }
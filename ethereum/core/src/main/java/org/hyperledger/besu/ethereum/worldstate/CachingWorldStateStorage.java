@@ -0,0 +1,211 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A WorldStateStorage that serves trie nodes from a {@link TrieNodeCache} shared by every world
+ * state built on top of it.
+ *
+ * <p>Nodes are added to the cache when they are read from storage and when an update writing them
+ * is committed. Nodes removed from storage, either explicitly or by pruning, are removed from the
+ * cache. While storage is pruned, reads bypass the cache, so that they never see a node that has
+ * just been pruned and never bring one back into the cache.
+ */
+public class CachingWorldStateStorage implements WorldStateStorage {
+  private final WorldStateStorage worldStateStorage;
+  private final TrieNodeCache trieNodeCache;
+  // Odd while storage is pruned. A node read from storage is only cached if no pruning started or
+  // ran while it was read.
+  private final AtomicLong pruningEpoch = new AtomicLong();
+
+  public CachingWorldStateStorage(
+      final WorldStateStorage worldStateStorage, final TrieNodeCache trieNodeCache) {
+    this.worldStateStorage = worldStateStorage;
+    this.trieNodeCache = trieNodeCache;
+  }
+
+  @Override
+  public Optional<Bytes> getCode(final Bytes32 codeHash) {
+    return worldStateStorage.getCode(codeHash);
+  }
+
+  @Override
+  public Optional<Bytes> getAccountStateTrieNode(final Bytes32 nodeHash) {
+    return getTrieNode(nodeHash, worldStateStorage::getAccountStateTrieNode);
+  }
+
+  @Override
+  public Optional<Bytes> getAccountStorageTrieNode(final Bytes32 nodeHash) {
+    return getTrieNode(nodeHash, worldStateStorage::getAccountStorageTrieNode);
+  }
+
+  private Optional<Bytes> getTrieNode(
+      final Bytes32 nodeHash, final Function<Bytes32, Optional<Bytes>> loader) {
+    final long epoch = pruningEpoch.get();
+    if (isPruning(epoch)) {
+      return loader.apply(nodeHash);
+    }
+    final Optional<Bytes> cached = trieNodeCache.get(nodeHash);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    final Optional<Bytes> node = loader.apply(nodeHash);
+    if (node.isPresent() && pruningEpoch.get() == epoch) {
+      trieNodeCache.put(nodeHash, node.get());
+    }
+    return node;
+  }
+
+  private static boolean isPruning(final long epoch) {
+    return (epoch & 1) != 0;
+  }
+
+  @Override
+  public Optional<Bytes> getNodeData(final Bytes32 hash) {
+    return worldStateStorage.getNodeData(hash);
+  }
+
+  @Override
+  public Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    return worldStateStorage.getDamlBlob(blobHash);
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getDamlBlobs(final List<Bytes32> blobHashes) {
+    return worldStateStorage.getDamlBlobs(blobHashes);
+  }
+
+  @Override
+  public boolean isWorldStateAvailable(final Bytes32 rootHash) {
+    // The cache may still hold the root node of a state being pruned
+    return worldStateStorage.isWorldStateAvailable(rootHash);
+  }
+
+  @Override
+  public Updater updater() {
+    return new Updater(worldStateStorage.updater(), trieNodeCache);
+  }
+
+  @Override
+  public synchronized long prune(final Predicate<byte[]> inUseCheck) {
+    // Stop serving and filling the cache before the first node is removed
+    pruningEpoch.incrementAndGet();
+    trieNodeCache.invalidateAll();
+    try {
+      return worldStateStorage.prune(inUseCheck);
+    } finally {
+      trieNodeCache.invalidateAll();
+      pruningEpoch.incrementAndGet();
+    }
+  }
+
+  @Override
+  public long addNodeAddedListener(final NodesAddedListener listener) {
+    return worldStateStorage.addNodeAddedListener(listener);
+  }
+
+  @Override
+  public void removeNodeAddedListener(final long id) {
+    worldStateStorage.removeNodeAddedListener(id);
+  }
+
+  @Override
+  public long addNodesCommittedListener(final NodesCommittedListener listener) {
+    return worldStateStorage.addNodesCommittedListener(listener);
+  }
+
+  @Override
+  public void removeNodesCommittedListener(final long id) {
+    worldStateStorage.removeNodesCommittedListener(id);
+  }
+
+  @Override
+  public Optional<ReadSnapshot> takeReadSnapshot() {
+    // Bypass the cache, as filling it from a snapshot could bring back nodes pruned since
+    return worldStateStorage.takeReadSnapshot();
+  }
+
+  public static class Updater implements WorldStateStorage.Updater {
+    private final WorldStateStorage.Updater updater;
+    private final TrieNodeCache trieNodeCache;
+    private final Map<Bytes32, Bytes> addedNodes = new HashMap<>();
+    private final List<Bytes32> removedNodes = new ArrayList<>();
+
+    Updater(final WorldStateStorage.Updater updater, final TrieNodeCache trieNodeCache) {
+      this.updater = updater;
+      this.trieNodeCache = trieNodeCache;
+    }
+
+    @Override
+    public Updater removeAccountStateTrieNode(final Bytes32 nodeHash) {
+      updater.removeAccountStateTrieNode(nodeHash);
+      addedNodes.remove(nodeHash);
+      removedNodes.add(nodeHash);
+      return this;
+    }
+
+    @Override
+    public Updater putCode(final Bytes32 nodeHash, final Bytes code) {
+      updater.putCode(nodeHash, code);
+      return this;
+    }
+
+    @Override
+    public Updater putAccountStateTrieNode(final Bytes32 nodeHash, final Bytes node) {
+      updater.putAccountStateTrieNode(nodeHash, node);
+      addedNodes.put(nodeHash, node);
+      return this;
+    }
+
+    @Override
+    public Updater putAccountStorageTrieNode(final Bytes32 nodeHash, final Bytes node) {
+      updater.putAccountStorageTrieNode(nodeHash, node);
+      addedNodes.put(nodeHash, node);
+      return this;
+    }
+
+    @Override
+    public Updater putDamlBlob(final Bytes32 blobHash, final Bytes blob) {
+      updater.putDamlBlob(blobHash, blob);
+      return this;
+    }
+
+    @Override
+    public void commit() {
+      updater.commit();
+      removedNodes.forEach(trieNodeCache::invalidate);
+      addedNodes.forEach(trieNodeCache::put);
+    }
+
+    @Override
+    public void rollback() {
+      addedNodes.clear();
+      removedNodes.clear();
+      updater.rollback();
+    }
+  }
+}
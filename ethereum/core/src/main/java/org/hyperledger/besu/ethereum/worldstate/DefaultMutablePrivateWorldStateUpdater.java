@@ -18,11 +18,18 @@ import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater.UpdateTrackingAcc
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.DefaultEvmAccount;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 
 public class DefaultMutablePrivateWorldStateUpdater implements WorldUpdater {
 
@@ -70,6 +77,31 @@ public class DefaultMutablePrivateWorldStateUpdater implements WorldUpdater {
     privateWorldUpdater.deleteAccount(address);
   }
 
+  @Override
+  public Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    return privateWorldUpdater
+        .getDamlBlob(blobHash)
+        .or(() -> publicWorldUpdater.getDamlBlob(blobHash));
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getDamlBlobs(final Collection<Bytes32> blobHashes) {
+    final Map<Bytes32, Bytes> blobs = new HashMap<>(privateWorldUpdater.getDamlBlobs(blobHashes));
+    if (blobs.size() < blobHashes.size()) {
+      blobs.putAll(
+          publicWorldUpdater.getDamlBlobs(
+              blobHashes.stream()
+                  .filter(blobHash -> !blobs.containsKey(blobHash))
+                  .collect(Collectors.toList())));
+    }
+    return blobs;
+  }
+
+  @Override
+  public Hash putDamlBlob(final Bytes blob) {
+    return privateWorldUpdater.putDamlBlob(blob);
+  }
+
   @Override
   public Collection<UpdateTrackingAccount<? extends Account>> getTouchedAccounts() {
     return privateWorldUpdater.getTouchedAccounts();
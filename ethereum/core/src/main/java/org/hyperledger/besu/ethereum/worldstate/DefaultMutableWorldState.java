@@ -28,15 +28,19 @@ import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.rlp.RLPException;
 import org.hyperledger.besu.ethereum.rlp.RLPInput;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.NodeUpdater;
 import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Stream;
 
@@ -48,14 +52,23 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
+  private final Optional<WorldStateSnapshot> snapshot;
 
   private final MerklePatriciaTrie<Bytes32, Bytes> accountStateTrie;
   private final Map<Address, MerklePatriciaTrie<Bytes32, Bytes>> updatedStorageTries =
       new HashMap<>();
   private final Map<Address, Bytes> updatedAccountCode = new HashMap<>();
+  private final Map<Bytes32, Bytes> updatedDamlBlobs = new HashMap<>();
   private final Map<Bytes32, UInt256> newStorageKeyPreimages = new HashMap<>();
   private final Map<Bytes32, Address> newAccountKeyPreimages = new HashMap<>();
 
+  // The root hash of the state this world state was loaded from or last persisted, and the changes
+  // made since, which the snapshot cannot serve reads for
+  private volatile Bytes32 persistedRootHash;
+  private final Set<Bytes32> snapshotUpdatedAccounts = new HashSet<>();
+  private final Set<Bytes32> snapshotClearedStorage = new HashSet<>();
+  private final Map<Bytes32, Map<Bytes32, UInt256>> snapshotUpdatedStorage = new HashMap<>();
+
   public DefaultMutableWorldState(
       final WorldStateStorage storage, final WorldStatePreimageStorage preimageStorage) {
     this(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, storage, preimageStorage);
@@ -65,9 +78,27 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final Bytes32 rootHash,
       final WorldStateStorage worldStateStorage,
       final WorldStatePreimageStorage preimageStorage) {
+    this(rootHash, worldStateStorage, preimageStorage, Optional.empty());
+  }
+
+  public DefaultMutableWorldState(
+      final Bytes32 rootHash,
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final WorldStateSnapshot snapshot) {
+    this(rootHash, worldStateStorage, preimageStorage, Optional.of(snapshot));
+  }
+
+  private DefaultMutableWorldState(
+      final Bytes32 rootHash,
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final Optional<WorldStateSnapshot> snapshot) {
     this.worldStateStorage = worldStateStorage;
     this.accountStateTrie = newAccountStateTrie(rootHash);
     this.preimageStorage = preimageStorage;
+    this.snapshot = snapshot;
+    this.persistedRootHash = rootHash;
   }
 
   public DefaultMutableWorldState(final WorldState worldState) {
@@ -81,7 +112,9 @@ public class DefaultMutableWorldState implements MutableWorldState {
     final DefaultMutableWorldState other = (DefaultMutableWorldState) worldState;
     this.worldStateStorage = other.worldStateStorage;
     this.preimageStorage = other.preimageStorage;
+    this.snapshot = other.snapshot;
     this.accountStateTrie = newAccountStateTrie(other.accountStateTrie.getRootHash());
+    this.persistedRootHash = accountStateTrie.getRootHash();
   }
 
   private MerklePatriciaTrie<Bytes32, Bytes> newAccountStateTrie(final Bytes32 rootHash) {
@@ -101,18 +134,53 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public MutableWorldState copy() {
-    return new DefaultMutableWorldState(rootHash(), worldStateStorage, preimageStorage);
+    return new DefaultMutableWorldState(rootHash(), worldStateStorage, preimageStorage, snapshot);
   }
 
   @Override
   public Account get(final Address address) {
     final Hash addressHash = Hash.hash(address);
-    return accountStateTrie
-        .get(addressHash)
+    return getAccountValue(addressHash)
         .map(bytes -> deserializeAccount(address, addressHash, bytes))
         .orElse(null);
   }
 
+  private Optional<Bytes> getAccountValue(final Hash addressHash) {
+    if (snapshot.isEmpty() || snapshotUpdatedAccounts.contains(addressHash)) {
+      return accountStateTrie.get(addressHash);
+    }
+    return snapshot
+        .get()
+        .getAccount(persistedRootHash, addressHash, () -> accountStateTrie.get(addressHash));
+  }
+
+  @Override
+  public Optional<Bytes> getDamlBlob(final Bytes32 blobHash) {
+    final Bytes updated = updatedDamlBlobs.get(blobHash);
+    if (updated != null) {
+      return Optional.of(updated);
+    }
+    return worldStateStorage.getDamlBlob(blobHash);
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getDamlBlobs(final Collection<Bytes32> blobHashes) {
+    final Map<Bytes32, Bytes> blobs = new HashMap<>();
+    final List<Bytes32> remaining = new ArrayList<>();
+    for (final Bytes32 blobHash : blobHashes) {
+      final Bytes updated = updatedDamlBlobs.get(blobHash);
+      if (updated != null) {
+        blobs.put(blobHash, updated);
+      } else {
+        remaining.add(blobHash);
+      }
+    }
+    if (!remaining.isEmpty()) {
+      blobs.putAll(worldStateStorage.getDamlBlobs(remaining));
+    }
+    return blobs;
+  }
+
   private WorldStateAccount deserializeAccount(
       final Address address, final Hash addressHash, final Bytes encoded) throws RLPException {
     final RLPInput in = RLP.input(encoded);
@@ -136,6 +204,25 @@ public class DefaultMutableWorldState implements MutableWorldState {
     return new Updater(this);
   }
 
+  @Override
+  public void prefetch(final Address address, final Collection<UInt256> storageKeys) {
+    // Use tries of our own, the nodes loaded by the tries of this world state are not thread safe
+    final Optional<Bytes> accountValue =
+        newAccountStateTrie(persistedRootHash).get(Hash.hash(address));
+    if (accountValue.isEmpty() || storageKeys.isEmpty()) {
+      return;
+    }
+    final Hash storageRoot =
+        StateTrieAccountValue.readFrom(RLP.input(accountValue.get())).getStorageRoot();
+    if (storageRoot.equals(Hash.EMPTY_TRIE_HASH)) {
+      return;
+    }
+    final MerklePatriciaTrie<Bytes32, Bytes> storageTrie = newAccountStorageTrie(storageRoot);
+    for (final UInt256 key : storageKeys) {
+      storageTrie.get(Hash.hash(key.toBytes()));
+    }
+  }
+
   @Override
   public Stream<StreamableAccount> streamAccounts(final Bytes32 startKeyHash, final int limit) {
     return accountStateTrie.entriesFrom(startKeyHash, limit).entrySet().stream()
@@ -171,12 +258,27 @@ public class DefaultMutableWorldState implements MutableWorldState {
     for (final Bytes code : updatedAccountCode.values()) {
       stateUpdater.putCode(code);
     }
-    // Commit account storage tries
-    for (final MerklePatriciaTrie<Bytes32, Bytes> updatedStorage : updatedStorageTries.values()) {
-      updatedStorage.commit(stateUpdater::putAccountStorageTrieNode);
-    }
+    // Store DAML ledger entries referenced from account storage
+    updatedDamlBlobs.forEach(stateUpdater::putDamlBlob);
+    // Commit account storage tries. Encoding and hashing dominate, so the tries of distinct
+    // accounts are committed concurrently and only the writes to the updater are serialized.
+    final NodeUpdater storageNodeUpdater =
+        (hash, node) -> {
+          synchronized (stateUpdater) {
+            stateUpdater.putAccountStorageTrieNode(hash, node);
+          }
+        };
+    updatedStorageTries
+        .values()
+        .parallelStream()
+        .forEach(updatedStorage -> updatedStorage.commit(storageNodeUpdater));
     // Commit account updates
-    accountStateTrie.commit(stateUpdater::putAccountStateTrieNode);
+    accountStateTrie.commitConcurrently(
+        (hash, node) -> {
+          synchronized (stateUpdater) {
+            stateUpdater.putAccountStateTrieNode(hash, node);
+          }
+        });
 
     // Persist preimages
     final WorldStatePreimageStorage.Updater preimageUpdater = preimageStorage.updater();
@@ -186,11 +288,68 @@ public class DefaultMutableWorldState implements MutableWorldState {
     // Clear pending changes that we just flushed
     updatedStorageTries.clear();
     updatedAccountCode.clear();
+    updatedDamlBlobs.clear();
     newStorageKeyPreimages.clear();
 
     // Push changes to underlying storage
     preimageUpdater.commit();
     stateUpdater.commit();
+
+    snapshot.ifPresent(this::updateSnapshot);
+    persistedRootHash = accountStateTrie.getRootHash();
+    snapshotUpdatedAccounts.clear();
+    snapshotClearedStorage.clear();
+    snapshotUpdatedStorage.clear();
+  }
+
+  private void updateSnapshot(final WorldStateSnapshot snapshot) {
+    final WorldStateSnapshot.Updater snapshotUpdater = snapshot.updater();
+    snapshotClearedStorage.forEach(snapshotUpdater::clearStorage);
+    for (final Bytes32 accountHash : snapshotUpdatedAccounts) {
+      final Optional<Bytes> account = accountStateTrie.get(accountHash);
+      if (account.isPresent()) {
+        snapshotUpdater.putAccount(accountHash, account.get());
+      } else {
+        snapshotUpdater.removeAccount(accountHash);
+      }
+    }
+    snapshotUpdatedStorage.forEach(
+        (accountHash, slots) ->
+            slots.forEach(
+                (slotHash, value) -> {
+                  if (value.isZero()) {
+                    snapshotUpdater.removeStorageValue(accountHash, slotHash);
+                  } else {
+                    snapshotUpdater.putStorageValue(
+                        accountHash, slotHash, encodeStorageValue(value));
+                  }
+                }));
+    snapshotUpdater.commit(persistedRootHash, accountStateTrie.getRootHash());
+  }
+
+  private static Bytes encodeStorageValue(final UInt256 value) {
+    return RLP.encode(out -> out.writeBytes(value.toMinimalBytes()));
+  }
+
+  private void trackSnapshotAccountUpdate(final Hash addressHash, final boolean storageCleared) {
+    if (snapshot.isEmpty()) {
+      return;
+    }
+    snapshotUpdatedAccounts.add(addressHash);
+    if (storageCleared) {
+      snapshotClearedStorage.add(addressHash);
+      snapshotUpdatedStorage.remove(addressHash);
+    }
+  }
+
+  private void trackSnapshotStorageUpdate(
+      final Hash addressHash, final Bytes32 slotHash, final UInt256 value) {
+    if (snapshot.isEmpty()) {
+      return;
+    }
+    snapshotUpdatedStorage
+        .computeIfAbsent(addressHash, key -> new HashMap<>())
+        .put(slotHash, value);
   }
 
   private Optional<UInt256> getStorageTrieKeyPreimage(final Bytes32 trieKey) {
@@ -289,7 +448,17 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
     @Override
     public UInt256 getStorageValue(final UInt256 key) {
-      final Optional<Bytes> val = storageTrie().get(Hash.hash(key.toBytes()));
+      final Hash slotHash = Hash.hash(key.toBytes());
+      final Optional<Bytes> val;
+      if (snapshot.isEmpty() || snapshotUpdatedAccounts.contains(addressHash)) {
+        val = storageTrie().get(slotHash);
+      } else {
+        val =
+            snapshot
+                .get()
+                .getStorageValue(
+                    persistedRootHash, addressHash, slotHash, () -> storageTrie().get(slotHash));
+      }
       if (!val.isPresent()) {
         return UInt256.ZERO;
       }
@@ -350,8 +519,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final DefaultMutableWorldState wrapped = wrappedWorldView();
       final Hash addressHash = Hash.hash(address);
       return wrapped
-          .accountStateTrie
-          .get(addressHash)
+          .getAccountValue(addressHash)
           .map(bytes -> wrapped.deserializeAccount(address, addressHash, bytes))
           .orElse(null);
     }
@@ -370,17 +538,21 @@ public class DefaultMutableWorldState implements MutableWorldState {
     public void revert() {
       deletedAccounts().clear();
       updatedAccounts().clear();
+      updatedDamlBlobs().clear();
     }
 
     @Override
     public void commit() {
       final DefaultMutableWorldState wrapped = wrappedWorldView();
 
+      wrapped.updatedDamlBlobs.putAll(updatedDamlBlobs());
+
       for (final Address address : deletedAccounts()) {
         final Hash addressHash = Hash.hash(address);
         wrapped.accountStateTrie.remove(addressHash);
         wrapped.updatedStorageTries.remove(address);
         wrapped.updatedAccountCode.remove(address);
+        wrapped.trackSnapshotAccountUpdate(addressHash, true);
       }
 
       for (final UpdateTrackingAccount<WorldStateAccount> updated : updatedAccounts()) {
@@ -398,6 +570,9 @@ public class DefaultMutableWorldState implements MutableWorldState {
         if (freshState) {
           wrapped.updatedStorageTries.remove(updated.getAddress());
         }
+        // A new account has no storage in the snapshot to clear, unless deleted and tracked above
+        wrapped.trackSnapshotAccountUpdate(
+            updated.getAddressHash(), origin != null && updated.getStorageWasCleared());
         final Map<UInt256, UInt256> updatedStorage = updated.getUpdatedStorage();
         if (!updatedStorage.isEmpty()) {
           // Apply any storage updates
@@ -409,12 +584,12 @@ public class DefaultMutableWorldState implements MutableWorldState {
           for (final Map.Entry<UInt256, UInt256> entry : updatedStorage.entrySet()) {
             final UInt256 value = entry.getValue();
             final Hash keyHash = Hash.hash(entry.getKey().toBytes());
+            wrapped.trackSnapshotStorageUpdate(updated.getAddressHash(), keyHash, value);
             if (value.isZero()) {
               storageTrie.remove(keyHash);
             } else {
               wrapped.newStorageKeyPreimages.put(keyHash, entry.getKey());
-              storageTrie.put(
-                  keyHash, RLP.encode(out -> out.writeBytes(entry.getValue().toMinimalBytes())));
+              storageTrie.put(keyHash, encodeStorageValue(value));
             }
           }
           storageRoot = Hash.wrap(storageTrie.getRootHash());
@@ -32,7 +32,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class Pruner {
+public class Pruner implements WorldStatePruner {
 
   private static final Logger LOG = LogManager.getLogger();
 
@@ -83,6 +83,7 @@ public class Pruner {
                 .build());
   }
 
+  @Override
   public void start() {
 
     if (state.compareAndSet(State.IDLE, State.RUNNING)) {
@@ -94,6 +95,7 @@ public class Pruner {
     }
   }
 
+  @Override
   public void stop() {
     if (state.compareAndSet(State.RUNNING, State.STOPPED)) {
       LOG.info("Stopping Pruner.");
@@ -103,6 +105,7 @@ public class Pruner {
     }
   }
 
+  @Override
   public void awaitStop() throws InterruptedException {
     if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
       LOG.error("Failed to shutdown Pruner executor service.");
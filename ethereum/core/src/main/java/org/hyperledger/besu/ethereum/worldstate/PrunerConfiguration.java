@@ -17,14 +17,24 @@ package org.hyperledger.besu.ethereum.worldstate;
 public class PrunerConfiguration {
   public static final long DEFAULT_PRUNING_BLOCKS_RETAINED = 1024;
   public static final long DEFAULT_PRUNING_BLOCK_CONFIRMATIONS = 10;
+  public static final Mode DEFAULT_PRUNING_MODE = Mode.MARK_SWEEP;
 
   private final long blocksRetainedBeforeSweeping;
   private final long blockConfirmationsBeforeMarking;
+  private final Mode mode;
 
   public PrunerConfiguration(
       final long blockConfirmationsBeforeMarking, final long blocksRetainedBeforeSweeping) {
+    this(blockConfirmationsBeforeMarking, blocksRetainedBeforeSweeping, DEFAULT_PRUNING_MODE);
+  }
+
+  public PrunerConfiguration(
+      final long blockConfirmationsBeforeMarking,
+      final long blocksRetainedBeforeSweeping,
+      final Mode mode) {
     this.blockConfirmationsBeforeMarking = blockConfirmationsBeforeMarking;
     this.blocksRetainedBeforeSweeping = blocksRetainedBeforeSweeping;
+    this.mode = mode;
   }
 
   public static PrunerConfiguration getDefault() {
@@ -39,4 +49,15 @@ public class PrunerConfiguration {
   public long getBlockConfirmations() {
     return blockConfirmationsBeforeMarking;
   }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public enum Mode {
+    /** Periodically mark the nodes reachable from a recent state and sweep everything else. */
+    MARK_SWEEP,
+    /** Count references to nodes as states are persisted and delete nodes no longer in use. */
+    REFERENCE_COUNTING
+  }
 }
@@ -0,0 +1,546 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.Node;
+import org.hyperledger.besu.ethereum.trie.TrieNodeDecoder;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.metrics.ObservableMetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A pruner that keeps a reference count for every world state node, so that nodes are deleted as
+ * soon as the last state using them falls out of the retention window, without ever walking a
+ * whole state.
+ *
+ * <p>A node is counted when it is committed: every trie node, storage trie and contract code it
+ * references gets one more reference. Every state persisted, and every state that becomes the
+ * canonical head, is retained by one extra reference on its root until {@code blocksRetained}
+ * blocks later. A node whose count then drops to zero is deleted, and the nodes it references are
+ * released in turn.
+ *
+ * <p>Counting starts when the pruner is created, and on its first start the pruner counts the
+ * state of the chain head at that time by walking it once. States which were already on disk and
+ * do not share nodes with that state are never counted, and so never deleted.
+ */
+public class ReferenceCountingPruner implements WorldStatePruner {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int DEFAULT_OPS_PER_TRANSACTION = 1000;
+
+  private static final Bytes NODE_PREFIX = Bytes.of(0x00);
+  private static final Bytes RETAINED_ROOTS_PREFIX = Bytes.of(0x01);
+  private static final byte[] SEEDED_KEY = {0x02};
+  private static final byte[] RELEASED_GENERATION_KEY = {0x03};
+
+  private final WorldStateStorage worldStateStorage;
+  private final Blockchain blockchain;
+  private final KeyValueStorage referenceStorage;
+  private final long blocksRetained;
+  private final int operationsPerTransaction;
+  private final Supplier<ExecutorService> executorServiceSupplier;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Counter countedNodesCounter;
+  private final Counter deletedNodesCounter;
+  private final BlockHeader seedHeader;
+  private final long nodesCommittedListenerId;
+  private final AtomicReference<State> state = new AtomicReference<>(State.IDLE);
+  private volatile boolean seeded;
+  private volatile long releasedGeneration;
+  private ExecutorService executorService;
+  private Long blockAddedObserverId;
+
+  public ReferenceCountingPruner(
+      final WorldStateStorage worldStateStorage,
+      final Blockchain blockchain,
+      final KeyValueStorage referenceStorage,
+      final ObservableMetricsSystem metricsSystem,
+      final PrunerConfiguration prunerConfiguration) {
+    this(
+        worldStateStorage,
+        blockchain,
+        referenceStorage,
+        metricsSystem,
+        prunerConfiguration,
+        DEFAULT_OPS_PER_TRANSACTION,
+        getDefaultExecutorSupplier());
+  }
+
+  @VisibleForTesting
+  ReferenceCountingPruner(
+      final WorldStateStorage worldStateStorage,
+      final Blockchain blockchain,
+      final KeyValueStorage referenceStorage,
+      final ObservableMetricsSystem metricsSystem,
+      final PrunerConfiguration prunerConfiguration,
+      final int operationsPerTransaction,
+      final Supplier<ExecutorService> executorServiceSupplier) {
+    this.worldStateStorage = worldStateStorage;
+    this.blockchain = blockchain;
+    this.referenceStorage = referenceStorage;
+    this.blocksRetained = prunerConfiguration.getBlocksRetained();
+    this.operationsPerTransaction = operationsPerTransaction;
+    this.executorServiceSupplier = executorServiceSupplier;
+    checkArgument(blocksRetained > 0, "blocksRetained must be positive.");
+
+    countedNodesCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.PRUNER,
+            "counted_nodes_total",
+            "Total number of nodes whose references have been counted");
+    deletedNodesCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.PRUNER,
+            "deleted_nodes_total",
+            "Total number of unreferenced nodes removed");
+
+    seedHeader = blockchain.getChainHeadHeader();
+    seeded = referenceStorage.containsKey(SEEDED_KEY);
+    if (seeded) {
+      releasedGeneration =
+          referenceStorage
+              .get(RELEASED_GENERATION_KEY)
+              .map(value -> Bytes.wrap(value).toLong())
+              .orElse(-1L);
+    } else {
+      // Discard the marks of the mark-sweep pruner, or the counts of a first start that was
+      // interrupted before the head state was counted
+      referenceStorage.clear();
+      releasedGeneration = seedHeader.getNumber() - 1;
+    }
+    // Count from now on rather than from start(), as a node committed in between would otherwise
+    // reference nodes without holding a reference to them
+    nodesCommittedListenerId = worldStateStorage.addNodesCommittedListener(this::onNodesCommitted);
+  }
+
+  private static Supplier<ExecutorService> getDefaultExecutorSupplier() {
+    return () ->
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("StatePruning-%d")
+                .build());
+  }
+
+  @Override
+  public void start() {
+    if (state.compareAndSet(State.IDLE, State.RUNNING)) {
+      LOG.info("Starting reference counting pruner.");
+      executorService = executorServiceSupplier.get();
+      blockAddedObserverId =
+          blockchain.observeBlockAdded((event, blockchain) -> handleNewBlock(event));
+      if (!seeded) {
+        execute(() -> seed(seedHeader.getStateRoot(), seedHeader.getNumber()));
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (state.compareAndSet(State.RUNNING, State.STOPPED)) {
+      LOG.info("Stopping reference counting pruner.");
+      blockchain.removeObserver(blockAddedObserverId);
+      worldStateStorage.removeNodesCommittedListener(nodesCommittedListenerId);
+      executorService.shutdownNow();
+    }
+  }
+
+  @Override
+  public void awaitStop() throws InterruptedException {
+    if (executorService != null && !executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+      LOG.error("Failed to shutdown reference counting pruner executor service.");
+    }
+  }
+
+  private void handleNewBlock(final BlockAddedEvent event) {
+    if (!event.isNewCanonicalHead()) {
+      return;
+    }
+    final BlockHeader header = event.getBlock().getHeader();
+    execute(() -> onNewCanonicalHead(header.getStateRoot(), header.getNumber()));
+  }
+
+  private void execute(final Runnable action) {
+    try {
+      executorService.execute(
+          () -> {
+            try {
+              action.run();
+            } catch (final Throwable t) {
+              LOG.error("Pruning failed", t);
+            }
+          });
+    } catch (final Throwable t) {
+      LOG.error("Pruning failed", t);
+    }
+  }
+
+  /**
+   * Count the nodes reachable from a state which were written before counting started.
+   *
+   * @param stateRoot the root of the state to count
+   * @param blockNumber the number of the block the state belongs to
+   */
+  @VisibleForTesting
+  void seed(final Hash stateRoot, final long blockNumber) {
+    LOG.info(
+        "Counting references to the world state of block {}. Pruning starts once complete.",
+        blockNumber);
+    update(batch -> batch.retain(stateRoot, blockNumber));
+    final Deque<Map.Entry<Bytes32, NodeType>> pending = new ArrayDeque<>();
+    if (!stateRoot.equals(Hash.EMPTY_TRIE_HASH)) {
+      pending.push(Map.entry(stateRoot, NodeType.ACCOUNT_TRIE));
+    }
+    while (!pending.isEmpty()) {
+      if (Thread.currentThread().isInterrupted()) {
+        LOG.info("Interrupted while counting world state references.");
+        return;
+      }
+      update(
+          batch -> {
+            for (int i = 0; i < operationsPerTransaction && !pending.isEmpty(); i++) {
+              final Map.Entry<Bytes32, NodeType> node = pending.pop();
+              load(node.getKey(), node.getValue())
+                  .map(value -> batch.count(node.getKey(), node.getValue(), value))
+                  .ifPresent(references -> references.forEach(pending::push));
+            }
+          });
+    }
+    update(
+        batch -> {
+          batch.transaction.put(SEEDED_KEY, Bytes.of(1).toArrayUnsafe());
+          batch.transaction.put(
+              RELEASED_GENERATION_KEY, Bytes.ofUnsignedLong(releasedGeneration).toArrayUnsafe());
+        });
+    seeded = true;
+    LOG.info("Completed counting world state references.");
+  }
+
+  /**
+   * Retain the state of a new chain head, and release the states retained for blocks which are
+   * now more than {@code blocksRetained} blocks old.
+   *
+   * @param stateRoot the state root of the new chain head
+   * @param blockNumber the number of the new chain head
+   */
+  @VisibleForTesting
+  void onNewCanonicalHead(final Hash stateRoot, final long blockNumber) {
+    update(batch -> batch.retain(stateRoot, blockNumber));
+    if (seeded) {
+      releaseUpTo(blockNumber - blocksRetained);
+    }
+  }
+
+  private void releaseUpTo(final long generation) {
+    while (releasedGeneration < generation && !Thread.currentThread().isInterrupted()) {
+      final long next = releasedGeneration + 1;
+      update(
+          batch -> {
+            final byte[] key = generationKey(next);
+            referenceStorage
+                .get(key)
+                .map(Bytes::wrap)
+                .ifPresent(
+                    roots -> {
+                      for (int i = 0; i < roots.size(); i += Bytes32.SIZE) {
+                        batch.release(Bytes32.wrap(roots.slice(i, Bytes32.SIZE)));
+                      }
+                    });
+            batch.transaction.remove(key);
+            batch.transaction.put(
+                RELEASED_GENERATION_KEY, Bytes.ofUnsignedLong(next).toArrayUnsafe());
+          });
+      releasedGeneration = next;
+    }
+  }
+
+  private void onNodesCommitted(
+      final Map<Bytes32, Bytes> accountTrieNodes,
+      final Map<Bytes32, Bytes> storageTrieNodes,
+      final Collection<Bytes32> codeHashes) {
+    update(
+        batch -> {
+          accountTrieNodes.forEach((hash, node) -> batch.count(hash, NodeType.ACCOUNT_TRIE, node));
+          storageTrieNodes.forEach((hash, node) -> batch.count(hash, NodeType.STORAGE_TRIE, node));
+          codeHashes.forEach(hash -> batch.count(hash, NodeType.CODE, Bytes.EMPTY));
+
+          // Nodes nothing references yet are the roots of the states written, and are retained
+          // like any other recent state
+          final long generation = blockchain.getChainHeadBlockNumber() + 1;
+          final List<Bytes32> written = new ArrayList<>(accountTrieNodes.keySet());
+          written.addAll(storageTrieNodes.keySet());
+          written.addAll(codeHashes);
+          for (final Bytes32 hash : written) {
+            if (batch.get(hash, NodeType.ACCOUNT_TRIE).references == 0) {
+              batch.retain(hash, generation);
+            }
+          }
+        });
+  }
+
+  private void update(final Consumer<Batch> action) {
+    lock.lock();
+    try {
+      final Batch batch = new Batch();
+      try {
+        action.accept(batch);
+      } catch (final RuntimeException e) {
+        batch.transaction.rollback();
+        throw e;
+      }
+      batch.commit();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Optional<Bytes> load(final Bytes32 hash, final NodeType type) {
+    switch (type) {
+      case ACCOUNT_TRIE:
+        return worldStateStorage.getAccountStateTrieNode(hash);
+      case STORAGE_TRIE:
+        return worldStateStorage.getAccountStorageTrieNode(hash);
+      default:
+        return worldStateStorage.getCode(hash);
+    }
+  }
+
+  private static List<Map.Entry<Bytes32, NodeType>> references(
+      final NodeType type, final Bytes value) {
+    if (type == NodeType.CODE) {
+      return Collections.emptyList();
+    }
+    final List<Map.Entry<Bytes32, NodeType>> references = new ArrayList<>();
+    final List<Node<Bytes>> nodes = TrieNodeDecoder.decodeNodes(value);
+    for (int i = 0; i < nodes.size(); i++) {
+      final Node<Bytes> node = nodes.get(i);
+      if (i > 0 && node.isReferencedByHash()) {
+        references.add(Map.entry(node.getHash(), type));
+      } else if (type == NodeType.ACCOUNT_TRIE) {
+        node.getValue().ifPresent(account -> addAccountReferences(account, references));
+      }
+    }
+    return references;
+  }
+
+  private static void addAccountReferences(
+      final Bytes value, final List<Map.Entry<Bytes32, NodeType>> references) {
+    final StateTrieAccountValue account = StateTrieAccountValue.readFrom(RLP.input(value));
+    if (!account.getStorageRoot().equals(Hash.EMPTY_TRIE_HASH)) {
+      references.add(Map.entry(account.getStorageRoot(), NodeType.STORAGE_TRIE));
+    }
+    if (!account.getCodeHash().equals(Hash.EMPTY)) {
+      references.add(Map.entry(account.getCodeHash(), NodeType.CODE));
+    }
+  }
+
+  private static byte[] nodeKey(final Bytes32 hash) {
+    return Bytes.concatenate(NODE_PREFIX, hash).toArrayUnsafe();
+  }
+
+  private static byte[] generationKey(final long generation) {
+    return Bytes.concatenate(RETAINED_ROOTS_PREFIX, Bytes.ofUnsignedLong(generation))
+        .toArrayUnsafe();
+  }
+
+  /** The changes to reference counts made by one operation, written in a single transaction. */
+  private class Batch {
+    private final KeyValueStorageTransaction transaction = referenceStorage.startTransaction();
+    private final Map<Bytes32, Entry> entries = new HashMap<>();
+    private final Map<Long, Bytes> retainedRoots = new HashMap<>();
+    private final List<Bytes32> unreferencedNodes = new ArrayList<>();
+
+    private Optional<Entry> find(final Bytes32 hash) {
+      final Entry entry = entries.get(hash);
+      if (entry != null) {
+        return Optional.of(entry);
+      }
+      final Optional<Entry> stored = referenceStorage.get(nodeKey(hash)).map(Entry::decode);
+      stored.ifPresent(value -> entries.put(hash, value));
+      return stored;
+    }
+
+    private Entry get(final Bytes32 hash, final NodeType type) {
+      return find(hash)
+          .orElseGet(
+              () -> {
+                final Entry entry = new Entry(type);
+                entries.put(hash, entry);
+                return entry;
+              });
+    }
+
+    /**
+     * Add a reference to every node referenced by a node, unless they have already been added.
+     *
+     * @return the nodes referenced, or an empty list if the node was already counted
+     */
+    private List<Map.Entry<Bytes32, NodeType>> count(
+        final Bytes32 hash, final NodeType type, final Bytes value) {
+      final Entry entry = get(hash, type);
+      if (entry.counted) {
+        return Collections.emptyList();
+      }
+      entry.counted = true;
+      countedNodesCounter.inc();
+      final List<Map.Entry<Bytes32, NodeType>> children = references(type, value);
+      children.forEach(child -> get(child.getKey(), child.getValue()).references++);
+      return children;
+    }
+
+    private void retain(final Bytes32 root, final long generation) {
+      if (root.equals(Hash.EMPTY_TRIE_HASH)) {
+        return;
+      }
+      get(root, NodeType.ACCOUNT_TRIE).references++;
+      // A generation that has already been released is never visited again
+      final long retainedGeneration = Math.max(generation, releasedGeneration + 1);
+      final Bytes roots =
+          retainedRoots.computeIfAbsent(
+              retainedGeneration,
+              key ->
+                  referenceStorage.get(generationKey(key)).map(Bytes::wrap).orElse(Bytes.EMPTY));
+      retainedRoots.put(retainedGeneration, Bytes.concatenate(roots, root));
+    }
+
+    private void release(final Bytes32 root) {
+      final Deque<Bytes32> pending = new ArrayDeque<>();
+      if (dereference(root)) {
+        pending.push(root);
+      }
+      while (!pending.isEmpty()) {
+        final Bytes32 hash = pending.pop();
+        final Entry entry = entries.get(hash);
+        entry.counted = false;
+        unreferencedNodes.add(hash);
+        if (entry.type == NodeType.CODE) {
+          continue;
+        }
+        load(hash, entry.type)
+            .ifPresent(
+                value ->
+                    references(entry.type, value).stream()
+                        .map(Map.Entry::getKey)
+                        .filter(this::dereference)
+                        .forEach(pending::push));
+      }
+    }
+
+    /** @return true if the node is no longer referenced and must be deleted */
+    private boolean dereference(final Bytes32 hash) {
+      final Optional<Entry> maybeEntry = find(hash);
+      if (maybeEntry.isEmpty()) {
+        return false;
+      }
+      final Entry entry = maybeEntry.get();
+      entry.references = Math.max(0, entry.references - 1);
+      return entry.references == 0 && entry.counted;
+    }
+
+    private void commit() {
+      entries.forEach(
+          (hash, entry) -> {
+            if (entry.references == 0 && !entry.counted) {
+              transaction.remove(nodeKey(hash));
+            } else {
+              transaction.put(nodeKey(hash), entry.encode());
+            }
+          });
+      retainedRoots.forEach(
+          (generation, roots) -> transaction.put(generationKey(generation), roots.toArrayUnsafe()));
+      // Forget the nodes before deleting them: if the deletion is lost they are only left behind
+      transaction.commit();
+
+      if (!unreferencedNodes.isEmpty()) {
+        final WorldStateStorage.Updater updater = worldStateStorage.updater();
+        unreferencedNodes.forEach(updater::removeAccountStateTrieNode);
+        updater.commit();
+        deletedNodesCounter.inc(unreferencedNodes.size());
+      }
+    }
+  }
+
+  private static class Entry {
+    private final NodeType type;
+    private boolean counted;
+    private long references;
+
+    private Entry(final NodeType type) {
+      this.type = type;
+    }
+
+    private static Entry decode(final byte[] value) {
+      final Bytes bytes = Bytes.wrap(value);
+      final Entry entry = new Entry(NodeType.values()[bytes.get(0)]);
+      entry.counted = bytes.get(1) != 0;
+      entry.references = bytes.getLong(2);
+      return entry;
+    }
+
+    private byte[] encode() {
+      return Bytes.concatenate(
+              Bytes.of((byte) type.ordinal(), (byte) (counted ? 1 : 0)),
+              Bytes.ofUnsignedLong(references))
+          .toArrayUnsafe();
+    }
+  }
+
+  // The ordinal is stored, so constants must only ever be added at the end
+  private enum NodeType {
+    ACCOUNT_TRIE,
+    STORAGE_TRIE,
+    CODE
+  }
+
+  private enum State {
+    IDLE,
+    RUNNING,
+    STOPPED
+  }
+}
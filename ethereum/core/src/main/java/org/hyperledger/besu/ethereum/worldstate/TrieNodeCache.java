@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.Optional;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A bounded cache of encoded trie nodes, keyed by node hash.
+ *
+ * <p>Since trie nodes are content-addressed, an entry can never become stale: a new block or a
+ * chain reorg produces new hashes, not new content behind an existing hash. The only exception is
+ * pruning, which removes nodes from storage, so the cache must be cleared when nodes are removed.
+ */
+public class TrieNodeCache {
+  /** Default bound on the total size of the cached nodes. */
+  public static final long DEFAULT_MAX_WEIGHT_BYTES = 128L * 1024 * 1024;
+
+  // Approximate per-entry overhead of the key and the wrappers around it
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  private final Cache<Bytes32, Bytes> cache;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public TrieNodeCache(final MetricsSystem metricsSystem) {
+    this(DEFAULT_MAX_WEIGHT_BYTES, metricsSystem);
+  }
+
+  public TrieNodeCache(final long maxWeightBytes, final MetricsSystem metricsSystem) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .<Bytes32, Bytes>weigher((key, value) -> value.size() + ENTRY_OVERHEAD_BYTES)
+            .build();
+    this.hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.WORLD_STATE,
+            "trie_node_cache_hit_count",
+            "Number of trie nodes served from the trie node cache");
+    this.missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.WORLD_STATE,
+            "trie_node_cache_miss_count",
+            "Number of trie nodes read from storage");
+  }
+
+  /**
+   * Return the cached node for a hash.
+   *
+   * @param nodeHash the hash of the node
+   * @return the encoded node, or empty if it is not cached
+   */
+  public Optional<Bytes> get(final Bytes32 nodeHash) {
+    final Bytes node = cache.getIfPresent(nodeHash);
+    if (node == null) {
+      missCounter.inc();
+      return Optional.empty();
+    }
+    hitCounter.inc();
+    return Optional.of(node);
+  }
+
+  /**
+   * Cache an encoded node.
+   *
+   * @param nodeHash the hash of the node
+   * @param node the encoded node
+   */
+  public void put(final Bytes32 nodeHash, final Bytes node) {
+    cache.put(nodeHash, node);
+  }
+
+  /**
+   * Remove a node from the cache.
+   *
+   * @param nodeHash the hash of the node
+   */
+  public void invalidate(final Bytes32 nodeHash) {
+    cache.invalidate(nodeHash);
+  }
+
+  /** Remove all nodes from the cache. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
@@ -24,6 +24,7 @@ import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -31,14 +32,30 @@ import org.apache.tuweni.units.bigints.UInt256;
 public class WorldStateArchive {
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
+  private final Optional<WorldStateSnapshot> snapshot;
   private final WorldStateProofProvider worldStateProof;
 
   private static final Hash EMPTY_ROOT_HASH = Hash.wrap(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
 
   public WorldStateArchive(
       final WorldStateStorage worldStateStorage, final WorldStatePreimageStorage preimageStorage) {
+    this(worldStateStorage, preimageStorage, Optional.empty());
+  }
+
+  public WorldStateArchive(
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final WorldStateSnapshot snapshot) {
+    this(worldStateStorage, preimageStorage, Optional.of(snapshot));
+  }
+
+  private WorldStateArchive(
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final Optional<WorldStateSnapshot> snapshot) {
     this.worldStateStorage = worldStateStorage;
     this.preimageStorage = preimageStorage;
+    this.snapshot = snapshot;
     this.worldStateProof = new WorldStateProofProvider(worldStateStorage);
   }
 
@@ -54,7 +71,40 @@ public class WorldStateArchive {
     if (!worldStateStorage.isWorldStateAvailable(rootHash)) {
       return Optional.empty();
     }
-    return Optional.of(new DefaultMutableWorldState(rootHash, worldStateStorage, preimageStorage));
+    return Optional.of(createWorldState(rootHash, worldStateStorage));
+  }
+
+  /**
+   * Apply a function to a world state, read through a snapshot of the storage where the storage
+   * supports it, so that the function sees the same state throughout even while blocks are being
+   * imported and pruned.
+   *
+   * <p>The world state must not be used once the function has returned.
+   *
+   * @param rootHash the root hash of the world state
+   * @param mapper the function to apply
+   * @param <T> the type of the result
+   * @return the result of the function, or empty if the world state is not available
+   */
+  public <T> Optional<T> mapWorldState(
+      final Hash rootHash, final Function<? super MutableWorldState, ? extends T> mapper) {
+    final Optional<WorldStateStorage.ReadSnapshot> maybeReadSnapshot =
+        worldStateStorage.takeReadSnapshot();
+    if (maybeReadSnapshot.isEmpty()) {
+      return getMutable(rootHash).map(mapper);
+    }
+    try (final WorldStateStorage.ReadSnapshot readSnapshot = maybeReadSnapshot.get()) {
+      if (!readSnapshot.isWorldStateAvailable(rootHash)) {
+        return Optional.empty();
+      }
+      return Optional.ofNullable(mapper.apply(createWorldState(rootHash, readSnapshot)));
+    }
+  }
+
+  private MutableWorldState createWorldState(final Hash rootHash, final WorldStateStorage storage) {
+    return snapshot
+        .map(s -> new DefaultMutableWorldState(rootHash, storage, preimageStorage, s))
+        .orElseGet(() -> new DefaultMutableWorldState(rootHash, storage, preimageStorage));
   }
 
   public WorldState get() {
@@ -77,6 +127,14 @@ public class WorldStateArchive {
       final Hash worldStateRoot,
       final Address accountAddress,
       final List<UInt256> accountStorageKeys) {
-    return worldStateProof.getAccountProof(worldStateRoot, accountAddress, accountStorageKeys);
+    final Optional<WorldStateStorage.ReadSnapshot> maybeReadSnapshot =
+        worldStateStorage.takeReadSnapshot();
+    if (maybeReadSnapshot.isEmpty()) {
+      return worldStateProof.getAccountProof(worldStateRoot, accountAddress, accountStorageKeys);
+    }
+    try (final WorldStateStorage.ReadSnapshot readSnapshot = maybeReadSnapshot.get()) {
+      return new WorldStateProofProvider(readSnapshot)
+          .getAccountProof(worldStateRoot, accountAddress, accountStorageKeys);
+    }
   }
 }
@@ -0,0 +1,569 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A flat copy of the accounts and account storage of a single world state, keyed by account hash
+ * and by account hash and slot hash, so that reads of that state are a single point lookup instead
+ * of a walk down the tries.
+ *
+ * <p>The snapshot only serves reads of the state whose root hash it currently holds, and defers to
+ * the tries for any other state. It is moved forward when a world state built on top of it is
+ * persisted. The changes applied by the most recent updates are kept in memory so that the
+ * snapshot can be moved back to an earlier state, e.g. when a block that was processed but not
+ * imported is followed by a sibling, or after a short reorg.
+ *
+ * <p>When the snapshot does not hold the head state and cannot be moved to it, e.g. for a database
+ * created before the snapshot existed, after fast sync or after a deep reorg, it is generated again
+ * from the tries in the background. Generation copies the accounts in order of their hash and
+ * records how far it got, so that updates applied meanwhile only need to cover the part already
+ * copied, and reads of the rest defer to the tries until it has been copied.
+ *
+ * <p>Reads never block: they validate that no update ran while they were reading and fall back to
+ * the tries otherwise.
+ */
+public class WorldStateSnapshot {
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Default number of updates that can be undone to move the snapshot back. */
+  public static final int DEFAULT_MAX_UNDO_DEPTH = 64;
+  /** Default number of accounts and storage slots copied from the tries at a time. */
+  public static final int DEFAULT_GENERATION_BATCH_SIZE = 10_000;
+
+  private static final byte[] ROOT_HASH_KEY = {0x00};
+  private static final byte[] GENERATION_MARKER_KEY = {0x00, 0x01};
+  private static final Bytes ACCOUNT_PREFIX = Bytes.of(0x01);
+  private static final Bytes STORAGE_PREFIX = Bytes.of(0x02);
+  private static final Bytes32 LAST_SLOT_HASH = Bytes32.fromHexString("0x" + "ff".repeat(32));
+
+  private final KeyValueStorage storage;
+  private final WorldStateStorage worldStateStorage;
+  private final int maxUndoDepth;
+  private final int generationBatchSize;
+  private final Executor generator;
+  private final AtomicBoolean generating = new AtomicBoolean();
+  private final StampedLock lock = new StampedLock();
+  private final Deque<Undo> undos = new ArrayDeque<>();
+  private volatile Bytes32 rootHash;
+  // While the snapshot is generated, the position up to which it holds the state, see position().
+  // An account hash followed by LAST_SLOT_HASH means the storage of the account has been copied.
+  private volatile Bytes generationMarker;
+
+  public WorldStateSnapshot(
+      final KeyValueStorage storage, final WorldStateStorage worldStateStorage) {
+    this(
+        storage,
+        worldStateStorage,
+        DEFAULT_MAX_UNDO_DEPTH,
+        DEFAULT_GENERATION_BATCH_SIZE,
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("world-state-snapshot-generator")
+                .setDaemon(true)
+                .build()));
+  }
+
+  @VisibleForTesting
+  WorldStateSnapshot(
+      final KeyValueStorage storage,
+      final WorldStateStorage worldStateStorage,
+      final int maxUndoDepth,
+      final int generationBatchSize,
+      final Executor generator) {
+    this.storage = storage;
+    this.worldStateStorage = worldStateStorage;
+    this.maxUndoDepth = maxUndoDepth;
+    this.generationBatchSize = generationBatchSize;
+    this.generator = generator;
+    // An empty snapshot is the snapshot of the empty state
+    this.rootHash =
+        storage
+            .get(ROOT_HASH_KEY)
+            .map(Bytes32::wrap)
+            .orElse(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+    this.generationMarker = storage.get(GENERATION_MARKER_KEY).map(Bytes::wrap).orElse(null);
+  }
+
+  /** @return the root hash of the state held by the snapshot */
+  public Bytes32 getRootHash() {
+    return rootHash;
+  }
+
+  /** @return true if the snapshot holds all of its state, false while it is being generated */
+  public boolean isGenerated() {
+    return generationMarker == null;
+  }
+
+  /**
+   * Generate the snapshot from the tries of the head state in the background, unless it already
+   * holds that state. A generation interrupted by a restart is resumed.
+   *
+   * @param headRootHash the root hash of the head state
+   */
+  public void generate(final Bytes32 headRootHash) {
+    final long stamp = lock.writeLock();
+    try {
+      if (!rootHash.equals(headRootHash)) {
+        restartGeneration(headRootHash);
+      }
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+    resumeGeneration();
+  }
+
+  /**
+   * Read an account of a state.
+   *
+   * @param stateRootHash the root hash of the state to read from
+   * @param accountHash the hash of the account address
+   * @param fallback reads the account from the tries, if the snapshot cannot serve the read
+   * @return the RLP encoded account, or empty if the account does not exist
+   */
+  public Optional<Bytes> getAccount(
+      final Bytes32 stateRootHash,
+      final Bytes32 accountHash,
+      final Supplier<Optional<Bytes>> fallback) {
+    return get(stateRootHash, accountKey(accountHash), fallback);
+  }
+
+  /**
+   * Read an account storage value of a state.
+   *
+   * @param stateRootHash the root hash of the state to read from
+   * @param accountHash the hash of the account address
+   * @param slotHash the hash of the storage slot
+   * @param fallback reads the value from the tries, if the snapshot cannot serve the read
+   * @return the RLP encoded value, or empty if the slot is not set
+   */
+  public Optional<Bytes> getStorageValue(
+      final Bytes32 stateRootHash,
+      final Bytes32 accountHash,
+      final Bytes32 slotHash,
+      final Supplier<Optional<Bytes>> fallback) {
+    return get(stateRootHash, storageKey(accountHash, slotHash), fallback);
+  }
+
+  private Optional<Bytes> get(
+      final Bytes32 stateRootHash, final Bytes key, final Supplier<Optional<Bytes>> fallback) {
+    final long stamp = lock.tryOptimisticRead();
+    if (stamp != 0 && rootHash.equals(stateRootHash) && isGenerated(key)) {
+      final Optional<Bytes> value = storage.get(key.toArrayUnsafe()).map(Bytes::wrap);
+      if (lock.validate(stamp)) {
+        return value;
+      }
+    }
+    return fallback.get();
+  }
+
+  public Updater updater() {
+    return new Updater();
+  }
+
+  private static Bytes accountKey(final Bytes32 accountHash) {
+    return Bytes.concatenate(ACCOUNT_PREFIX, accountHash);
+  }
+
+  private static Bytes storageKey(final Bytes32 accountHash, final Bytes32 slotHash) {
+    return Bytes.concatenate(STORAGE_PREFIX, accountHash, slotHash);
+  }
+
+  // The position of a key in generation order: the account hash, followed by the slot hash for
+  // storage, so that an account comes before its storage and storage before the next account
+  private static Bytes position(final Bytes key) {
+    return key.slice(ACCOUNT_PREFIX.size());
+  }
+
+  private static int comparePositions(final Bytes a, final Bytes b) {
+    return Arrays.compareUnsigned(a.toArrayUnsafe(), b.toArrayUnsafe());
+  }
+
+  private boolean isGenerated(final Bytes key) {
+    final Bytes marker = generationMarker;
+    return marker == null || comparePositions(position(key), marker) <= 0;
+  }
+
+  // Must be called with the write lock held
+  private boolean rewindTo(final Bytes32 targetRootHash) {
+    if (rootHash.equals(targetRootHash)) {
+      return true;
+    }
+    if (undos.stream().noneMatch(undo -> undo.rootHash.equals(targetRootHash))) {
+      return false;
+    }
+    while (!rootHash.equals(targetRootHash)) {
+      final Undo undo = undos.pop();
+      final KeyValueStorageTransaction transaction = storage.startTransaction();
+      write(transaction, undo.changes, undo.rootHash);
+      transaction.commit();
+      rootHash = undo.rootHash;
+    }
+    return true;
+  }
+
+  // Must be called with the write lock held
+  private void write(
+      final KeyValueStorageTransaction transaction,
+      final Map<Bytes, Optional<Bytes>> changes,
+      final Bytes32 newRootHash) {
+    changes.forEach(
+        (key, value) -> {
+          // The part not generated yet is copied from the tries of a later state
+          if (!isGenerated(key)) {
+            return;
+          }
+          if (value.isPresent()) {
+            transaction.put(key.toArrayUnsafe(), value.get().toArrayUnsafe());
+          } else {
+            transaction.remove(key.toArrayUnsafe());
+          }
+        });
+    transaction.put(ROOT_HASH_KEY, newRootHash.toArrayUnsafe());
+  }
+
+  // Must be called with the write lock held. Removes the keys of a prefix whose position is after
+  // the first position, and up to the last one if there is one.
+  private void removeRange(
+      final KeyValueStorageTransaction transaction,
+      final Bytes prefix,
+      final Bytes afterPosition,
+      final Optional<Bytes> lastPosition) {
+    removeRange(transaction, prefix, afterPosition, lastPosition, (key, value) -> {});
+  }
+
+  // Must be called with the write lock held. As above, and passes each removed entry on.
+  private void removeRange(
+      final KeyValueStorageTransaction transaction,
+      final Bytes prefix,
+      final Bytes afterPosition,
+      final Optional<Bytes> lastPosition,
+      final BiConsumer<Bytes, Bytes> removed) {
+    final byte[] startKey = Bytes.concatenate(prefix, afterPosition).toArrayUnsafe();
+    // A zero byte after the last position sorts after it and before any position that follows it
+    final byte[] endKey =
+        lastPosition
+            .map(last -> Bytes.concatenate(prefix, last, Bytes.of(0)))
+            .orElse(Bytes.of(prefix.get(0) + 1))
+            .toArrayUnsafe();
+    try (final Stream<Map.Entry<byte[], byte[]>> entries = storage.iterateRange(startKey, endKey)) {
+      entries.forEach(
+          entry -> {
+            final Bytes key = Bytes.wrap(entry.getKey());
+            if (comparePositions(position(key), afterPosition) > 0) {
+              transaction.remove(entry.getKey());
+              removed.accept(key, Bytes.wrap(entry.getValue()));
+            }
+          });
+    }
+  }
+
+  // Must be called with the write lock held
+  private void restartGeneration(final Bytes32 newRootHash) {
+    LOG.info("Generating the world state snapshot of state {}", newRootHash);
+    undos.clear();
+    final KeyValueStorageTransaction transaction = storage.startTransaction();
+    transaction.put(ROOT_HASH_KEY, newRootHash.toArrayUnsafe());
+    transaction.put(GENERATION_MARKER_KEY, Bytes.EMPTY.toArrayUnsafe());
+    transaction.commit();
+    rootHash = newRootHash;
+    generationMarker = Bytes.EMPTY;
+  }
+
+  private void resumeGeneration() {
+    if (generationMarker != null && generating.compareAndSet(false, true)) {
+      generator.execute(this::runGeneration);
+    }
+  }
+
+  private void runGeneration() {
+    try {
+      while (generateBatch()) {
+        // Continue with the next batch
+      }
+    } catch (final RuntimeException e) {
+      // Resumed by the next update, e.g. once the tries of the state are available
+      LOG.debug("World state snapshot generation stopped", e);
+      generating.set(false);
+      return;
+    }
+    generating.set(false);
+    // Generation may have been restarted after the last batch was checked
+    resumeGeneration();
+  }
+
+  private boolean generateBatch() {
+    final long readStamp = lock.readLock();
+    final Bytes32 batchRootHash;
+    final Bytes afterPosition;
+    try {
+      batchRootHash = rootHash;
+      afterPosition = generationMarker;
+    } finally {
+      lock.unlockRead(readStamp);
+    }
+    if (afterPosition == null) {
+      LOG.info("Generated the world state snapshot of state {}", batchRootHash);
+      return false;
+    }
+
+    // Read from the tries without holding the lock, so that updates are not held up
+    final Map<Bytes, Bytes> entries = new LinkedHashMap<>();
+    final Optional<Bytes> lastPosition = readBatch(batchRootHash, afterPosition, entries);
+
+    final long stamp = lock.writeLock();
+    try {
+      if (!rootHash.equals(batchRootHash) || !afterPosition.equals(generationMarker)) {
+        // The snapshot was updated meanwhile, read the batch again from its new state
+        return true;
+      }
+      final KeyValueStorageTransaction transaction = storage.startTransaction();
+      // Entries left from an earlier state or generation are removed, then replaced
+      removeRange(transaction, ACCOUNT_PREFIX, afterPosition, lastPosition);
+      removeRange(transaction, STORAGE_PREFIX, afterPosition, lastPosition);
+      entries.forEach((key, value) -> transaction.put(key.toArrayUnsafe(), value.toArrayUnsafe()));
+      if (lastPosition.isPresent()) {
+        transaction.put(GENERATION_MARKER_KEY, lastPosition.get().toArrayUnsafe());
+      } else {
+        transaction.remove(GENERATION_MARKER_KEY);
+      }
+      transaction.commit();
+      generationMarker = lastPosition.orElse(null);
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  // Copies the accounts and storage after a position from the tries, and returns the position
+  // generation got to, or empty once all accounts have been copied
+  private Optional<Bytes> readBatch(
+      final Bytes32 stateRootHash, final Bytes afterPosition, final Map<Bytes, Bytes> entries) {
+    final MerklePatriciaTrie<Bytes32, Bytes> accountTrie =
+        new StoredMerklePatriciaTrie<>(
+            worldStateStorage::getAccountStateTrieNode, stateRootHash, b -> b, b -> b);
+    final Optional<Bytes32> afterAccountHash =
+        afterPosition.isEmpty()
+            ? Optional.empty()
+            : Optional.of(Bytes32.wrap(afterPosition.slice(0, Bytes32.SIZE)));
+    final Bytes32 afterSlotHash =
+        afterPosition.isEmpty() ? null : Bytes32.wrap(afterPosition.slice(Bytes32.SIZE));
+
+    final Map<Bytes32, Bytes> accounts =
+        accountTrie.entriesFrom(afterAccountHash.orElse(Bytes32.ZERO), generationBatchSize + 1);
+    for (final Map.Entry<Bytes32, Bytes> account : accounts.entrySet()) {
+      final Bytes32 accountHash = account.getKey();
+      Optional<Bytes32> lastSlotHash = Optional.empty();
+      if (afterAccountHash.isPresent() && afterAccountHash.get().equals(accountHash)) {
+        // Generation stopped in the storage of this account, if not after it
+        if (!afterSlotHash.equals(LAST_SLOT_HASH)) {
+          lastSlotHash =
+              readStorage(accountHash, account.getValue(), Optional.of(afterSlotHash), entries);
+        }
+      } else {
+        entries.put(accountKey(accountHash), account.getValue());
+        lastSlotHash = readStorage(accountHash, account.getValue(), Optional.empty(), entries);
+      }
+      if (lastSlotHash.isPresent()) {
+        return Optional.of(Bytes.concatenate(accountHash, lastSlotHash.get()));
+      }
+      if (entries.size() >= generationBatchSize) {
+        return Optional.of(Bytes.concatenate(accountHash, LAST_SLOT_HASH));
+      }
+    }
+    return Optional.empty();
+  }
+
+  // Copies the storage of an account after a slot, and returns the last slot copied if the batch
+  // filled up before the end of the storage
+  private Optional<Bytes32> readStorage(
+      final Bytes32 accountHash,
+      final Bytes account,
+      final Optional<Bytes32> afterSlotHash,
+      final Map<Bytes, Bytes> entries) {
+    final Hash storageRoot = StateTrieAccountValue.readFrom(RLP.input(account)).getStorageRoot();
+    if (storageRoot.equals(Hash.EMPTY_TRIE_HASH)) {
+      return Optional.empty();
+    }
+    final MerklePatriciaTrie<Bytes32, Bytes> storageTrie =
+        new StoredMerklePatriciaTrie<>(
+            worldStateStorage::getAccountStorageTrieNode, storageRoot, b -> b, b -> b);
+    final int limit = Math.max(generationBatchSize - entries.size(), 1);
+    Bytes32 lastSlotHash = null;
+    int count = 0;
+    // One slot more than the limit tells whether the storage continues after the batch
+    for (final Map.Entry<Bytes32, Bytes> slot :
+        storageTrie.entriesFrom(afterSlotHash.orElse(Bytes32.ZERO), limit + 2).entrySet()) {
+      if (afterSlotHash.isPresent() && afterSlotHash.get().equals(slot.getKey())) {
+        continue;
+      }
+      if (count == limit) {
+        return Optional.of(lastSlotHash);
+      }
+      entries.put(storageKey(accountHash, slot.getKey()), slot.getValue());
+      lastSlotHash = slot.getKey();
+      count++;
+    }
+    return Optional.empty();
+  }
+
+  private static class Undo {
+    private final Bytes32 rootHash;
+    private final Map<Bytes, Optional<Bytes>> changes;
+
+    private Undo(final Bytes32 rootHash, final Map<Bytes, Optional<Bytes>> changes) {
+      this.rootHash = rootHash;
+      this.changes = changes;
+    }
+  }
+
+  /** Collects the changes between two states, to move the snapshot from one to the other. */
+  public class Updater {
+    private final Set<Bytes32> clearedStorage = new HashSet<>();
+    private final Map<Bytes, Optional<Bytes>> changes = new LinkedHashMap<>();
+
+    private Updater() {}
+
+    public Updater putAccount(final Bytes32 accountHash, final Bytes account) {
+      changes.put(accountKey(accountHash), Optional.of(account));
+      return this;
+    }
+
+    public Updater removeAccount(final Bytes32 accountHash) {
+      changes.put(accountKey(accountHash), Optional.empty());
+      return this;
+    }
+
+    /**
+     * Remove all storage of an account, before the storage values put or removed by this updater
+     * are applied.
+     *
+     * @param accountHash the hash of the account address
+     * @return this updater
+     */
+    public Updater clearStorage(final Bytes32 accountHash) {
+      clearedStorage.add(accountHash);
+      return this;
+    }
+
+    public Updater putStorageValue(
+        final Bytes32 accountHash, final Bytes32 slotHash, final Bytes value) {
+      changes.put(storageKey(accountHash, slotHash), Optional.of(value));
+      return this;
+    }
+
+    public Updater removeStorageValue(final Bytes32 accountHash, final Bytes32 slotHash) {
+      changes.put(storageKey(accountHash, slotHash), Optional.empty());
+      return this;
+    }
+
+    /**
+     * Move the snapshot from one state to the other by applying the collected changes.
+     *
+     * <p>Nothing is applied if the snapshot already holds the state the changes lead to. If the
+     * snapshot cannot be moved to the state the changes apply to, it is generated again from the
+     * tries of the state the changes lead to.
+     *
+     * @param fromRootHash the root hash of the state the changes apply to
+     * @param toRootHash the root hash of the state the changes lead to
+     * @return false if the snapshot could not be moved to the state the changes apply to
+     */
+    public boolean commit(final Bytes32 fromRootHash, final Bytes32 toRootHash) {
+      final long stamp = lock.writeLock();
+      try {
+        // The state is already held, e.g. when the genesis state is written again on restart
+        if (rootHash.equals(toRootHash)) {
+          return true;
+        }
+        if (!rewindTo(fromRootHash)) {
+          restartGeneration(toRootHash);
+          return false;
+        }
+        if (fromRootHash.equals(toRootHash)) {
+          return true;
+        }
+        // A partly generated snapshot is not kept in memory, so it cannot be undone
+        final boolean undoable = isGenerated();
+        final Map<Bytes, Optional<Bytes>> previousValues = new HashMap<>();
+        if (undoable) {
+          for (final Bytes key : changes.keySet()) {
+            previousValues.put(key, storage.get(key.toArrayUnsafe()).map(Bytes::wrap));
+          }
+        }
+        final KeyValueStorageTransaction transaction = storage.startTransaction();
+        // Clear storage first, so values written afterwards take precedence. The removed values
+        // are kept to undo the update, which holds all storage of a deleted account in memory
+        // until the update drops out of the undo history.
+        for (final Bytes32 accountHash : clearedStorage) {
+          removeRange(
+              transaction,
+              STORAGE_PREFIX,
+              accountHash,
+              Optional.of(Bytes.concatenate(accountHash, LAST_SLOT_HASH)),
+              (key, value) -> {
+                if (undoable) {
+                  previousValues.putIfAbsent(key, Optional.of(value));
+                }
+              });
+        }
+        write(transaction, changes, toRootHash);
+        transaction.commit();
+        rootHash = toRootHash;
+        if (undoable) {
+          undos.push(new Undo(fromRootHash, previousValues));
+          while (undos.size() > maxUndoDepth) {
+            undos.removeLast();
+          }
+        } else {
+          undos.clear();
+        }
+        return true;
+      } finally {
+        lock.unlockWrite(stamp);
+        resumeGeneration();
+      }
+    }
+  }
+}
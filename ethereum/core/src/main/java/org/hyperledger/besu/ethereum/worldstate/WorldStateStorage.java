@@ -17,6 +17,9 @@ package org.hyperledger.besu.ethereum.worldstate;
 import org.hyperledger.besu.ethereum.core.Hash;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -33,6 +36,16 @@ public interface WorldStateStorage {
 
   Optional<Bytes> getNodeData(Bytes32 hash);
 
+  Optional<Bytes> getDamlBlob(Bytes32 blobHash);
+
+  default Map<Bytes32, Bytes> getDamlBlobs(final List<Bytes32> blobHashes) {
+    final Map<Bytes32, Bytes> blobs = new HashMap<>();
+    for (final Bytes32 blobHash : blobHashes) {
+      getDamlBlob(blobHash).ifPresent(blob -> blobs.put(blobHash, blob));
+    }
+    return blobs;
+  }
+
   boolean isWorldStateAvailable(Bytes32 rootHash);
 
   default boolean contains(final Bytes32 hash) {
@@ -47,6 +60,21 @@ public interface WorldStateStorage {
 
   void removeNodeAddedListener(long id);
 
+  long addNodesCommittedListener(NodesCommittedListener listener);
+
+  void removeNodesCommittedListener(long id);
+
+  /**
+   * Pin a read-only view of the storage as it is now, so that a series of reads is unaffected by
+   * the world states committed and pruned in the meantime.
+   *
+   * @return the view, which must be closed once done with, or empty if the underlying storage
+   *     cannot take snapshots
+   */
+  default Optional<ReadSnapshot> takeReadSnapshot() {
+    return Optional.empty();
+  }
+
   interface Updater {
 
     Updater removeAccountStateTrieNode(Bytes32 nodeHash);
@@ -63,12 +91,36 @@ public interface WorldStateStorage {
 
     Updater putAccountStorageTrieNode(Bytes32 nodeHash, Bytes node);
 
+    Updater putDamlBlob(Bytes32 blobHash, Bytes blob);
+
     void commit();
 
     void rollback();
   }
 
+  /** A read-only view of a world state storage, on which any attempt to update fails. */
+  interface ReadSnapshot extends WorldStateStorage, AutoCloseable {
+    @Override
+    void close();
+  }
+
   interface NodesAddedListener {
     void onNodesAdded(Collection<Bytes32> nodeHash);
   }
+
+  /**
+   * Notified with the content of every committed update, before it is written to storage, so that
+   * a listener which persists state about the nodes is never behind the world state itself.
+   */
+  interface NodesCommittedListener {
+    /**
+     * @param accountTrieNodes the account state trie nodes written, by hash
+     * @param storageTrieNodes the account storage trie nodes written, by hash
+     * @param codeHashes the hashes of the contract code written
+     */
+    void onNodesCommitted(
+        Map<Bytes32, Bytes> accountTrieNodes,
+        Map<Bytes32, Bytes> storageTrieNodes,
+        Collection<Bytes32> codeHashes);
+  }
 }
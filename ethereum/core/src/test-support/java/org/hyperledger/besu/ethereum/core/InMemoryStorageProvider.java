@@ -23,6 +23,7 @@ import org.hyperledger.besu.ethereum.mainnet.ScheduleBasedBlockHeaderFunctions;
 import org.hyperledger.besu.ethereum.privacy.storage.PrivateStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.privacy.storage.PrivateStateStorage;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.storage.keyvalue.AncientBlockMigrator;
 import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueStoragePrefixedKeyBlockchainStorage;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
@@ -34,6 +35,8 @@ import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
+import java.util.Optional;
+
 public class InMemoryStorageProvider implements StorageProvider {
 
   public static MutableBlockchain createInMemoryBlockchain(final Block genesisBlock) {
@@ -71,6 +74,12 @@ public class InMemoryStorageProvider implements StorageProvider {
         new InMemoryKeyValueStorage(), ScheduleBasedBlockHeaderFunctions.create(protocolSchedule));
   }
 
+  @Override
+  public Optional<AncientBlockMigrator> createAncientBlockMigrator(
+      final ProtocolSchedule<?> protocolSchedule) {
+    return Optional.empty();
+  }
+
   @Override
   public WorldStateStorage createWorldStateStorage() {
     return new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
@@ -86,6 +95,16 @@ public class InMemoryStorageProvider implements StorageProvider {
     return new InMemoryKeyValueStorage();
   }
 
+  @Override
+  public KeyValueStorage createDamlLogIndexStorage() {
+    return new InMemoryKeyValueStorage();
+  }
+
+  @Override
+  public KeyValueStorage createWorldStateSnapshotStorage() {
+    return new InMemoryKeyValueStorage();
+  }
+
   @Override
   public boolean isWorldStateIterable() {
     return true;
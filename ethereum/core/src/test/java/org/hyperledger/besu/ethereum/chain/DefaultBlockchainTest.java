@@ -779,6 +779,61 @@ public class DefaultBlockchainTest {
         .containsExactly(expectedLogsWithMetadata.toArray(new LogWithMetadata[] {}));
   }
 
+  @Test
+  public void recentBlocksAreServedFromMemory() {
+    final BlockDataGenerator gen = new BlockDataGenerator(2);
+    final List<Block> chain = gen.blockSequence(4);
+    final List<List<TransactionReceipt>> blockReceipts =
+        chain.stream().map(gen::receipts).collect(Collectors.toList());
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final MutableBlockchain blockchain =
+        DefaultBlockchain.createMutable(
+            chain.get(0), createStorage(kvStore), new NoOpMetricsSystem(), 2);
+    for (int i = 1; i < chain.size(); i++) {
+      blockchain.appendBlock(chain.get(i), blockReceipts.get(i));
+    }
+
+    // Only the last two appended blocks remain available once storage is gone
+    kvStore.clear();
+    for (int i = 2; i < chain.size(); i++) {
+      final Block block = chain.get(i);
+      assertThat(blockchain.getBlockHeader(block.getHeader().getNumber()))
+          .contains(block.getHeader());
+      assertThat(blockchain.getBlockBody(block.getHash())).contains(block.getBody());
+      assertThat(blockchain.getTxReceipts(block.getHash())).contains(blockReceipts.get(i));
+    }
+    assertThat(blockchain.getBlockHeader(chain.get(1).getHash())).isEmpty();
+  }
+
+  @Test
+  public void snapshotIsUnaffectedByLaterChanges() {
+    final BlockDataGenerator gen = new BlockDataGenerator(2);
+    final List<Block> chain = gen.blockSequence(4);
+    final List<List<TransactionReceipt>> blockReceipts =
+        chain.stream().map(gen::receipts).collect(Collectors.toList());
+    final KeyValueStorage kvStore = new InMemoryKeyValueStorage();
+    final DefaultBlockchain blockchain = createMutableBlockchain(kvStore, chain.get(0));
+    for (int i = 1; i < chain.size(); i++) {
+      blockchain.appendBlock(chain.get(i), blockReceipts.get(i));
+    }
+    final Block originalHead = chain.get(3);
+
+    blockchain.mapSnapshot(
+        pinnedBlockchain -> {
+          blockchain.rewindToBlock(1);
+
+          assertBlockIsHead(pinnedBlockchain, originalHead);
+          for (int i = 0; i < chain.size(); i++) {
+            assertBlockDataIsStored(pinnedBlockchain, chain.get(i), blockReceipts.get(i));
+          }
+          return null;
+        });
+
+    assertBlockIsHead(blockchain, chain.get(1));
+    assertThat(blockchain.getBlockHashByNumber(originalHead.getHeader().getNumber())).isEmpty();
+    assertThat(blockchain.blockIsOnCanonicalChain(originalHead.getHash())).isFalse();
+  }
+
   @Test
   public void blockAddedObserver_removeNonexistentObserver() {
     final BlockDataGenerator gen = new BlockDataGenerator();
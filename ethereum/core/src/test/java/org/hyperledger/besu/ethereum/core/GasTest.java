@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class GasTest {
+
+  @Test
+  public void saturatingAddShouldSaturateOnOverflow() {
+    assertThat(Gas.saturatingAdd(3, 4)).isEqualTo(7);
+    assertThat(Gas.saturatingAdd(Long.MAX_VALUE, 1)).isEqualTo(Long.MAX_VALUE);
+    assertThat(Gas.saturatingAdd(Long.MAX_VALUE - 1, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void saturatingMultiplyShouldSaturateOnOverflow() {
+    assertThat(Gas.saturatingMultiply(3, 4)).isEqualTo(12);
+    assertThat(Gas.saturatingMultiply(0, Long.MAX_VALUE)).isEqualTo(0);
+    assertThat(Gas.saturatingMultiply(Long.MAX_VALUE, 2)).isEqualTo(Long.MAX_VALUE);
+    assertThat(Gas.saturatingMultiply(1L << 32, 1L << 31)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void saturatingOfShouldSaturateLargeWords() {
+    assertThat(Gas.saturatingOf(UInt256.valueOf(42))).isEqualTo(42);
+    assertThat(Gas.saturatingOf(UInt256.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test
+  public void objectArithmeticShouldMatchPrimitiveArithmetic() {
+    assertThat(Gas.MAX_VALUE.plus(Gas.of(1))).isEqualTo(Gas.MAX_VALUE);
+    assertThat(Gas.MAX_VALUE.times(Gas.of(2))).isEqualTo(Gas.MAX_VALUE);
+    assertThat(Gas.of(5).plus(Gas.ZERO)).isEqualTo(Gas.of(5));
+    assertThat(Gas.of(5).minus(Gas.of(2))).isEqualTo(Gas.of(3));
+  }
+}
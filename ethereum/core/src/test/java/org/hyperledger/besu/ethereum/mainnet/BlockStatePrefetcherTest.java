@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.InMemoryStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BlockStatePrefetcherTest {
+  private static final Address COINBASE = Address.fromHexString("0x01");
+  private static final Address SENDER = Address.fromHexString("0x02");
+  private static final Address RECIPIENT = Address.fromHexString("0x03");
+  private static final KeyPair KEY_PAIR = KeyPair.generate();
+
+  // Prefetch on the calling thread, so that all reads are made once start returns
+  private final BlockStatePrefetcher prefetcher =
+      new BlockStatePrefetcher(MoreExecutors.newDirectExecutorService());
+  private final BlockHeader blockHeader =
+      new BlockHeaderTestFixture().coinbase(COINBASE).buildHeader();
+
+  @Mock private MutableWorldState worldState;
+  @Captor private ArgumentCaptor<Collection<UInt256>> storageKeys;
+
+  private Transaction transaction(final Address sender, final Optional<Address> to) {
+    return new TransactionTestFixture().sender(sender).to(to).createTransaction(KEY_PAIR);
+  }
+
+  @Test
+  public void prefetchesNothingForBlockWithoutTransactions() {
+    prefetcher.start(worldState, blockHeader, Collections.emptyList());
+
+    verifyNoInteractions(worldState);
+  }
+
+  @Test
+  public void prefetchesCoinbaseSendersAndRecipients() {
+    prefetcher.start(
+        worldState,
+        blockHeader,
+        List.of(
+            transaction(SENDER, Optional.of(RECIPIENT)),
+            // A contract creation has no recipient to prefetch
+            transaction(SENDER, Optional.empty()),
+            transaction(RECIPIENT, Optional.of(COINBASE))));
+
+    // Each account is read once, whatever its role in the block
+    verify(worldState).prefetch(COINBASE, Collections.emptyList());
+    verify(worldState).prefetch(SENDER, Collections.emptyList());
+    verify(worldState).prefetch(RECIPIENT, Collections.emptyList());
+    verifyNoMoreInteractions(worldState);
+  }
+
+  @Test
+  public void prefetchesStorageWrittenInEarlierBlocksUpToLimit() {
+    final int writtenSlots = BlockStatePrefetcher.MAX_RECORDED_SLOTS_PER_CONTRACT + 10;
+    final WorldUpdater updater = InMemoryStorageProvider.createInMemoryWorldState().updater();
+    final MutableAccount account = updater.createAccount(RECIPIENT).getMutable();
+    for (int slot = 0; slot < writtenSlots; slot++) {
+      account.setStorageValue(UInt256.valueOf(slot), UInt256.ONE);
+    }
+    prefetcher.recordWrites(updater);
+
+    prefetcher.start(worldState, blockHeader, List.of(transaction(SENDER, Optional.of(RECIPIENT))));
+
+    verify(worldState).prefetch(eq(RECIPIENT), storageKeys.capture());
+    assertThat(storageKeys.getValue())
+        .hasSize(BlockStatePrefetcher.MAX_RECORDED_SLOTS_PER_CONTRACT)
+        .doesNotHaveDuplicates()
+        .allMatch(slot -> slot.compareTo(UInt256.valueOf(writtenSlots)) < 0);
+    verify(worldState).prefetch(SENDER, Collections.emptyList());
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator.BlockOptions;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.InMemoryStorageProvider;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.blockchaintp.besu.daml.protobuf.DamlLogEvent;
+import com.google.protobuf.ByteString;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DamlLogIndexTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator(1);
+  private final MutableBlockchain blockchain =
+      InMemoryStorageProvider.createInMemoryBlockchain(gen.genesisBlock());
+  private final InMemoryKeyValueStorage storage = new InMemoryKeyValueStorage();
+  private final AtomicInteger nextEntryId = new AtomicInteger();
+
+  private DamlLogIndex index;
+  private long observerId;
+
+  @Before
+  public void before() {
+    index = new DamlLogIndex(storage);
+    observerId = blockchain.observeBlockAdded(index);
+  }
+
+  @Test
+  public void indexesDamlLogEntriesInOffsetOrder() {
+    final Block block1 = appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 0);
+    final Block block3 = appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 1);
+
+    assertThat(index.getNextOffset()).isEqualTo(3L);
+    final List<DamlLogEntryLocation> entries = index.getEntries(0, 10);
+    assertThat(entries).hasSize(3);
+    assertThat(entries.get(0))
+        .isEqualTo(new DamlLogEntryLocation(0, 1, block1.getHash(), 0, 0, entryId(0)));
+    // each transaction also emits an unrelated log after its DAML log
+    assertThat(entries.get(1))
+        .isEqualTo(new DamlLogEntryLocation(1, 1, block1.getHash(), 1, 2, entryId(1)));
+    assertThat(entries.get(2))
+        .isEqualTo(new DamlLogEntryLocation(2, 3, block3.getHash(), 0, 0, entryId(2)));
+  }
+
+  @Test
+  public void returnsPagesOfEntries() {
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 3);
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+
+    assertThat(offsets(index.getEntries(1, 2))).containsExactly(1L, 2L);
+    assertThat(offsets(index.getEntries(3, 10))).containsExactly(3L, 4L);
+    assertThat(index.getEntries(5, 10)).isEmpty();
+  }
+
+  @Test
+  public void resumesFromPersistedHead() {
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+
+    final DamlLogIndex reopened = new DamlLogIndex(storage);
+    assertThat(reopened.getNextOffset()).isEqualTo(2L);
+
+    // blocks imported while the index was not observing the chain are indexed on catch-up
+    blockchain.removeObserver(observerId);
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 1);
+    reopened.indexToHead(blockchain);
+    assertThat(offsets(reopened.getEntries(0, 10))).containsExactly(0L, 1L, 2L);
+  }
+
+  @Test
+  public void dropsEntriesOfBlocksRemovedByReorg() {
+    final BlockHeader forkPoint =
+        appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 1).getHeader();
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+    assertThat(index.getNextOffset()).isEqualTo(3L);
+
+    final BlockOptions forkOptions =
+        BlockOptions.create()
+            .setDifficulty(blockchain.getChainHeadHeader().getDifficulty().add(10L));
+    final Block forkBlock = appendBlockWithDamlLogs(forkPoint, 1, forkOptions);
+
+    assertThat(blockchain.getChainHeadHash()).isEqualTo(forkBlock.getHash());
+    assertThat(index.getNextOffset()).isEqualTo(2L);
+    final List<DamlLogEntryLocation> entries = index.getEntries(0, 10);
+    assertThat(entries).hasSize(2);
+    assertThat(entries.get(1))
+        .isEqualTo(new DamlLogEntryLocation(1, 2, forkBlock.getHash(), 0, 0, entryId(3)));
+  }
+
+  @Test
+  public void returnsFirstOffsetOfIndexedBlocks() {
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 0);
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 1);
+
+    assertThat(index.getFirstOffset(1)).hasValue(0L);
+    assertThat(index.getFirstOffset(2)).hasValue(2L);
+    assertThat(index.getFirstOffset(3)).hasValue(2L);
+    assertThat(index.getFirstOffset(4)).isEmpty();
+  }
+
+  @Test
+  public void notifiesObserversOfFirstAddedOrReplacedOffset() {
+    final List<Long> notified = new ArrayList<>();
+    index.observeIndexed(notified::add);
+
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 0);
+    final BlockHeader forkPoint =
+        appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 1).getHeader();
+    appendBlockWithDamlLogs(blockchain.getChainHeadHeader(), 2);
+    final BlockOptions forkOptions =
+        BlockOptions.create()
+            .setDifficulty(blockchain.getChainHeadHeader().getDifficulty().add(10L));
+    appendBlockWithDamlLogs(forkPoint, 1, forkOptions);
+
+    // the block without DAML logs changes nothing, the fork replaces the entries from offset 1
+    assertThat(notified).containsExactly(0L, 1L, 1L);
+  }
+
+  private static List<Long> offsets(final List<DamlLogEntryLocation> entries) {
+    return entries.stream().map(DamlLogEntryLocation::getOffset).collect(Collectors.toList());
+  }
+
+  private Block appendBlockWithDamlLogs(final BlockHeader parent, final int txCount) {
+    return appendBlockWithDamlLogs(parent, txCount, BlockOptions.create());
+  }
+
+  private Block appendBlockWithDamlLogs(
+      final BlockHeader parent, final int txCount, final BlockOptions blockOptions) {
+    final List<TransactionReceipt> receipts = new ArrayList<>();
+    for (int i = 0; i < txCount; i++) {
+      blockOptions.addTransaction(gen.transaction());
+      receipts.add(gen.receipt(List.of(damlLog(), gen.log())));
+    }
+    blockOptions.setParentHash(parent.getHash());
+    blockOptions.setBlockNumber(parent.getNumber() + 1L);
+    final Block block = gen.block(blockOptions);
+    blockchain.appendBlock(block, receipts);
+    return block;
+  }
+
+  private Log damlLog() {
+    final DamlLogEvent logEvent =
+        DamlLogEvent.newBuilder()
+            .setLogEntryId(ByteString.copyFromUtf8("entry-" + nextEntryId.getAndIncrement()))
+            .setLogEntry(ByteString.copyFromUtf8("entry"))
+            .build();
+    return new Log(
+        Address.DAML_PUBLIC,
+        Bytes.wrap(logEvent.toByteArray()),
+        List.of(DamlPublicPrecompiledContract.DAML_LOG_TOPIC));
+  }
+
+  private static Bytes entryId(final int id) {
+    return Bytes.wrap(("entry-" + id).getBytes(UTF_8));
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.metrics.StubMetricsSystem;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntry;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlTransactionRejectionEntry;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.Disputed;
+import org.junit.Test;
+
+public class DamlMetricsTest {
+  private final StubMetricsSystem metricsSystem = new StubMetricsSystem();
+  private final DamlMetrics metrics = new DamlMetrics(metricsSystem);
+
+  @Test
+  public void countsKeysAndBytesOfSubmission() {
+    metrics.recordSubmission(3, 2, 100, DamlLogEntry.getDefaultInstance());
+    metrics.recordSubmission(1, 1, 20, DamlLogEntry.getDefaultInstance());
+
+    assertThat(metricsSystem.getCounterValue("submission_input_keys_count")).isEqualTo(4);
+    assertThat(metricsSystem.getCounterValue("submission_output_keys_count")).isEqualTo(3);
+    assertThat(metricsSystem.getCounterValue("submission_bytes_written_count")).isEqualTo(120);
+  }
+
+  @Test
+  public void countsRejectionsByEntryAndReason() {
+    final DamlLogEntry rejection =
+        DamlLogEntry.newBuilder()
+            .setTransactionRejectionEntry(
+                DamlTransactionRejectionEntry.newBuilder()
+                    .setDisputed(Disputed.newBuilder().setDetails("disputed")))
+            .build();
+    metrics.recordSubmission(1, 0, 10, rejection);
+    metrics.recordInvalidSubmission("unparseable");
+
+    assertThat(metricsSystem.getCounterValue("submission_rejected_count", "transaction", "disputed"))
+        .isEqualTo(1);
+    assertThat(
+            metricsSystem.getCounterValue("submission_rejected_count", "submission", "unparseable"))
+        .isEqualTo(1);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.digitalasset.daml.lf.engine.Engine;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DamlPackageCacheTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private final DamlPackageCache cache = new DamlPackageCache(mock(Engine.class), Runnable::run);
+  private Path directory;
+
+  @Before
+  public void before() throws IOException {
+    directory = tmp.newFolder().toPath().resolve("daml-packages");
+    cache.start(directory);
+  }
+
+  @Test
+  public void writesNewPackagesToDisk() throws IOException {
+    final DamlStateValue value = packageValue("archive-1");
+    cache.recordState(packageKey("pkg1"), value);
+
+    final Path file = directory.resolve("pkg1.package");
+    assertThat(file).exists();
+    assertThat(DamlStateValue.parseFrom(Files.readAllBytes(file))).isEqualTo(value);
+  }
+
+  @Test
+  public void writesEachPackageOnce() throws IOException {
+    cache.recordState(packageKey("pkg1"), packageValue("archive-1"));
+    final Path file = directory.resolve("pkg1.package");
+    Files.delete(file);
+
+    cache.recordState(packageKey("pkg1"), packageValue("archive-1"));
+    assertThat(file).doesNotExist();
+  }
+
+  @Test
+  public void retriesFailedWritesWithoutLeavingTemporaryFiles() throws IOException {
+    Files.delete(directory);
+    Files.createFile(directory);
+    cache.recordState(packageKey("pkg1"), packageValue("archive-1"));
+
+    Files.delete(directory);
+    Files.createDirectory(directory);
+    cache.recordState(packageKey("pkg1"), packageValue("archive-1"));
+
+    try (final Stream<Path> files = Files.list(directory)) {
+      assertThat(files).containsExactly(directory.resolve("pkg1.package"));
+    }
+  }
+
+  @Test
+  public void ignoresStateOtherThanPackages() throws IOException {
+    cache.recordState(
+        DamlStateKey.newBuilder().setParty("alice").build(), DamlStateValue.newBuilder().build());
+    cache.recordState(packageKey("pkg1"), DamlStateValue.newBuilder().build());
+
+    try (final Stream<Path> files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  private static DamlStateKey packageKey(final String packageId) {
+    return DamlStateKey.newBuilder().setPackageId(packageId).build();
+  }
+
+  private static DamlStateValue packageValue(final String hash) {
+    return DamlStateValue.newBuilder()
+        .setArchive(DamlStateValue.getDefaultInstance().getArchive().toBuilder().setHash(hash))
+        .build();
+  }
+}
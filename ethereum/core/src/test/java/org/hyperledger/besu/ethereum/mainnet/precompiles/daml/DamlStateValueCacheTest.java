@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class DamlStateValueCacheTest {
+  private final DamlStateValueCache cache = new DamlStateValueCache(new NoOpMetricsSystem());
+
+  @Test
+  public void returnsNullWhenNotCached() {
+    assertThat(cache.get(Hash.hash(Bytes.of(1)))).isNull();
+  }
+
+  @Test
+  public void returnsCachedValueByBlobHash() {
+    final DamlStateValue value = DamlStateValue.newBuilder().build();
+    final Hash blobHash = Hash.hash(Bytes.wrap(value.toByteArray()));
+    cache.put(blobHash, value);
+
+    assertThat(cache.get(blobHash)).isSameAs(value);
+    assertThat(cache.get(Hash.hash(Bytes.of(1)))).isNull();
+  }
+}
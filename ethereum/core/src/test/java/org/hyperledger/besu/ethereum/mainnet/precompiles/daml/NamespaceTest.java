@@ -20,7 +20,10 @@ import org.hyperledger.besu.ethereum.mainnet.precompiles.daml.Namespace.DamlKeyT
 
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlLogEntryId;
 import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.google.protobuf.ByteString;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.MutableBytes32;
+import org.apache.tuweni.units.bigints.UInt256;
 import org.junit.Test;
 
 public class NamespaceTest {
@@ -64,4 +67,20 @@ public class NamespaceTest {
     assertThat(Namespace.makeAddress(DamlKeyType.LOG, entryId.toByteString()))
         .isEqualTo(Namespace.makeDamlLogEntryIdAddress(entryId));
   }
+
+  @Test
+  public void makeAddressIntoBufferMatchesHashTruncation() {
+    final byte[] data = new byte[] {0};
+    final MutableBytes32 address = MutableBytes32.create();
+    Namespace.makeAddress(DamlKeyType.STATE, data, address);
+    assertThat(address.toHexString())
+        .isEqualTo("0x7500" + Namespace.getHash(data).slice(2).toUnprefixedHexString());
+    assertThat(UInt256.fromBytes(address))
+        .isEqualTo(Namespace.makeAddress(DamlKeyType.STATE, data));
+
+    // the buffer is fully overwritten on reuse
+    Namespace.makeAddress(DamlKeyType.LOG, ByteString.copyFrom(data), address);
+    assertThat(address.toHexString())
+        .isEqualTo("0x7501" + Namespace.getHash(data).slice(2).toUnprefixedHexString());
+  }
 }
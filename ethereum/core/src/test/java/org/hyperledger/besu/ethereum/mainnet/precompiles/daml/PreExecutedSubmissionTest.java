@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet.precompiles.daml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateKey;
+import com.daml.ledger.participant.state.kvutils.DamlKvutils.DamlStateValue;
+import com.digitalasset.daml.lf.data.Time.Timestamp;
+import org.junit.Test;
+import scala.Option;
+
+public class PreExecutedSubmissionTest {
+  private static final DamlStateKey ALICE = DamlStateKey.newBuilder().setParty("alice").build();
+  private static final DamlStateKey BOB = DamlStateKey.newBuilder().setParty("bob").build();
+  private static final Timestamp RECORD_TIME = new Timestamp(100_000_000L);
+
+  private final PreExecutedSubmission submission =
+      new PreExecutedSubmission(
+          RECORD_TIME, Map.of(ALICE, Option.<DamlStateValue>empty()), null);
+
+  @Test
+  public void validWhenInputsUntouched() {
+    assertThat(submission.isValidAt(RECORD_TIME, Collections.emptySet())).isTrue();
+    assertThat(submission.isValidAt(RECORD_TIME, Set.of(BOB))).isTrue();
+  }
+
+  @Test
+  public void invalidWhenInputWrittenEarlierInBlock() {
+    assertThat(submission.isValidAt(RECORD_TIME, Set.of(ALICE, BOB))).isFalse();
+  }
+
+  @Test
+  public void invalidWhenRecordTimeChanged() {
+    assertThat(submission.isValidAt(new Timestamp(200_000_000L), Collections.emptySet()))
+        .isFalse();
+  }
+}
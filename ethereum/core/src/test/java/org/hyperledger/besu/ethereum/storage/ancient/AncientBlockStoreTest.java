@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.ancient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AncientBlockStoreTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void before() throws IOException {
+    directory = tmp.newFolder().toPath().resolve(AncientBlockStore.DIRECTORY_NAME);
+  }
+
+  @Test
+  public void readsAppendedBlocks() throws IOException {
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      appendBlocks(store, 3);
+
+      assertThat(store.getBlockCount()).isEqualTo(3);
+      for (int i = 0; i < 3; i++) {
+        assertThat(store.getBlockHeader(i)).contains(header(i));
+        assertThat(store.getBlockBody(i)).contains(body(i));
+        assertThat(store.getTransactionReceipts(i)).contains(receipts(i));
+      }
+      assertThat(store.getBlockHeader(3)).isEmpty();
+    }
+  }
+
+  @Test
+  public void blocksMustBeAppendedInOrder() throws IOException {
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      assertThatThrownBy(() -> store.append(1, header(1), body(1), receipts(1)))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  public void reopensSyncedBlocks() throws IOException {
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      appendBlocks(store, 2);
+      store.sync();
+    }
+
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      assertThat(store.getBlockCount()).isEqualTo(2);
+      assertThat(store.getBlockBody(1)).contains(body(1));
+    }
+  }
+
+  @Test
+  public void discardsIncompleteBlocksOnOpen() throws IOException {
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      appendBlocks(store, 2);
+      store.sync();
+    }
+    // Simulate a crash after the header of the next block was written
+    try (final FileChannel receipts =
+        FileChannel.open(directory.resolve("receipts.dat"), StandardOpenOption.WRITE)) {
+      receipts.truncate(receipts.size() - 1);
+    }
+
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      assertThat(store.getBlockCount()).isEqualTo(1);
+      assertThat(store.getBlockHeader(1)).isEmpty();
+      store.append(1, header(1), body(1), receipts(1));
+      assertThat(store.getTransactionReceipts(1)).contains(receipts(1));
+    }
+  }
+
+  @Test
+  public void truncateDiscardsLaterBlocks() throws IOException {
+    try (final AncientBlockStore store = AncientBlockStore.open(directory)) {
+      appendBlocks(store, 3);
+      store.truncate(1);
+
+      assertThat(store.getBlockCount()).isEqualTo(1);
+      assertThat(store.getBlockHeader(0)).contains(header(0));
+      assertThat(store.getBlockHeader(1)).isEmpty();
+    }
+  }
+
+  private static void appendBlocks(final AncientBlockStore store, final int count) {
+    for (int i = 0; i < count; i++) {
+      store.append(i, header(i), body(i), receipts(i));
+    }
+  }
+
+  private static Bytes header(final int number) {
+    return filled((byte) number, 10 + number);
+  }
+
+  private static Bytes body(final int number) {
+    return filled((byte) (number + 1), 100 * number);
+  }
+
+  private static Bytes receipts(final int number) {
+    return filled((byte) (number + 2), 5);
+  }
+
+  private static Bytes filled(final byte value, final int length) {
+    final byte[] bytes = new byte[length];
+    Arrays.fill(bytes, value);
+    return Bytes.wrap(bytes);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.chain.DefaultBlockchain;
+import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
+import org.hyperledger.besu.ethereum.storage.ancient.AncientBlockStore;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KeyValueStoragePrefixedKeyBlockchainStorageTest {
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private final BlockDataGenerator gen = new BlockDataGenerator(1);
+  private final InMemoryKeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+  private final List<Block> chain = gen.blockSequence(5);
+  private final List<List<TransactionReceipt>> receipts =
+      chain.stream().map(gen::receipts).collect(Collectors.toList());
+  private AncientBlockStore ancientBlockStore;
+  private KeyValueStoragePrefixedKeyBlockchainStorage storage;
+
+  @Before
+  public void before() throws IOException {
+    ancientBlockStore = AncientBlockStore.open(tmp.newFolder().toPath());
+    storage =
+        new KeyValueStoragePrefixedKeyBlockchainStorage(
+            keyValueStorage, new MainnetBlockHeaderFunctions(), Optional.of(ancientBlockStore));
+    final MutableBlockchain blockchain =
+        DefaultBlockchain.createMutable(chain.get(0), storage, new NoOpMetricsSystem());
+    for (int i = 1; i < chain.size(); i++) {
+      blockchain.appendBlock(chain.get(i), receipts.get(i));
+    }
+  }
+
+  @After
+  public void after() throws IOException {
+    ancientBlockStore.close();
+  }
+
+  @Test
+  public void migratedBlocksAreServedFromAncientStore() {
+    assertThat(storage.migrateAncientBlocks(3, 100)).isEqualTo(3);
+
+    assertThat(storage.getAncientBlockCount()).isEqualTo(3);
+    assertThat(ancientBlockStore.getBlockCount()).isEqualTo(3);
+    final KeyValueStoragePrefixedKeyBlockchainStorage keyValueOnly =
+        new KeyValueStoragePrefixedKeyBlockchainStorage(
+            keyValueStorage, new MainnetBlockHeaderFunctions());
+    for (int i = 0; i < chain.size(); i++) {
+      final Block block = chain.get(i);
+      assertThat(keyValueOnly.getBlockHeader(block.getHash()).isPresent()).isEqualTo(i >= 3);
+      assertThat(storage.getBlockHeader(block.getHash())).contains(block.getHeader());
+      assertThat(storage.getBlockBody(block.getHash())).contains(block.getBody());
+      assertThat(storage.getTransactionReceipts(block.getHash())).contains(receipts.get(i));
+      assertThat(storage.getBlockHash(i)).contains(block.getHash());
+    }
+  }
+
+  @Test
+  public void migratesInBatches() {
+    assertThat(storage.migrateAncientBlocks(4, 3)).isEqualTo(3);
+    assertThat(storage.migrateAncientBlocks(4, 3)).isEqualTo(1);
+    assertThat(storage.migrateAncientBlocks(4, 3)).isEqualTo(0);
+
+    assertThat(storage.getAncientBlockCount()).isEqualTo(4);
+    assertThat(storage.getBlockBody(chain.get(3).getHash())).contains(chain.get(3).getBody());
+  }
+
+  @Test
+  public void unrecordedAncientBlocksAreAppendedAgain() {
+    // Simulate a crash after blocks were appended but before the key value store was updated
+    ancientBlockStore.append(0, Bytes.of(1), Bytes.of(2), Bytes.of(3));
+
+    assertThat(storage.migrateAncientBlocks(2, 100)).isEqualTo(2);
+    assertThat(storage.getBlockHeader(chain.get(0).getHash())).contains(chain.get(0).getHeader());
+  }
+}
@@ -15,10 +15,12 @@
 package org.hyperledger.besu.ethereum.storage.keyvalue;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage.Updater;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage.ReadSnapshot;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -184,6 +186,53 @@ public class KeyValueStorageWorldStateStorageTest {
     assertThat(emptyStorage().isWorldStateAvailable(Hash.EMPTY_TRIE_HASH)).isTrue();
   }
 
+  @Test
+  public void getDamlBlob_saveAndGetFromSeparateStorage() {
+    final Bytes bytes = Bytes.fromHexString("0x123456");
+    final InMemoryKeyValueStorage stateStorage = new InMemoryKeyValueStorage();
+    final InMemoryKeyValueStorage blobStorage = new InMemoryKeyValueStorage();
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(stateStorage, blobStorage);
+    storage.updater().putDamlBlob(Hash.hash(bytes), bytes).commit();
+
+    assertThat(storage.getDamlBlob(Hash.hash(bytes))).contains(bytes);
+    assertThat(blobStorage.containsKey(Hash.hash(bytes).toArrayUnsafe())).isTrue();
+    assertThat(stateStorage.containsKey(Hash.hash(bytes).toArrayUnsafe())).isFalse();
+  }
+
+  @Test
+  public void getDamlBlob_returnsEmpty() {
+    final WorldStateKeyValueStorage storage = emptyStorage();
+    assertThat(storage.getDamlBlob(Hash.EMPTY)).contains(Bytes.EMPTY);
+    assertThat(storage.getDamlBlob(Hash.hash(Bytes.of(1)))).isEmpty();
+  }
+
+  @Test
+  public void takeReadSnapshot_isUnaffectedByLaterUpdates() {
+    final Bytes nodeA = Bytes.fromHexString("0x12");
+    final Bytes nodeB = Bytes.fromHexString("0x1234");
+    final Bytes blob = Bytes.fromHexString("0x123456");
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage(), new InMemoryKeyValueStorage());
+    storage.updater().putAccountStateTrieNode(Hash.hash(nodeA), nodeA).commit();
+
+    try (final ReadSnapshot snapshot = storage.takeReadSnapshot().orElseThrow()) {
+      storage
+          .updater()
+          .removeAccountStateTrieNode(Hash.hash(nodeA))
+          .putAccountStateTrieNode(Hash.hash(nodeB), nodeB)
+          .putDamlBlob(Hash.hash(blob), blob)
+          .commit();
+
+      assertThat(snapshot.getAccountStateTrieNode(Hash.hash(nodeA))).contains(nodeA);
+      assertThat(snapshot.getAccountStateTrieNode(Hash.hash(nodeB))).isEmpty();
+      assertThat(snapshot.getDamlBlob(Hash.hash(blob))).isEmpty();
+      assertThatThrownBy(snapshot::updater).isInstanceOf(UnsupportedOperationException.class);
+    }
+    assertThat(storage.getAccountStateTrieNode(Hash.hash(nodeA))).isEmpty();
+    assertThat(storage.getDamlBlob(Hash.hash(blob))).contains(blob);
+  }
+
   private WorldStateKeyValueStorage emptyStorage() {
     return new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
   }
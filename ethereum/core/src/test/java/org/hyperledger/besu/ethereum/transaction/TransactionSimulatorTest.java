@@ -39,6 +39,7 @@ import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor.Result.Status;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Before;
@@ -73,6 +74,9 @@ public class TransactionSimulatorTest {
   public void setUp() {
     this.transactionSimulator =
         new TransactionSimulator(blockchain, worldStateArchive, protocolSchedule);
+    when(blockchain.mapSnapshot(any()))
+        .thenAnswer(
+            invocation -> invocation.<Function<Blockchain, ?>>getArgument(0).apply(blockchain));
   }
 
   @Test
@@ -307,15 +311,23 @@ public class TransactionSimulatorTest {
       final Hash stateRoot, final Address address, final long nonce) {
     final Account account = mock(Account.class);
     when(account.getNonce()).thenReturn(nonce);
-    when(worldStateArchive.getMutable(eq(stateRoot))).thenReturn(Optional.of(worldState));
+    mockWorldState(stateRoot);
     when(worldState.get(eq(address))).thenReturn(account);
   }
 
   private void mockWorldStateForAbsentAccount(final Hash stateRoot) {
-    when(worldStateArchive.getMutable(eq(stateRoot))).thenReturn(Optional.of(worldState));
+    mockWorldState(stateRoot);
     when(worldState.get(any())).thenReturn(null);
   }
 
+  private void mockWorldState(final Hash stateRoot) {
+    when(worldStateArchive.mapWorldState(eq(stateRoot), any()))
+        .thenAnswer(
+            invocation ->
+                Optional.ofNullable(
+                    invocation.<Function<MutableWorldState, ?>>getArgument(1).apply(worldState)));
+  }
+
   private void mockBlockchainForBlockHeader(final Hash stateRoot, final long blockNumber) {
     mockBlockchainForBlockHeader(stateRoot, blockNumber, Hash.ZERO);
   }
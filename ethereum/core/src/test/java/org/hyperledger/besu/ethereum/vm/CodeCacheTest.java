@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class CodeCacheTest {
+  private static final Bytes CODE = Bytes.fromHexString("0x6001600101");
+
+  private final CodeCache codeCache = new CodeCache(CodeCache.DEFAULT_MAX_WEIGHT_BYTES);
+
+  @Test
+  public void codeIsReadFromAccountOnlyOnce() {
+    final Account account = mock(Account.class);
+    when(account.getCodeHash()).thenReturn(Hash.hash(CODE));
+    when(account.getCode()).thenReturn(CODE);
+
+    final Code code = codeCache.getCode(account);
+
+    assertThat(code.getBytes()).isEqualTo(CODE);
+    assertThat(codeCache.getCode(account)).isSameAs(code);
+    verify(account, times(1)).getCode();
+  }
+
+  @Test
+  public void missingAccountHasEmptyCode() {
+    assertThat(codeCache.getCode(null).getBytes()).isEqualTo(Bytes.EMPTY);
+  }
+
+  @Test
+  public void accountWithoutCodeIsNotRead() {
+    final Account account = mock(Account.class);
+    when(account.getCodeHash()).thenReturn(Hash.EMPTY);
+
+    assertThat(codeCache.getCode(account).getBytes()).isEqualTo(Bytes.EMPTY);
+    verify(account, times(0)).getCode();
+  }
+}
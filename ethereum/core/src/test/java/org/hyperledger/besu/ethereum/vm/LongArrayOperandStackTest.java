@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class LongArrayOperandStackTest {
+
+  private static final List<Bytes32> VALUES = values();
+
+  @Test
+  public void pushAndPopShouldPreserveOperands() {
+    final LongArrayOperandStack stack = new LongArrayOperandStack(VALUES.size());
+    VALUES.forEach(stack::push);
+
+    assertThat(stack.size()).isEqualTo(VALUES.size());
+    assertThat(stack.get(VALUES.size() - 1)).isEqualTo(VALUES.get(0));
+    for (int i = VALUES.size() - 1; i >= 0; i--) {
+      assertThat(stack.pop()).isEqualTo(VALUES.get(i));
+    }
+  }
+
+  @Test
+  public void shouldRejectPushBeyondMaxSize() {
+    final LongArrayOperandStack stack = new LongArrayOperandStack(1);
+    stack.push(Bytes32.ZERO);
+    assertThatThrownBy(() -> stack.push(Bytes32.ZERO)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void shouldRejectBinaryOperationOnSingleOperand() {
+    final LongArrayOperandStack stack = new LongArrayOperandStack(2);
+    stack.push(Bytes32.ZERO);
+    assertThatThrownBy(stack::add).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void arithmeticShouldMatchUInt256() {
+    check(LongArrayOperandStack::add, UInt256::add);
+    check(LongArrayOperandStack::subtract, UInt256::subtract);
+    check(LongArrayOperandStack::multiply, UInt256::multiply);
+    check(LongArrayOperandStack::divide, (a, b) -> b.isZero() ? UInt256.ZERO : a.divide(b));
+    check(LongArrayOperandStack::mod, UInt256::mod0);
+  }
+
+  @Test
+  public void comparisonsShouldMatchUInt256() {
+    check(LongArrayOperandStack::lessThan, (a, b) -> bool(a.compareTo(b) < 0));
+    check(LongArrayOperandStack::greaterThan, (a, b) -> bool(a.compareTo(b) > 0));
+    check(LongArrayOperandStack::equal, (a, b) -> bool(a.equals(b)));
+  }
+
+  @Test
+  public void bitwiseOperationsShouldMatchUInt256() {
+    check(LongArrayOperandStack::and, UInt256::and);
+    check(LongArrayOperandStack::or, UInt256::or);
+    check(LongArrayOperandStack::xor, UInt256::xor);
+  }
+
+  @Test
+  public void shiftsShouldMatchBytes32() {
+    for (final Bytes32 value : VALUES) {
+      for (final int shift : new int[] {0, 1, 7, 63, 64, 65, 128, 191, 255, 256, 1000}) {
+        final Bytes32 expectedLeft = shift >= 256 ? Bytes32.ZERO : value.shiftLeft(shift);
+        final Bytes32 expectedRight = shift >= 256 ? Bytes32.ZERO : value.shiftRight(shift);
+        assertThat(apply(LongArrayOperandStack::shiftLeft, UInt256.valueOf(shift).toBytes(), value))
+            .isEqualTo(expectedLeft);
+        assertThat(
+                apply(LongArrayOperandStack::shiftRight, UInt256.valueOf(shift).toBytes(), value))
+            .isEqualTo(expectedRight);
+      }
+    }
+  }
+
+  @Test
+  public void arithmeticShiftShouldKeepSign() {
+    final Bytes32 negative =
+        Bytes32.fromHexString("0xf000000000000000000000000000000000000000000000000000000000000010");
+    assertThat(
+            apply(
+                LongArrayOperandStack::shiftRightArithmetic,
+                UInt256.valueOf(4).toBytes(),
+                negative))
+        .isEqualTo(
+            Bytes32.fromHexString(
+                "0xff00000000000000000000000000000000000000000000000000000000000001"));
+    assertThat(
+            apply(
+                LongArrayOperandStack::shiftRightArithmetic,
+                UInt256.valueOf(300).toBytes(),
+                negative))
+        .isEqualTo(UInt256.MAX_VALUE.toBytes());
+    assertThat(
+            apply(
+                LongArrayOperandStack::shiftRightArithmetic,
+                UInt256.valueOf(4).toBytes(),
+                UInt256.valueOf(0x100).toBytes()))
+        .isEqualTo(UInt256.valueOf(0x10).toBytes());
+  }
+
+  private static UInt256 bool(final boolean value) {
+    return value ? UInt256.ONE : UInt256.ZERO;
+  }
+
+  private static void check(
+      final Consumer<LongArrayOperandStack> operation, final BinaryOperator<UInt256> expected) {
+    for (final Bytes32 a : VALUES) {
+      for (final Bytes32 b : VALUES) {
+        assertThat(apply(operation, a, b))
+            .isEqualTo(expected.apply(UInt256.fromBytes(a), UInt256.fromBytes(b)).toBytes());
+      }
+    }
+  }
+
+  private static Bytes32 apply(
+      final Consumer<LongArrayOperandStack> operation, final Bytes32 top, final Bytes32 second) {
+    final LongArrayOperandStack stack = new LongArrayOperandStack(2);
+    stack.push(second);
+    stack.push(top);
+    operation.accept(stack);
+    assertThat(stack.size()).isEqualTo(1);
+    return stack.pop();
+  }
+
+  private static List<Bytes32> values() {
+    final List<Bytes32> values = new ArrayList<>();
+    values.add(Bytes32.ZERO);
+    values.add(UInt256.ONE.toBytes());
+    values.add(UInt256.valueOf(Long.MAX_VALUE).toBytes());
+    values.add(UInt256.valueOf(Long.MAX_VALUE).add(UInt256.ONE).toBytes());
+    values.add(UInt256.MAX_VALUE.toBytes());
+    values.add(Bytes32.fromHexStringLenient("0x100000000000000000000000000000000"));
+    final byte[] signBit = new byte[Bytes32.SIZE];
+    signBit[0] = (byte) 0x80;
+    values.add(Bytes32.wrap(signBit));
+    final Random random = new Random(42);
+    for (int i = 0; i < 24; i++) {
+      final byte[] bytes = new byte[Bytes32.SIZE];
+      random.nextBytes(bytes);
+      // Mix full width values with ones that fit in fewer limbs
+      final int leadingZeros = random.nextInt(Bytes32.SIZE);
+      for (int j = 0; j < leadingZeros; j++) {
+        bytes[j] = 0;
+      }
+      values.add(Bytes32.wrap(bytes));
+    }
+    return values;
+  }
+}
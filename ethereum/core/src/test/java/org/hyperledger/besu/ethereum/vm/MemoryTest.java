@@ -147,6 +147,39 @@ public class MemoryTest {
     assertThat(memory.getWord(UInt256.valueOf(64))).isEqualTo(Bytes32.ZERO);
   }
 
+  @Test
+  public void shouldReadAndWriteAcrossWordBoundaries() {
+    memory.setWord(UInt256.valueOf(20), WORD1);
+    memory.setByte(UInt256.valueOf(100), (byte) 0x7f);
+
+    assertThat(memory.getActiveWords()).isEqualTo(UInt256.valueOf(4));
+    assertThat(memory.getBytes(UInt256.valueOf(20), UInt256.valueOf(32))).isEqualTo(WORD1);
+    assertThat(memory.getBytes(UInt256.valueOf(52), UInt256.valueOf(49)))
+        .isEqualTo(Bytes.concatenate(Bytes.wrap(new byte[48]), Bytes.of(0x7f)));
+  }
+
+  @Test
+  public void shouldNotChangeBytesAlreadyReadWhenMemoryIsWritten() {
+    memory.setWord(UInt256.ZERO, WORD1);
+    final Bytes read = memory.getBytes(UInt256.ZERO, UInt256.valueOf(32));
+
+    memory.setWord(UInt256.ZERO, WORD2);
+
+    assertThat(read).isEqualTo(WORD1);
+  }
+
+  @Test
+  public void shouldCompareActiveMemoryOnly() {
+    final Memory other = new Memory();
+    memory.setWord(UInt256.ZERO, WORD1);
+    other.setWord(UInt256.ZERO, WORD1);
+    assertThat(memory).isEqualTo(other);
+    assertThat(memory.hashCode()).isEqualTo(other.hashCode());
+
+    other.setByte(UInt256.valueOf(32), (byte) 0);
+    assertThat(memory).isNotEqualTo(other);
+  }
+
   private static Bytes32 fillBytes32(final long value) {
     return Bytes32.fromHexString(Strings.repeat(Long.toString(value), 64));
   }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.config.StubGenesisConfigOptions;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.core.TestCodeExecutor;
+import org.hyperledger.besu.ethereum.mainnet.MainnetProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.vm.MessageFrame.State;
+
+import org.junit.Test;
+
+/** Checks that code run without a tracer halts for the same reasons as traced code. */
+public class UntracedExecutionTest {
+
+  private static final ProtocolSchedule<Void> protocolSchedule =
+      MainnetProtocolSchedule.fromConfig(new StubGenesisConfigOptions().istanbulBlock(0));
+
+  private final TestCodeExecutor codeExecutor = new TestCodeExecutor(protocolSchedule);
+
+  @Test
+  public void shouldChargeGasOfEachOperation() {
+    // PUSH1 1, PUSH1 2, ADD, STOP
+    final MessageFrame frame = execute("0x600160020100", 100);
+    assertThat(frame.getState()).isEqualTo(State.COMPLETED_SUCCESS);
+    assertThat(frame.getRemainingGas()).isEqualTo(Gas.of(91));
+  }
+
+  @Test
+  public void shouldHaltOnStackUnderflow() {
+    final MessageFrame frame = execute("0x01", 100);
+    assertThat(frame.getState()).isEqualTo(State.COMPLETED_FAILED);
+    assertThat(frame.getExceptionalHaltReasons())
+        .containsExactly(ExceptionalHaltReason.INSUFFICIENT_STACK_ITEMS);
+  }
+
+  @Test
+  public void shouldHaltOnInsufficientGas() {
+    final MessageFrame frame = execute("0x600160020100", 8);
+    assertThat(frame.getState()).isEqualTo(State.COMPLETED_FAILED);
+    assertThat(frame.getExceptionalHaltReasons())
+        .containsExactly(ExceptionalHaltReason.INSUFFICIENT_GAS);
+  }
+
+  @Test
+  public void shouldHaltOnInvalidJumpDestination() {
+    // PUSH1 3, JUMP
+    final MessageFrame frame = execute("0x600356", 100);
+    assertThat(frame.getState()).isEqualTo(State.COMPLETED_FAILED);
+    assertThat(frame.getExceptionalHaltReasons())
+        .containsExactly(ExceptionalHaltReason.INVALID_JUMP_DESTINATION);
+  }
+
+  @Test
+  public void shouldHaltOnInvalidOperation() {
+    final MessageFrame frame = execute("0xfe", 100);
+    assertThat(frame.getState()).isEqualTo(State.COMPLETED_FAILED);
+    assertThat(frame.getExceptionalHaltReasons())
+        .containsExactly(ExceptionalHaltReason.INVALID_OPERATION);
+  }
+
+  private MessageFrame execute(final String code, final long gasLimit) {
+    return codeExecutor.executeCode(code, Account.DEFAULT_VERSION, gasLimit, account -> {});
+  }
+}
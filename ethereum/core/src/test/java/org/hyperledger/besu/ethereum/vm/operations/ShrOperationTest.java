@@ -14,12 +14,13 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.ethereum.mainnet.SpuriousDragonGasCalculator;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
+import org.hyperledger.besu.ethereum.vm.LongArrayOperandStack;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
 import java.util.Arrays;
@@ -126,11 +127,13 @@ public class ShrOperationTest {
 
   @Test
   public void shiftOperation() {
+    final LongArrayOperandStack stack = new LongArrayOperandStack(2);
+    stack.push(Bytes32.fromHexString(number));
+    stack.push(Bytes32.fromHexStringLenient(shift));
     frame = mock(MessageFrame.class);
-    when(frame.popStackItem())
-        .thenReturn(Bytes32.fromHexStringLenient(shift))
-        .thenReturn(Bytes32.fromHexString(number));
+    when(frame.getOperandStack()).thenReturn(stack);
     operation.execute(frame);
-    verify(frame).pushStackItem(Bytes32.fromHexString(expectedResult));
+    assertThat(stack.size()).isEqualTo(1);
+    assertThat(stack.pop()).isEqualTo(Bytes32.fromHexString(expectedResult));
   }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class CachingWorldStateStorageTest {
+  private final InMemoryKeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+  private final CachingWorldStateStorage storage =
+      new CachingWorldStateStorage(
+          new WorldStateKeyValueStorage(keyValueStorage),
+          new TrieNodeCache(new NoOpMetricsSystem()));
+
+  private final Bytes node = Bytes.fromHexString("0x0123456789");
+  private final Hash nodeHash = Hash.hash(node);
+
+  @Test
+  public void servesCommittedNodeFromCache() {
+    storage.updater().putAccountStateTrieNode(nodeHash, node).commit();
+    removeFromUnderlyingStorage(nodeHash);
+
+    assertThat(storage.getAccountStateTrieNode(nodeHash)).contains(node);
+    assertThat(storage.getAccountStorageTrieNode(nodeHash)).contains(node);
+  }
+
+  @Test
+  public void doesNotCacheRolledBackNode() {
+    final WorldStateStorage.Updater updater = storage.updater();
+    updater.putAccountStorageTrieNode(nodeHash, node);
+    updater.rollback();
+
+    assertThat(storage.getAccountStorageTrieNode(nodeHash)).isEmpty();
+  }
+
+  @Test
+  public void cachesNodeReadFromStorage() {
+    new WorldStateKeyValueStorage(keyValueStorage)
+        .updater()
+        .putAccountStateTrieNode(nodeHash, node)
+        .commit();
+
+    assertThat(storage.getAccountStateTrieNode(nodeHash)).contains(node);
+    removeFromUnderlyingStorage(nodeHash);
+    assertThat(storage.getAccountStateTrieNode(nodeHash)).contains(node);
+  }
+
+  @Test
+  public void removesNodeFromCache() {
+    storage.updater().putAccountStateTrieNode(nodeHash, node).commit();
+    storage.updater().removeAccountStateTrieNode(nodeHash).commit();
+
+    assertThat(storage.getAccountStateTrieNode(nodeHash)).isEmpty();
+  }
+
+  @Test
+  public void clearsCacheWhenPruning() {
+    storage.updater().putAccountStateTrieNode(nodeHash, node).commit();
+    storage.prune(key -> false);
+
+    assertThat(storage.getAccountStateTrieNode(nodeHash)).isEmpty();
+    assertThat(storage.isWorldStateAvailable(nodeHash)).isFalse();
+  }
+
+  @Test
+  public void checksAvailabilityAgainstStorage() {
+    storage.updater().putAccountStateTrieNode(nodeHash, node).commit();
+    removeFromUnderlyingStorage(nodeHash);
+
+    assertThat(storage.isWorldStateAvailable(nodeHash)).isFalse();
+  }
+
+  @Test
+  public void bypassesCacheWhilePruning() {
+    final WorldStateStorage underlying = mock(WorldStateStorage.class);
+    final CachingWorldStateStorage cachingStorage =
+        new CachingWorldStateStorage(underlying, new TrieNodeCache(new NoOpMetricsSystem()));
+    when(underlying.getAccountStateTrieNode(nodeHash))
+        .thenReturn(Optional.of(node))
+        .thenReturn(Optional.empty());
+    assertThat(cachingStorage.getAccountStateTrieNode(nodeHash)).contains(node);
+    final List<Optional<Bytes>> readsWhilePruning = new ArrayList<>();
+    when(underlying.prune(any()))
+        .thenAnswer(
+            invocation -> {
+              // The node has been pruned from storage
+              readsWhilePruning.add(cachingStorage.getAccountStateTrieNode(nodeHash));
+              return 1L;
+            });
+
+    cachingStorage.prune(key -> false);
+
+    assertThat(readsWhilePruning).containsExactly(Optional.empty());
+  }
+
+  private void removeFromUnderlyingStorage(final Hash hash) {
+    new WorldStateKeyValueStorage(keyValueStorage)
+        .updater()
+        .removeAccountStateTrieNode(hash)
+        .commit();
+  }
+}
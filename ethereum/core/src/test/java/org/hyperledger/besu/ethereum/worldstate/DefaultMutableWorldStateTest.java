@@ -15,6 +15,7 @@
 package org.hyperledger.besu.ethereum.worldstate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.hyperledger.besu.ethereum.core.InMemoryStorageProvider.createInMemoryWorldState;
 
 import org.hyperledger.besu.ethereum.core.Account;
@@ -30,6 +31,7 @@ import org.hyperledger.besu.ethereum.core.WorldUpdater;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
@@ -285,6 +287,33 @@ public class DefaultMutableWorldStateTest {
     assertThat(newWorldState.get(ADDRESS).getBalance()).isEqualTo(newBalance);
   }
 
+  @Test
+  public void prefetchLoadsAccountAndStorageIntoCache() {
+    final KeyValueStorage storage = new InMemoryKeyValueStorage();
+    final MutableWorldState worldState = createEmpty(new WorldStateKeyValueStorage(storage));
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.createAccount(ADDRESS).getMutable();
+    account.setBalance(Wei.of(100000));
+    account.setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    updater.commit();
+    worldState.persist();
+
+    final CachingWorldStateStorage cachingStorage =
+        new CachingWorldStateStorage(
+            new WorldStateKeyValueStorage(storage), new TrieNodeCache(new NoOpMetricsSystem()));
+    final WorldStatePreimageKeyValueStorage preimageStorage =
+        new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage());
+    new DefaultMutableWorldState(worldState.rootHash(), cachingStorage, preimageStorage)
+        .prefetch(ADDRESS, List.of(UInt256.ONE));
+    storage.clear();
+
+    final MutableWorldState prefetchedWorldState =
+        new DefaultMutableWorldState(worldState.rootHash(), cachingStorage, preimageStorage);
+    assertThat(prefetchedWorldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100000));
+    assertThat(prefetchedWorldState.get(ADDRESS).getStorageValue(UInt256.ONE))
+        .isEqualTo(UInt256.valueOf(2));
+  }
+
   @Test
   public void getAccountNonce_AccountExists() {
     final MutableWorldState worldState = createEmpty();
@@ -677,4 +706,62 @@ public class DefaultMutableWorldStateTest {
     worldState.persist();
     assertThat(worldState.get(ADDRESS).storageEntriesFrom(Hash.ZERO, 10)).isEqualTo(finalEntries);
   }
+
+  @Test
+  public void damlBlobs_visibleThroughUpdatersAndPersisted() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final MutableWorldState worldState = createEmpty(storage);
+    final Bytes blob = Bytes.fromHexString("0xdeadbeef");
+
+    final WorldUpdater updater = worldState.updater();
+    final WorldUpdater stacked = updater.updater();
+    final Hash blobHash = stacked.putDamlBlob(blob);
+    assertThat(blobHash).isEqualTo(Hash.hash(blob));
+    assertThat(stacked.getDamlBlob(blobHash)).contains(blob);
+    assertThat(updater.getDamlBlob(blobHash)).isEmpty();
+
+    stacked.commit();
+    assertThat(updater.getDamlBlob(blobHash)).contains(blob);
+    assertThat(worldState.getDamlBlob(blobHash)).isEmpty();
+
+    updater.commit();
+    assertThat(worldState.getDamlBlob(blobHash)).contains(blob);
+    assertThat(storage.getDamlBlob(blobHash)).isEmpty();
+
+    worldState.persist();
+    assertThat(storage.getDamlBlob(blobHash)).contains(blob);
+  }
+
+  @Test
+  public void damlBlobs_discardedOnRevert() {
+    final MutableWorldState worldState = createEmpty();
+    final Bytes blob = Bytes.fromHexString("0xdeadbeef");
+
+    final WorldUpdater updater = worldState.updater();
+    final Hash blobHash = updater.putDamlBlob(blob);
+    updater.revert();
+    updater.commit();
+
+    assertThat(worldState.getDamlBlob(blobHash)).isEmpty();
+  }
+
+  @Test
+  public void damlBlobs_batchReadMergesPendingAndPersisted() {
+    final MutableWorldState worldState = createEmpty();
+    final Bytes persistedBlob = Bytes.fromHexString("0xdeadbeef");
+    final Bytes pendingBlob = Bytes.fromHexString("0xfeedface");
+
+    final WorldUpdater setup = worldState.updater();
+    final Hash persistedHash = setup.putDamlBlob(persistedBlob);
+    setup.commit();
+    worldState.persist();
+
+    final WorldUpdater updater = worldState.updater();
+    final Hash pendingHash = updater.putDamlBlob(pendingBlob);
+    final Hash unknownHash = Hash.hash(Bytes.of(1));
+
+    assertThat(updater.getDamlBlobs(List.of(persistedHash, pendingHash, unknownHash)))
+        .containsOnly(entry(persistedHash, persistedBlob), entry(pendingHash, pendingBlob));
+  }
 }
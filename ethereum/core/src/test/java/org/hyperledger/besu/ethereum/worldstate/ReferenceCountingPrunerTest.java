@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.ethereum.core.InMemoryStorageProvider.createInMemoryBlockchain;
+
+import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator.BlockOptions;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.NodeLoader;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Test;
+
+public class ReferenceCountingPrunerTest {
+
+  private static final int BLOCKS_RETAINED = 5;
+  private static final int ACCOUNTS_PER_BLOCK = 10;
+
+  private final BlockDataGenerator gen = new BlockDataGenerator();
+  private final NoOpMetricsSystem metricsSystem = new NoOpMetricsSystem();
+  private final Map<Bytes, byte[]> hashValueStore = new HashMap<>();
+  private final InMemoryKeyValueStorage stateStorage = new TestInMemoryStorage(hashValueStore);
+  private final WorldStateStorage worldStateStorage = new WorldStateKeyValueStorage(stateStorage);
+  private final WorldStateArchive worldStateArchive =
+      new WorldStateArchive(
+          worldStateStorage, new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage()));
+  private final InMemoryKeyValueStorage referenceStorage = new InMemoryKeyValueStorage();
+  private final MutableBlockchain blockchain = createInMemoryBlockchain(gen.genesisBlock());
+
+  @Test
+  public void removesStatesOutsideRetentionWindow() {
+    final ReferenceCountingPruner pruner = createPruner();
+    pruner.start();
+
+    generateBlockchainData(15);
+
+    for (long blockNumber = 1; blockNumber <= 15 - BLOCKS_RETAINED; blockNumber++) {
+      assertThat(worldStateArchive.get(stateRoot(blockNumber))).isEmpty();
+    }
+    for (long blockNumber = 16 - BLOCKS_RETAINED; blockNumber <= 15; blockNumber++) {
+      assertStateComplete(blockNumber);
+    }
+    assertOnlyRetainedStatesStored(16 - BLOCKS_RETAINED, 15);
+  }
+
+  @Test
+  public void countsChainHeadStateWrittenBeforeCreation() {
+    generateBlockchainData(5);
+
+    final ReferenceCountingPruner pruner = createPruner();
+    pruner.start();
+    generateBlockchainData(10);
+
+    for (long blockNumber = 5; blockNumber <= 15 - BLOCKS_RETAINED; blockNumber++) {
+      assertThat(worldStateArchive.get(stateRoot(blockNumber))).isEmpty();
+    }
+    for (long blockNumber = 16 - BLOCKS_RETAINED; blockNumber <= 15; blockNumber++) {
+      assertStateComplete(blockNumber);
+    }
+  }
+
+  @Test
+  public void resumesFromStoredReferencesAfterRestart() throws InterruptedException {
+    final ReferenceCountingPruner pruner = createPruner();
+    pruner.start();
+    generateBlockchainData(8);
+    pruner.stop();
+    pruner.awaitStop();
+
+    final ReferenceCountingPruner restartedPruner = createPruner();
+    restartedPruner.start();
+    generateBlockchainData(7);
+
+    for (long blockNumber = 1; blockNumber <= 15 - BLOCKS_RETAINED; blockNumber++) {
+      assertThat(worldStateArchive.get(stateRoot(blockNumber))).isEmpty();
+    }
+    assertOnlyRetainedStatesStored(16 - BLOCKS_RETAINED, 15);
+  }
+
+  private ReferenceCountingPruner createPruner() {
+    return new ReferenceCountingPruner(
+        worldStateStorage,
+        blockchain,
+        referenceStorage,
+        metricsSystem,
+        new PrunerConfiguration(0, BLOCKS_RETAINED, PrunerConfiguration.Mode.REFERENCE_COUNTING),
+        2,
+        MoreExecutors::newDirectExecutorService);
+  }
+
+  private void generateBlockchainData(final int numBlocks) {
+    Block parentBlock = blockchain.getChainHeadBlock();
+    for (int i = 0; i < numBlocks; i++) {
+      final MutableWorldState worldState =
+          worldStateArchive.getMutable(parentBlock.getHeader().getStateRoot()).get();
+      gen.createRandomContractAccountsWithNonEmptyStorage(worldState, ACCOUNTS_PER_BLOCK);
+      final Block block =
+          gen.block(
+              BlockOptions.create()
+                  .setStateRoot(worldState.rootHash())
+                  .setBlockNumber(parentBlock.getHeader().getNumber() + 1L)
+                  .setParentHash(parentBlock.getHash()));
+      blockchain.appendBlock(block, gen.receipts(block));
+      parentBlock = block;
+    }
+  }
+
+  private Hash stateRoot(final long blockNumber) {
+    return blockchain.getBlockHeader(blockNumber).get().getStateRoot();
+  }
+
+  private void assertStateComplete(final long blockNumber) {
+    final WorldState state = worldStateArchive.get(stateRoot(blockNumber)).get();
+    final long expectedAccounts = ACCOUNTS_PER_BLOCK * blockNumber;
+    assertThat(state.streamAccounts(Bytes32.ZERO, (int) expectedAccounts * 2).count())
+        .isEqualTo(expectedAccounts);
+    state
+        .streamAccounts(Bytes32.ZERO, (int) expectedAccounts * 2)
+        .forEach(
+            account -> {
+              assertThat(account.getCode().isEmpty()).isFalse();
+              account.storageEntriesFrom(Bytes32.ZERO, 1000);
+            });
+  }
+
+  private void assertOnlyRetainedStatesStored(final long fromBlock, final long toBlock) {
+    final Set<Bytes> expectedNodes = new HashSet<>();
+    for (long blockNumber = fromBlock; blockNumber <= toBlock; blockNumber++) {
+      collectWorldStateNodes(stateRoot(blockNumber), expectedNodes);
+    }
+    assertThat(hashValueStore.values())
+        .containsExactlyInAnyOrderElementsOf(
+            expectedNodes.stream().map(Bytes::toArrayUnsafe).collect(Collectors.toSet()));
+  }
+
+  private void collectWorldStateNodes(final Hash stateRootHash, final Set<Bytes> collector) {
+    final MerklePatriciaTrie<Bytes32, Bytes> stateTrie =
+        createTrie(worldStateStorage::getAccountStateTrieNode, stateRootHash);
+    collectTrieNodes(stateTrie, collector);
+    stateTrie
+        .entriesFrom(Bytes32.ZERO, 1000)
+        .values()
+        .forEach(
+            value -> {
+              final StateTrieAccountValue account =
+                  StateTrieAccountValue.readFrom(RLP.input(value));
+              worldStateStorage.getCode(account.getCodeHash()).ifPresent(collector::add);
+              final Hash storageRoot = account.getStorageRoot();
+              collectTrieNodes(
+                  createTrie(worldStateStorage::getAccountStorageTrieNode, storageRoot), collector);
+            });
+  }
+
+  private void collectTrieNodes(
+      final MerklePatriciaTrie<Bytes32, Bytes> trie, final Set<Bytes> collector) {
+    final Bytes32 rootHash = trie.getRootHash();
+    trie.visitAll(
+        node -> {
+          if (node.isReferencedByHash() || node.getHash().equals(rootHash)) {
+            collector.add(node.getRlp());
+          }
+        });
+  }
+
+  private MerklePatriciaTrie<Bytes32, Bytes> createTrie(
+      final NodeLoader nodeLoader, final Bytes32 rootHash) {
+    return new StoredMerklePatriciaTrie<>(
+        nodeLoader, rootHash, Function.identity(), Function.identity());
+  }
+
+  // Proxy class so that we have access to the constructor that takes our own map
+  private static class TestInMemoryStorage extends InMemoryKeyValueStorage {
+
+    public TestInMemoryStorage(final Map<Bytes, byte[]> hashValueStore) {
+      super(hashValueStore);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class WorldStateSnapshotTest {
+  private static final Address ADDRESS =
+      Address.fromHexString("0xa94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+  private static final Hash ADDRESS_HASH = Hash.hash(ADDRESS);
+  private static final UInt256 SLOT = UInt256.ONE;
+  private static final Hash SLOT_HASH = Hash.hash(SLOT.toBytes());
+  private static final Supplier<Optional<Bytes>> NO_FALLBACK =
+      () -> {
+        throw new AssertionError("Read was not served by the snapshot");
+      };
+
+  private final WorldStateKeyValueStorage worldStateStorage =
+      new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+  private final WorldStatePreimageKeyValueStorage preimageStorage =
+      new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage());
+  private final WorldStateSnapshot snapshot = newSnapshot(new InMemoryKeyValueStorage());
+
+  private WorldStateSnapshot newSnapshot(final InMemoryKeyValueStorage storage) {
+    // Generate in small batches, on the calling thread
+    return new WorldStateSnapshot(
+        storage, worldStateStorage, WorldStateSnapshot.DEFAULT_MAX_UNDO_DEPTH, 2, Runnable::run);
+  }
+
+  private MutableWorldState worldStateAt(final Bytes32 rootHash) {
+    return new DefaultMutableWorldState(rootHash, worldStateStorage, preimageStorage, snapshot);
+  }
+
+  private Hash persistAccount(final Bytes32 parentRootHash, final long balance, final long value) {
+    final MutableWorldState worldState = worldStateAt(parentRootHash);
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.getOrCreate(ADDRESS).getMutable();
+    account.setBalance(Wei.of(balance));
+    account.setStorageValue(SLOT, UInt256.valueOf(value));
+    updater.commit();
+    worldState.persist();
+    return worldState.rootHash();
+  }
+
+  @Test
+  public void servesReadsOfPersistedState() {
+    final Hash rootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+
+    assertThat(snapshot.getRootHash()).isEqualTo(rootHash);
+    assertThat(snapshot.getAccount(rootHash, ADDRESS_HASH, NO_FALLBACK)).isPresent();
+    assertThat(snapshot.getStorageValue(rootHash, ADDRESS_HASH, SLOT_HASH, NO_FALLBACK))
+        .isPresent();
+
+    final MutableWorldState worldState = worldStateAt(rootHash);
+    assertThat(worldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100));
+    assertThat(worldState.get(ADDRESS).getStorageValue(SLOT)).isEqualTo(UInt256.valueOf(5));
+  }
+
+  @Test
+  public void defersToTriesForOtherStates() {
+    final Hash firstRootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+    persistAccount(firstRootHash, 200, 6);
+
+    final MutableWorldState worldState = worldStateAt(firstRootHash);
+    assertThat(worldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100));
+    assertThat(worldState.get(ADDRESS).getStorageValue(SLOT)).isEqualTo(UInt256.valueOf(5));
+  }
+
+  @Test
+  public void removesStorageOfDeletedAccount() {
+    final Hash firstRootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+
+    final MutableWorldState worldState = worldStateAt(firstRootHash);
+    WorldUpdater updater = worldState.updater();
+    updater.deleteAccount(ADDRESS);
+    updater.commit();
+    updater = worldState.updater();
+    updater.createAccount(ADDRESS).getMutable().setBalance(Wei.of(1));
+    updater.commit();
+    worldState.persist();
+
+    final Hash rootHash = worldState.rootHash();
+    assertThat(snapshot.getRootHash()).isEqualTo(rootHash);
+    assertThat(snapshot.getStorageValue(rootHash, ADDRESS_HASH, SLOT_HASH, NO_FALLBACK)).isEmpty();
+    assertThat(worldStateAt(rootHash).get(ADDRESS).getStorageValue(SLOT)).isEqualTo(UInt256.ZERO);
+  }
+
+  @Test
+  public void restoresStorageOfDeletedAccountWhenMovingBack() {
+    final Hash firstRootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+    final MutableWorldState worldState = worldStateAt(firstRootHash);
+    final WorldUpdater updater = worldState.updater();
+    updater.deleteAccount(ADDRESS);
+    updater.commit();
+    worldState.persist();
+
+    final boolean moved = snapshot.updater().commit(firstRootHash, firstRootHash);
+
+    assertThat(moved).isTrue();
+    assertThat(snapshot.getRootHash()).isEqualTo(firstRootHash);
+    assertThat(
+            snapshot
+                .getStorageValue(firstRootHash, ADDRESS_HASH, SLOT_HASH, NO_FALLBACK)
+                .map(value -> RLP.input(value).readUInt256Scalar()))
+        .contains(UInt256.valueOf(5));
+  }
+
+  @Test
+  public void movesBackToEarlierState() {
+    final Hash parentRootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+    persistAccount(parentRootHash, 200, 6);
+    final Hash siblingRootHash = persistAccount(parentRootHash, 300, 7);
+
+    assertThat(snapshot.getRootHash()).isEqualTo(siblingRootHash);
+    final MutableWorldState worldState = worldStateAt(siblingRootHash);
+    assertThat(worldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(300));
+    assertThat(worldState.get(ADDRESS).getStorageValue(SLOT)).isEqualTo(UInt256.valueOf(7));
+  }
+
+  @Test
+  public void regeneratesWhenEarlierStateIsUnknown() {
+    final Hash rootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+
+    final boolean moved =
+        snapshot.updater().removeAccount(ADDRESS_HASH).commit(Hash.ZERO, rootHash);
+
+    assertThat(moved).isFalse();
+    assertThat(snapshot.isGenerated()).isTrue();
+    assertThat(snapshot.getRootHash()).isEqualTo(rootHash);
+    assertThat(snapshot.getAccount(rootHash, ADDRESS_HASH, NO_FALLBACK)).isPresent();
+    assertThat(snapshot.getStorageValue(rootHash, ADDRESS_HASH, SLOT_HASH, NO_FALLBACK))
+        .isPresent();
+  }
+
+  @Test
+  public void keepsStateItAlreadyHolds() {
+    final Hash parentRootHash = persistAccount(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, 100, 5);
+    final Hash rootHash = persistAccount(parentRootHash, 200, 6);
+    final Optional<Bytes> account = snapshot.getAccount(rootHash, ADDRESS_HASH, NO_FALLBACK);
+
+    final boolean moved =
+        snapshot
+            .updater()
+            .putAccount(ADDRESS_HASH, Bytes.of(1))
+            .commit(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, rootHash);
+
+    assertThat(moved).isTrue();
+    assertThat(snapshot.getAccount(rootHash, ADDRESS_HASH, NO_FALLBACK)).isEqualTo(account);
+    // The updates that can be undone are kept
+    final Hash siblingRootHash = persistAccount(parentRootHash, 300, 7);
+    assertThat(snapshot.getRootHash()).isEqualTo(siblingRootHash);
+    assertThat(worldStateAt(siblingRootHash).get(ADDRESS).getBalance()).isEqualTo(Wei.of(300));
+  }
+
+  @Test
+  public void generatesSnapshotOfExistingState() {
+    final Address otherAddress =
+        Address.fromHexString("0x0000000000000000000000000000000000000001");
+    final MutableWorldState worldState =
+        new DefaultMutableWorldState(
+            MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, worldStateStorage, preimageStorage);
+    final WorldUpdater updater = worldState.updater();
+    for (final Address address : new Address[] {ADDRESS, otherAddress}) {
+      final MutableAccount account = updater.getOrCreate(address).getMutable();
+      account.setBalance(Wei.of(100));
+      for (int slot = 1; slot <= 3; slot++) {
+        account.setStorageValue(UInt256.valueOf(slot), UInt256.valueOf(slot * 10));
+      }
+    }
+    updater.commit();
+    worldState.persist();
+    final Hash rootHash = worldState.rootHash();
+    // Left over from an earlier state, and not part of the generated one
+    final InMemoryKeyValueStorage storage = new InMemoryKeyValueStorage();
+    final Hash staleAccountHash = Hash.hash(Bytes.of(1));
+    newSnapshot(storage)
+        .updater()
+        .putAccount(staleAccountHash, Bytes.of(1))
+        .commit(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, Hash.EMPTY);
+
+    final WorldStateSnapshot generated = newSnapshot(storage);
+    generated.generate(rootHash);
+
+    assertThat(generated.isGenerated()).isTrue();
+    assertThat(generated.getRootHash()).isEqualTo(rootHash);
+    assertThat(generated.getAccount(rootHash, staleAccountHash, NO_FALLBACK)).isEmpty();
+    for (final Address address : new Address[] {ADDRESS, otherAddress}) {
+      final Hash addressHash = Hash.hash(address);
+      assertThat(generated.getAccount(rootHash, addressHash, NO_FALLBACK)).isPresent();
+      for (int slot = 1; slot <= 3; slot++) {
+        final Hash slotHash = Hash.hash(UInt256.valueOf(slot).toBytes());
+        assertThat(
+                generated
+                    .getStorageValue(rootHash, addressHash, slotHash, NO_FALLBACK)
+                    .map(value -> RLP.input(value).readUInt256Scalar()))
+            .contains(UInt256.valueOf(slot * 10));
+      }
+    }
+  }
+
+  @Test
+  public void readsRootHashFromStorage() {
+    final InMemoryKeyValueStorage storage = new InMemoryKeyValueStorage();
+    newSnapshot(storage)
+        .updater()
+        .putAccount(ADDRESS_HASH, Bytes.of(1))
+        .commit(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, Hash.EMPTY);
+
+    assertThat(newSnapshot(storage).getRootHash()).isEqualTo(Hash.EMPTY);
+  }
+}
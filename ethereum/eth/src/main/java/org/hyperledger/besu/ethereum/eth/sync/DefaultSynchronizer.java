@@ -27,7 +27,7 @@ import org.hyperledger.besu.ethereum.eth.sync.fullsync.FullSyncDownloader;
 import org.hyperledger.besu.ethereum.eth.sync.state.PendingBlocks;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
-import org.hyperledger.besu.ethereum.worldstate.Pruner;
+import org.hyperledger.besu.ethereum.worldstate.WorldStatePruner;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.plugin.data.SyncStatus;
@@ -47,7 +47,7 @@ public class DefaultSynchronizer<C> implements Synchronizer {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private final Optional<Pruner> maybePruner;
+  private final Optional<WorldStatePruner> maybePruner;
   private final SyncState syncState;
   private final AtomicBoolean running = new AtomicBoolean(false);
   private final BlockPropagationManager<C> blockPropagationManager;
@@ -60,7 +60,7 @@ public class DefaultSynchronizer<C> implements Synchronizer {
       final ProtocolContext<C> protocolContext,
       final WorldStateStorage worldStateStorage,
       final BlockBroadcaster blockBroadcaster,
-      final Optional<Pruner> maybePruner,
+      final Optional<WorldStatePruner> maybePruner,
       final EthContext ethContext,
       final SyncState syncState,
       final Path dataDirectory,
@@ -141,7 +141,7 @@ public class DefaultSynchronizer<C> implements Synchronizer {
       LOG.info("Stopping synchronizer");
       fastSyncDownloader.ifPresent(FastSyncDownloader::stop);
       fullSyncDownloader.stop();
-      maybePruner.ifPresent(Pruner::stop);
+      maybePruner.ifPresent(WorldStatePruner::stop);
     }
   }
 
@@ -175,7 +175,7 @@ public class DefaultSynchronizer<C> implements Synchronizer {
   }
 
   private void startFullSync() {
-    maybePruner.ifPresent(Pruner::start);
+    maybePruner.ifPresent(WorldStatePruner::start);
     fullSyncDownloader.start();
   }
 
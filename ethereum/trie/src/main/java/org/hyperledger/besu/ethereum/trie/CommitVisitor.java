@@ -66,7 +66,7 @@ class CommitVisitor<V> implements NodeVisitor<V> {
   @Override
   public void visit(final NullNode<V> nullNode) {}
 
-  private void maybeStoreNode(final Node<V> node) {
+  void maybeStoreNode(final Node<V> node) {
     final Bytes nodeRLP = node.getRlp();
     if (nodeRLP.size() >= 32) {
       this.nodeUpdater.store(node.getHash(), nodeRLP);
@@ -77,6 +77,17 @@ public interface MerklePatriciaTrie<K, V> {
    */
   void commit(NodeUpdater nodeUpdater);
 
+  /**
+   * Commits any pending changes to the underlying storage, encoding and hashing independent
+   * subtries concurrently.
+   *
+   * @param nodeUpdater used to store the node values, which must be safe to call from several
+   *     threads
+   */
+  default void commitConcurrently(final NodeUpdater nodeUpdater) {
+    commit(nodeUpdater);
+  }
+
   /**
    * Retrieve up to {@code limit} storage entries beginning from the first entry with hash equal to
    * or greater than {@code startKeyHash}.
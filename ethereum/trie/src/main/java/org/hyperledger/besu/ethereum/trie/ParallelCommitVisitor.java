@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A {@link CommitVisitor} that commits the subtries below the topmost branch node concurrently, on
+ * the fork-join pool of the calling thread or on the common pool.
+ *
+ * <p>The subtries below a branch node share no nodes, so they can be encoded and hashed
+ * independently. The branch node itself is stored once all of them have been committed. The node
+ * updater must be safe to call from several threads.
+ */
+class ParallelCommitVisitor<V> extends CommitVisitor<V> {
+
+  private final CommitVisitor<V> subtrieVisitor;
+
+  public ParallelCommitVisitor(final NodeUpdater nodeUpdater) {
+    super(nodeUpdater);
+    this.subtrieVisitor = new CommitVisitor<>(nodeUpdater);
+  }
+
+  @Override
+  public void visit(final BranchNode<V> branchNode) {
+    if (!branchNode.isDirty()) {
+      return;
+    }
+
+    final List<ForkJoinTask<?>> subtrieCommits = new ArrayList<>(BranchNode.RADIX);
+    for (byte i = 0; i < BranchNode.RADIX; ++i) {
+      final Node<V> child = branchNode.child(i);
+      if (child.isDirty()) {
+        subtrieCommits.add(ForkJoinTask.adapt(() -> child.accept(subtrieVisitor)).fork());
+      }
+    }
+    subtrieCommits.forEach(ForkJoinTask::join);
+
+    maybeStoreNode(branchNode);
+  }
+}
@@ -105,7 +105,15 @@ public class StoredMerklePatriciaTrie<K extends Bytes, V> implements MerklePatri
 
   @Override
   public void commit(final NodeUpdater nodeUpdater) {
-    final CommitVisitor<V> commitVisitor = new CommitVisitor<>(nodeUpdater);
+    commit(nodeUpdater, new CommitVisitor<>(nodeUpdater));
+  }
+
+  @Override
+  public void commitConcurrently(final NodeUpdater nodeUpdater) {
+    commit(nodeUpdater, new ParallelCommitVisitor<>(nodeUpdater));
+  }
+
+  private void commit(final NodeUpdater nodeUpdater, final CommitVisitor<V> commitVisitor) {
     root.accept(commitVisitor);
     // Make sure root node was stored
     if (root.isDirty() && root.getRlpRef().size() < 32) {
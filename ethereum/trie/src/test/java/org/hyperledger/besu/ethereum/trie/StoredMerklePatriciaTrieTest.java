@@ -15,12 +15,16 @@
 package org.hyperledger.besu.ethereum.trie;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.crypto.Hash.keccak256;
 
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -120,4 +124,22 @@ public class StoredMerklePatriciaTrieTest extends AbstractMerklePatriciaTrieTest
     assertThat(trie.get(key2)).isEqualTo(Optional.of("value2"));
     assertThat(trie.get(key3)).isEqualTo(Optional.of("value3"));
   }
+
+  @Test
+  public void commitConcurrentlyStoresSameNodesAsCommit() {
+    final MerklePatriciaTrie<Bytes, String> otherTrie = createTrie();
+    for (int i = 0; i < 1000; i++) {
+      final Bytes key = keccak256(Bytes.ofUnsignedInt(i));
+      trie.put(key, "value" + i);
+      otherTrie.put(key, "value" + i);
+    }
+
+    final Map<Bytes32, Bytes> nodes = new HashMap<>();
+    trie.commit(nodes::put);
+    final Map<Bytes32, Bytes> concurrentlyCommittedNodes = new ConcurrentHashMap<>();
+    otherTrie.commitConcurrently(concurrentlyCommittedNodes::put);
+
+    assertThat(otherTrie.getRootHash()).isEqualTo(trie.getRootHash());
+    assertThat(concurrentlyCommittedNodes).isEqualTo(nodes);
+  }
 }
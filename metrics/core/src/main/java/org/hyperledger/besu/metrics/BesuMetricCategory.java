@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableSet;
 
 public enum BesuMetricCategory implements MetricCategory {
   BLOCKCHAIN("blockchain"),
+  DAML("daml"),
   ETHEREUM("ethereum", false),
   EXECUTORS("executors"),
   NETWORK("network"),
@@ -36,7 +37,8 @@ public enum BesuMetricCategory implements MetricCategory {
   PRUNER("pruner"),
   RPC("rpc"),
   SYNCHRONIZER("synchronizer"),
-  TRANSACTION_POOL("transaction_pool");
+  TRANSACTION_POOL("transaction_pool"),
+  WORLD_STATE("world_state");
 
   private static final Optional<String> BESU_PREFIX = Optional.of("besu_");
   public static final Set<MetricCategory> DEFAULT_METRIC_CATEGORIES;
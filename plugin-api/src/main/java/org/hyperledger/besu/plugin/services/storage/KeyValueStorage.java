@@ -18,9 +18,14 @@ import org.hyperledger.besu.plugin.Unstable;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 
 import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Responsible for storing values against keys.
@@ -60,6 +65,42 @@ public interface KeyValueStorage extends Closeable {
    */
   Optional<byte[]> get(byte[] key) throws StorageException;
 
+  /**
+   * Retrieves the values associated with a batch of keys, in a single request where the storage
+   * supports it.
+   *
+   * @param keys whose associated values are being retrieved.
+   * @return for each of the keys, in the same order, an {@link Optional} containing the value
+   *     associated with that key, otherwise empty.
+   * @throws StorageException problem encountered during the retrieval attempt.
+   */
+  default List<Optional<byte[]>> getMultiple(final List<byte[]> keys) throws StorageException {
+    return keys.stream().map(this::get).collect(Collectors.toList());
+  }
+
+  /**
+   * Streams the entries whose keys fall within a range, in ascending order of their keys compared
+   * as unsigned bytes.
+   *
+   * <p>Entries are read as the stream is consumed, so the stream must be closed to release the
+   * resources held by the storage.
+   *
+   * @param startKey the first key of the range, inclusive.
+   * @param endKey the last key of the range, exclusive.
+   * @return a stream of the key-value pairs in the range.
+   * @throws StorageException problem encountered during the retrieval attempt.
+   */
+  default Stream<Map.Entry<byte[], byte[]>> iterateRange(final byte[] startKey, final byte[] endKey)
+      throws StorageException {
+    return getAllKeysThat(
+            key ->
+                Arrays.compareUnsigned(key, startKey) >= 0
+                    && Arrays.compareUnsigned(key, endKey) < 0)
+        .stream()
+        .sorted(Arrays::compareUnsigned)
+        .flatMap(key -> get(key).map(value -> Map.entry(key, value)).stream());
+  }
+
   /**
    * Performs an evaluation against each key in the store, keeping the entries that pass, removing
    * those that fail.
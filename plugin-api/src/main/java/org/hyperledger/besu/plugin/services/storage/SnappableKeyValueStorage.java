@@ -0,0 +1,36 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage;
+
+import org.hyperledger.besu.plugin.Unstable;
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+
+/** Key-value storage that can pin a consistent, read-only view of its contents. */
+@Unstable
+public interface SnappableKeyValueStorage extends KeyValueStorage {
+
+  /**
+   * Takes a snapshot of the storage as it is now.
+   *
+   * <p>Reads through the snapshot are unaffected by any transaction committed after it was taken,
+   * so a series of reads observes a single consistent state even while the storage is being
+   * written to. The snapshot holds on to resources of the storage and must be closed once done
+   * with.
+   *
+   * @return the read-only view of the storage.
+   * @throws StorageException problem encountered when taking the snapshot.
+   */
+  SnappedKeyValueStorage takeSnapshot() throws StorageException;
+}
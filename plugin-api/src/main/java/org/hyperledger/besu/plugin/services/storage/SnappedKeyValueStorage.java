@@ -0,0 +1,32 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage;
+
+import org.hyperledger.besu.plugin.Unstable;
+
+/**
+ * A read-only view of a key-value storage, pinned at the time it was taken.
+ *
+ * <p>Every operation that would modify the storage, i.e. {@link #clear()}, {@link
+ * #removeAllKeysUnless(java.util.function.Predicate)} and {@link #startTransaction()}, throws
+ * {@link UnsupportedOperationException}. Closing the snapshot releases it, without closing the
+ * storage it was taken from.
+ */
+@Unstable
+public interface SnappedKeyValueStorage extends KeyValueStorage {
+
+  @Override
+  void close();
+}
@@ -15,6 +15,7 @@
 package org.hyperledger.besu.plugin.services.storage.rocksdb;
 
 import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 
 public class RocksDBMetrics {
@@ -24,18 +25,27 @@ public class RocksDBMetrics {
   private final OperationTimer writeLatency;
   private final OperationTimer commitLatency;
   private final Counter rollbackCount;
+  private final String label;
+  private final LabelledMetric<OperationTimer> segmentReadLatency;
+  private final LabelledMetric<Counter> segmentReadCount;
 
   public RocksDBMetrics(
       final OperationTimer readLatency,
       final OperationTimer removeLatency,
       final OperationTimer writeLatency,
       final OperationTimer commitLatency,
-      final Counter rollbackCount) {
+      final Counter rollbackCount,
+      final String label,
+      final LabelledMetric<OperationTimer> segmentReadLatency,
+      final LabelledMetric<Counter> segmentReadCount) {
     this.readLatency = readLatency;
     this.removeLatency = removeLatency;
     this.writeLatency = writeLatency;
     this.commitLatency = commitLatency;
     this.rollbackCount = rollbackCount;
+    this.label = label;
+    this.segmentReadLatency = segmentReadLatency;
+    this.segmentReadCount = segmentReadCount;
   }
 
   public OperationTimer getReadLatency() {
@@ -57,4 +67,45 @@ public class RocksDBMetrics {
   public Counter getRollbackCount() {
     return rollbackCount;
   }
+
+  /**
+   * @param segmentName the name of a storage segment
+   * @return the metrics of the reads from the segment
+   */
+  public SegmentMetrics createSegmentMetrics(final String segmentName) {
+    return new SegmentMetrics(
+        segmentReadLatency.labels(label, segmentName),
+        segmentReadCount.labels(label, segmentName, "found"),
+        segmentReadCount.labels(label, segmentName, "not_found"));
+  }
+
+  /**
+   * The reads from a single segment. Reads served from the block cache are an order of magnitude
+   * faster than those going to disk, so the latency distribution of a segment shows how well its
+   * profile suits it, and the share of keys not found shows how much its bloom filters matter.
+   */
+  public static class SegmentMetrics {
+    private final OperationTimer readLatency;
+    private final Counter foundCount;
+    private final Counter notFoundCount;
+
+    private SegmentMetrics(
+        final OperationTimer readLatency, final Counter foundCount, final Counter notFoundCount) {
+      this.readLatency = readLatency;
+      this.foundCount = foundCount;
+      this.notFoundCount = notFoundCount;
+    }
+
+    public OperationTimer getReadLatency() {
+      return readLatency;
+    }
+
+    public void recordRead(final boolean found) {
+      if (found) {
+        foundCount.inc();
+      } else {
+        notFoundCount.inc();
+      }
+    }
+  }
 }
@@ -19,6 +19,7 @@ import org.hyperledger.besu.metrics.prometheus.PrometheusMetricsSystem;
 import org.hyperledger.besu.metrics.rocksdb.RocksDBStats;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
 import org.hyperledger.besu.plugin.services.metrics.MetricCategory;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfiguration;
@@ -129,7 +130,30 @@ public class RocksDBMetricsFactory {
                 "database")
             .labels(rocksDbConfiguration.getLabel());
 
+    final LabelledMetric<OperationTimer> segmentReadLatency =
+        metricsSystem.createLabelledTimer(
+            rocksDbMetricCategory,
+            "segment_read_latency_seconds",
+            "Latency for reads from a segment of RocksDB.",
+            "database",
+            "segment");
+    final LabelledMetric<Counter> segmentReadCount =
+        metricsSystem.createLabelledCounter(
+            rocksDbMetricCategory,
+            "segment_read_count",
+            "Number of reads from a segment of RocksDB, by whether the key was found.",
+            "database",
+            "segment",
+            "result");
+
     return new RocksDBMetrics(
-        readLatency, removeLatency, writeLatency, commitLatency, rollbackCount);
+        readLatency,
+        removeLatency,
+        writeLatency,
+        commitLatency,
+        rollbackCount,
+        rocksDbConfiguration.getLabel(),
+        segmentReadLatency,
+        segmentReadCount);
   }
 }
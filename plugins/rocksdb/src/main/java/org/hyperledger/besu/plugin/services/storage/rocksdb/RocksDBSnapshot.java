@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Sets;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
+
+/**
+ * A read-only view of a single column family of a RocksDB database, pinned to a RocksDB snapshot.
+ *
+ * <p>RocksDB keeps every version of a key that is visible to an open snapshot, including across
+ * compactions, so the snapshot should be released promptly once done with.
+ */
+public class RocksDBSnapshot implements SnappedKeyValueStorage {
+
+  private final RocksDB db;
+  private final ColumnFamilyHandle columnFamily;
+  private final RocksDBMetrics metrics;
+  private final BooleanSupplier dbClosed;
+  private final Snapshot snapshot;
+  private final ReadOptions readOptions;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  /**
+   * @param db the database to take the snapshot of
+   * @param columnFamily the column family read through the snapshot
+   * @param metrics the metrics of the database, to record the read latency against
+   * @param dbClosed whether the database has been closed, after which the snapshot is unusable
+   */
+  public RocksDBSnapshot(
+      final RocksDB db,
+      final ColumnFamilyHandle columnFamily,
+      final RocksDBMetrics metrics,
+      final BooleanSupplier dbClosed) {
+    this.db = db;
+    this.columnFamily = columnFamily;
+    this.metrics = metrics;
+    this.dbClosed = dbClosed;
+    this.snapshot = db.getSnapshot();
+    this.readOptions = new ReadOptions().setSnapshot(snapshot);
+  }
+
+  @Override
+  public boolean containsKey(final byte[] key) throws StorageException {
+    return get(key).isPresent();
+  }
+
+  @Override
+  public Optional<byte[]> get(final byte[] key) throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return Optional.ofNullable(db.get(columnFamily, readOptions, key));
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public List<Optional<byte[]>> getMultiple(final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return db
+          .multiGetAsList(readOptions, Collections.nCopies(keys.size(), columnFamily), keys)
+          .stream()
+          .map(Optional::ofNullable)
+          .collect(Collectors.toList());
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> iterateRange(final byte[] startKey, final byte[] endKey)
+      throws StorageException {
+    throwIfClosed();
+    return RocksDbRangeIterator.stream(db.newIterator(columnFamily, readOptions), startKey, endKey);
+  }
+
+  @Override
+  public Set<byte[]> getAllKeysThat(final Predicate<byte[]> returnCondition) {
+    throwIfClosed();
+    final Set<byte[]> returnedKeys = Sets.newIdentityHashSet();
+    try (final RocksIterator rocksIterator = db.newIterator(columnFamily, readOptions)) {
+      rocksIterator.seekToFirst();
+      while (rocksIterator.isValid()) {
+        final byte[] key = rocksIterator.key();
+        if (returnCondition.test(key)) {
+          returnedKeys.add(key);
+        }
+        rocksIterator.next();
+      }
+    }
+    return returnedKeys;
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("A storage snapshot is read-only");
+  }
+
+  @Override
+  public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) {
+    throw new UnsupportedOperationException("A storage snapshot is read-only");
+  }
+
+  @Override
+  public KeyValueStorageTransaction startTransaction() {
+    throw new UnsupportedOperationException("A storage snapshot is read-only");
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      // The snapshot is freed along with the database if that was closed first
+      if (!dbClosed.getAsBoolean()) {
+        db.releaseSnapshot(snapshot);
+      }
+      readOptions.close();
+    }
+  }
+
+  private void throwIfClosed() {
+    if (closed.get() || dbClosed.getAsBoolean()) {
+      throw new IllegalStateException("Storage snapshot has been closed");
+    }
+  }
+}
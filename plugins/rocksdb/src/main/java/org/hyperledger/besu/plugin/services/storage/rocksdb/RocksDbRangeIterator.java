@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+
+/** Iterates over the entries of a RocksDB iterator up to, but excluding, an end key. */
+public class RocksDbRangeIterator implements Iterator<Map.Entry<byte[], byte[]>>, AutoCloseable {
+
+  private final RocksIterator rocksIterator;
+  private final byte[] endKey;
+  private boolean closed = false;
+
+  private RocksDbRangeIterator(final RocksIterator rocksIterator, final byte[] endKey) {
+    this.rocksIterator = rocksIterator;
+    this.endKey = endKey;
+  }
+
+  /**
+   * Stream the entries of a key range.
+   *
+   * @param rocksIterator a new iterator, which is closed when the returned stream is closed
+   * @param startKey the first key of the range, inclusive
+   * @param endKey the last key of the range, exclusive
+   * @return the entries of the range in key order
+   */
+  public static Stream<Map.Entry<byte[], byte[]>> stream(
+      final RocksIterator rocksIterator, final byte[] startKey, final byte[] endKey) {
+    final RocksDbRangeIterator iterator = new RocksDbRangeIterator(rocksIterator, endKey);
+    rocksIterator.seek(startKey);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED),
+            false)
+        .onClose(iterator::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (closed) {
+      throw new IllegalStateException("Attempt to read from a closed range iterator");
+    }
+    if (!rocksIterator.isValid()) {
+      try {
+        // An invalid iterator is either exhausted or failed
+        rocksIterator.status();
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      }
+      return false;
+    }
+    return Arrays.compareUnsigned(rocksIterator.key(), endKey) < 0;
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Map.Entry<byte[], byte[]> entry = Map.entry(rocksIterator.key(), rocksIterator.value());
+    rocksIterator.next();
+    return entry;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      rocksIterator.close();
+    }
+  }
+}
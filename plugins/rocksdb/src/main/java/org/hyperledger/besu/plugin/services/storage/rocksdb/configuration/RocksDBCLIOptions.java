@@ -14,6 +14,9 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.google.common.base.MoreObjects;
 import picocli.CommandLine;
 
@@ -23,6 +26,14 @@ public class RocksDBCLIOptions {
   public static final long DEFAULT_CACHE_CAPACITY = 8388608;
   public static final int DEFAULT_MAX_BACKGROUND_COMPACTIONS = 4;
   public static final int DEFAULT_BACKGROUND_THREAD_COUNT = 4;
+  public static final Map<String, RocksDBColumnFamilyProfile> DEFAULT_SEGMENT_PROFILES =
+      Map.ofEntries(
+          Map.entry("BLOCKCHAIN", RocksDBColumnFamilyProfile.APPEND_ONLY),
+          Map.entry("WORLD_STATE", RocksDBColumnFamilyProfile.POINT_LOOKUP),
+          Map.entry("PRUNING_STATE", RocksDBColumnFamilyProfile.SCRATCH),
+          Map.entry("DAML_BLOBS", RocksDBColumnFamilyProfile.POINT_LOOKUP),
+          Map.entry("DAML_LOG_INDEX", RocksDBColumnFamilyProfile.APPEND_ONLY),
+          Map.entry("WORLD_STATE_SNAPSHOT", RocksDBColumnFamilyProfile.POINT_LOOKUP));
 
   private static final String MAX_OPEN_FILES_FLAG = "--Xplugin-rocksdb-max-open-files";
   private static final String CACHE_CAPACITY_FLAG = "--Xplugin-rocksdb-cache-capacity";
@@ -30,6 +41,7 @@ public class RocksDBCLIOptions {
       "--Xplugin-rocksdb-max-background-compactions";
   private static final String BACKGROUND_THREAD_COUNT_FLAG =
       "--Xplugin-rocksdb-background-thread-count";
+  private static final String SEGMENT_PROFILE_FLAG = "--Xplugin-rocksdb-segment-profile";
 
   @CommandLine.Option(
       names = {MAX_OPEN_FILES_FLAG},
@@ -44,7 +56,9 @@ public class RocksDBCLIOptions {
       hidden = true,
       defaultValue = "8388608",
       paramLabel = "<LONG>",
-      description = "Cache capacity of RocksDB (default: ${DEFAULT-VALUE})")
+      description =
+          "Block cache capacity of RocksDB, split between the segment profiles in use by their"
+              + " cache share (default: ${DEFAULT-VALUE})")
   long cacheCapacity;
 
   @CommandLine.Option(
@@ -63,6 +77,17 @@ public class RocksDBCLIOptions {
       description = "Number of RocksDB background threads (default: ${DEFAULT-VALUE})")
   int backgroundThreadCount;
 
+  @CommandLine.Option(
+      names = {SEGMENT_PROFILE_FLAG},
+      hidden = true,
+      split = ",",
+      paramLabel = "<SEGMENT>=<PROFILE>",
+      description =
+          "Tuning profile of the RocksDB column family holding a storage segment, one of DEFAULT,"
+              + " POINT_LOOKUP, POINT_LOOKUP_PINNED, APPEND_ONLY or SCRATCH (default: chosen for"
+              + " each segment)")
+  Map<String, RocksDBColumnFamilyProfile> segmentProfiles = new HashMap<>();
+
   private RocksDBCLIOptions() {}
 
   public static RocksDBCLIOptions create() {
@@ -75,12 +100,16 @@ public class RocksDBCLIOptions {
     options.cacheCapacity = config.getCacheCapacity();
     options.maxBackgroundCompactions = config.getMaxBackgroundCompactions();
     options.backgroundThreadCount = config.getBackgroundThreadCount();
+    options.segmentProfiles = new HashMap<>(config.getSegmentProfiles());
     return options;
   }
 
   public RocksDBFactoryConfiguration toDomainObject() {
+    final Map<String, RocksDBColumnFamilyProfile> profiles =
+        new HashMap<>(DEFAULT_SEGMENT_PROFILES);
+    profiles.putAll(segmentProfiles);
     return new RocksDBFactoryConfiguration(
-        maxOpenFiles, maxBackgroundCompactions, backgroundThreadCount, cacheCapacity);
+        maxOpenFiles, maxBackgroundCompactions, backgroundThreadCount, cacheCapacity, profiles);
   }
 
   @Override
@@ -90,6 +119,7 @@ public class RocksDBCLIOptions {
         .add("cacheCapacity", cacheCapacity)
         .add("maxBackgroundCompactions", maxBackgroundCompactions)
         .add("backgroundThreadCount", backgroundThreadCount)
+        .add("segmentProfiles", segmentProfiles)
         .toString();
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Blockchain Technology Partners.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.rocksdb.CompressionType;
+
+/** Tuning of the RocksDB column family holding a storage segment, by the way it is accessed. */
+public enum RocksDBColumnFamilyProfile {
+  /** The options RocksDB applies when none are given. */
+  DEFAULT(1, 0, CompressionType.SNAPPY_COMPRESSION, 4 * 1024, false),
+  /** Point lookups of random keys, whose values are written once and never updated. */
+  POINT_LOOKUP(4, 10, CompressionType.LZ4_COMPRESSION, 4 * 1024, false),
+  /**
+   * As {@link #POINT_LOOKUP}, with the index and filter blocks held in the block cache, so that
+   * their memory counts against the cache capacity.
+   */
+  POINT_LOOKUP_PINNED(4, 10, CompressionType.LZ4_COMPRESSION, 4 * 1024, true),
+  /** Data appended once and rarely read back after it is recent, such as blocks and receipts. */
+  APPEND_ONLY(1, 10, CompressionType.ZSTD_COMPRESSION, 16 * 1024, false),
+  /** Short lived data that is mostly checked for absence, such as the pruning marks. */
+  SCRATCH(1, 10, CompressionType.NO_COMPRESSION, 4 * 1024, false);
+
+  private final int cacheShare;
+  private final int bloomFilterBitsPerKey;
+  private final CompressionType compressionType;
+  private final long blockSize;
+  private final boolean pinIndexAndFilterBlocks;
+
+  RocksDBColumnFamilyProfile(
+      final int cacheShare,
+      final int bloomFilterBitsPerKey,
+      final CompressionType compressionType,
+      final long blockSize,
+      final boolean pinIndexAndFilterBlocks) {
+    this.cacheShare = cacheShare;
+    this.bloomFilterBitsPerKey = bloomFilterBitsPerKey;
+    this.compressionType = compressionType;
+    this.blockSize = blockSize;
+    this.pinIndexAndFilterBlocks = pinIndexAndFilterBlocks;
+  }
+
+  /**
+   * Split a block cache capacity between profiles by their share. The column families of a profile
+   * share its part of the capacity.
+   *
+   * @param cacheCapacity the block cache capacity of the database, in bytes
+   * @param profiles the profiles of the column families, in any order and with repetitions
+   * @return the block cache capacity of each profile, in bytes
+   */
+  public static Map<RocksDBColumnFamilyProfile, Long> splitCacheCapacity(
+      final long cacheCapacity, final Collection<RocksDBColumnFamilyProfile> profiles) {
+    final Set<RocksDBColumnFamilyProfile> distinctProfiles = EnumSet.copyOf(profiles);
+    final long totalCacheShares =
+        distinctProfiles.stream().mapToLong(RocksDBColumnFamilyProfile::getCacheShare).sum();
+    final Map<RocksDBColumnFamilyProfile, Long> capacities =
+        new EnumMap<>(RocksDBColumnFamilyProfile.class);
+    for (final RocksDBColumnFamilyProfile profile : distinctProfiles) {
+      capacities.put(profile, Math.max(1, cacheCapacity * profile.cacheShare / totalCacheShares));
+    }
+    return capacities;
+  }
+
+  /** @return the weight of the profile in the split of the block cache capacity */
+  public int getCacheShare() {
+    return cacheShare;
+  }
+
+  /** @return the bits per key of the bloom filter of each table, or 0 for no bloom filter */
+  public int getBloomFilterBitsPerKey() {
+    return bloomFilterBitsPerKey;
+  }
+
+  public CompressionType getCompressionType() {
+    return compressionType;
+  }
+
+  /** @return the approximate size of the data blocks, in bytes */
+  public long getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * @return whether the index and filter blocks are held in the block cache, with those of level 0
+   *     pinned there, rather than in memory outside of it
+   */
+  public boolean isPinIndexAndFilterBlocks() {
+    return pinIndexAndFilterBlocks;
+  }
+}
@@ -15,6 +15,7 @@
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
 import java.nio.file.Path;
+import java.util.Map;
 
 public class RocksDBConfiguration {
 
@@ -24,6 +25,7 @@ public class RocksDBConfiguration {
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final Map<String, RocksDBColumnFamilyProfile> segmentProfiles;
 
   public RocksDBConfiguration(
       final Path databaseDir,
@@ -31,12 +33,14 @@ public class RocksDBConfiguration {
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity,
+      final Map<String, RocksDBColumnFamilyProfile> segmentProfiles,
       final String label) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.databaseDir = databaseDir;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.segmentProfiles = segmentProfiles;
     this.label = label;
   }
 
@@ -60,6 +64,18 @@ public class RocksDBConfiguration {
     return cacheCapacity;
   }
 
+  public Map<String, RocksDBColumnFamilyProfile> getSegmentProfiles() {
+    return segmentProfiles;
+  }
+
+  /**
+   * @param segmentName the name of a storage segment
+   * @return the profile of the column family holding the segment
+   */
+  public RocksDBColumnFamilyProfile getSegmentProfile(final String segmentName) {
+    return segmentProfiles.getOrDefault(segmentName, RocksDBColumnFamilyProfile.DEFAULT);
+  }
+
   public String getLabel() {
     return label;
   }
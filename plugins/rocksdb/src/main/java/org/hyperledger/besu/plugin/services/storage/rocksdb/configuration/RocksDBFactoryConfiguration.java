@@ -14,22 +14,42 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_SEGMENT_PROFILES;
+
+import java.util.Map;
+
 public class RocksDBFactoryConfiguration {
 
   private final int maxOpenFiles;
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final Map<String, RocksDBColumnFamilyProfile> segmentProfiles;
 
   public RocksDBFactoryConfiguration(
       final int maxOpenFiles,
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity) {
+    this(
+        maxOpenFiles,
+        maxBackgroundCompactions,
+        backgroundThreadCount,
+        cacheCapacity,
+        DEFAULT_SEGMENT_PROFILES);
+  }
+
+  public RocksDBFactoryConfiguration(
+      final int maxOpenFiles,
+      final int maxBackgroundCompactions,
+      final int backgroundThreadCount,
+      final long cacheCapacity,
+      final Map<String, RocksDBColumnFamilyProfile> segmentProfiles) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.segmentProfiles = segmentProfiles;
   }
 
   public int getMaxOpenFiles() {
@@ -47,4 +67,8 @@ public class RocksDBFactoryConfiguration {
   public long getCacheCapacity() {
     return cacheCapacity;
   }
+
+  public Map<String, RocksDBColumnFamilyProfile> getSegmentProfiles() {
+    return segmentProfiles;
+  }
 }
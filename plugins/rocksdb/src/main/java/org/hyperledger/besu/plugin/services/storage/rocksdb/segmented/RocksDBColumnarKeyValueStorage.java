@@ -20,9 +20,13 @@ import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBSnapshot;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbRangeIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbUtil;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBColumnFamilyProfile;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfiguration;
 import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorage;
 import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorageTransactionTransitionValidatorDecorator;
@@ -30,6 +34,9 @@ import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorageTransaction
 import java.io.Closeable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -37,6 +44,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
@@ -44,6 +52,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -52,6 +61,7 @@ import org.rocksdb.Env;
 import org.rocksdb.LRUCache;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.RocksObject;
 import org.rocksdb.Statistics;
 import org.rocksdb.TransactionDB;
 import org.rocksdb.TransactionDBOptions;
@@ -73,6 +83,9 @@ public class RocksDBColumnarKeyValueStorage
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final Map<String, ColumnFamilyHandle> columnHandlesByName;
   private final RocksDBMetrics metrics;
+  private final Map<ColumnFamilyHandle, RocksDBMetrics.SegmentMetrics> segmentMetrics =
+      new IdentityHashMap<>();
+  private final List<RocksObject> columnResources = new ArrayList<>();
 
   public RocksDBColumnarKeyValueStorage(
       final RocksDBConfiguration configuration,
@@ -82,15 +95,36 @@ public class RocksDBColumnarKeyValueStorage
       throws StorageException {
 
     try {
-      final List<ColumnFamilyDescriptor> columnDescriptors =
+      // The configured capacity is split between the profiles in use, each holding one block
+      // cache shared by its column families, so the total never exceeds the configured capacity
+      final List<RocksDBColumnFamilyProfile> profiles =
           segments.stream()
-              .map(segment -> new ColumnFamilyDescriptor(segment.getId()))
-              .collect(Collectors.toList());
+              .map(segment -> configuration.getSegmentProfile(segment.getName()))
+              .collect(Collectors.toCollection(ArrayList::new));
+      profiles.add(RocksDBColumnFamilyProfile.DEFAULT);
+      final Map<RocksDBColumnFamilyProfile, LRUCache> caches =
+          new EnumMap<>(RocksDBColumnFamilyProfile.class);
+      RocksDBColumnFamilyProfile.splitCacheCapacity(configuration.getCacheCapacity(), profiles)
+          .forEach(
+              (profile, capacity) -> {
+                final LRUCache cache = new LRUCache(capacity);
+                columnResources.add(cache);
+                caches.put(profile, cache);
+              });
+
+      final List<ColumnFamilyDescriptor> columnDescriptors = new ArrayList<>(profiles.size());
+      for (int i = 0; i < segments.size(); i++) {
+        columnDescriptors.add(
+            new ColumnFamilyDescriptor(
+                segments.get(i).getId(),
+                createColumnFamilyOptions(profiles.get(i), caches.get(profiles.get(i)))));
+      }
       columnDescriptors.add(
           new ColumnFamilyDescriptor(
               DEFAULT_COLUMN.getBytes(StandardCharsets.UTF_8),
-              new ColumnFamilyOptions()
-                  .setTableFormatConfig(createBlockBasedTableConfig(configuration))));
+              createColumnFamilyOptions(
+                  RocksDBColumnFamilyProfile.DEFAULT,
+                  caches.get(RocksDBColumnFamilyProfile.DEFAULT))));
 
       final Statistics stats = new Statistics();
       options =
@@ -126,6 +160,7 @@ public class RocksDBColumnarKeyValueStorage
             requireNonNullElse(
                 segmentsById.get(Bytes.wrap(columnHandle.getName())), DEFAULT_COLUMN);
         builder.put(segmentName, columnHandle);
+        segmentMetrics.put(columnHandle, metrics.createSegmentMetrics(segmentName));
       }
       columnHandlesByName = builder.build();
 
@@ -134,9 +169,25 @@ public class RocksDBColumnarKeyValueStorage
     }
   }
 
-  private BlockBasedTableConfig createBlockBasedTableConfig(final RocksDBConfiguration config) {
-    final LRUCache cache = new LRUCache(config.getCacheCapacity());
-    return new BlockBasedTableConfig().setBlockCache(cache);
+  private ColumnFamilyOptions createColumnFamilyOptions(
+      final RocksDBColumnFamilyProfile profile, final LRUCache cache) {
+    final BlockBasedTableConfig tableConfig =
+        new BlockBasedTableConfig()
+            .setBlockCache(cache)
+            .setBlockSize(profile.getBlockSize())
+            .setCacheIndexAndFilterBlocks(profile.isPinIndexAndFilterBlocks())
+            .setPinL0FilterAndIndexBlocksInCache(profile.isPinIndexAndFilterBlocks());
+    if (profile.getBloomFilterBitsPerKey() > 0) {
+      final BloomFilter bloomFilter = new BloomFilter(profile.getBloomFilterBitsPerKey(), false);
+      tableConfig.setFilterPolicy(bloomFilter);
+      columnResources.add(bloomFilter);
+    }
+    final ColumnFamilyOptions columnFamilyOptions =
+        new ColumnFamilyOptions()
+            .setTableFormatConfig(tableConfig)
+            .setCompressionType(profile.getCompressionType());
+    columnResources.add(columnFamilyOptions);
+    return columnFamilyOptions;
   }
 
   @Override
@@ -149,13 +200,52 @@ public class RocksDBColumnarKeyValueStorage
       throws StorageException {
     throwIfClosed();
 
-    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
-      return Optional.ofNullable(db.get(segment, key));
+    final RocksDBMetrics.SegmentMetrics readMetrics = segmentMetrics.get(segment);
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer();
+        final OperationTimer.TimingContext ignoredSegment =
+            readMetrics.getReadLatency().startTimer()) {
+      final Optional<byte[]> value = Optional.ofNullable(db.get(segment, key));
+      readMetrics.recordRead(value.isPresent());
+      return value;
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getMultiple(
+      final ColumnFamilyHandle segment, final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+
+    final RocksDBMetrics.SegmentMetrics readMetrics = segmentMetrics.get(segment);
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer();
+        final OperationTimer.TimingContext ignoredSegment =
+            readMetrics.getReadLatency().startTimer()) {
+      final List<Optional<byte[]>> values =
+          db.multiGetAsList(Collections.nCopies(keys.size(), segment), keys).stream()
+              .map(Optional::ofNullable)
+              .collect(Collectors.toList());
+      values.forEach(value -> readMetrics.recordRead(value.isPresent()));
+      return values;
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> iterateRange(
+      final ColumnFamilyHandle segmentHandle, final byte[] startKey, final byte[] endKey) {
+    throwIfClosed();
+    return RocksDbRangeIterator.stream(db.newIterator(segmentHandle), startKey, endKey);
+  }
+
+  @Override
+  public SnappedKeyValueStorage takeSnapshot(final ColumnFamilyHandle segmentHandle)
+      throws StorageException {
+    throwIfClosed();
+    return new RocksDBSnapshot(db, segmentHandle, metrics, closed::get);
+  }
+
   @Override
   public Transaction<ColumnFamilyHandle> startTransaction() throws StorageException {
     throwIfClosed();
@@ -226,6 +316,7 @@ public class RocksDBColumnarKeyValueStorage
       options.close();
       columnHandlesByName.values().forEach(ColumnFamilyHandle::close);
       db.close();
+      columnResources.forEach(RocksObject::close);
     }
   }
 
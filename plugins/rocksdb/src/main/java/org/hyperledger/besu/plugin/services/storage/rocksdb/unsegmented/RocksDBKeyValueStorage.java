@@ -17,18 +17,25 @@ package org.hyperledger.besu.plugin.services.storage.rocksdb.unsegmented;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
-import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBSnapshot;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbRangeIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbUtil;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfiguration;
 import org.hyperledger.besu.services.kvstore.KeyValueStorageTransactionTransitionValidatorDecorator;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
@@ -43,7 +50,7 @@ import org.rocksdb.TransactionDB;
 import org.rocksdb.TransactionDBOptions;
 import org.rocksdb.WriteOptions;
 
-public class RocksDBKeyValueStorage implements KeyValueStorage {
+public class RocksDBKeyValueStorage implements SnappableKeyValueStorage {
 
   static {
     RocksDbUtil.loadNativeLibrary();
@@ -116,6 +123,27 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getMultiple(final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored =
+        rocksDBMetrics.getReadLatency().startTimer()) {
+      return db.multiGetAsList(keys).stream()
+          .map(Optional::ofNullable)
+          .collect(Collectors.toList());
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> iterateRange(final byte[] startKey, final byte[] endKey)
+      throws StorageException {
+    throwIfClosed();
+    return RocksDbRangeIterator.stream(db.newIterator(), startKey, endKey);
+  }
+
   @Override
   public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) throws StorageException {
     long removedNodeCounter = 0;
@@ -159,6 +187,12 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
         new RocksDBTransaction(db.beginTransaction(options), options, rocksDBMetrics));
   }
 
+  @Override
+  public SnappedKeyValueStorage takeSnapshot() throws StorageException {
+    throwIfClosed();
+    return new RocksDBSnapshot(db, db.getDefaultColumnFamily(), rocksDBMetrics, closed::get);
+  }
+
   @Override
   public void close() {
     if (closed.compareAndSet(false, true)) {
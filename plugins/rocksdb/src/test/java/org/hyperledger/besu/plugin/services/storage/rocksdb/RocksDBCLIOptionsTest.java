@@ -19,10 +19,16 @@ import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_CACHE_CAPACITY;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_BACKGROUND_COMPACTIONS;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_OPEN_FILES;
+import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_SEGMENT_PROFILES;
 
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBColumnFamilyProfile;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBFactoryConfiguration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 import picocli.CommandLine;
 
@@ -34,6 +40,7 @@ public class RocksDBCLIOptionsTest {
       "--Xplugin-rocksdb-max-background-compactions";
   private static final String BACKGROUND_THREAD_COUNT_FLAG =
       "--Xplugin-rocksdb-background-thread-count";
+  private static final String SEGMENT_PROFILE_FLAG = "--Xplugin-rocksdb-segment-profile";
 
   @Test
   public void defaultValues() {
@@ -48,6 +55,65 @@ public class RocksDBCLIOptionsTest {
     assertThat(configuration.getMaxBackgroundCompactions())
         .isEqualTo(DEFAULT_MAX_BACKGROUND_COMPACTIONS);
     assertThat(configuration.getMaxOpenFiles()).isEqualTo(DEFAULT_MAX_OPEN_FILES);
+    assertThat(configuration.getSegmentProfiles()).isEqualTo(DEFAULT_SEGMENT_PROFILES);
+  }
+
+  @Test
+  public void cacheCapacityIsSplitBetweenProfilesInUse() {
+    final RocksDBCLIOptions options = RocksDBCLIOptions.create();
+
+    new CommandLine(options).parse();
+
+    final RocksDBFactoryConfiguration configuration = options.toDomainObject();
+    final List<RocksDBColumnFamilyProfile> profiles =
+        new ArrayList<>(configuration.getSegmentProfiles().values());
+    profiles.add(RocksDBColumnFamilyProfile.DEFAULT);
+    final Map<RocksDBColumnFamilyProfile, Long> capacities =
+        RocksDBColumnFamilyProfile.splitCacheCapacity(configuration.getCacheCapacity(), profiles);
+    assertThat(capacities.keySet()).hasSameElementsAs(profiles);
+    assertThat(capacities.values().stream().mapToLong(Long::longValue).sum())
+        .isLessThanOrEqualTo(DEFAULT_CACHE_CAPACITY);
+    assertThat(capacities.get(RocksDBColumnFamilyProfile.POINT_LOOKUP))
+        .isEqualTo(4 * capacities.get(RocksDBColumnFamilyProfile.APPEND_ONLY));
+  }
+
+  @Test
+  public void indexAndFilterBlocksAreNotPinnedByDefault() {
+    final RocksDBCLIOptions options = RocksDBCLIOptions.create();
+
+    new CommandLine(options).parse();
+
+    assertThat(options.toDomainObject().getSegmentProfiles().values())
+        .noneMatch(RocksDBColumnFamilyProfile::isPinIndexAndFilterBlocks);
+    assertThat(RocksDBColumnFamilyProfile.DEFAULT.isPinIndexAndFilterBlocks()).isFalse();
+  }
+
+  @Test
+  public void pinnedSegmentProfile() {
+    final RocksDBCLIOptions options = RocksDBCLIOptions.create();
+
+    new CommandLine(options).parse(SEGMENT_PROFILE_FLAG, "WORLD_STATE=POINT_LOOKUP_PINNED");
+
+    final RocksDBColumnFamilyProfile worldState =
+        options.toDomainObject().getSegmentProfiles().get("WORLD_STATE");
+    assertThat(worldState.isPinIndexAndFilterBlocks()).isTrue();
+    assertThat(worldState.getCacheShare())
+        .isEqualTo(RocksDBColumnFamilyProfile.POINT_LOOKUP.getCacheShare());
+  }
+
+  @Test
+  public void customSegmentProfiles() {
+    final RocksDBCLIOptions options = RocksDBCLIOptions.create();
+
+    new CommandLine(options)
+        .parse(SEGMENT_PROFILE_FLAG, "WORLD_STATE=DEFAULT,PRIVATE_STATE=POINT_LOOKUP");
+
+    final RocksDBFactoryConfiguration configuration = options.toDomainObject();
+    assertThat(configuration.getSegmentProfiles())
+        .containsEntry("WORLD_STATE", RocksDBColumnFamilyProfile.DEFAULT)
+        .containsEntry("PRIVATE_STATE", RocksDBColumnFamilyProfile.POINT_LOOKUP)
+        .containsEntry("BLOCKCHAIN", DEFAULT_SEGMENT_PROFILES.get("BLOCKCHAIN"));
+    assertThat(configuration.getCacheCapacity()).isEqualTo(DEFAULT_CACHE_CAPACITY);
   }
 
   @Test
@@ -15,11 +15,15 @@
 package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
-import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -28,10 +32,11 @@ import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
 
-public class InMemoryKeyValueStorage implements KeyValueStorage {
+public class InMemoryKeyValueStorage implements SnappableKeyValueStorage {
 
   private final Map<Bytes, byte[]> hashValueStore;
   private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
@@ -77,6 +82,44 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getMultiple(final List<byte[]> keys) throws StorageException {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+      for (final byte[] key : keys) {
+        values.add(Optional.ofNullable(hashValueStore.get(Bytes.wrap(key))));
+      }
+      return values;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> iterateRange(final byte[] startKey, final byte[] endKey)
+      throws StorageException {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      // The entries are copied, so the stream is unaffected by later updates
+      final List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
+      hashValueStore.forEach(
+          (key, value) -> {
+            final byte[] keyBytes = key.toArrayUnsafe();
+            if (Arrays.compareUnsigned(keyBytes, startKey) >= 0
+                && Arrays.compareUnsigned(keyBytes, endKey) < 0) {
+              entries.add(Map.entry(keyBytes, value));
+            }
+          });
+      entries.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+      return entries.stream();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) throws StorageException {
     final Lock lock = rwLock.writeLock();
@@ -98,6 +141,17 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
         .collect(Collectors.toSet());
   }
 
+  @Override
+  public SnappedKeyValueStorage takeSnapshot() {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      return new InMemorySnapshot(new HashMap<>(hashValueStore));
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public void close() {}
 
@@ -147,4 +201,27 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
       removedKeys = null;
     }
   }
+
+  private static class InMemorySnapshot extends InMemoryKeyValueStorage
+      implements SnappedKeyValueStorage {
+
+    private InMemorySnapshot(final Map<Bytes, byte[]> hashValueStore) {
+      super(hashValueStore);
+    }
+
+    @Override
+    public void clear() {
+      throw new UnsupportedOperationException("A storage snapshot is read-only");
+    }
+
+    @Override
+    public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) {
+      throw new UnsupportedOperationException("A storage snapshot is read-only");
+    }
+
+    @Override
+    public KeyValueStorageTransaction startTransaction() {
+      throw new UnsupportedOperationException("A storage snapshot is read-only");
+    }
+  }
 }
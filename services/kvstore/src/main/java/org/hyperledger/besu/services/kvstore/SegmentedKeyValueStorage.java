@@ -16,11 +16,16 @@ package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
 import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service provided by besu to facilitate persistent data storage.
@@ -42,6 +47,31 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
     return get(segment, key).isPresent();
   }
 
+  /**
+   * @param segment the segment
+   * @param keys Indexes into persistent data repository.
+   * @return The values persisted at the key indexes, in the same order.
+   */
+  default List<Optional<byte[]>> getMultiple(final S segment, final List<byte[]> keys)
+      throws StorageException {
+    return keys.stream().map(key -> get(segment, key)).collect(Collectors.toList());
+  }
+
+  /**
+   * @param segmentHandle the segment
+   * @param startKey the first key of the range, inclusive
+   * @param endKey the last key of the range, exclusive
+   * @return The entries in the range in key order, which must be closed once consumed.
+   */
+  Stream<Map.Entry<byte[], byte[]>> iterateRange(S segmentHandle, byte[] startKey, byte[] endKey)
+      throws StorageException;
+
+  /**
+   * @param segmentHandle the segment
+   * @return A read-only view of the segment as it is now, which must be closed once done with.
+   */
+  SnappedKeyValueStorage takeSnapshot(S segmentHandle) throws StorageException;
+
   /**
    * Begins a transaction. Returns a transaction object that can be updated and committed.
    *
@@ -15,16 +15,20 @@
 package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
-import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
+public class SegmentedKeyValueStorageAdapter<S> implements SnappableKeyValueStorage {
 
   private final S segmentHandle;
   private final SegmentedKeyValueStorage<S> storage;
@@ -50,6 +54,17 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.get(segmentHandle, key);
   }
 
+  @Override
+  public List<Optional<byte[]>> getMultiple(final List<byte[]> keys) throws StorageException {
+    return storage.getMultiple(segmentHandle, keys);
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> iterateRange(final byte[] startKey, final byte[] endKey)
+      throws StorageException {
+    return storage.iterateRange(segmentHandle, startKey, endKey);
+  }
+
   @Override
   public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) throws StorageException {
     return storage.removeAllEntriesUnless(segmentHandle, retainCondition);
@@ -60,6 +75,11 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.getAllKeysThat(segmentHandle, returnCondition);
   }
 
+  @Override
+  public SnappedKeyValueStorage takeSnapshot() throws StorageException {
+    return storage.takeSnapshot(segmentHandle);
+  }
+
   @Override
   public void close() throws IOException {
     storage.close();
@@ -15,17 +15,23 @@
 package org.hyperledger.besu.kvstore;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assume.assumeTrue;
 
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.SnappableKeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.SnappedKeyValueStorage;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Ignore;
@@ -102,6 +108,85 @@ public abstract class AbstractKeyValueStorageTest {
             bytesFromHexString("10"), bytesFromHexString("11"), bytesFromHexString("12"));
   }
 
+  @Test
+  public void getMultiple() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("0DEF"));
+    tx.commit();
+    final List<Optional<byte[]>> values =
+        store.getMultiple(
+            List.of(bytesFromHexString("10"), bytesFromHexString("11"), bytesFromHexString("0F")));
+    assertThat(values.stream().map(value -> value.map(Bytes::wrap)))
+        .containsExactly(
+            Optional.of(Bytes.fromHexString("0DEF")),
+            Optional.empty(),
+            Optional.of(Bytes.fromHexString("0ABC")));
+  }
+
+  @Test
+  public void iterateRange() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("01"));
+    tx.put(bytesFromHexString("11"), bytesFromHexString("02"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("03"));
+    tx.put(bytesFromHexString("1001"), bytesFromHexString("04"));
+    tx.put(bytesFromHexString("12"), bytesFromHexString("05"));
+    tx.put(bytesFromHexString("FF"), bytesFromHexString("06"));
+    tx.commit();
+
+    try (final Stream<Map.Entry<byte[], byte[]>> range =
+        store.iterateRange(bytesFromHexString("10"), bytesFromHexString("12"))) {
+      assertThat(range.map(entry -> Bytes.wrap(entry.getKey())))
+          .containsExactly(
+              Bytes.fromHexString("10"), Bytes.fromHexString("1001"), Bytes.fromHexString("11"));
+    }
+    try (final Stream<Map.Entry<byte[], byte[]>> range =
+        store.iterateRange(bytesFromHexString("12"), bytesFromHexString("FFFF"))) {
+      assertThat(range.map(entry -> Bytes.wrap(entry.getValue())))
+          .containsExactly(Bytes.fromHexString("05"), Bytes.fromHexString("06"));
+    }
+    try (final Stream<Map.Entry<byte[], byte[]>> range =
+        store.iterateRange(bytesFromHexString("13"), bytesFromHexString("FF"))) {
+      assertThat(range).isEmpty();
+    }
+  }
+
+  @Test
+  public void snapshotIsUnaffectedByLaterCommits() throws Exception {
+    final KeyValueStorage store = createStore();
+    assumeTrue(store instanceof SnappableKeyValueStorage);
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("01"), bytesFromHexString("0A"));
+    tx.put(bytesFromHexString("02"), bytesFromHexString("0B"));
+    tx.commit();
+
+    try (final SnappedKeyValueStorage snapshot =
+        ((SnappableKeyValueStorage) store).takeSnapshot()) {
+      final KeyValueStorageTransaction laterTx = store.startTransaction();
+      laterTx.put(bytesFromHexString("01"), bytesFromHexString("0C"));
+      laterTx.remove(bytesFromHexString("02"));
+      laterTx.put(bytesFromHexString("03"), bytesFromHexString("0D"));
+      laterTx.commit();
+
+      assertThat(snapshot.get(bytesFromHexString("01")).map(Bytes::wrap))
+          .contains(Bytes.fromHexString("0A"));
+      assertThat(snapshot.containsKey(bytesFromHexString("02"))).isTrue();
+      assertThat(snapshot.containsKey(bytesFromHexString("03"))).isFalse();
+      try (final Stream<Map.Entry<byte[], byte[]>> range =
+          snapshot.iterateRange(bytesFromHexString("00"), bytesFromHexString("FF"))) {
+        assertThat(range.map(entry -> Bytes.wrap(entry.getKey())))
+            .containsExactly(Bytes.fromHexString("01"), Bytes.fromHexString("02"));
+      }
+      assertThatThrownBy(snapshot::startTransaction)
+          .isInstanceOf(UnsupportedOperationException.class);
+    }
+    assertThat(store.get(bytesFromHexString("01")).map(Bytes::wrap))
+        .contains(Bytes.fromHexString("0C"));
+  }
+
   @Test
   public void containsKey() throws Exception {
     final KeyValueStorage store = createStore();